@@ -19,6 +19,7 @@
 package boofcv.app;
 
 import boofcv.alg.filter.misc.AverageDownSampleOps;
+import boofcv.app.batch.BatchImagePipeline;
 import boofcv.io.image.ConvertBufferedImage;
 import boofcv.io.image.UtilImageIO;
 import boofcv.misc.BoofMiscOps;
@@ -30,6 +31,7 @@ import boofcv.struct.image.Planar;
 import java.awt.image.BufferedImage;
 import java.awt.image.WritableRaster;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -48,6 +50,8 @@ public class BatchDownSizeImage {
 	public static int width=0,height=0,side=0;
 	// should it set the size using "side"
 	public static boolean useSide = false;
+	// number of threads used to process images.  if <= 0 then the number of processors
+	public static int numThreads = 0;
 
 	public static void printHelpAndExit(String[] args) {
 		System.out.println("=== Usage");
@@ -60,6 +64,7 @@ public class BatchDownSizeImage {
 		System.out.println();
 		System.out.println("=== Flags");
 		System.out.println("-rename    Renames the output files to image%05d.png");
+		System.out.println("-threads=N Number of threads used to process images.  Default is the number of processors");
 		System.out.println();
 		System.out.println("=== Arguments");
 		System.out.println("First argument is a Java regex for input files.");
@@ -80,6 +85,8 @@ public class BatchDownSizeImage {
 			if( s.charAt(0) == '-') {
 				if( s.substring(1,s.length()).compareToIgnoreCase("rename") == 0 ) {
 					rename = true;
+				} else if( s.toLowerCase().startsWith("-threads=") ) {
+					numThreads = Integer.parseInt(s.substring(9));
 				} else {
 					printHelpAndExit(args);
 				}
@@ -125,13 +132,39 @@ public class BatchDownSizeImage {
 
 		parseArguments(args);
 
+		List<File> outputs = new ArrayList<>();
+		for (int index = 0; index < images.size(); index++) {
+			String nout;
+			if( rename ) {
+				nout = String.format("image%05d.png",index);
+			} else {
+				nout = images.get(index).getName();
+				nout = nout.substring(0, nout.length() - 3) + "png";
+			}
+			outputs.add(new File(outputDir,nout));
+		}
+
+		BatchImagePipeline pipeline = new BatchImagePipeline(new BatchImagePipeline.OperationFactory() {
+			@Override
+			public BatchImagePipeline.Operation createOperation() {
+				return new DownSizeOperation();
+			}
+		}, numThreads);
+		pipeline.setVerbose(true);
+		pipeline.process(images, outputs);
+
+		System.out.printf("Done.  %.1f images/s\n", pipeline.getImagesPerSecond());
+	}
+
+	/**
+	 * Down sizes a single image.  Each thread has its own instance.
+	 */
+	private static class DownSizeOperation implements BatchImagePipeline.Operation {
 		ImageBase input = new GrayU8(1,1);
 		ImageBase small = null;
 
-		int index = 0;
-		for ( File f : images) {
-			BufferedImage orig = UtilImageIO.loadImage(f.getPath());
-
+		@Override
+		public BufferedImage process(BufferedImage orig) {
 			WritableRaster info = orig.getRaster();
 
 			boolean missMatch = false;
@@ -157,6 +190,8 @@ public class BatchDownSizeImage {
 				}
 
 				// Now declare storage for the small image
+				int width = BatchDownSizeImage.width;
+				int height = BatchDownSizeImage.height;
 				int smallHeight,smallWidth;
 				if( useSide ) {
 					if( input.getWidth() > input.getHeight() ) {
@@ -181,24 +216,11 @@ public class BatchDownSizeImage {
 				small = input.createNew(smallWidth,smallHeight);
 			}
 
-			System.out.printf(" %4d out of %4d   %s\n",index+1,images.size(),f.getName());
-
 			ConvertBufferedImage.convertFrom(orig, input, true);
 			AverageDownSampleOps.down(input,small);
 
-			String nout;
-			if( rename ) {
-				nout = String.format("image%05d.png",index);
-			} else {
-				nout = f.getName();
-				nout = nout.substring(0, nout.length() - 3) + "png";
-			}
-
-			File fout = new File(outputDir,nout);
-			UtilImageIO.saveImage(small, fout.getPath());
-
-			index++;
+			// a new image is returned since it's saved by another thread
+			return ConvertBufferedImage.convertTo(small, null, true);
 		}
-		System.out.println("Done");
 	}
 }
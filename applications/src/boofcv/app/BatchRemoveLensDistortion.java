@@ -21,6 +21,7 @@ package boofcv.app;
 import boofcv.alg.distort.AdjustmentType;
 import boofcv.alg.distort.ImageDistort;
 import boofcv.alg.distort.LensDistortionOps;
+import boofcv.app.batch.BatchImagePipeline;
 import boofcv.core.image.border.BorderType;
 import boofcv.io.UtilIO;
 import boofcv.io.image.ConvertBufferedImage;
@@ -33,6 +34,7 @@ import boofcv.struct.image.Planar;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -54,6 +56,7 @@ public class BatchRemoveLensDistortion {
 		System.out.println("-rename  Rename files on output to image%0d.png");
 		System.out.println("-EXPAND  Output image will be expanded until there are no dark regions");
 		System.out.println("-FULL_VIEW  Output image will contain the entire undistorted image");
+		System.out.println("-threads=N  Number of threads used to process images.  Default is the number of processors");
 		System.out.println();
 		System.out.println("Default is FULL_VIEW and it doesn't rename the images");
 	}
@@ -62,6 +65,7 @@ public class BatchRemoveLensDistortion {
 		String regex,pathIntrinsic,outputDir;
 		AdjustmentType adjustmentType = AdjustmentType.FULL_VIEW;
 		boolean rename = false;
+		int numThreads = 0;
 
 		if( args.length >= 3 ) {
 			int numFlags = args.length-3;
@@ -72,6 +76,8 @@ public class BatchRemoveLensDistortion {
 					adjustmentType = AdjustmentType.EXPAND;
 				} else if( args[i].compareToIgnoreCase("-FULL_VIEW") == 0 ) {
 					adjustmentType = AdjustmentType.FULL_VIEW;
+				} else if( args[i].toLowerCase().startsWith("-threads=") ) {
+					numThreads = Integer.parseInt(args[i].substring(9));
 				} else {
 					System.err.println("Unknown flag "+args[i]);
 				}
@@ -101,7 +107,7 @@ public class BatchRemoveLensDistortion {
 			}
 		}
 
-		CameraPinholeRadial param = UtilIO.loadXML(pathIntrinsic);
+		final CameraPinholeRadial param = UtilIO.loadXML(pathIntrinsic);
 		CameraPinholeRadial paramAdj = new CameraPinholeRadial();
 
 		List<File> files = Arrays.asList(BoofMiscOps.findMatches(regex));
@@ -109,40 +115,53 @@ public class BatchRemoveLensDistortion {
 
 		System.out.println("Found a total of "+files.size()+" matching files");
 
-		Planar<GrayF32> distoredImg = new Planar<>(GrayF32.class,param.width,param.height,3);
-		Planar<GrayF32> undistoredImg = new Planar<>(GrayF32.class,param.width,param.height,3);
+		final ImageType<Planar<GrayF32>> imageType = ImageType.pl(3,GrayF32.class);
 
-		ImageDistort distort = LensDistortionOps.imageRemoveDistortion(adjustmentType, BorderType.ZERO, param, paramAdj,
-				(ImageType) distoredImg.getImageType());
+		LensDistortionOps.imageRemoveDistortion(adjustmentType, BorderType.ZERO, param, paramAdj, (ImageType)imageType);
 		UtilIO.saveXML(paramAdj,new File(outputDir,"intrinsicUndistorted.xml").getAbsolutePath());
 
-		BufferedImage out = new BufferedImage(param.width,param.height,BufferedImage.TYPE_INT_RGB);
-
+		List<File> outputs = new ArrayList<>();
 		for( int i = 0; i < files.size(); i++ ) {
-			File file = files.get(i);
-			System.out.println("processing " + file.getName());
-			BufferedImage orig = UtilImageIO.loadImage(file.getAbsolutePath());
-			if( orig == null ) {
-				throw new RuntimeException("Can't load file");
-			}
-
-			if( orig.getWidth() != param.width || orig.getHeight() != param.height ) {
-				System.err.println("intrinsic parameters and image size do not match!");
-				System.exit(-1);
-			}
-
-			ConvertBufferedImage.convertFromMulti(orig, distoredImg, true, GrayF32.class);
-			distort.apply(distoredImg,undistoredImg);
-			ConvertBufferedImage.convertTo(undistoredImg,out,true);
-
 			String nameOut;
 			if( rename ) {
 				nameOut = String.format("image%05d.png",i);
 			} else {
-				nameOut = file.getName().split("\\.")[0]+"_undistorted.png";
+				nameOut = files.get(i).getName().split("\\.")[0]+"_undistorted.png";
 			}
-
-			UtilImageIO.saveImage(out,new File(outputDir,nameOut).getAbsolutePath());
+			outputs.add(new File(outputDir,nameOut));
 		}
+
+		// each thread has its own images and distortion
+		final AdjustmentType _adjustmentType = adjustmentType;
+		BatchImagePipeline pipeline = new BatchImagePipeline(new BatchImagePipeline.OperationFactory() {
+			@Override
+			public BatchImagePipeline.Operation createOperation() {
+				final Planar<GrayF32> distoredImg = imageType.createImage(param.width,param.height);
+				final Planar<GrayF32> undistoredImg = imageType.createImage(param.width,param.height);
+
+				final ImageDistort distort = LensDistortionOps.imageRemoveDistortion(_adjustmentType, BorderType.ZERO,
+						param, new CameraPinholeRadial(), (ImageType)imageType);
+
+				return new BatchImagePipeline.Operation() {
+					@Override
+					public BufferedImage process(BufferedImage orig) {
+						if( orig.getWidth() != param.width || orig.getHeight() != param.height ) {
+							throw new IllegalArgumentException("intrinsic parameters and image size do not match!");
+						}
+
+						ConvertBufferedImage.convertFromMulti(orig, distoredImg, true, GrayF32.class);
+						distort.apply(distoredImg,undistoredImg);
+
+						BufferedImage out = new BufferedImage(param.width,param.height,BufferedImage.TYPE_INT_RGB);
+						ConvertBufferedImage.convertTo(undistoredImg,out,true);
+						return out;
+					}
+				};
+			}
+		}, numThreads);
+		pipeline.setVerbose(true);
+		pipeline.process(files, outputs);
+
+		System.out.printf("Done.  %.1f images/s\n", pipeline.getImagesPerSecond());
 	}
 }
@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.app.batch;
+
+import boofcv.io.image.UtilImageIO;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * <p>
+ * Concurrent pipeline for processing a large number of image files.  Images are loaded by a reader thread, processed
+ * by a pool of worker threads, and then saved by writer threads.  Queues between the stages are bounded, so memory
+ * doesn't grow without limit when one stage is slower than the others.  The order images are saved in is not
+ * specified.
+ * </p>
+ *
+ * <p>
+ * Each worker thread has its own {@link Operation}, created by an {@link OperationFactory}, which allows it to keep
+ * its own workspace, e.g. an ImageDistort or interpolation, without any synchronization.  If any stage throws
+ * an exception all the threads are stopped and the exception is thrown by {@link #process}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BatchImagePipeline {
+
+	// creates the operation used by each worker
+	private OperationFactory factory;
+
+	// number of threads which process images
+	private int numWorkers;
+	// number of threads which save images
+	private int numWriters = 1;
+	// maximum number of images waiting in a queue between stages
+	private int queueSize;
+
+	private Listener listener;
+	private boolean verbose = false;
+
+	// used to mark the end of the input
+	private static final Job FINISHED = new Job(-1,null);
+
+	// threads used by the current call to process
+	private final List<Thread> threads = new ArrayList<>();
+	// first exception thrown by a thread
+	private Throwable failure;
+
+	// progress
+	private int totalFinished;
+	private long startTime;
+	private double imagesPerSecond;
+
+	/**
+	 * Configures the pipeline.
+	 *
+	 * @param factory Creates the operation used by each worker thread
+	 * @param numWorkers Number of threads processing images.  If &le; 0 then the number of available processors
+	 *                   is used.
+	 */
+	public BatchImagePipeline(OperationFactory factory, int numWorkers) {
+		this.factory = factory;
+		if( numWorkers <= 0 )
+			numWorkers = Runtime.getRuntime().availableProcessors();
+		this.numWorkers = numWorkers;
+		this.queueSize = 2*numWorkers;
+	}
+
+	/**
+	 * Processes all the input images and saves the results.  Returns after every image has been saved.
+	 *
+	 * @param inputs Images which are to be processed
+	 * @param outputs Where each processed image is saved to.  Must be the same size as inputs.
+	 */
+	public void process( final List<File> inputs , final List<File> outputs ) {
+		if( inputs.size() != outputs.size() )
+			throw new IllegalArgumentException("Number of inputs and outputs must be the same");
+
+		final BlockingQueue<Job> loaded = new ArrayBlockingQueue<>(queueSize);
+		final BlockingQueue<Job> processed = new ArrayBlockingQueue<>(queueSize);
+
+		synchronized (this) {
+			threads.clear();
+			failure = null;
+			totalFinished = 0;
+			imagesPerSecond = 0;
+			startTime = System.currentTimeMillis();
+		}
+
+		threads.add(new Thread("BatchReader") {
+			@Override
+			public void run() {
+				try {
+					for (int i = 0; i < inputs.size(); i++) {
+						File file = inputs.get(i);
+						BufferedImage image = UtilImageIO.loadImage(file.getPath());
+						if( image == null )
+							throw new RuntimeException("Can't load file "+file.getPath());
+						loaded.put(new Job(i, image));
+					}
+					for (int i = 0; i < numWorkers; i++) {
+						loaded.put(FINISHED);
+					}
+				} catch( InterruptedException ignore ) {
+				} catch( Throwable e ) {
+					fail(e);
+				}
+			}
+		});
+
+		final int[] activeWorkers = new int[]{numWorkers};
+		for (int i = 0; i < numWorkers; i++) {
+			threads.add(new Thread("BatchWorker"+i) {
+				@Override
+				public void run() {
+					try {
+						Operation operation = factory.createOperation();
+						while( true ) {
+							Job job = loaded.take();
+							if( job == FINISHED )
+								break;
+							job.image = operation.process(job.image);
+							processed.put(job);
+						}
+						// the last worker to finish tells the writers to stop
+						synchronized (activeWorkers) {
+							if( --activeWorkers[0] == 0 ) {
+								for (int j = 0; j < numWriters; j++) {
+									processed.put(FINISHED);
+								}
+							}
+						}
+					} catch( InterruptedException ignore ) {
+					} catch( Throwable e ) {
+						fail(e);
+					}
+				}
+			});
+		}
+
+		for (int i = 0; i < numWriters; i++) {
+			threads.add(new Thread("BatchWriter"+i) {
+				@Override
+				public void run() {
+					try {
+						while( true ) {
+							Job job = processed.take();
+							if( job == FINISHED )
+								break;
+							File output = outputs.get(job.index);
+							if( job.image != null )
+								UtilImageIO.saveImage(job.image, output.getPath());
+							finished(inputs.get(job.index), inputs.size());
+						}
+					} catch( InterruptedException ignore ) {
+					} catch( Throwable e ) {
+						fail(e);
+					}
+				}
+			});
+		}
+
+		// fail() can't interrupt threads which haven't started yet, so it waits until they all have
+		synchronized (this) {
+			for( Thread t : threads ) {
+				t.start();
+			}
+		}
+
+		try {
+			for( Thread t : threads ) {
+				t.join();
+			}
+		} catch( InterruptedException e ) {
+			stopThreads();
+			throw new RuntimeException(e);
+		}
+
+		if( failure != null ) {
+			if( failure instanceof RuntimeException )
+				throw (RuntimeException)failure;
+			else if( failure instanceof Error )
+				throw (Error)failure;
+			throw new RuntimeException(failure);
+		}
+	}
+
+	/**
+	 * Called by a thread when an exception is thrown.  Saves the first exception and stops everything.
+	 */
+	private synchronized void fail( Throwable e ) {
+		if( failure == null )
+			failure = e;
+		stopThreads();
+	}
+
+	private synchronized void stopThreads() {
+		for( Thread t : threads ) {
+			t.interrupt();
+		}
+	}
+
+	/**
+	 * Updates progress after an image has been saved
+	 */
+	private synchronized void finished( File input , int total ) {
+		totalFinished++;
+		long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+		imagesPerSecond = totalFinished*1000.0/elapsed;
+
+		if( verbose ) {
+			System.out.printf(" %5d out of %5d  %6.1f images/s  %s\n",
+					totalFinished, total, imagesPerSecond, input.getName());
+		}
+		if( listener != null ) {
+			listener.batchUpdate(totalFinished, total, imagesPerSecond);
+		}
+	}
+
+	/**
+	 * Number of images which have been saved so far, or by the last call to process
+	 */
+	public synchronized int getTotalFinished() {
+		return totalFinished;
+	}
+
+	/**
+	 * Average number of images saved per second so far, or by the last call to process
+	 */
+	public synchronized double getImagesPerSecond() {
+		return imagesPerSecond;
+	}
+
+	public int getNumWorkers() {
+		return numWorkers;
+	}
+
+	public int getNumWriters() {
+		return numWriters;
+	}
+
+	/**
+	 * Number of threads which save images.  Encoding can be expensive for formats like PNG, so more than one
+	 * writer might be needed to keep up with the workers.
+	 */
+	public void setNumWriters(int numWriters) {
+		if( numWriters < 1 )
+			throw new IllegalArgumentException("Must have at least one writer");
+		this.numWriters = numWriters;
+	}
+
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	/**
+	 * Maximum number of images which can be waiting between two stages of the pipeline
+	 */
+	public void setQueueSize(int queueSize) {
+		if( queueSize < 1 )
+			throw new IllegalArgumentException("Queue size must be at least one");
+		this.queueSize = queueSize;
+	}
+
+	public Listener getListener() {
+		return listener;
+	}
+
+	public void setListener(Listener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * If true then it will print the progress and throughput after each image has been saved
+	 */
+	public void setVerbose(boolean verbose) {
+		this.verbose = verbose;
+	}
+
+	private static class Job {
+		int index;
+		BufferedImage image;
+
+		public Job(int index, BufferedImage image) {
+			this.index = index;
+			this.image = image;
+		}
+	}
+
+	/**
+	 * Processes a single image.  Only ever called by one thread.
+	 */
+	public interface Operation
+	{
+		/**
+		 * Processes the image and returns the image which is to be saved.  The returned image is passed to
+		 * another thread, so it must not be modified or reused by the operation later on.
+		 *
+		 * @param input Image which was loaded.  Can be modified.
+		 * @return Image which is to be saved or null if nothing should be saved.
+		 */
+		BufferedImage process( BufferedImage input );
+	}
+
+	/**
+	 * Creates a new {@link Operation} for each worker thread
+	 */
+	public interface OperationFactory
+	{
+		Operation createOperation();
+	}
+
+	public interface Listener
+	{
+		/**
+		 * Called after each image has been saved.  Calls are synchronized but can come from any of the writer
+		 * threads.
+		 *
+		 * @param finished Number of images saved so far
+		 * @param total Total number of images
+		 * @param imagesPerSecond Average number of images saved per second
+		 */
+		void batchUpdate( int finished , int total , double imagesPerSecond );
+	}
+}
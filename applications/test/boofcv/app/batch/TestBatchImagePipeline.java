@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.app.batch;
+
+import boofcv.io.image.UtilImageIO;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBatchImagePipeline {
+
+	File directory;
+	List<File> inputs = new ArrayList<>();
+	List<File> outputs = new ArrayList<>();
+
+	@Before
+	public void before() throws IOException {
+		directory = File.createTempFile("batch", "");
+		directory.delete();
+		assertTrue(directory.mkdir());
+	}
+
+	@After
+	public void after() {
+		File[] files = directory.listFiles();
+		if( files != null ) {
+			for( File f : files ) {
+				f.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	/**
+	 * Every image should be processed and saved exactly once, into the output which matches its input
+	 */
+	@Test(timeout = 30000)
+	public void process_all() {
+		createInputs(25);
+
+		final List<Integer> processed = Collections.synchronizedList(new ArrayList<Integer>());
+		BatchImagePipeline alg = new BatchImagePipeline(new BatchImagePipeline.OperationFactory() {
+			@Override
+			public BatchImagePipeline.Operation createOperation() {
+				return new BatchImagePipeline.Operation() {
+					@Override
+					public BufferedImage process(BufferedImage input) {
+						int value = input.getRGB(0, 0) & 0xFF;
+						processed.add(value);
+						// make it possible to tell that the saved image was processed
+						input.setRGB(1, 0, 0xFF000000 | (value + 100));
+						return input;
+					}
+				};
+			}
+		}, 3);
+		alg.setNumWriters(2);
+		alg.setQueueSize(2);
+
+		final int[] updates = new int[1];
+		alg.setListener(new BatchImagePipeline.Listener() {
+			@Override
+			public void batchUpdate(int finished, int total, double imagesPerSecond) {
+				updates[0]++;
+				assertEquals(inputs.size(), total);
+			}
+		});
+
+		alg.process(inputs, outputs);
+
+		assertEquals(inputs.size(), processed.size());
+		assertEquals(inputs.size(), new HashSet<>(processed).size());
+		assertEquals(inputs.size(), alg.getTotalFinished());
+		assertEquals(inputs.size(), updates[0]);
+
+		for (int i = 0; i < outputs.size(); i++) {
+			BufferedImage found = UtilImageIO.loadImage(outputs.get(i).getPath());
+			assertNotNull(found);
+			assertEquals(i, found.getRGB(0, 0) & 0xFF);
+			assertEquals(i + 100, found.getRGB(1, 0) & 0xFF);
+		}
+	}
+
+	/**
+	 * Each worker should get its own operation, which is only ever called by one thread
+	 */
+	@Test(timeout = 30000)
+	public void process_operationPerWorker() {
+		createInputs(30);
+
+		final List<BatchImagePipeline.Operation> created =
+				Collections.synchronizedList(new ArrayList<BatchImagePipeline.Operation>());
+		final Map<BatchImagePipeline.Operation,Thread> owners =
+				Collections.synchronizedMap(new HashMap<BatchImagePipeline.Operation,Thread>());
+		final boolean[] shared = new boolean[1];
+
+		BatchImagePipeline alg = new BatchImagePipeline(new BatchImagePipeline.OperationFactory() {
+			@Override
+			public BatchImagePipeline.Operation createOperation() {
+				BatchImagePipeline.Operation op = new BatchImagePipeline.Operation() {
+					@Override
+					public BufferedImage process(BufferedImage input) {
+						synchronized (owners) {
+							Thread owner = owners.get(this);
+							if( owner == null )
+								owners.put(this, Thread.currentThread());
+							else if( owner != Thread.currentThread() )
+								shared[0] = true;
+						}
+						return null;
+					}
+				};
+				created.add(op);
+				return op;
+			}
+		}, 4);
+
+		alg.process(inputs, outputs);
+
+		assertEquals(4, created.size());
+		assertFalse(shared[0]);
+		assertEquals(inputs.size(), alg.getTotalFinished());
+		// no images were returned so nothing should be saved
+		for( File f : outputs ) {
+			assertFalse(f.exists());
+		}
+	}
+
+	/**
+	 * An exception thrown by an operation should stop the pipeline and be thrown by process
+	 */
+	@Test(timeout = 30000)
+	public void process_operationFails() {
+		createInputs(40);
+
+		final RuntimeException expected = new RuntimeException("Operation failed");
+		BatchImagePipeline alg = new BatchImagePipeline(new BatchImagePipeline.OperationFactory() {
+			@Override
+			public BatchImagePipeline.Operation createOperation() {
+				return new BatchImagePipeline.Operation() {
+					@Override
+					public BufferedImage process(BufferedImage input) {
+						if( (input.getRGB(0, 0) & 0xFF) == 5 )
+							throw expected;
+						return input;
+					}
+				};
+			}
+		}, 3);
+		alg.setQueueSize(1);
+
+		try {
+			alg.process(inputs, outputs);
+			fail("Exception should have been thrown");
+		} catch( RuntimeException e ) {
+			assertSame(expected, e);
+		}
+		assertTrue(alg.getTotalFinished() < inputs.size());
+		assertNoPipelineThreads();
+	}
+
+	/**
+	 * A file which can't be read should stop the pipeline and cause an exception.  Done several times since
+	 * it can fail before the other threads have started.
+	 */
+	@Test(timeout = 30000)
+	public void process_unreadableFile() throws IOException {
+		createInputs(10);
+		File bad = new File(directory, "bad.png");
+		FileOutputStream out = new FileOutputStream(bad);
+		out.write(new byte[]{1, 2, 3, 4});
+		out.close();
+
+		for (int where : new int[]{0, 4, 9}) {
+			List<File> badInputs = new ArrayList<>(inputs);
+			badInputs.set(where, bad);
+
+			for (int trial = 0; trial < 10; trial++) {
+				BatchImagePipeline alg = new BatchImagePipeline(new BatchImagePipeline.OperationFactory() {
+					@Override
+					public BatchImagePipeline.Operation createOperation() {
+						return new BatchImagePipeline.Operation() {
+							@Override
+							public BufferedImage process(BufferedImage input) {
+								return input;
+							}
+						};
+					}
+				}, 2);
+
+				try {
+					alg.process(badInputs, outputs);
+					fail("Exception should have been thrown");
+				} catch( RuntimeException e ) {
+					assertTrue(e.getMessage().contains(bad.getPath()));
+				}
+				assertTrue(alg.getTotalFinished() <= where);
+				assertNoPipelineThreads();
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void process_differentSizes() {
+		createInputs(3);
+		outputs.remove(0);
+		new BatchImagePipeline(null, 2).process(inputs, outputs);
+	}
+
+	/**
+	 * Creates input images where the first pixel's value is the image's index
+	 */
+	private void createInputs( int total ) {
+		for (int i = 0; i < total; i++) {
+			BufferedImage image = new BufferedImage(4, 3, BufferedImage.TYPE_INT_RGB);
+			image.setRGB(0, 0, 0xFF000000 | i);
+			File input = new File(directory, String.format("input%03d.png", i));
+			UtilImageIO.saveImage(image, input.getPath());
+			inputs.add(input);
+			outputs.add(new File(directory, String.format("output%03d.png", i)));
+		}
+	}
+
+	/**
+	 * Once process() returns all the threads it created should have stopped
+	 */
+	private static void assertNoPipelineThreads() {
+		for( Thread t : Thread.getAllStackTraces().keySet() ) {
+			String name = t.getName();
+			if( name.startsWith("BatchReader") || name.startsWith("BatchWorker") || name.startsWith("BatchWriter") )
+				assertFalse(name, t.isAlive());
+		}
+	}
+}
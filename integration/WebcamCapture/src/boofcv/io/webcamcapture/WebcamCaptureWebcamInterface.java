@@ -18,15 +18,17 @@
 
 package boofcv.io.webcamcapture;
 
+import boofcv.core.image.ConvertImageBuffer;
 import boofcv.io.image.ConvertBufferedImage;
 import boofcv.io.image.SimpleImageSequence;
 import boofcv.io.wrapper.WebcamInterface;
-import boofcv.struct.image.ImageBase;
-import boofcv.struct.image.ImageType;
+import boofcv.struct.image.*;
 import com.github.sarxos.webcam.Webcam;
+import com.github.sarxos.webcam.WebcamDevice;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
 
 /**
  * Wrapper around webcam capture which allows its images to be used inside the {@link SimpleImageSequence}.
@@ -71,6 +73,13 @@ public class WebcamCaptureWebcamInterface implements WebcamInterface {
 		BufferedImage bufferedImage;
 		int frames = 0;
 
+		// If the device provides direct access to its RGB buffer then it's read directly into the output image,
+		// skipping the BufferedImage
+		ByteBuffer bytes;
+		ImageBufferU8 bytesImage;
+		// true if bytes contains an image which hasn't been returned by next() yet
+		boolean bytesFresh;
+
 
 		public SimpleSequence(String device, int width, int height, ImageType<T> imageType) {
 			this(UtilWebcamCapture.openDefault(width,height),imageType);
@@ -84,6 +93,32 @@ public class WebcamCaptureWebcamInterface implements WebcamInterface {
 			height = d.height;
 
 			output = imageType.createImage(width,height);
+
+			if( webcam.getDevice() instanceof WebcamDevice.BufferAccess && isBufferSupported(output) ) {
+				bytes = ByteBuffer.allocateDirect(width*height*3);
+				bytesImage = new ImageBufferU8(bytes,width,height,3);
+			}
+		}
+
+		private static boolean isBufferSupported( ImageBase image ) {
+			if( image instanceof Planar )
+				return ((Planar)image).getBandType() == GrayU8.class;
+			return image instanceof GrayU8 || image instanceof GrayF32 ||
+					image instanceof InterleavedU8 || image instanceof InterleavedF32;
+		}
+
+		private void convertBytes() {
+			if( output instanceof GrayU8 ) {
+				ConvertImageBuffer.average(bytesImage, (GrayU8) output);
+			} else if( output instanceof GrayF32 ) {
+				ConvertImageBuffer.average(bytesImage, (GrayF32) output);
+			} else if( output instanceof InterleavedU8 ) {
+				ConvertImageBuffer.convert(bytesImage, (InterleavedU8) output);
+			} else if( output instanceof InterleavedF32 ) {
+				ConvertImageBuffer.convert(bytesImage, (InterleavedF32) output);
+			} else {
+				ConvertImageBuffer.convert(bytesImage, (Planar<GrayU8>) output);
+			}
 		}
 
 		@Override
@@ -98,12 +133,27 @@ public class WebcamCaptureWebcamInterface implements WebcamInterface {
 
 		@Override
 		public boolean hasNext() {
+			if( bytes != null ) {
+				if( !webcam.isOpen() )
+					return false;
+				webcam.getImageBytes(bytes);
+				bytesFresh = true;
+				return true;
+			}
 			bufferedImage = webcam.getImage();
 			return bufferedImage != null;
 		}
 
 		@Override
 		public T next() {
+			if( bytes != null ) {
+				if( !bytesFresh )
+					webcam.getImageBytes(bytes);
+				bytesFresh = false;
+				convertBytes();
+				bufferedImage = null;
+				return output;
+			}
 			if( bufferedImage == null )
 				bufferedImage = webcam.getImage();
 			ConvertBufferedImage.convertFrom(bufferedImage, output, true);
@@ -135,6 +185,9 @@ public class WebcamCaptureWebcamInterface implements WebcamInterface {
 
 		@Override
 		public BufferedImage getGuiImage() {
+			// when reading directly from the device's buffer the GUI image is only created when requested
+			if( bytes != null && bufferedImage == null )
+				bufferedImage = ConvertBufferedImage.convertTo(output, null, true);
 			return bufferedImage;
 		}
 	}
@@ -113,6 +113,27 @@ public class ConvertIplImage {
 		return output;
 	}
 
+	/**
+	 * Creates an {@link ImageBufferU8} which references the pixels inside the IplImage, without copying them.
+	 * The IplImage must have 8-bit unsigned pixels and must not be released while the buffer image is in use.
+	 *
+	 * @param input IplImage with a depth of IPL_DEPTH_8U and any number of channels.
+	 * @param output (Optional) Storage for the buffer image.  Can be null.
+	 * @return Image which references the IplImage's pixels.
+	 */
+	public static ImageBufferU8 wrap( IplImage input , ImageBufferU8 output ) {
+		if( input.depth() != IPL_DEPTH_8U )
+			throw new IllegalArgumentException("Expected an image with a depth of IPL_DEPTH_8U");
+
+		if( output == null )
+			output = new ImageBufferU8();
+
+		ByteBuffer buffer = input.createBuffer();
+		output.setTo(buffer, 0, input.widthStep(), input.width(), input.height(), input.nChannels());
+
+		return output;
+	}
+
 	private static void convertFrom_G( IplImage input , GrayI8 output ) {
 		ByteBuffer buffer = input.createBuffer();
 
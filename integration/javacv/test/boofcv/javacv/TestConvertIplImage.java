@@ -48,6 +48,35 @@ public class TestConvertIplImage {
 		}
 	}
 
+	@Test
+	public void wrap() {
+		IplImage ipl = IplImage.create(4, 5, IPL_DEPTH_8U, 3);
+
+		ByteBuffer buff = ipl.createBuffer();
+		for (int y = 0; y < 5; y++) {
+			for (int i = 0; i < 12; i++) {
+				buff.put(y*ipl.widthStep()+i,(byte)(y*12+i));
+			}
+		}
+
+		ImageBufferU8 found = ConvertIplImage.wrap(ipl, null);
+
+		assertEquals(4, found.width);
+		assertEquals(5, found.height);
+		assertEquals(3, found.numBands);
+		for (int y = 0; y < 5; y++) {
+			for (int x = 0; x < 4; x++) {
+				for (int band = 0; band < 3; band++) {
+					assertEquals(y*12+x*3+band, found.getBand(x, y, band));
+				}
+			}
+		}
+
+		// the pixels should not have been copied
+		buff.put(0, (byte)100);
+		assertEquals(100, found.getBand(0, 0, 0));
+	}
+
 	@Test
 	public void convertFrom_1S16() {
 		IplImage ipl = IplImage.create(4, 5, IPL_DEPTH_16S, 1);
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.abst.filter.convolve;
+
+import boofcv.alg.filter.convolve.ConvolveImageNoBorder;
+import boofcv.alg.filter.convolve.ConvolveWithBorder;
+import boofcv.alg.filter.convolve.noborder.ConvolveImageStandard;
+import boofcv.alg.filter.convolve.noborder.ImplConvolveBox;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.core.image.border.BorderIndex1D_Extend;
+import boofcv.core.image.border.ImageBorder1D_S32;
+import boofcv.factory.filter.kernel.FactoryKernelGaussian;
+import boofcv.struct.convolve.Kernel1D_F32;
+import boofcv.struct.convolve.Kernel1D_I32;
+import boofcv.struct.convolve.Kernel2D_F32;
+import boofcv.struct.convolve.Kernel2D_I32;
+import boofcv.struct.image.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for different convolution operations.
+ *
+ * @author Peter Abeles
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class BenchmarkConvolve {
+
+	@Param({"640", "3840"})
+	public int width;
+
+	@Param({"1", "5"})
+	public int radius;
+
+	@Param({"false", "true"})
+	public boolean concurrent;
+
+	Kernel2D_F32 kernel2D_F32;
+	Kernel1D_F32 kernelF32;
+	Kernel1D_I32 kernelI32;
+	Kernel2D_I32 kernel2D_I32;
+
+	GrayF32 input_F32, out_F32;
+	GrayU8 input_U8, out_U8;
+	GrayS16 input_S16, out_S16;
+	GrayS32 out_S32;
+
+	@Setup
+	public void setup() {
+		Random rand = new Random(234);
+		int height = width*3/4;
+
+		input_F32 = new GrayF32(width, height);
+		out_F32 = new GrayF32(width, height);
+		input_U8 = new GrayU8(width, height);
+		out_U8 = new GrayU8(width, height);
+		input_S16 = new GrayS16(width, height);
+		out_S16 = new GrayS16(width, height);
+		out_S32 = new GrayS32(width, height);
+
+		ImageMiscOps.fillUniform(input_U8, rand, 0, 20);
+		ImageMiscOps.fillUniform(input_S16, rand, 0, 20);
+		ImageMiscOps.fillUniform(input_F32, rand, 0, 20);
+
+		kernelF32 = FactoryKernelGaussian.gaussian(Kernel1D_F32.class, -1, radius);
+		kernelI32 = FactoryKernelGaussian.gaussian(Kernel1D_I32.class, -1, radius);
+		kernel2D_F32 = FactoryKernelGaussian.gaussian(Kernel2D_F32.class, -1, radius);
+		kernel2D_I32 = FactoryKernelGaussian.gaussian(Kernel2D_I32.class, -1, radius);
+
+		BoofConcurrency.USE_CONCURRENT = concurrent;
+	}
+
+	@TearDown
+	public void tearDown() {
+		BoofConcurrency.USE_CONCURRENT = false;
+	}
+
+	@Benchmark
+	public GrayF32 horizontal_F32() {
+		ConvolveImageNoBorder.horizontal(kernelF32, input_F32, out_F32);
+		return out_F32;
+	}
+
+	@Benchmark
+	public GrayF32 horizontal_Std_F32() {
+		ConvolveImageStandard.horizontal(kernelF32, input_F32, out_F32);
+		return out_F32;
+	}
+
+	@Benchmark
+	public GrayU8 horizontal_U8_I8_div() {
+		ConvolveImageNoBorder.horizontal(kernelI32, input_U8, out_U8, 10);
+		return out_U8;
+	}
+
+	@Benchmark
+	public GrayS16 horizontal_U8_I16() {
+		ConvolveImageNoBorder.horizontal(kernelI32, input_U8, out_S16);
+		return out_S16;
+	}
+
+	@Benchmark
+	public GrayS16 horizontal_S16_I16() {
+		ConvolveImageNoBorder.horizontal(kernelI32, input_S16, out_S16);
+		return out_S16;
+	}
+
+	@Benchmark
+	public GrayF32 vertical_F32() {
+		ConvolveImageNoBorder.vertical(kernelF32, input_F32, out_F32);
+		return out_F32;
+	}
+
+	@Benchmark
+	public GrayF32 vertical_Std_F32() {
+		ConvolveImageStandard.vertical(kernelF32, input_F32, out_F32);
+		return out_F32;
+	}
+
+	@Benchmark
+	public GrayU8 vertical_U8_I8_div() {
+		ConvolveImageNoBorder.vertical(kernelI32, input_U8, out_U8, 10);
+		return out_U8;
+	}
+
+	@Benchmark
+	public GrayS16 vertical_U8_I16() {
+		ConvolveImageNoBorder.vertical(kernelI32, input_U8, out_S16);
+		return out_S16;
+	}
+
+	@Benchmark
+	public GrayS16 vertical_S16_I16() {
+		ConvolveImageNoBorder.vertical(kernelI32, input_S16, out_S16);
+		return out_S16;
+	}
+
+	@Benchmark
+	public GrayF32 convolve2D_F32() {
+		ConvolveImageNoBorder.convolve(kernel2D_F32, input_F32, out_F32);
+		return out_F32;
+	}
+
+	@Benchmark
+	public GrayF32 convolve2D_Std_F32() {
+		ConvolveImageStandard.convolve(kernel2D_F32, input_F32, out_F32);
+		return out_F32;
+	}
+
+	@Benchmark
+	public GrayS16 convolve2D_U8_I16() {
+		ConvolveImageNoBorder.convolve(kernel2D_I32, input_U8, out_S16);
+		return out_S16;
+	}
+
+	@Benchmark
+	public GrayU8 convolve2D_U8_I8_div() {
+		ConvolveImageNoBorder.convolve(kernel2D_I32, input_U8, out_U8, 10);
+		return out_U8;
+	}
+
+	@Benchmark
+	public GrayS16 convolve2D_Extend_U8_I16() {
+		ConvolveWithBorder.convolve(kernel2D_I32, input_U8, out_S16, new ImageBorder1D_S32(BorderIndex1D_Extend.class));
+		return out_S16;
+	}
+
+	@Benchmark
+	public GrayS32 box_U8_S32_vertical() {
+		ImplConvolveBox.vertical(input_U8, out_S32, radius);
+		return out_S32;
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.distort;
+
+import boofcv.alg.interpolate.InterpolatePixelS;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.core.image.border.BorderType;
+import boofcv.factory.distort.FactoryDistort;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.struct.distort.PixelTransform2_F32;
+import boofcv.struct.image.ImageDataType;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.ImageType;
+import georegression.struct.homography.Homography2D_F32;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for applying a homography to an image with and without a cached transform
+ *
+ * @author Peter Abeles
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class BenchmarkImageDistort<T extends ImageGray> {
+
+	@Param({"640", "3840"})
+	public int width;
+
+	@Param({"U8", "F32"})
+	public String imageType;
+
+	T src, dst;
+
+	ImageDistort<T,T> homography;
+	ImageDistort<T,T> map;
+
+	@Setup
+	public void setup() {
+		Random rand = new Random(234);
+		int height = width*3/4;
+
+		Class<T> type = ImageType.single(ImageDataType.valueOf(imageType)).getImageClass();
+		src = ImageType.single(type).createImage(width, height);
+		dst = ImageType.single(type).createImage(width, height);
+		GImageMiscOps.fillUniform(src, rand, 0, 100);
+
+		Homography2D_F32 H = new Homography2D_F32((float)rand.nextGaussian(),(float)rand.nextGaussian(),
+				(float)rand.nextGaussian(),(float)rand.nextGaussian(),(float)rand.nextGaussian(),
+				(float)rand.nextGaussian(),(float)rand.nextGaussian(),(float)rand.nextGaussian(),
+				(float)rand.nextGaussian());
+
+		homography = create(false, H, type);
+		map = create(true, H, type);
+	}
+
+	private ImageDistort<T,T> create( boolean cached , Homography2D_F32 H , Class<T> type ) {
+		PixelTransform2_F32 tran = new PixelTransformHomography_F32(H);
+		InterpolatePixelS<T> interp = FactoryInterpolation.bilinearPixelS(type, BorderType.EXTENDED);
+
+		ImageDistort<T,T> alg = FactoryDistort.distortSB(cached, interp, type);
+		alg.setModel(tran);
+		return alg;
+	}
+
+	@Benchmark
+	public T homographyBilinear() {
+		homography.apply(src, dst);
+		return dst;
+	}
+
+	@Benchmark
+	public T homographyBilinearCrop() {
+		homography.apply(src, dst, 0, 0, dst.width, dst.height);
+		return dst;
+	}
+
+	@Benchmark
+	public T mapBilinear() {
+		map.apply(src, dst, 0, 0, dst.width, dst.height);
+		return dst;
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.feature.associate;
+
+import boofcv.abst.feature.associate.ScoreAssociateEuclideanSq_F64;
+import boofcv.abst.feature.associate.ScoreAssociateHamming_B;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.feature.TupleDesc_B;
+import boofcv.struct.feature.TupleDesc_F64;
+import org.ddogleg.struct.FastQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for brute force greedy association with SURF sized and binary descriptors
+ *
+ * @author Peter Abeles
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class BenchmarkAssociateGreedy {
+
+	@Param({"500", "2000"})
+	public int numFeatures;
+
+	@Param({"false", "true"})
+	public boolean concurrent;
+
+	FastQueue<TupleDesc_F64> srcF64, dstF64;
+	FastQueue<TupleDesc_B> srcB, dstB;
+
+	AssociateGreedy<TupleDesc_F64> genericF64 = new AssociateGreedy<>(new ScoreAssociateEuclideanSq_F64(), true);
+	AssociateGreedy<TupleDesc_F64> packedF64 =
+			new AssociateGreedyPacked_F64<>(new ScoreAssociateEuclideanSq_F64(), true);
+	AssociateGreedy<TupleDesc_B> genericB = new AssociateGreedy<>(new ScoreAssociateHamming_B(), true);
+	AssociateGreedy<TupleDesc_B> packedB = new AssociateGreedyPacked_B(new ScoreAssociateHamming_B(), true);
+
+	@Setup
+	public void setup() {
+		Random rand = new Random(234234);
+		BoofConcurrency.USE_CONCURRENT = concurrent;
+
+		srcF64 = createF64(rand, 64);
+		dstF64 = createF64(rand, 64);
+		srcB = createB(rand, 512);
+		dstB = createB(rand, 512);
+	}
+
+	@TearDown
+	public void tearDown() {
+		BoofConcurrency.USE_CONCURRENT = false;
+	}
+
+	private FastQueue<TupleDesc_F64> createF64( Random rand , int length ) {
+		FastQueue<TupleDesc_F64> list = new FastQueue<>(TupleDesc_F64.class, false);
+		for (int i = 0; i < numFeatures; i++) {
+			TupleDesc_F64 d = new TupleDesc_F64(length);
+			for (int j = 0; j < length; j++) {
+				d.value[j] = rand.nextGaussian();
+			}
+			list.add(d);
+		}
+		return list;
+	}
+
+	private FastQueue<TupleDesc_B> createB( Random rand , int numBits ) {
+		FastQueue<TupleDesc_B> list = new FastQueue<>(TupleDesc_B.class, false);
+		for (int i = 0; i < numFeatures; i++) {
+			TupleDesc_B d = new TupleDesc_B(numBits);
+			for (int j = 0; j < d.data.length; j++) {
+				d.data[j] = rand.nextInt();
+			}
+			list.add(d);
+		}
+		return list;
+	}
+
+	@Benchmark
+	public int[] genericF64() {
+		genericF64.associate(srcF64, dstF64);
+		return genericF64.getPairs();
+	}
+
+	@Benchmark
+	public int[] packedF64() {
+		packedF64.associate(srcF64, dstF64);
+		return packedF64.getPairs();
+	}
+
+	@Benchmark
+	public int[] genericB() {
+		genericB.associate(srcB, dstB);
+		return genericB.getPairs();
+	}
+
+	@Benchmark
+	public int[] packedB() {
+		packedB.associate(srcB, dstB);
+		return packedB.getPairs();
+	}
+}
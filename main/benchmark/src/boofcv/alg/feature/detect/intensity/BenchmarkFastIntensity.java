@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.feature.detect.intensity;
+
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.factory.feature.detect.intensity.FactoryIntensityPointAlg;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.ImageDataType;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.ImageType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for the different FAST corner intensity implementations
+ *
+ * @author Peter Abeles
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class BenchmarkFastIntensity<T extends ImageGray> {
+
+	@Param({"640", "3840"})
+	public int width;
+
+	@Param({"U8", "F32"})
+	public String imageType;
+
+	T input;
+	GrayF32 intensity;
+
+	FastCornerIntensity<T> fast9;
+	FastCornerIntensity<T> fast12;
+
+	@Setup
+	public void setup() {
+		Random rand = new Random(234);
+		int height = width*3/4;
+
+		Class<T> type = ImageType.single(ImageDataType.valueOf(imageType)).getImageClass();
+		input = ImageType.single(type).createImage(width, height);
+		intensity = new GrayF32(width, height);
+
+		GImageMiscOps.fillUniform(input, rand, 0, 255);
+
+		fast9 = FactoryIntensityPointAlg.fast(60, 9, type);
+		fast12 = FactoryIntensityPointAlg.fast(60, 12, type);
+	}
+
+	@Benchmark
+	public GrayF32 fast9() {
+		fast9.process(input, intensity);
+		return intensity;
+	}
+
+	@Benchmark
+	public GrayF32 fast12() {
+		fast12.process(input, intensity);
+		return intensity;
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.feature.disparity;
+
+import boofcv.alg.feature.disparity.impl.*;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.core.image.GConvertImage;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for the different implementations of rectangular region disparity
+ *
+ * @author Peter Abeles
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class BenchmarkDisparityAlgs {
+
+	static final int min = 0;
+	static final int radiusX = 2;
+	static final int radiusY = 2;
+
+	@Param({"640", "1280"})
+	public int width;
+
+	@Param({"20", "128"})
+	public int max;
+
+	GrayU8 left, right;
+	GrayF32 left_F32, right_F32;
+
+	GrayU8 outU8;
+	GrayF32 out_F32;
+
+	StereoDisparityWtoNaive<GrayU8> naive;
+	ImplDisparityScoreSadRect_U8<GrayU8> sad_U8;
+	ImplDisparityScoreSadRect_F32<GrayU8> sad_F32;
+	ImplDisparityScoreSadRect_U8<GrayF32> subpixelSad;
+	ImplDisparityScoreSadRectFive_U8<GrayU8> sadFive_U8;
+
+	@Setup
+	public void setup() {
+		Random rand = new Random(234234);
+		int height = width*3/4;
+
+		left = new GrayU8(width,height);
+		right = new GrayU8(width,height);
+		left_F32 = new GrayF32(width,height);
+		right_F32 = new GrayF32(width,height);
+		outU8 = new GrayU8(width,height);
+		out_F32 = new GrayF32(width,height);
+
+		GImageMiscOps.fillUniform(left, rand, 0, 30);
+		GImageMiscOps.fillUniform(right, rand, 0, 30);
+		GConvertImage.convert(left, left_F32);
+		GConvertImage.convert(right, right_F32);
+
+		naive = new StereoDisparityWtoNaive<>(0, max, radiusX, radiusY);
+		sad_U8 = new ImplDisparityScoreSadRect_U8<>(min, max, radiusX, radiusY,
+				new ImplSelectRectStandard_S32_U8(250, 2, 0.1));
+		sad_F32 = new ImplDisparityScoreSadRect_F32<>(min, max, radiusX, radiusY,
+				new ImplSelectRectStandard_F32_U8(250, 2, 0.1));
+		subpixelSad = new ImplDisparityScoreSadRect_U8<>(min, max, radiusX, radiusY,
+				new SelectRectSubpixel.S32_F32(250, 2, 0.1));
+		sadFive_U8 = new ImplDisparityScoreSadRectFive_U8<>(min, max, radiusX, radiusY,
+				new ImplSelectRectStandard_S32_U8(250, 2, 0.1));
+	}
+
+	@Benchmark
+	public GrayF32 naive() {
+		naive.process(left, right, out_F32);
+		return out_F32;
+	}
+
+	@Benchmark
+	public GrayU8 sad_U8() {
+		sad_U8.process(left, right, outU8);
+		return outU8;
+	}
+
+	@Benchmark
+	public GrayU8 sad_F32() {
+		sad_F32.process(left_F32, right_F32, outU8);
+		return outU8;
+	}
+
+	@Benchmark
+	public GrayF32 subpixelSad() {
+		subpixelSad.process(left, right, out_F32);
+		return out_F32;
+	}
+
+	@Benchmark
+	public GrayU8 sadFive_U8() {
+		sadFive_U8.process(left, right, outU8);
+		return outU8;
+	}
+}
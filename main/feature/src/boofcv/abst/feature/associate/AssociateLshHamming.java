@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.abst.feature.associate;
+
+import boofcv.alg.feature.associate.FindUnassociated;
+import boofcv.alg.feature.associate.MultiProbeLshHamming;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.struct.feature.AssociatedIndex;
+import boofcv.struct.feature.MatchScoreType;
+import boofcv.struct.feature.TupleDesc_B;
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_I32;
+
+/**
+ * Matches binary features using {@link MultiProbeLshHamming}, an approximate nearest-neighbor search.  Just like
+ * {@link AssociateNearestNeighbor} the source features are put into the search data structure and destination
+ * features are matched one at a time.  Multiple matches for source features are possible while there will only
+ * be a unique match for each destination feature.  If {@link BoofConcurrency#USE_CONCURRENT} is true then
+ * destination features are matched in parallel.  The order of matches is the same either way.
+ *
+ * @author Peter Abeles
+ */
+public class AssociateLshHamming implements AssociateDescription<TupleDesc_B> {
+
+	// approximate nearest neighbor search
+	private MultiProbeLshHamming alg;
+
+	private FastQueue<TupleDesc_B> listSrc;
+	private FastQueue<TupleDesc_B> listDst;
+
+	// best source feature and its distance for each destination feature
+	private GrowQueue_I32 bestSrc = new GrowQueue_I32();
+	private GrowQueue_I32 bestDistance = new GrowQueue_I32();
+
+	// List of final associated points
+	private FastQueue<AssociatedIndex> matches = new FastQueue<>(100, AssociatedIndex.class, true);
+
+	// creates a list of unassociated features from the list of matches
+	private FindUnassociated unassociated = new FindUnassociated();
+
+	// maximum allowed hamming distance
+	private int maxDistance = Integer.MAX_VALUE;
+
+	public AssociateLshHamming(MultiProbeLshHamming alg) {
+		this.alg = alg;
+	}
+
+	@Override
+	public void setSource(FastQueue<TupleDesc_B> listSrc) {
+		this.listSrc = listSrc;
+		alg.setPoints(listSrc);
+	}
+
+	@Override
+	public void setDestination(FastQueue<TupleDesc_B> listDst) {
+		this.listDst = listDst;
+	}
+
+	@Override
+	public void associate() {
+		if( listSrc == null )
+			throw new IllegalArgumentException("source features not specified");
+		if( listDst == null )
+			throw new IllegalArgumentException("destination features not specified");
+
+		bestSrc.resize(listDst.size);
+		bestDistance.resize(listDst.size);
+
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			BoofConcurrency.loopBlocks(0, listDst.size, 50, new IntRangeTask() {
+				@Override
+				public void process(int minInclusive, int maxExclusive) {
+					search(minInclusive, maxExclusive, alg.createSearch());
+				}
+			});
+		} else {
+			search(0, listDst.size, alg.createSearch());
+		}
+
+		matches.reset();
+		for( int i = 0; i < listDst.size; i++ ) {
+			if( bestSrc.data[i] >= 0 )
+				matches.grow().setAssociation(bestSrc.data[i], i, bestDistance.data[i]);
+		}
+	}
+
+	private void search( int dst0 , int dst1 , MultiProbeLshHamming.Search search ) {
+		for( int i = dst0; i < dst1; i++ ) {
+			bestSrc.data[i] = alg.findNearest(listDst.data[i], maxDistance, search);
+			bestDistance.data[i] = search.bestDistance;
+		}
+	}
+
+	@Override
+	public FastQueue<AssociatedIndex> getMatches() {
+		return matches;
+	}
+
+	@Override
+	public GrowQueue_I32 getUnassociatedSource() {
+		return unassociated.checkSource(matches, listSrc.size());
+	}
+
+	@Override
+	public GrowQueue_I32 getUnassociatedDestination() {
+		return unassociated.checkDestination(matches, listDst.size());
+	}
+
+	@Override
+	public void setThreshold(double score) {
+		// a negative score or one which is too large to be a hamming distance turns off the threshold
+		if( score < 0 || score >= Integer.MAX_VALUE )
+			maxDistance = Integer.MAX_VALUE;
+		else
+			maxDistance = (int)score;
+	}
+
+	@Override
+	public MatchScoreType getScoreType() {
+		return MatchScoreType.NORM_ERROR;
+	}
+
+	@Override
+	public boolean uniqueSource() {
+		return false;
+	}
+
+	@Override
+	public boolean uniqueDestination() {
+		return true;
+	}
+
+	public MultiProbeLshHamming getAlgorithm() {
+		return alg;
+	}
+}
@@ -38,13 +38,20 @@ public class WrapDisparitySadRect <T extends ImageGray, D extends ImageGray>
 
 	@Override
 	public void process(T imageLeft, T imageRight) {
+		declareDisparity(imageLeft);
+
+		alg.process(imageLeft,imageRight,disparity);
+	}
+
+	/**
+	 * Creates the disparity image if it doesn't exist or is the wrong shape
+	 */
+	protected void declareDisparity(T imageLeft) {
 		if( disparity == null || disparity.width != imageLeft.width || disparity.height != imageLeft.height )  {
 			// make sure the image borders are marked as invalid
 			disparity = GeneralizedImageOps.createSingleBand(alg.getDisparityType(),imageLeft.width,imageLeft.height);
 			GImageMiscOps.fill(disparity, getMaxDisparity() + 1);
 		}
-
-		alg.process(imageLeft,imageRight,disparity);
 	}
 
 	public D getDisparity() {
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.abst.feature.disparity;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.alg.feature.disparity.DisparityScoreRowFormat;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.struct.image.ImageGray;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Concurrent implementation of {@link WrapDisparitySadRect}.  The image is split into horizontal bands and the
+ * disparity for each band is computed in parallel.  Each band is a sub-image which overlaps with its neighbors by
+ * the size of the y-axis border, so that every row in the disparity image is computed by exactly one band.
+ * Every band has its own instance of {@link DisparityScoreRowFormat} and thus its own row score buffers.
+ * </p>
+ *
+ * <p>
+ * For integer images the disparity is identical to the single threaded version.  Floating point images can have
+ * very small differences in the score since the rolling sum along the y-axis is started at the top of each band.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class WrapDisparitySadRect_MT<T extends ImageGray, D extends ImageGray>
+		extends WrapDisparitySadRect<T,D>
+{
+	// algorithm used to process each band
+	List<DisparityScoreRowFormat<T,D>> bandAlgs;
+
+	/**
+	 * Specifies the algorithms used to process each band.  The maximum number of bands is the number
+	 * of algorithms.  All algorithms must have the same configuration.
+	 *
+	 * @param bandAlgs One algorithm for each band.
+	 */
+	public WrapDisparitySadRect_MT(List<DisparityScoreRowFormat<T,D>> bandAlgs) {
+		super(bandAlgs.get(0));
+		this.bandAlgs = new ArrayList<>(bandAlgs);
+	}
+
+	@Override
+	public void process(final T imageLeft, final T imageRight) {
+		InputSanityCheck.checkSameShape(imageLeft, imageRight);
+		declareDisparity(imageLeft);
+
+		final int borderY = alg.getBorderY();
+		final int regionHeight = 2*borderY+1;
+		final int rowsInside = imageLeft.height - 2*borderY;
+
+		// Each band should be at least as tall as the region.  This also handles images which are too small
+		final int numBands = Math.max(1,Math.min(bandAlgs.size(), rowsInside/regionHeight));
+
+		BoofConcurrency.loopBlocks(0, numBands, 1, new IntRangeTask() {
+			@Override
+			public void process(int minInclusive, int maxExclusive) {
+				for (int band = minInclusive; band < maxExclusive; band++) {
+					// range of disparity rows which are computed by this band
+					int y0 = borderY + rowsInside*band/numBands;
+					int y1 = borderY + rowsInside*(band+1)/numBands;
+
+					// expand the band so that the rows it needs along the border are included
+					T left = (T)imageLeft.subimage(0, y0-borderY, imageLeft.width, y1+borderY);
+					T right = (T)imageRight.subimage(0, y0-borderY, imageRight.width, y1+borderY);
+					D disp = (D)disparity.subimage(0, y0-borderY, disparity.width, y1+borderY);
+
+					bandAlgs.get(band).process(left, right, disp);
+				}
+			}
+		});
+	}
+
+	public List<DisparityScoreRowFormat<T,D>> getBandAlgs() {
+		return bandAlgs;
+	}
+}
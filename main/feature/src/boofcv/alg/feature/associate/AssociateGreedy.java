@@ -39,6 +39,11 @@ import org.ddogleg.struct.GrowQueue_I32;
  * associated with feature in src.
  * </p>
  *
+ * <p>
+ * The score for every pair is stored in memory, which is expensive when there are many features.  For common
+ * descriptor and score types {@link AssociateGreedyPacked} is a much faster alternative.
+ * </p>
+ *
  * @param <D> Feature description type.
  *
  * @author Peter Abeles
@@ -46,17 +51,17 @@ import org.ddogleg.struct.GrowQueue_I32;
 public class AssociateGreedy<D> {
 
 	// computes association score
-	private ScoreAssociation<D> score;
+	ScoreAssociation<D> score;
 	// worst allowed fit score to associate
-	private double maxFitError = Double.MAX_VALUE;
+	double maxFitError = Double.MAX_VALUE;
 	// stores the quality of fit score
-	private GrowQueue_F64 fitQuality = new GrowQueue_F64(100);
+	GrowQueue_F64 fitQuality = new GrowQueue_F64(100);
 	// stores indexes of associated
-	private GrowQueue_I32 pairs = new GrowQueue_I32(100);
+	GrowQueue_I32 pairs = new GrowQueue_I32(100);
 	// various
 	private GrowQueue_F64 workBuffer = new GrowQueue_F64(100);
 	// if true backwardsValidation is done
-	private boolean backwardsValidation;
+	boolean backwardsValidation;
 
 	/**
 	 * Configure association
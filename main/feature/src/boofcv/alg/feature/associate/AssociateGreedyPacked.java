@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.feature.associate;
+
+import boofcv.abst.feature.associate.ScoreAssociation;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import org.ddogleg.struct.FastQueue;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Brute force greedy association which produces the same results as {@link AssociateGreedy} but is much
+ * faster and uses less memory.  Descriptors are copied into contiguous arrays of primitives and the score
+ * is computed inside tight loops over those arrays, instead of through {@link ScoreAssociation}.
+ * </p>
+ *
+ * <ul>
+ * <li>Computations are blocked.  A block of source features is scored against a block of destination features
+ * at a time, so that the destination descriptors remain in the cache while they are being reused.</li>
+ * <li>Backwards validation doesn't save the score for every pair.  Instead the best score in each destination
+ * column and the number of source features with that score are recorded.  A match is then rejected if another
+ * source feature has a score which is as good or better.</li>
+ * <li>If {@link BoofConcurrency#USE_CONCURRENT} is true then blocks of source features are processed in
+ * parallel.  Results are independent of the number of threads.</li>
+ * </ul>
+ *
+ * @param <D> Feature description type.
+ *
+ * @author Peter Abeles
+ */
+public abstract class AssociateGreedyPacked<D> extends AssociateGreedy<D> {
+
+	// number of source features processed together in a block
+	public static int BLOCK_SRC = 32;
+	// number of destination features processed together in a block
+	public static int BLOCK_DST = 256;
+
+	// number of features in each list
+	protected int numSrc, numDst;
+	// number of elements in each descriptor
+	protected int length;
+
+	// minimum score in each destination column
+	double columnMin[] = new double[0];
+	// number of source features which have the minimum score in each column
+	int columnCount[] = new int[0];
+
+	/**
+	 * Configure association
+	 *
+	 * @param score Score function the packed score must be equivalent to.  Used to describe the score.
+	 * @param backwardsValidation If true then backwards validation is performed.
+	 */
+	protected AssociateGreedyPacked(ScoreAssociation<D> score, boolean backwardsValidation) {
+		super(score, backwardsValidation);
+	}
+
+	/**
+	 * Copies the descriptors in each list into internal arrays.  The descriptor length will be saved in
+	 * {@link #length}.
+	 */
+	protected abstract void pack( FastQueue<D> src , FastQueue<D> dst );
+
+	/**
+	 * Computes the score between a source feature and a range of destination features.
+	 *
+	 * @param indexSrc Index of the source feature
+	 * @param dst0 First destination feature, inclusive
+	 * @param dst1 Last destination feature, exclusive
+	 * @param scores (Output) Score of each destination feature. Element 0 is dst0.
+	 */
+	protected abstract void scoreRow( int indexSrc , int dst0 , int dst1 , double scores[] );
+
+	@Override
+	public void associate( FastQueue<D> src , FastQueue<D> dst ) {
+		numSrc = src.size;
+		numDst = dst.size;
+
+		fitQuality.reset();
+		pairs.reset();
+		fitQuality.resize(numSrc);
+		pairs.resize(numSrc);
+
+		if( numSrc == 0 )
+			return;
+
+		pack(src, dst);
+
+		if( backwardsValidation ) {
+			if( columnMin.length < numDst ) {
+				columnMin = new double[numDst];
+				columnCount = new int[numDst];
+			}
+			Arrays.fill(columnMin, 0, numDst, Double.MAX_VALUE);
+			Arrays.fill(columnCount, 0, numDst, 0);
+		}
+
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			BoofConcurrency.loopBlocks(0, numSrc, BLOCK_SRC, new IntRangeTask() {
+				@Override
+				public void process(int minInclusive, int maxExclusive) {
+					processRows(minInclusive, maxExclusive);
+				}
+			});
+		} else {
+			processRows(0, numSrc);
+		}
+
+		if( backwardsValidation ) {
+			for( int i = 0; i < numSrc; i++ ) {
+				int match = pairs.data[i];
+				if( match == -1 )
+					continue;
+
+				// Another source feature has a score which is as good or better
+				if( columnMin[match] < fitQuality.data[i] || columnCount[match] > 1 ) {
+					pairs.data[i] = -1;
+					fitQuality.data[i] = Double.MAX_VALUE;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the best match for each source feature in the range.
+	 */
+	void processRows( int row0 , int row1 ) {
+		double scores[] = new double[BLOCK_DST];
+
+		// best score in each column for this set of rows
+		double localMin[] = null;
+		int localCount[] = null;
+		if( backwardsValidation ) {
+			localMin = new double[numDst];
+			localCount = new int[numDst];
+			Arrays.fill(localMin, Double.MAX_VALUE);
+		}
+
+		for( int blockSrc = row0; blockSrc < row1; blockSrc += BLOCK_SRC ) {
+			int blockSrcEnd = Math.min(row1, blockSrc + BLOCK_SRC);
+
+			for( int i = blockSrc; i < blockSrcEnd; i++ ) {
+				pairs.data[i] = -1;
+				fitQuality.data[i] = maxFitError;
+			}
+
+			for( int dst0 = 0; dst0 < numDst; dst0 += BLOCK_DST ) {
+				int dst1 = Math.min(numDst, dst0 + BLOCK_DST);
+
+				for( int i = blockSrc; i < blockSrcEnd; i++ ) {
+					scoreRow(i, dst0, dst1, scores);
+
+					double bestScore = fitQuality.data[i];
+					int bestIndex = pairs.data[i];
+
+					if( localMin == null ) {
+						for( int j = dst0; j < dst1; j++ ) {
+							double fit = scores[j-dst0];
+							if( fit <= bestScore ) {
+								bestIndex = j;
+								bestScore = fit;
+							}
+						}
+					} else {
+						for( int j = dst0; j < dst1; j++ ) {
+							double fit = scores[j-dst0];
+							if( fit <= bestScore ) {
+								bestIndex = j;
+								bestScore = fit;
+							}
+							if( fit < localMin[j] ) {
+								localMin[j] = fit;
+								localCount[j] = 1;
+							} else if( fit == localMin[j] ) {
+								localCount[j]++;
+							}
+						}
+					}
+
+					pairs.data[i] = bestIndex;
+					fitQuality.data[i] = bestScore;
+				}
+			}
+		}
+
+		if( localMin != null ) {
+			mergeColumns(localMin, localCount);
+		}
+	}
+
+	/**
+	 * Combines the best column scores from a set of rows with the global best column scores
+	 */
+	private synchronized void mergeColumns( double localMin[] , int localCount[] ) {
+		for( int j = 0; j < numDst; j++ ) {
+			if( localMin[j] < columnMin[j] ) {
+				columnMin[j] = localMin[j];
+				columnCount[j] = localCount[j];
+			} else if( localMin[j] == columnMin[j] ) {
+				columnCount[j] += localCount[j];
+			}
+		}
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.feature.associate;
+
+import boofcv.abst.feature.associate.ScoreAssociateHamming_B;
+import boofcv.abst.feature.associate.ScoreAssociation;
+import boofcv.struct.feature.TupleDesc_B;
+import org.ddogleg.struct.FastQueue;
+
+/**
+ * Implementation of {@link AssociateGreedyPacked} for {@link TupleDesc_B} using {@link ScoreAssociateHamming_B}.
+ * The hamming distance is computed using {@link Integer#bitCount(int)}, which the JVM replaces with a single
+ * instruction on most processors.
+ *
+ * @author Peter Abeles
+ */
+public class AssociateGreedyPacked_B extends AssociateGreedyPacked<TupleDesc_B> {
+
+	// descriptors stored one after another
+	int packedSrc[] = new int[0];
+	int packedDst[] = new int[0];
+
+	public AssociateGreedyPacked_B(ScoreAssociation<TupleDesc_B> score, boolean backwardsValidation) {
+		super(score, backwardsValidation);
+
+		if( !isSupported(score) )
+			throw new IllegalArgumentException("Unsupported score "+score.getClass().getSimpleName());
+	}
+
+	/**
+	 * Returns true if the score can be computed by this class
+	 */
+	public static boolean isSupported( ScoreAssociation score ) {
+		return score.getClass() == ScoreAssociateHamming_B.class;
+	}
+
+	@Override
+	protected void pack(FastQueue<TupleDesc_B> src, FastQueue<TupleDesc_B> dst) {
+		// length is the number of integers, not bits
+		length = src.get(0).data.length;
+		packedSrc = pack(src, packedSrc);
+		packedDst = pack(dst, packedDst);
+	}
+
+	private int[] pack( FastQueue<TupleDesc_B> list , int storage[] ) {
+		if( storage.length < list.size*length )
+			storage = new int[list.size*length];
+
+		for( int i = 0; i < list.size; i++ ) {
+			int data[] = list.data[i].data;
+			if( data.length != length )
+				throw new IllegalArgumentException("All descriptors must have the same length");
+			System.arraycopy(data, 0, storage, i*length, length);
+		}
+		return storage;
+	}
+
+	@Override
+	protected void scoreRow(int indexSrc, int dst0, int dst1, double[] scores) {
+		final int length = this.length;
+		final int a[] = packedSrc;
+		final int b[] = packedDst;
+		final int indexA = indexSrc*length;
+
+		// Score four destination features at once.  See AssociateGreedyPacked_F64
+		int j = dst0;
+		for( ; j+4 <= dst1; j += 4 ) {
+			int indexB0 = j*length;
+			int indexB1 = indexB0+length;
+			int indexB2 = indexB1+length;
+			int indexB3 = indexB2+length;
+			int total0 = 0, total1 = 0, total2 = 0, total3 = 0;
+			for( int k = 0; k < length; k++ ) {
+				int v = a[indexA+k];
+				total0 += Integer.bitCount(v ^ b[indexB0+k]);
+				total1 += Integer.bitCount(v ^ b[indexB1+k]);
+				total2 += Integer.bitCount(v ^ b[indexB2+k]);
+				total3 += Integer.bitCount(v ^ b[indexB3+k]);
+			}
+			scores[j-dst0  ] = total0;
+			scores[j-dst0+1] = total1;
+			scores[j-dst0+2] = total2;
+			scores[j-dst0+3] = total3;
+		}
+		for( ; j < dst1; j++ ) {
+			int indexB = j*length;
+			int total = 0;
+			for( int k = 0; k < length; k++ ) {
+				total += Integer.bitCount(a[indexA+k] ^ b[indexB+k]);
+			}
+			scores[j-dst0] = total;
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.feature.associate;
+
+import boofcv.abst.feature.associate.ScoreAssociateEuclideanSq_F32;
+import boofcv.abst.feature.associate.ScoreAssociateSad_F32;
+import boofcv.abst.feature.associate.ScoreAssociation;
+import boofcv.struct.feature.TupleDesc_F32;
+import org.ddogleg.struct.FastQueue;
+
+/**
+ * Implementation of {@link AssociateGreedyPacked} for {@link TupleDesc_F32}.  Supports
+ * {@link ScoreAssociateEuclideanSq_F32} and {@link ScoreAssociateSad_F32}.
+ *
+ * @author Peter Abeles
+ */
+public class AssociateGreedyPacked_F32 extends AssociateGreedyPacked<TupleDesc_F32> {
+
+	// if true the euclidean distance squared is used, otherwise SAD
+	boolean euclideanSq;
+
+	// descriptors stored one after another
+	float packedSrc[] = new float[0];
+	float packedDst[] = new float[0];
+
+	public AssociateGreedyPacked_F32(ScoreAssociation<TupleDesc_F32> score, boolean backwardsValidation) {
+		super(score, backwardsValidation);
+
+		if( score.getClass() == ScoreAssociateEuclideanSq_F32.class )
+			euclideanSq = true;
+		else if( score.getClass() == ScoreAssociateSad_F32.class )
+			euclideanSq = false;
+		else
+			throw new IllegalArgumentException("Unsupported score "+score.getClass().getSimpleName());
+	}
+
+	/**
+	 * Returns true if the score can be computed by this class
+	 */
+	public static boolean isSupported( ScoreAssociation score ) {
+		Class c = score.getClass();
+		return c == ScoreAssociateEuclideanSq_F32.class || c == ScoreAssociateSad_F32.class;
+	}
+
+	@Override
+	protected void pack(FastQueue<TupleDesc_F32> src, FastQueue<TupleDesc_F32> dst) {
+		length = src.get(0).size();
+		packedSrc = pack(src, packedSrc);
+		packedDst = pack(dst, packedDst);
+	}
+
+	private float[] pack( FastQueue<TupleDesc_F32> list , float storage[] ) {
+		if( storage.length < list.size*length )
+			storage = new float[list.size*length];
+
+		for( int i = 0; i < list.size; i++ ) {
+			float value[] = list.data[i].value;
+			if( value.length != length )
+				throw new IllegalArgumentException("All descriptors must have the same length");
+			System.arraycopy(value, 0, storage, i*length, length);
+		}
+		return storage;
+	}
+
+	@Override
+	protected void scoreRow(int indexSrc, int dst0, int dst1, double[] scores) {
+		final int length = this.length;
+		final float a[] = packedSrc;
+		final float b[] = packedDst;
+		final int indexA = indexSrc*length;
+
+		// accumulate the same way as DescriptorDistance so that the results are identical
+		if( euclideanSq ) {
+			// Score four destination features at once.  See AssociateGreedyPacked_F64
+			int j = dst0;
+			for( ; j+4 <= dst1; j += 4 ) {
+				int indexB0 = j*length;
+				int indexB1 = indexB0+length;
+				int indexB2 = indexB1+length;
+				int indexB3 = indexB2+length;
+				float total0 = 0, total1 = 0, total2 = 0, total3 = 0;
+				for( int k = 0; k < length; k++ ) {
+					float v = a[indexA+k];
+					double d0 = v-b[indexB0+k];
+					double d1 = v-b[indexB1+k];
+					double d2 = v-b[indexB2+k];
+					double d3 = v-b[indexB3+k];
+					total0 += d0*d0;
+					total1 += d1*d1;
+					total2 += d2*d2;
+					total3 += d3*d3;
+				}
+				scores[j-dst0  ] = total0;
+				scores[j-dst0+1] = total1;
+				scores[j-dst0+2] = total2;
+				scores[j-dst0+3] = total3;
+			}
+			for( ; j < dst1; j++ ) {
+				int indexB = j*length;
+				float total = 0;
+				for( int k = 0; k < length; k++ ) {
+					double d = a[indexA+k]-b[indexB+k];
+					total += d*d;
+				}
+				scores[j-dst0] = total;
+			}
+		} else {
+			for( int j = dst0; j < dst1; j++ ) {
+				int indexB = j*length;
+				float total = 0;
+				for( int k = 0; k < length; k++ ) {
+					total += Math.abs(a[indexA+k]-b[indexB+k]);
+				}
+				scores[j-dst0] = total;
+			}
+		}
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.feature.associate;
+
+import boofcv.abst.feature.associate.ScoreAssociateEuclideanSq_F64;
+import boofcv.abst.feature.associate.ScoreAssociateEuclidean_F64;
+import boofcv.abst.feature.associate.ScoreAssociateSad_F64;
+import boofcv.abst.feature.associate.ScoreAssociation;
+import boofcv.struct.feature.TupleDesc_F64;
+import org.ddogleg.struct.FastQueue;
+
+/**
+ * Implementation of {@link AssociateGreedyPacked} for {@link TupleDesc_F64}.  Supports
+ * {@link ScoreAssociateEuclideanSq_F64}, {@link ScoreAssociateEuclidean_F64}, and {@link ScoreAssociateSad_F64}.
+ *
+ * @author Peter Abeles
+ */
+public class AssociateGreedyPacked_F64<D extends TupleDesc_F64> extends AssociateGreedyPacked<D> {
+
+	// which score function is used
+	Type type;
+
+	// descriptors stored one after another
+	double packedSrc[] = new double[0];
+	double packedDst[] = new double[0];
+
+	public AssociateGreedyPacked_F64(ScoreAssociation<D> score, boolean backwardsValidation) {
+		super(score, backwardsValidation);
+
+		if( score.getClass() == ScoreAssociateEuclideanSq_F64.class )
+			type = Type.EUCLIDEAN_SQ;
+		else if( score.getClass() == ScoreAssociateEuclidean_F64.class )
+			type = Type.EUCLIDEAN;
+		else if( score.getClass() == ScoreAssociateSad_F64.class )
+			type = Type.SAD;
+		else
+			throw new IllegalArgumentException("Unsupported score "+score.getClass().getSimpleName());
+	}
+
+	/**
+	 * Returns true if the score can be computed by this class
+	 */
+	public static boolean isSupported( ScoreAssociation score ) {
+		Class c = score.getClass();
+		return c == ScoreAssociateEuclideanSq_F64.class || c == ScoreAssociateEuclidean_F64.class ||
+				c == ScoreAssociateSad_F64.class;
+	}
+
+	@Override
+	protected void pack(FastQueue<D> src, FastQueue<D> dst) {
+		length = src.get(0).size();
+		packedSrc = pack(src, packedSrc);
+		packedDst = pack(dst, packedDst);
+	}
+
+	private double[] pack( FastQueue<D> list , double storage[] ) {
+		if( storage.length < list.size*length )
+			storage = new double[list.size*length];
+
+		for( int i = 0; i < list.size; i++ ) {
+			double value[] = list.data[i].value;
+			if( value.length != length )
+				throw new IllegalArgumentException("All descriptors must have the same length");
+			System.arraycopy(value, 0, storage, i*length, length);
+		}
+		return storage;
+	}
+
+	@Override
+	protected void scoreRow(int indexSrc, int dst0, int dst1, double[] scores) {
+		final int length = this.length;
+		final double a[] = packedSrc;
+		final double b[] = packedDst;
+		final int indexA = indexSrc*length;
+
+		switch( type ) {
+			case EUCLIDEAN_SQ:
+			case EUCLIDEAN: {
+				// Four destination features are scored at once.  This breaks up the dependency chain on the sum
+				// and reuses each element in the source descriptor.  Each sum is still computed in the same order
+				int j = dst0;
+				for( ; j+4 <= dst1; j += 4 ) {
+					int indexB0 = j*length;
+					int indexB1 = indexB0+length;
+					int indexB2 = indexB1+length;
+					int indexB3 = indexB2+length;
+					double total0 = 0, total1 = 0, total2 = 0, total3 = 0;
+					for( int k = 0; k < length; k++ ) {
+						double v = a[indexA+k];
+						double d0 = v-b[indexB0+k];
+						double d1 = v-b[indexB1+k];
+						double d2 = v-b[indexB2+k];
+						double d3 = v-b[indexB3+k];
+						total0 += d0*d0;
+						total1 += d1*d1;
+						total2 += d2*d2;
+						total3 += d3*d3;
+					}
+					scores[j-dst0  ] = total0;
+					scores[j-dst0+1] = total1;
+					scores[j-dst0+2] = total2;
+					scores[j-dst0+3] = total3;
+				}
+				for( ; j < dst1; j++ ) {
+					int indexB = j*length;
+					double total = 0;
+					for( int k = 0; k < length; k++ ) {
+						double d = a[indexA+k]-b[indexB+k];
+						total += d*d;
+					}
+					scores[j-dst0] = total;
+				}
+				if( type == Type.EUCLIDEAN ) {
+					for( j = dst0; j < dst1; j++ ) {
+						scores[j-dst0] = Math.sqrt(scores[j-dst0]);
+					}
+				}
+			} break;
+
+			case SAD:
+				for( int j = dst0; j < dst1; j++ ) {
+					int indexB = j*length;
+					double total = 0;
+					for( int k = 0; k < length; k++ ) {
+						total += Math.abs(a[indexA+k]-b[indexB+k]);
+					}
+					scores[j-dst0] = total;
+				}
+				break;
+		}
+	}
+
+	enum Type {
+		EUCLIDEAN_SQ,
+		EUCLIDEAN,
+		SAD
+	}
+}
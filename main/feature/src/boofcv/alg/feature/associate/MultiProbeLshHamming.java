@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.feature.associate;
+
+import boofcv.alg.descriptor.DescriptorDistance;
+import boofcv.struct.feature.TupleDesc_B;
+import org.ddogleg.struct.FastQueue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * <p>
+ * Approximate nearest-neighbor search for binary descriptors using multi-probe Locality Sensitive Hashing (LSH) [1,2].
+ * Each hash table uses a different set of randomly selected bits from the descriptor as its key.  Descriptors which
+ * are close in hamming distance are likely to share the same key in at least one table.  When searching, buckets
+ * whose keys are within a hamming distance of the query's key are probed too, which increases the recall without
+ * needing more tables.  The true hamming distance is computed for every candidate found in a probed bucket and the
+ * best one is returned.
+ * </p>
+ *
+ * <p>
+ * Trade off between speed and recall:
+ * <ul>
+ * <li>More tables increase recall and the amount of memory and time.</li>
+ * <li>More bits in the key make buckets smaller, which is faster but reduces recall.  A table uses
+ * 2<sup>bits</sup> integers, so only use a large number of bits with a large number of points.</li>
+ * <li>A larger probe distance increases recall and search time.  0 = only the query's bucket,
+ * 1 = also buckets with one bit flipped, 2 = also buckets with two bits flipped.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Searches with different {@link Search} instances can be done concurrently once the points have been set.
+ * </p>
+ *
+ * <p>
+ * [1] Gionis, A., Indyk, P., and Motwani, R. "Similarity search in high dimensions via hashing." VLDB 1999<br>
+ * [2] Lv, Q., et al. "Multi-probe LSH: efficient indexing for high-dimensional similarity search." VLDB 2007
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MultiProbeLshHamming {
+	// number of hash tables
+	int numTables;
+	// number of bits in each key
+	int bitsPerKey;
+	// maximum number of bits which are flipped when probing
+	int probeDistance;
+
+	Random rand;
+
+	// bit in the descriptor which is used for each bit in the key.  [table][bit]
+	int keyBits[][];
+	// the number of bits in the descriptor that the key bits were selected for
+	int descriptorBits = -1;
+
+	// Buckets for each table are stored in a compressed format.  Points in bucket 'i' of table 't' are
+	// bucketPoints[t][bucketStart[t][i]] to bucketPoints[t][bucketStart[t][i+1]-1]
+	int bucketStart[][];
+	int bucketPoints[][];
+
+	// the points which are being searched
+	FastQueue<TupleDesc_B> points;
+
+	// internal search used by the simplified version of findNearest
+	Search defaultSearch;
+
+	/**
+	 * Configures the search.
+	 *
+	 * @param numTables Number of hash tables.  Try 8
+	 * @param bitsPerKey Number of bits in each key.  1 to 24.  Try log2 of the number of points.
+	 * @param probeDistance Maximum number of flipped key bits in probed buckets.  0 to 2.  Try 1
+	 * @param randomSeed Seed used to select the key bits
+	 */
+	public MultiProbeLshHamming(int numTables, int bitsPerKey, int probeDistance, long randomSeed) {
+		if( numTables < 1 )
+			throw new IllegalArgumentException("Must have at least one table");
+		if( bitsPerKey < 1 || bitsPerKey > 24 )
+			throw new IllegalArgumentException("bitsPerKey must be from 1 to 24");
+		if( probeDistance < 0 || probeDistance > 2 )
+			throw new IllegalArgumentException("probeDistance must be from 0 to 2");
+
+		this.numTables = numTables;
+		this.bitsPerKey = bitsPerKey;
+		this.probeDistance = probeDistance;
+		this.rand = new Random(randomSeed);
+
+		bucketStart = new int[numTables][];
+		bucketPoints = new int[numTables][0];
+	}
+
+	/**
+	 * Specifies the points which are searched and creates the hash tables.  A reference to the list is saved
+	 * and it must not be modified while searching.
+	 *
+	 * @param points Points which are to be searched.  All must have the same number of bits.
+	 */
+	public void setPoints( FastQueue<TupleDesc_B> points ) {
+		this.points = points;
+		this.defaultSearch = null;
+
+		if( points.size == 0 )
+			return;
+
+		int numBits = points.get(0).numBits;
+		if( numBits < bitsPerKey )
+			throw new IllegalArgumentException("Descriptor has fewer bits than the key");
+		if( numBits != descriptorBits )
+			selectKeyBits(numBits);
+
+		int numBuckets = 1 << bitsPerKey;
+		int keys[] = new int[points.size];
+
+		for( int table = 0; table < numTables; table++ ) {
+			if( bucketStart[table] == null )
+				bucketStart[table] = new int[numBuckets+1];
+			if( bucketPoints[table].length < points.size )
+				bucketPoints[table] = new int[points.size];
+
+			int start[] = bucketStart[table];
+			int members[] = bucketPoints[table];
+
+			// counting sort by key
+			Arrays.fill(start, 0);
+			for( int i = 0; i < points.size; i++ ) {
+				TupleDesc_B p = points.data[i];
+				if( p.numBits != descriptorBits )
+					throw new IllegalArgumentException("All descriptors must have the same number of bits");
+				keys[i] = computeKey(table, p);
+				start[keys[i]+1]++;
+			}
+			for( int i = 0; i < numBuckets; i++ ) {
+				start[i+1] += start[i];
+			}
+			// use the start of the next bucket as a cursor then shift it back
+			for( int i = 0; i < points.size; i++ ) {
+				members[start[keys[i]]++] = i;
+			}
+			for( int i = numBuckets; i > 0; i-- ) {
+				start[i] = start[i-1];
+			}
+			start[0] = 0;
+		}
+	}
+
+	/**
+	 * Randomly selects the bits in the descriptor that each table uses in its key
+	 */
+	private void selectKeyBits( int numBits ) {
+		descriptorBits = numBits;
+		keyBits = new int[numTables][bitsPerKey];
+
+		int shuffled[] = new int[numBits];
+		for( int i = 0; i < numBits; i++ ) {
+			shuffled[i] = i;
+		}
+
+		for( int table = 0; table < numTables; table++ ) {
+			// partial Fisher-Yates shuffle
+			for( int i = 0; i < bitsPerKey; i++ ) {
+				int j = i + rand.nextInt(numBits-i);
+				int tmp = shuffled[i];
+				shuffled[i] = shuffled[j];
+				shuffled[j] = tmp;
+				keyBits[table][i] = shuffled[i];
+			}
+		}
+	}
+
+	/**
+	 * Computes the key for the descriptor in the specified table
+	 */
+	int computeKey( int table , TupleDesc_B desc ) {
+		int bits[] = keyBits[table];
+		int key = 0;
+		for( int i = 0; i < bitsPerKey; i++ ) {
+			int bit = bits[i];
+			key |= ((desc.data[bit >> 5] >>> (bit & 31)) & 1) << i;
+		}
+		return key;
+	}
+
+	/**
+	 * Creates storage for searching.  Each thread must have its own instance.
+	 */
+	public Search createSearch() {
+		return new Search();
+	}
+
+	/**
+	 * Searches for the point with the smallest hamming distance to the query.  Not thread safe.
+	 *
+	 * @see #findNearest(TupleDesc_B, int, Search)
+	 */
+	public int findNearest( TupleDesc_B query , int maxDistance ) {
+		if( defaultSearch == null )
+			defaultSearch = createSearch();
+		return findNearest(query, maxDistance, defaultSearch);
+	}
+
+	/**
+	 * Searches for the point with the smallest hamming distance to the query.  If there are multiple points with
+	 * the same distance the one with the lowest index is returned.
+	 *
+	 * @param query The descriptor being searched for
+	 * @param maxDistance Maximum allowed hamming distance, inclusive
+	 * @param search Storage for the search.  Distance to the best point is saved here.
+	 * @return Index of the best point or -1 if none were found
+	 */
+	public int findNearest( TupleDesc_B query , int maxDistance , Search search ) {
+		search.begin(points.size);
+		if( points.size == 0 )
+			return -1;
+
+		for( int table = 0; table < numTables; table++ ) {
+			int key = computeKey(table, query);
+
+			search.checkBucket(table, key, query, maxDistance);
+			if( probeDistance >= 1 ) {
+				for( int i = 0; i < bitsPerKey; i++ ) {
+					int keyI = key ^ (1 << i);
+					search.checkBucket(table, keyI, query, maxDistance);
+					if( probeDistance >= 2 ) {
+						for( int j = i+1; j < bitsPerKey; j++ ) {
+							search.checkBucket(table, keyI ^ (1 << j), query, maxDistance);
+						}
+					}
+				}
+			}
+		}
+
+		return search.bestIndex;
+	}
+
+	public int getNumTables() {
+		return numTables;
+	}
+
+	public int getBitsPerKey() {
+		return bitsPerKey;
+	}
+
+	public int getProbeDistance() {
+		return probeDistance;
+	}
+
+	/**
+	 * Storage for a single search
+	 */
+	public class Search {
+		// used to avoid computing the distance to the same point twice
+		int visited[] = new int[0];
+		int queryID = 0;
+
+		int bestIndex;
+		// hamming distance of the best point
+		public int bestDistance;
+		// number of points which the distance was computed for
+		public int candidates;
+
+		void begin( int numPoints ) {
+			if( visited.length < numPoints ) {
+				visited = new int[numPoints];
+				queryID = 0;
+			}
+			// start over when the counter rolls over
+			if( ++queryID == Integer.MAX_VALUE ) {
+				Arrays.fill(visited, 0);
+				queryID = 1;
+			}
+			bestIndex = -1;
+			bestDistance = Integer.MAX_VALUE;
+			candidates = 0;
+		}
+
+		void checkBucket( int table , int key , TupleDesc_B query , int maxDistance ) {
+			int start[] = bucketStart[table];
+			int members[] = bucketPoints[table];
+
+			for( int k = start[key]; k < start[key+1]; k++ ) {
+				int index = members[k];
+				if( visited[index] == queryID )
+					continue;
+				visited[index] = queryID;
+				candidates++;
+
+				int distance = DescriptorDistance.hamming(query, points.data[index]);
+				if( distance > maxDistance )
+					continue;
+				if( distance < bestDistance || (distance == bestDistance && index < bestIndex) ) {
+					bestDistance = distance;
+					bestIndex = index;
+				}
+			}
+		}
+	}
+}
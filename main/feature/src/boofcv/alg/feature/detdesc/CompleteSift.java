@@ -133,6 +133,25 @@ public class CompleteSift extends SiftDetector
 		}
 	}
 
+	/**
+	 * Discards all previously found features.  Used when this instance is a worker in {@link CompleteSift_MT}.
+	 */
+	void resetWorker() {
+		features.reset();
+		locations.reset();
+		orientations.reset();
+		detections.reset();
+	}
+
+	/**
+	 * Detects and describes features in a single scale of the current octave.  Used when this instance is a worker
+	 * in {@link CompleteSift_MT}.
+	 */
+	void processWorkerScale( int scaleIndex , double pixelScaleToInput ) {
+		this.pixelScaleToInput = pixelScaleToInput;
+		detectScale(scaleIndex);
+	}
+
 	public FastQueue<ScalePoint> getLocations() {
 		return locations;
 	}
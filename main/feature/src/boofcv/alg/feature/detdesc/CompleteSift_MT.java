@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.feature.detdesc;
+
+import boofcv.abst.feature.detect.extract.NonMaxLimiter;
+import boofcv.alg.feature.describe.DescribePointSift;
+import boofcv.alg.feature.detect.interest.SiftScaleSpace;
+import boofcv.alg.feature.orientation.OrientationHistogramSift;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.struct.feature.ScalePoint;
+import boofcv.struct.image.GrayF32;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Concurrent implementation of {@link CompleteSift}.  Inside each octave the DoG images are processed in parallel.
+ * Detection, orientation estimation, and description for a DoG image is done by a worker which has its own
+ * {@link NonMaxLimiter}, {@link OrientationHistogramSift}, {@link DescribePointSift}, and image gradient.
+ * If there are fewer workers than scales then each worker processes several scales.  After an octave has been
+ * processed the results are copied from the workers in order of scale, making the output identical to the
+ * single threaded version.
+ * </p>
+ *
+ * <p>
+ * See {@link SiftScaleSpace} for how the scale-space is computed concurrently.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CompleteSift_MT extends CompleteSift {
+
+	// each worker detects and describes features in a subset of the scales
+	List<CompleteSift> workers = new ArrayList<>();
+
+	// Range of detections and features in the worker that were found in each scale of the current octave
+	int detectionStart[], detectionEnd[];
+	int featureStart[], featureEnd[];
+
+	/**
+	 * Configures SIFT.  The number of workers is the size of the lists, which must all be the same size.
+	 * See {@link CompleteSift#CompleteSift} for a description of each parameter.
+	 *
+	 * @param extractors One for each worker.
+	 * @param orientations One for each worker.
+	 * @param describes One for each worker.
+	 */
+	public CompleteSift_MT(SiftScaleSpace scaleSpace, double edgeR, List<NonMaxLimiter> extractors,
+						   List<OrientationHistogramSift<GrayF32>> orientations,
+						   List<DescribePointSift<GrayF32>> describes) {
+		super(scaleSpace, edgeR, extractors.get(0), orientations.get(0), describes.get(0));
+
+		if( extractors.size() != orientations.size() || extractors.size() != describes.size() )
+			throw new IllegalArgumentException("All the lists must have the same number of elements");
+
+		for (int i = 0; i < extractors.size(); i++) {
+			workers.add(new CompleteSift(scaleSpace, edgeR, extractors.get(i), orientations.get(i), describes.get(i)));
+		}
+
+		int numScales = scaleSpace.getNumScales();
+		detectionStart = new int[numScales+1];
+		detectionEnd = new int[numScales+1];
+		featureStart = new int[numScales+1];
+		featureEnd = new int[numScales+1];
+	}
+
+	@Override
+	public void process(GrayF32 input) {
+		for (int i = 0; i < workers.size(); i++) {
+			workers.get(i).resetWorker();
+		}
+		super.process(input);
+	}
+
+	@Override
+	protected void detectOctave() {
+		final int numScales = scaleSpace.getNumScales();
+		final int numWorkers = Math.min(workers.size(), numScales);
+
+		BoofConcurrency.loopBlocks(0, numWorkers, 1, new IntRangeTask() {
+			@Override
+			public void process(int minInclusive, int maxExclusive) {
+				for (int index = minInclusive; index < maxExclusive; index++) {
+					CompleteSift w = workers.get(index);
+
+					for (int j = 1+index; j < numScales+1; j += numWorkers) {
+						detectionStart[j] = w.getDetections().size;
+						featureStart[j] = w.features.size;
+						w.processWorkerScale(j, pixelScaleToInput);
+						detectionEnd[j] = w.getDetections().size;
+						featureEnd[j] = w.features.size;
+					}
+				}
+			}
+		});
+
+		// copy the results in the same order that they would have been found in by the single threaded code
+		for (int j = 1; j < numScales+1; j++) {
+			CompleteSift w = workers.get((j-1)%numWorkers);
+
+			int f = featureStart[j];
+			for (int d = detectionStart[j]; d < detectionEnd[j]; d++) {
+				ScalePoint workerP = w.getDetections().get(d);
+				ScalePoint p = detections.grow();
+				p.set(workerP);
+
+				// each detection can have multiple orientations and thus multiple features
+				while( f < featureEnd[j] && w.locations.get(f) == workerP ) {
+					features.grow().setTo(w.features.get(f));
+					orientations.add(w.orientations.get(f));
+					locations.add(p);
+					f++;
+				}
+			}
+		}
+	}
+
+	public List<CompleteSift> getWorkers() {
+		return workers;
+	}
+}
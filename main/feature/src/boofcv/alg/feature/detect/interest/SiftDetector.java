@@ -171,23 +171,38 @@ public class SiftDetector {
 			// scale from octave to input image
 			pixelScaleToInput = scaleSpace.pixelScaleCurrentToInput();
 
-			// detect features in the image
-			for (int j = 1; j < scaleSpace.getNumScales()+1; j++) {
-
-				// not really sure how to compute the scale for features found at a particular DoG image
-				// using the average resulted in less visually appealing circles in a test image
-				sigmaLower  = scaleSpace.computeSigmaScale( j - 1);
-				sigmaTarget = scaleSpace.computeSigmaScale( j    );
-				sigmaUpper  = scaleSpace.computeSigmaScale( j + 1);
+			detectOctave();
+		} while( scaleSpace.computeNextOctave() );
+	}
 
-				// grab the local DoG scale space images
-				dogLower  = scaleSpace.getDifferenceOfGaussian(j-1);
-				dogTarget = scaleSpace.getDifferenceOfGaussian(j  );
-				dogUpper  = scaleSpace.getDifferenceOfGaussian(j+1);
+	/**
+	 * Detects features in every DoG image in the current octave which has a DoG image above and below it.
+	 */
+	protected void detectOctave() {
+		for (int j = 1; j < scaleSpace.getNumScales()+1; j++) {
+			detectScale(j);
+		}
+	}
 
-				detectFeatures(j);
-			}
-		} while( scaleSpace.computeNextOctave() );
+	/**
+	 * Sets up the local scale space around the specified DoG image in the current octave then detects features
+	 * inside of it.
+	 *
+	 * @param scaleIndex Index of the DoG image.  Must have a DoG image above and below it.
+	 */
+	protected void detectScale( int scaleIndex ) {
+		// not really sure how to compute the scale for features found at a particular DoG image
+		// using the average resulted in less visually appealing circles in a test image
+		sigmaLower  = scaleSpace.computeSigmaScale( scaleIndex - 1);
+		sigmaTarget = scaleSpace.computeSigmaScale( scaleIndex    );
+		sigmaUpper  = scaleSpace.computeSigmaScale( scaleIndex + 1);
+
+		// grab the local DoG scale space images
+		dogLower  = scaleSpace.getDifferenceOfGaussian(scaleIndex-1);
+		dogTarget = scaleSpace.getDifferenceOfGaussian(scaleIndex  );
+		dogUpper  = scaleSpace.getDifferenceOfGaussian(scaleIndex+1);
+
+		detectFeatures(scaleIndex);
 	}
 
 	/**
@@ -18,10 +18,13 @@
 
 package boofcv.alg.feature.detect.interest;
 
+import boofcv.alg.filter.blur.BlurImageOps;
 import boofcv.alg.filter.convolve.GConvolveImageOps;
 import boofcv.alg.interpolate.InterpolatePixelS;
 import boofcv.alg.misc.PixelMath;
 import boofcv.alg.transform.pyramid.PyramidOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
 import boofcv.core.image.border.BorderType;
 import boofcv.factory.filter.kernel.FactoryKernel;
 import boofcv.factory.filter.kernel.FactoryKernelGaussian;
@@ -36,6 +39,13 @@ import boofcv.struct.image.GrayF32;
  * is intended to be a faithful reproduction of the original work.
  * </p>
  *
+ * <p>
+ * Concurrency: If {@link BoofConcurrency#USE_CONCURRENT} is true then the DoG images in an octave are computed in
+ * parallel.  Each scale image is computed by blurring the one below it, so scales are still computed in sequence,
+ * but the convolution inside each blur is split into bands of rows by {@link boofcv.alg.filter.convolve.ConvolveImageNoBorder}.
+ * Results are identical to the single threaded code.
+ * </p>
+ *
  * Known Deviations From Original SIFT:
  * <ul>
  * <li>No prior blur is applied to input image.  Nor should you apply any.</li>
@@ -73,6 +83,11 @@ public class SiftScaleSpace {
 	// precomputed kernels
 	Kernel1D_F32 kernelSigma0;
 	Kernel1D_F32 kernelSigmaToK[];
+	// sigma of each precomputed kernel
+	double sigmaToK[];
+
+	// images which are blurred using a sigma at or above this value use the recursive Gaussian filter
+	double minSigmaRecursive = Double.MAX_VALUE;
 
 	// the input image
 	GrayF32 input;
@@ -131,12 +146,14 @@ public class SiftScaleSpace {
 		kernelSigma0 = (Kernel1D_F32) FactoryKernelGaussian.gaussian(kernelType, sigma0, -1);
 
 		kernelSigmaToK = new Kernel1D_F32[numScales+2];
+		sigmaToK = new double[numScales+2];
 		for (int i = 1; i < numScales + 3; i++) {
 			double before = computeSigmaScale(0, i - 1);
 
 			// compute the sigma that when applied to the previous scale will produce k*scale
 			// k*sigma_{i-1} = conv( sigma_(i-1) , sigma)
 			double sigma = before*Math.sqrt(levelK-1.0);
+			sigmaToK[i-1] = sigma;
 			kernelSigmaToK[i-1] = (Kernel1D_F32)FactoryKernelGaussian.gaussian(kernelType, sigma, -1);
 		}
 
@@ -174,15 +191,15 @@ public class SiftScaleSpace {
 		if( firstOctave < 0 ) {
 			PyramidOps.scaleImageUp(input,tempImage1,-2*firstOctave,interp);
 			tempImage0.reshape(tempImage1.width, tempImage1.height);
-			applyGaussian(tempImage1, tempImage0, kernelSigma0);
+			applyGaussian(tempImage1, tempImage0, kernelSigma0, sigma0);
 		} else {
 			tempImage0.reshape(input.width, input.height);
-			applyGaussian(input, tempImage0, kernelSigma0);
+			applyGaussian(input, tempImage0, kernelSigma0, sigma0);
 			
 			for (int i = 0; i < firstOctave; i++) {
 				tempImage1.reshape(tempImage0.width, tempImage0.height);
 				// first image in the next octave will have 2x the blur as the first image in the prior octave
-				applyGaussian(tempImage0, tempImage1, kernelSigma0);
+				applyGaussian(tempImage0, tempImage1, kernelSigma0, sigma0);
 				// next octave has half the spacial resolution
 				PyramidOps.scaleDown2(tempImage1, tempImage0);
 			}
@@ -218,12 +235,27 @@ public class SiftScaleSpace {
 		octaveImages[0] = tempImage0;
 		for (int i = 1; i < numScales+3; i++) {
 			octaveImages[i].reshape(tempImage0.width, tempImage0.height);
-			applyGaussian(octaveImages[i - 1], octaveImages[i], kernelSigmaToK[i-1]);
+			applyGaussian(octaveImages[i - 1], octaveImages[i], kernelSigmaToK[i-1], sigmaToK[i-1]);
 		}
 
 		for (int i = 1; i < numScales+3; i++) {
 			differenceOfGaussian[i-1].reshape(tempImage0.width, tempImage0.height);
-			PixelMath.subtract(octaveImages[i],octaveImages[i - 1],differenceOfGaussian[i-1]);
+		}
+
+		// each DoG image only depends on the two scale images it's computed from
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			BoofConcurrency.loopBlocks(1, numScales+3, 1, new IntRangeTask() {
+				@Override
+				public void process(int minInclusive, int maxExclusive) {
+					for (int i = minInclusive; i < maxExclusive; i++) {
+						PixelMath.subtract(octaveImages[i],octaveImages[i - 1],differenceOfGaussian[i-1]);
+					}
+				}
+			});
+		} else {
+			for (int i = 1; i < numScales+3; i++) {
+				PixelMath.subtract(octaveImages[i],octaveImages[i - 1],differenceOfGaussian[i-1]);
+			}
 		}
 	}
 
@@ -236,14 +268,39 @@ public class SiftScaleSpace {
 	}
 
 	/**
-	 * Applies the separable kernel to the input image and stores the results in the output image.
+	 * Applies the separable kernel to the input image and stores the results in the output image.  If
+	 * sigma is at least {@link #getMinSigmaRecursive()} then a recursive Gaussian with the same sigma is used instead.
 	 */
-	void applyGaussian(GrayF32 input, GrayF32 output, Kernel1D kernel) {
+	void applyGaussian(GrayF32 input, GrayF32 output, Kernel1D kernel, double sigma) {
+		if( sigma >= minSigmaRecursive ) {
+			BlurImageOps.gaussianRecursive(input, output, sigma);
+			return;
+		}
 		tempBlur.reshape(input.width, input.height);
 		GConvolveImageOps.horizontalNormalized(kernel, input, tempBlur);
 		GConvolveImageOps.verticalNormalized(kernel, tempBlur,output);
 	}
 
+	public double getMinSigmaRecursive() {
+		return minSigmaRecursive;
+	}
+
+	/**
+	 * Images which are blurred using a sigma at or above this value will use
+	 * {@link BlurImageOps#gaussianRecursive(GrayF32, GrayF32, double)} instead of convolution.  Its cost doesn't
+	 * depend on sigma but it's an approximation which is least accurate for small sigmas, and is only faster
+	 * than convolution once sigma is about 3 or more.  With the typical configuration, SIFT only blurs with
+	 * sigmas from 0.8 to about 2, so this is only useful when there are few scales per octave or sigma0 is
+	 * large.  By default recursive blur is never used.
+	 *
+	 * @param minSigmaRecursive Smallest sigma which uses recursive blur.  Must be &ge; 0.5
+	 */
+	public void setMinSigmaRecursive(double minSigmaRecursive) {
+		if( minSigmaRecursive < 0.5 )
+			throw new IllegalArgumentException("Recursive Gaussian requires sigma >= 0.5");
+		this.minSigmaRecursive = minSigmaRecursive;
+	}
+
 	public int getNumScales() {
 		return numScales;
 	}
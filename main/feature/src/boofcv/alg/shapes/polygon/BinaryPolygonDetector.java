@@ -223,7 +223,7 @@ public class BinaryPolygonDetector<T extends ImageGray> {
 		if( verbose ) System.out.println("ENTER  BinaryPolygonDetector.process()");
 		InputSanityCheck.checkSameShape(binary, gray);
 
-		if( labeled.width != gray.width || labeled.height == gray.width )
+		if( labeled.width != gray.width || labeled.height != gray.height )
 			configure(gray.width,gray.height);
 
 		found.reset();
@@ -247,7 +247,13 @@ public class BinaryPolygonDetector<T extends ImageGray> {
 		// resize storage images
 		labeled.reshape(width, height);
 
-		// adjust size based parameters based on image size
+		configureSize(width, height);
+	}
+
+	/**
+	 * Adjust size based parameters based on image size
+	 */
+	private void configureSize( int width , int height ) {
 		this.minimumContour = (int)(width*minContourFraction);
 		this.minimumArea = Math.pow(this.minimumContour /4.0,2);
 
@@ -255,162 +261,205 @@ public class BinaryPolygonDetector<T extends ImageGray> {
 			helper.setImageShape(width,height);
 	}
 
+	/**
+	 * Prepares this detector to process contours which were found by a different detector in the same image.
+	 * Used by {@link BinaryPolygonDetector_MT}.
+	 *
+	 * @param gray Input image
+	 * @param labeled Labeled image from the other detector.  Only its shape is used.
+	 */
+	void prepareWorker( T gray , GrayS32 labeled ) {
+		// this.labeled is the other detector's image after the first call, so the shape can't be used to
+		// detect a change
+		configureSize(labeled.width, labeled.height);
+		this.labeled = labeled;
+
+		edgeIntensity.setImage(gray);
+		fitPolygon.setAbortSplits(2*maxSides);
+	}
+
 	/**
 	 * Finds blobs in the binary image.  Then looks for blobs that meet size and shape requirements.  See code
 	 * below for the requirements.  Those that remain are considered to be target candidates.
 	 */
 	private void findCandidateShapes( T gray , GrayU8 binary ) {
 
-		int maxSidesConsider = (int)Math.ceil(maxSides*1.5);
-
 		// stop fitting the polygon if it clearly has way too many sides
 		fitPolygon.setAbortSplits(2*maxSides);
 
 		// find binary blobs
 		contourFinder.process(binary, labeled);
 
-		// find blobs where all 4 edges are lines
-		FastQueue<Contour> blobs = contourFinder.getContours();
+		processContours(gray, contourFinder.getContours());
+	}
+
+	/**
+	 * Fits polygons to each contour which is large enough, in order, and saves the ones which pass all the tests.
+	 */
+	protected void processContours( T gray , FastQueue<Contour> blobs ) {
 		for (int i = 0; i < blobs.size; i++) {
 			Contour c = blobs.get(i);
 
-			if( c.external.size() >= minimumContour) {
-//				System.out.println("----- candidate "+c.external.size());
-
-				// ignore shapes which touch the image border
-				boolean touchesBorder = touchesBorder(c.external);
-				if( !canTouchBorder && touchesBorder ) {
-					if( verbose ) System.out.println("rejected polygon, touched border");
-					continue;
-				}
-
-				if( helper != null )
-					if( !helper.filterContour(c.external,touchesBorder,true) )
-						continue;
-
-				// remove lens distortion
-				List<Point2D_I32> contourUndist;
-				if( distToUndist != null ) {
-					removeDistortionFromContour(c.external,this.contourUndist);
-					contourUndist = this.contourUndist.toList();
-					if( helper != null )
-						if( !helper.filterContour(contourUndist,touchesBorder,false) )
-							continue;
-				} else {
-					contourUndist = c.external;
-				}
-
-				if( !fitPolygon.process(contourUndist) ) {
-					if( verbose ) System.out.println("rejected polygon initial fit failed. contour size = "+c.external.size());
-					continue;
-				}
-
-				GrowQueue_I32 splits = fitPolygon.getSplits();
-				if( splits.size() > maxSidesConsider ) {
-					if( verbose ) System.out.println("Way too many corners, "+splits.size()+". Aborting before improve. Contour size "+c.external.size());
-					continue;
-				}
-
-				// Perform a local search and improve the corner placements
-				if( !improveContour.fit(contourUndist,splits) ) {
-					if( verbose ) System.out.println("rejected improve contour. contour size = "+c.external.size());
-					continue;
-				}
-
-				// reduce the number of corners based on an energy model
-				pruner.prune(c.external, splits, pruned);
-				splits = pruned;
-
-				// only accept polygons with the expected number of sides
-				if (!expectedNumberOfSides(splits)) {
+			if( c.external.size() < minimumContour)
+				continue;
+
+			Polygon2D_F64 refined = found.grow();
+			Info info = foundInfo.grow();
+
+			if( processContour(gray, c, refined, info) ) {
+				addFound(c);
+			} else {
+				found.removeTail();
+				foundInfo.removeTail();
+			}
+		}
+	}
+
+	/**
+	 * Marks the contour as being used by the most recently found polygon
+	 */
+	protected void addFound( Contour c ) {
+		c.id = found.size();
+		foundContours.add(c);
+	}
+
+	/**
+	 * Fits a polygon to the contour and refines it.
+	 *
+	 * @param gray Input image
+	 * @param c Contour of the candidate shape.  Must be at least the minimum contour length
+	 * @param refined (Output) The polygon
+	 * @param info (Output) Additional information on the polygon
+	 * @return true if a polygon was found which passed all the tests
+	 */
+	protected boolean processContour( T gray , Contour c , Polygon2D_F64 refined , Info info ) {
+		int maxSidesConsider = (int)Math.ceil(maxSides*1.5);
+
+		// ignore shapes which touch the image border
+		boolean touchesBorder = touchesBorder(c.external);
+		if( !canTouchBorder && touchesBorder ) {
+			if( verbose ) System.out.println("rejected polygon, touched border");
+			return false;
+		}
+
+		if( helper != null )
+			if( !helper.filterContour(c.external,touchesBorder,true) )
+				return false;
+
+		// remove lens distortion
+		List<Point2D_I32> contourUndist;
+		if( distToUndist != null ) {
+			removeDistortionFromContour(c.external,this.contourUndist);
+			contourUndist = this.contourUndist.toList();
+			if( helper != null )
+				if( !helper.filterContour(contourUndist,touchesBorder,false) )
+					return false;
+		} else {
+			contourUndist = c.external;
+		}
+
+		if( !fitPolygon.process(contourUndist) ) {
+			if( verbose ) System.out.println("rejected polygon initial fit failed. contour size = "+c.external.size());
+			return false;
+		}
+
+		GrowQueue_I32 splits = fitPolygon.getSplits();
+		if( splits.size() > maxSidesConsider ) {
+			if( verbose ) System.out.println("Way too many corners, "+splits.size()+". Aborting before improve. Contour size "+c.external.size());
+			return false;
+		}
+
+		// Perform a local search and improve the corner placements
+		if( !improveContour.fit(contourUndist,splits) ) {
+			if( verbose ) System.out.println("rejected improve contour. contour size = "+c.external.size());
+			return false;
+		}
+
+		// reduce the number of corners based on an energy model
+		pruner.prune(c.external, splits, pruned);
+		splits = pruned;
+
+		// only accept polygons with the expected number of sides
+		if (!expectedNumberOfSides(splits)) {
 //					System.out.println("First point "+c.external.get(0));
-					if( verbose ) System.out.println("rejected number of sides. "+splits.size()+"  contour "+c.external.size());
-					continue;
-				}
-
-				if( helper != null ) {
-					if( !helper.filterPixelPolygon(contourUndist,c.external,splits,touchesBorder) ) {
-						if( verbose ) System.out.println("rejected by helper.filterPixelPolygon()");
-						continue;
-					}
-				}
-
-				// convert the format of the initial crude polygon
-				workPoly.vertexes.resize(splits.size());
-				for (int j = 0; j < splits.size(); j++) {
-					Point2D_I32 p = contourUndist.get( splits.get(j));
-					workPoly.get(j).set(p.x,p.y);
-				}
-
-				if( helper != null ) {
-					helper.adjustBeforeOptimize(workPoly);
-				}
-
-				// Filter out polygons which are not convex if requested by the user
-				if( convex && !UtilPolygons2D_F64.isConvex(workPoly)) {
-					if( verbose ) System.out.println("Rejected not convex");
-					continue;
-				}
-
-				// make sure it's big enough
-				double area = Area2D_F64.polygonSimple(workPoly);
-
-				if( area < minimumArea ) {
-					if( verbose ) System.out.println("Rejected area");
-					continue;
-				}
-
-				// Test the edge quality and prune before performing an expensive optimization
-				if( checkEdgeBefore && !checkPolygonEdge(workPoly,workPoly.isCCW())) {
-//					if( verbose ) System.out.println("Rejected edge score before");
-					continue;
-				}
-
-				Polygon2D_F64 refined = found.grow();
-				refined.vertexes.resize(splits.size);
-
-				boolean success;
-				if( refinePolygon != null ) {
-					refinePolygon.setImage(gray);
-					success = refinePolygon.refine(workPoly,contourUndist,splits,refined);
-					if( verbose && !success ) System.out.println("Rejected after refinePolygon");
-				} else {
-					refined.set(workPoly);
-					success = true;
-				}
-
-				boolean refinedCCW = refined.isCCW();
-
-				// test it again with the full threshold
-				if( !checkPolygonEdge(refined,refinedCCW)) {
-					if( verbose ) System.out.println("Rejected edge score, after");
-					success = false;
-				}
-
-				// refine the polygon and add it to the found list
-				if( success ) {
-					if( outputClockwise == refinedCCW )
-						refined.flip();
-
-//					System.out.println("SUCCESS!!!\n");
-					c.id = found.size();
-					foundContours.add(c);
-
-					Info info = foundInfo.grow();
-					info.external = true;
-					info.borderCorners.reset();
-
-					if( touchesBorder ) {
-						// tolerance is a little bit above 0.5.pixels due to prior rounding to integer
-						determineCornersOnBorder(refined, info.borderCorners, 0.7f);
-					}
-					info.edgeInside = edgeIntensity.getAverageInside();
-					info.edgeOutside = edgeIntensity.getAverageOutside();
-				} else {
-					found.removeTail();
-				}
+			if( verbose ) System.out.println("rejected number of sides. "+splits.size()+"  contour "+c.external.size());
+			return false;
+		}
+
+		if( helper != null ) {
+			if( !helper.filterPixelPolygon(contourUndist,c.external,splits,touchesBorder) ) {
+				if( verbose ) System.out.println("rejected by helper.filterPixelPolygon()");
+				return false;
 			}
 		}
+
+		// convert the format of the initial crude polygon
+		workPoly.vertexes.resize(splits.size());
+		for (int j = 0; j < splits.size(); j++) {
+			Point2D_I32 p = contourUndist.get( splits.get(j));
+			workPoly.get(j).set(p.x,p.y);
+		}
+
+		if( helper != null ) {
+			helper.adjustBeforeOptimize(workPoly);
+		}
+
+		// Filter out polygons which are not convex if requested by the user
+		if( convex && !UtilPolygons2D_F64.isConvex(workPoly)) {
+			if( verbose ) System.out.println("Rejected not convex");
+			return false;
+		}
+
+		// make sure it's big enough
+		double area = Area2D_F64.polygonSimple(workPoly);
+
+		if( area < minimumArea ) {
+			if( verbose ) System.out.println("Rejected area");
+			return false;
+		}
+
+		// Test the edge quality and prune before performing an expensive optimization
+		if( checkEdgeBefore && !checkPolygonEdge(workPoly,workPoly.isCCW())) {
+//					if( verbose ) System.out.println("Rejected edge score before");
+			return false;
+		}
+
+		refined.vertexes.resize(splits.size);
+
+		boolean success;
+		if( refinePolygon != null ) {
+			refinePolygon.setImage(gray);
+			success = refinePolygon.refine(workPoly,contourUndist,splits,refined);
+			if( verbose && !success ) System.out.println("Rejected after refinePolygon");
+		} else {
+			refined.set(workPoly);
+			success = true;
+		}
+
+		boolean refinedCCW = refined.isCCW();
+
+		// test it again with the full threshold
+		if( !checkPolygonEdge(refined,refinedCCW)) {
+			if( verbose ) System.out.println("Rejected edge score, after");
+			success = false;
+		}
+
+		if( !success )
+			return false;
+
+		if( outputClockwise == refinedCCW )
+			refined.flip();
+
+		info.external = true;
+		info.borderCorners.reset();
+
+		if( touchesBorder ) {
+			// tolerance is a little bit above 0.5.pixels due to prior rounding to integer
+			determineCornersOnBorder(refined, info.borderCorners, 0.7f);
+		}
+		info.edgeInside = edgeIntensity.getAverageInside();
+		info.edgeOutside = edgeIntensity.getAverageOutside();
+		return true;
 	}
 
 	/**
@@ -516,6 +565,29 @@ public class BinaryPolygonDetector<T extends ImageGray> {
 		this.helper = helper;
 	}
 
+	public PolygonHelper getHelper() {
+		return helper;
+	}
+
+	/**
+	 * Minimum number of pixels in a contour for it to be considered.  Computed from the image width.
+	 */
+	public int getMinimumContour() {
+		return minimumContour;
+	}
+
+	public double getMinContourFraction() {
+		return minContourFraction;
+	}
+
+	/**
+	 * Changes the minimum contour length as a fraction of the input image's width.
+	 */
+	public void setMinContourFraction(double minContourFraction) {
+		this.minContourFraction = minContourFraction;
+		configureSize(labeled.width, labeled.height);
+	}
+
 	public boolean isConvex() {
 		return convex;
 	}
@@ -631,5 +703,12 @@ public class BinaryPolygonDetector<T extends ImageGray> {
 		 * true means the corner is a border corner.
 		 */
 		public GrowQueue_B borderCorners = new GrowQueue_B();
+
+		public void set( Info src ) {
+			this.external = src.external;
+			this.edgeInside = src.edgeInside;
+			this.edgeOutside = src.edgeOutside;
+			this.borderCorners.setTo(src.borderCorners);
+		}
 	}
 }
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.shapes.polygon;
+
+import boofcv.alg.distort.PixelTransformCached_F32;
+import boofcv.alg.distort.PixelTransformOffset_F32;
+import boofcv.alg.filter.binary.Contour;
+import boofcv.alg.shapes.polyline.SplitMergeLineFitLoop;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.struct.distort.PixelTransform2_F32;
+import boofcv.struct.image.ImageGray;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Concurrent implementation of {@link BinaryPolygonDetector}.  The binary image is labeled and its contours are
+ * found once in the calling thread.  Fitting a polygon to each contour, refining it, and checking its edge
+ * intensity is then done in parallel by workers, where each worker is a complete {@link BinaryPolygonDetector}
+ * with its own polygon fitting and refinement algorithms.  Contours are assigned to workers in an interleaved
+ * order so that the work is spread evenly.  Once all the contours have been processed the results are copied in
+ * the order of the contours, making the output identical to the single threaded version.
+ * </p>
+ *
+ * <p>
+ * If a {@link PolygonHelper} is specified or the refinement algorithm is changed after construction then
+ * the contours are processed sequentially, since neither can be safely shared between threads.  The same is
+ * true for lens distortion transforms which can't be copied for each worker, see
+ * {@link #setLensDistortion(int, int, PixelTransform2_F32, PixelTransform2_F32)}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BinaryPolygonDetector_MT<T extends ImageGray> extends BinaryPolygonDetector<T> {
+
+	// each worker processes a subset of the contours
+	List<BinaryPolygonDetector<T>> workers;
+
+	// false if the refinement algorithm has been changed and the workers no longer match this detector
+	boolean workersSynchronized = true;
+	// false if the lens distortion couldn't be given to the workers
+	boolean workersDistortion = true;
+
+	// index of contours which are large enough to be processed
+	GrowQueue_I32 candidates = new GrowQueue_I32();
+	// results for each candidate contour
+	FastQueue<Polygon2D_F64> candidatePolygons = new FastQueue<>(Polygon2D_F64.class,true);
+	FastQueue<Info> candidateInfo = new FastQueue<>(Info.class,true);
+	boolean candidateSuccess[] = new boolean[0];
+
+	/**
+	 * Configures the detector.  See {@link BinaryPolygonDetector#BinaryPolygonDetector} for a description of each
+	 * parameter.
+	 *
+	 * @param workers Detectors which process the contours in parallel.  Should be configured identically to this one.
+	 */
+	public BinaryPolygonDetector_MT(int minSides, int maxSides,
+									SplitMergeLineFitLoop contourToPolygon,
+									RefineBinaryPolygon<T> refinePolygon,
+									double minContourFraction,
+									boolean outputClockwise,
+									boolean convex,
+									boolean touchBorder, double splitPenalty,
+									double edgeThreshold,
+									Class<T> inputType,
+									List<BinaryPolygonDetector<T>> workers ) {
+		super(minSides, maxSides, contourToPolygon, refinePolygon, minContourFraction, outputClockwise, convex,
+				touchBorder, splitPenalty, edgeThreshold, inputType);
+
+		if( workers.isEmpty() )
+			throw new IllegalArgumentException("There must be at least one worker");
+		this.workers = workers;
+	}
+
+	@Override
+	protected void processContours(final T gray, final FastQueue<Contour> blobs) {
+		if( getHelper() != null || !workersSynchronized || !workersDistortion ) {
+			super.processContours(gray, blobs);
+			return;
+		}
+
+		int minimumContour = getMinimumContour();
+		candidates.reset();
+		for (int i = 0; i < blobs.size; i++) {
+			if( blobs.get(i).external.size() >= minimumContour )
+				candidates.add(i);
+		}
+
+		final int numCandidates = candidates.size;
+		candidatePolygons.resize(numCandidates);
+		candidateInfo.resize(numCandidates);
+		if( candidateSuccess.length < numCandidates )
+			candidateSuccess = new boolean[numCandidates];
+
+		final int numWorkers = Math.min(workers.size(), Math.max(1,numCandidates));
+		for (int i = 0; i < numWorkers; i++) {
+			workers.get(i).prepareWorker(gray, getLabeled());
+		}
+
+		BoofConcurrency.loopBlocks(0, numWorkers, 1, new IntRangeTask() {
+			@Override
+			public void process(int minInclusive, int maxExclusive) {
+				for (int index = minInclusive; index < maxExclusive; index++) {
+					BinaryPolygonDetector<T> w = workers.get(index);
+
+					for (int j = index; j < numCandidates; j += numWorkers) {
+						Contour c = blobs.get(candidates.get(j));
+						candidateSuccess[j] = w.processContour(gray, c, candidatePolygons.get(j), candidateInfo.get(j));
+					}
+				}
+			}
+		});
+
+		// copy the results in the same order that they would have been found in by the single threaded code
+		FastQueue<Polygon2D_F64> found = getFoundPolygons();
+		FastQueue<Info> foundInfo = getPolygonInfo();
+		for (int j = 0; j < numCandidates; j++) {
+			if( !candidateSuccess[j] )
+				continue;
+			found.grow().set(candidatePolygons.get(j));
+			foundInfo.grow().set(candidateInfo.get(j));
+			addFound(blobs.get(candidates.get(j)));
+		}
+	}
+
+	/**
+	 * Transforms are not thread safe, so each worker needs its own copy.  Only a {@link PixelTransformCached_F32},
+	 * whose look up table can be shared, and a {@link PixelTransformOffset_F32} of one can be copied.  Workers
+	 * share the offset, so it can be changed without calling this function again.  If the transforms can't be copied
+	 * then contours are processed sequentially.  To process them in parallel with other transforms use
+	 * {@link #setLensDistortion(int, int, PixelTransform2_F32, PixelTransform2_F32, List, List)}.
+	 */
+	@Override
+	public void setLensDistortion(int width, int height,
+								  PixelTransform2_F32 distToUndist, PixelTransform2_F32 undistToDist) {
+		super.setLensDistortion(width, height, distToUndist, undistToDist);
+
+		workersDistortion = canCopy(distToUndist) && canCopy(undistToDist);
+		for (int i = 0; i < workers.size(); i++) {
+			if( workersDistortion ) {
+				workers.get(i).setLensDistortion(width, height,
+						copyForWorker(distToUndist), copyForWorker(undistToDist));
+			} else {
+				workers.get(i).clearLensDistortion();
+			}
+		}
+	}
+
+	/**
+	 * Specifies lens distortion along with a separate instance of each transform for every worker.
+	 *
+	 * @param width Input image width.  Used in sanity check only.
+	 * @param height Input image height.  Used in sanity check only.
+	 * @param distToUndist Transform from distorted to undistorted image.
+	 * @param undistToDist Transform from undistorted to distorted image.
+	 * @param workerDistToUndist One instance of distToUndist for each worker.
+	 * @param workerUndistToDist One instance of undistToDist for each worker.
+	 */
+	public void setLensDistortion(int width, int height,
+								  PixelTransform2_F32 distToUndist, PixelTransform2_F32 undistToDist,
+								  List<PixelTransform2_F32> workerDistToUndist,
+								  List<PixelTransform2_F32> workerUndistToDist ) {
+		if( workerDistToUndist.size() != workers.size() || workerUndistToDist.size() != workers.size() )
+			throw new IllegalArgumentException("There must be one transform for each worker");
+
+		super.setLensDistortion(width, height, distToUndist, undistToDist);
+
+		workersDistortion = true;
+		for (int i = 0; i < workers.size(); i++) {
+			workers.get(i).setLensDistortion(width, height, workerDistToUndist.get(i), workerUndistToDist.get(i));
+		}
+	}
+
+	@Override
+	public void clearLensDistortion() {
+		super.clearLensDistortion();
+		workersDistortion = true;
+		for (int i = 0; i < workers.size(); i++) {
+			workers.get(i).clearLensDistortion();
+		}
+	}
+
+	@Override
+	public void setConvex(boolean convex) {
+		super.setConvex(convex);
+		for (int i = 0; i < workers.size(); i++) {
+			workers.get(i).setConvex(convex);
+		}
+	}
+
+	@Override
+	public void setNumberOfSides(int min, int max) {
+		super.setNumberOfSides(min, max);
+		// this function is called by the super constructor before the workers have been assigned
+		if( workers == null )
+			return;
+		for (int i = 0; i < workers.size(); i++) {
+			workers.get(i).setNumberOfSides(min, max);
+		}
+	}
+
+	@Override
+	public void setMinContourFraction(double minContourFraction) {
+		super.setMinContourFraction(minContourFraction);
+		for (int i = 0; i < workers.size(); i++) {
+			workers.get(i).setMinContourFraction(minContourFraction);
+		}
+	}
+
+	@Override
+	public void setVerbose(boolean verbose) {
+		super.setVerbose(verbose);
+		for (int i = 0; i < workers.size(); i++) {
+			workers.get(i).setVerbose(verbose);
+		}
+	}
+
+	/**
+	 * Changes the refinement algorithm.  The refinement algorithm can't be shared between threads, so unless it is
+	 * set to null all contours will be processed sequentially from now on.
+	 */
+	@Override
+	public void setRefinePolygon(RefineBinaryPolygon<T> refinePolygon) {
+		super.setRefinePolygon(refinePolygon);
+		if( refinePolygon == null ) {
+			for (int i = 0; i < workers.size(); i++) {
+				workers.get(i).setRefinePolygon(null);
+			}
+			workersSynchronized = true;
+		} else {
+			workersSynchronized = false;
+		}
+	}
+
+	@Override
+	public void setEdgeThreshold(double edgeThreshold) {
+		super.setEdgeThreshold(edgeThreshold);
+		for (int i = 0; i < workers.size(); i++) {
+			workers.get(i).setEdgeThreshold(edgeThreshold);
+		}
+	}
+
+	@Override
+	public void setCheckEdgeBefore(boolean checkEdgeBefore) {
+		super.setCheckEdgeBefore(checkEdgeBefore);
+		for (int i = 0; i < workers.size(); i++) {
+			workers.get(i).setCheckEdgeBefore(checkEdgeBefore);
+		}
+	}
+
+	/**
+	 * Returns true if the transform can be copied by {@link #copyForWorker}
+	 */
+	private static boolean canCopy( PixelTransform2_F32 transform ) {
+		if( transform instanceof PixelTransformOffset_F32 )
+			return canCopy(((PixelTransformOffset_F32)transform).getTransform());
+		return transform == null || transform instanceof PixelTransformCached_F32;
+	}
+
+	/**
+	 * Creates a transform which can be invoked at the same time as the original by sharing its look up table
+	 */
+	private static PixelTransform2_F32 copyForWorker( PixelTransform2_F32 transform ) {
+		if( transform == null )
+			return null;
+		if( transform instanceof PixelTransformOffset_F32 ) {
+			PixelTransformOffset_F32 offset = (PixelTransformOffset_F32)transform;
+			return new PixelTransformOffset_F32(offset, copyForWorker(offset.getTransform()));
+		}
+		return new PixelTransformCached_F32((PixelTransformCached_F32)transform);
+	}
+
+	public List<BinaryPolygonDetector<T>> getWorkers() {
+		return workers;
+	}
+}
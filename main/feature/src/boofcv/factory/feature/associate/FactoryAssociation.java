@@ -19,7 +19,7 @@
 package boofcv.factory.feature.associate;
 
 import boofcv.abst.feature.associate.*;
-import boofcv.alg.feature.associate.AssociateGreedy;
+import boofcv.alg.feature.associate.*;
 import boofcv.struct.feature.*;
 import org.ddogleg.nn.FactoryNearestNeighbor;
 import org.ddogleg.nn.NearestNeighbor;
@@ -35,7 +35,9 @@ public class FactoryAssociation {
 
 	/**
 	 * Returns an algorithm for associating features together which uses a brute force greedy algorithm.
-	 * See {@link AssociateGreedy} for details.
+	 * See {@link AssociateGreedy} for details.  If the score is one which is supported by
+	 * {@link AssociateGreedyPacked} then a packed implementation is used, which produces identical
+	 * results much faster.
 	 * 
 	 * @param score Computes the fit score between two features.
 	 * @param maxError Maximum allowed error/fit score between two features.  To disable set to Double.MAX_VALUE
@@ -49,7 +51,16 @@ public class FactoryAssociation {
 			double maxError ,
 			boolean backwardsValidation )
 	{
-		AssociateGreedy<D> alg = new AssociateGreedy<>(score, backwardsValidation);
+		AssociateGreedy<D> alg;
+		if( AssociateGreedyPacked_F64.isSupported(score) ) {
+			alg = new AssociateGreedyPacked_F64(score, backwardsValidation);
+		} else if( AssociateGreedyPacked_F32.isSupported(score) ) {
+			alg = (AssociateGreedy)new AssociateGreedyPacked_F32((ScoreAssociation)score, backwardsValidation);
+		} else if( AssociateGreedyPacked_B.isSupported(score) ) {
+			alg = (AssociateGreedy)new AssociateGreedyPacked_B((ScoreAssociation)score, backwardsValidation);
+		} else {
+			alg = new AssociateGreedy<>(score, backwardsValidation);
+		}
 		alg.setMaxFitError(maxError);
 		WrapAssociateGreedy<D> ret = new WrapAssociateGreedy<>(alg);
 		return ret;
@@ -99,6 +110,27 @@ public class FactoryAssociation {
 		return new AssociateNearestNeighbor<>(nn, dimension);
 	}
 
+	/**
+	 * Approximate association for binary descriptors using multi-probe Locality Sensitive Hashing.  Increasing the
+	 * number of tables or the probe distance increases recall at the cost of speed.  Increasing the number of bits
+	 * in each key speeds up the search but reduces recall.
+	 *
+	 * @see AssociateLshHamming
+	 * @see MultiProbeLshHamming
+	 *
+	 * @param numTables Number of hash tables.  Try 8
+	 * @param bitsPerKey Number of descriptor bits in each hash key.  1 to 24.  Try log2 of the number of source features.
+	 * @param probeDistance Also search buckets whose keys are at most this many bits different.  0 to 2.  Try 1
+	 * @param randomSeed Seed used to select the bits in each key
+	 * @return Association using approximate nearest neighbor
+	 */
+	public static AssociateDescription<TupleDesc_B> lshHamming( int numTables , int bitsPerKey ,
+																int probeDistance , long randomSeed ) {
+		MultiProbeLshHamming alg = new MultiProbeLshHamming(numTables, bitsPerKey, probeDistance, randomSeed);
+
+		return new AssociateLshHamming(alg);
+	}
+
 	/**
 	 * Given a feature descriptor type it returns a "reasonable" default {@link ScoreAssociation}.
 	 *
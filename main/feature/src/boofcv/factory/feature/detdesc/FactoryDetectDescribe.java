@@ -34,11 +34,13 @@ import boofcv.alg.feature.describe.DescribePointSurf;
 import boofcv.alg.feature.describe.DescribePointSurfMod;
 import boofcv.alg.feature.describe.DescribePointSurfPlanar;
 import boofcv.alg.feature.detdesc.CompleteSift;
+import boofcv.alg.feature.detdesc.CompleteSift_MT;
 import boofcv.alg.feature.detdesc.DetectDescribeSurfPlanar;
 import boofcv.alg.feature.detect.interest.FastHessianFeatureDetector;
 import boofcv.alg.feature.detect.interest.SiftScaleSpace;
 import boofcv.alg.feature.orientation.OrientationHistogramSift;
 import boofcv.alg.transform.ii.GIntegralImageOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.factory.feature.describe.FactoryDescribePointAlgs;
 import boofcv.factory.feature.detect.extract.FactoryFeatureExtractor;
 import boofcv.factory.feature.detect.interest.FactoryInterestPointAlgs;
@@ -50,6 +52,9 @@ import boofcv.struct.image.ImageGray;
 import boofcv.struct.image.ImageMultiBand;
 import boofcv.struct.image.ImageType;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Creates instances of {@link DetectDescribePoint} for different feature detectors/describers.
  *
@@ -58,7 +63,8 @@ import boofcv.struct.image.ImageType;
 public class FactoryDetectDescribe {
 
 	/**
-	 * Creates a new SIFT feature detector and describer.
+	 * Creates a new SIFT feature detector and describer.  If {@link BoofConcurrency#USE_CONCURRENT} is true
+	 * then {@link CompleteSift_MT} is returned.
 	 *
 	 * @see CompleteSift
 	 *
@@ -78,17 +84,42 @@ public class FactoryDetectDescribe {
 
 		SiftScaleSpace scaleSpace = new SiftScaleSpace(
 				configSS.firstOctave,configSS.lastOctave,configSS.numScales,configSS.sigma0);
-		OrientationHistogramSift<GrayF32> orientation = new OrientationHistogramSift<>(
-				configOri.histogramSize,configOri.sigmaEnlarge,GrayF32.class);
-		DescribePointSift<GrayF32> describe = new DescribePointSift<>(
+
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			// there's no point in having more workers than scales in an octave
+			int numWorkers = Math.max(1,Math.min(BoofConcurrency.getMaxThreads(), configSS.numScales));
+
+			List<NonMaxLimiter> extractors = new ArrayList<>();
+			List<OrientationHistogramSift<GrayF32>> orientations = new ArrayList<>();
+			List<DescribePointSift<GrayF32>> describes = new ArrayList<>();
+			for (int i = 0; i < numWorkers; i++) {
+				extractors.add(createSiftLimiter(configDetector));
+				orientations.add(createSiftOrientation(configOri));
+				describes.add(createSiftDescribe(configDesc));
+			}
+			CompleteSift dds = new CompleteSift_MT(scaleSpace,configDetector.edgeR,extractors,orientations,describes);
+			return new DetectDescribe_CompleteSift<>(dds);
+		}
+
+		CompleteSift dds = new CompleteSift(scaleSpace,configDetector.edgeR,createSiftLimiter(configDetector),
+				createSiftOrientation(configOri),createSiftDescribe(configDesc));
+		return new DetectDescribe_CompleteSift<>(dds);
+	}
+
+	private static NonMaxLimiter createSiftLimiter( ConfigSiftDetector configDetector ) {
+		NonMaxSuppression nns = FactoryFeatureExtractor.nonmax(configDetector.extract);
+		return new NonMaxLimiter(nns,configDetector.maxFeaturesPerScale);
+	}
+
+	private static OrientationHistogramSift<GrayF32> createSiftOrientation( ConfigSiftOrientation configOri ) {
+		return new OrientationHistogramSift<>(configOri.histogramSize,configOri.sigmaEnlarge,GrayF32.class);
+	}
+
+	private static DescribePointSift<GrayF32> createSiftDescribe( ConfigSiftDescribe configDesc ) {
+		return new DescribePointSift<>(
 				configDesc.widthSubregion,configDesc.widthGrid, configDesc.numHistogramBins,
 				configDesc.sigmaToPixels, configDesc.weightingSigmaFraction,
 				configDesc.maxDescriptorElementValue,GrayF32.class);
-
-		NonMaxSuppression nns = FactoryFeatureExtractor.nonmax(configDetector.extract);
-		NonMaxLimiter nonMax = new NonMaxLimiter(nns,configDetector.maxFeaturesPerScale);
-		CompleteSift dds = new CompleteSift(scaleSpace,configDetector.edgeR,nonMax,orientation,describe);
-		return new DetectDescribe_CompleteSift<>(dds);
 	}
 
 	/**
@@ -21,16 +21,21 @@ package boofcv.factory.feature.disparity;
 import boofcv.abst.feature.disparity.StereoDisparity;
 import boofcv.abst.feature.disparity.StereoDisparitySparse;
 import boofcv.abst.feature.disparity.WrapDisparitySadRect;
+import boofcv.abst.feature.disparity.WrapDisparitySadRect_MT;
 import boofcv.abst.feature.disparity.WrapDisparitySparseSadRect;
 import boofcv.alg.feature.disparity.DisparityScoreRowFormat;
 import boofcv.alg.feature.disparity.DisparitySelect;
 import boofcv.alg.feature.disparity.DisparitySparseScoreSadRect;
 import boofcv.alg.feature.disparity.DisparitySparseSelect;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.GrayS16;
 import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageGray;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static boofcv.factory.feature.disparity.FactoryStereoDisparityAlgs.*;
 
 /**
@@ -52,6 +57,11 @@ import static boofcv.factory.feature.disparity.FactoryStereoDisparityAlgs.*;
  * to computing the disparity for a single pixel at a time as requested by the user,
  * </p>
  *
+ * <p>
+ * Concurrency: If {@link BoofConcurrency#USE_CONCURRENT} is true then dense algorithms will split the image into
+ * bands which are processed in parallel, see {@link WrapDisparitySadRect_MT}.
+ * </p>
+ *
  * @author Peter Abeles
  */
 @SuppressWarnings("unchecked")
@@ -86,56 +96,17 @@ public class FactoryStereoDisparity {
 			   double texture ,
 			   Class<T> imageType ) {
 
-		double maxError = (regionRadiusX*2+1)*(regionRadiusY*2+1)*maxPerPixelError;
-
-		// 3 regions are used not just one in this case
-		if( whichAlg == DisparityAlgorithms.RECT_FIVE )
-			maxError *= 3;
-
-		DisparitySelect select;
-		if( imageType == GrayU8.class || imageType == GrayS16.class ) {
-			select = selectDisparity_S32((int) maxError, validateRtoL, texture);
-		} else if( imageType == GrayF32.class ) {
-			select = selectDisparity_F32((int) maxError, validateRtoL, texture);
-		} else {
-			throw new IllegalArgumentException("Unknown image type");
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			List<DisparityScoreRowFormat<T,GrayU8>> bandAlgs = new ArrayList<>();
+			for (int i = 0; i < BoofConcurrency.getMaxThreads(); i++) {
+				bandAlgs.add(FactoryStereoDisparity.<T,GrayU8>createRegionWta(whichAlg, minDisparity, maxDisparity,
+						regionRadiusX, regionRadiusY, maxPerPixelError, validateRtoL, texture, false, imageType));
+			}
+			return new WrapDisparitySadRect_MT<>(bandAlgs);
 		}
 
-		DisparityScoreRowFormat<T,GrayU8> alg = null;
-
-		switch( whichAlg ) {
-			case RECT:
-				if( imageType == GrayU8.class ) {
-					alg = FactoryStereoDisparityAlgs.scoreDisparitySadRect_U8(minDisparity,
-							maxDisparity,regionRadiusX,regionRadiusY,select);
-				} else if( imageType == GrayS16.class ) {
-					alg = FactoryStereoDisparityAlgs.scoreDisparitySadRect_S16(minDisparity,
-							maxDisparity, regionRadiusX, regionRadiusY, select);
-				} else if( imageType == GrayF32.class ) {
-					alg = FactoryStereoDisparityAlgs.scoreDisparitySadRect_F32(minDisparity,
-							maxDisparity, regionRadiusX, regionRadiusY, select);
-				}
-				break;
-
-			case RECT_FIVE:
-				if( imageType == GrayU8.class ) {
-					alg = FactoryStereoDisparityAlgs.scoreDisparitySadRectFive_U8(minDisparity,
-							maxDisparity,regionRadiusX,regionRadiusY,select);
-				} else if( imageType == GrayS16.class ) {
-					alg = FactoryStereoDisparityAlgs.scoreDisparitySadRectFive_S16(minDisparity,
-							maxDisparity, regionRadiusX, regionRadiusY, select);
-				} else if( imageType == GrayF32.class ) {
-					alg = FactoryStereoDisparityAlgs.scoreDisparitySadRectFive_F32(minDisparity,
-							maxDisparity, regionRadiusX, regionRadiusY, select);
-				}
-				break;
-
-			default:
-				throw new IllegalArgumentException("Unknown algorithms "+whichAlg);
-
-		}
-		if( alg == null)
-			throw new RuntimeException("Image type not supported: "+imageType.getSimpleName() );
+		DisparityScoreRowFormat<T,GrayU8> alg = createRegionWta(whichAlg, minDisparity, maxDisparity,
+				regionRadiusX, regionRadiusY, maxPerPixelError, validateRtoL, texture, false, imageType);
 
 		return new WrapDisparitySadRect<>(alg);
 	}
@@ -169,6 +140,34 @@ public class FactoryStereoDisparity {
 					   double texture ,
 					   Class<T> imageType ) {
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			List<DisparityScoreRowFormat<T,GrayF32>> bandAlgs = new ArrayList<>();
+			for (int i = 0; i < BoofConcurrency.getMaxThreads(); i++) {
+				bandAlgs.add(FactoryStereoDisparity.<T,GrayF32>createRegionWta(whichAlg, minDisparity, maxDisparity,
+						regionRadiusX, regionRadiusY, maxPerPixelError, validateRtoL, texture, true, imageType));
+			}
+			return new WrapDisparitySadRect_MT<>(bandAlgs);
+		}
+
+		DisparityScoreRowFormat<T,GrayF32> alg = createRegionWta(whichAlg, minDisparity, maxDisparity,
+				regionRadiusX, regionRadiusY, maxPerPixelError, validateRtoL, texture, true, imageType);
+
+		return new WrapDisparitySadRect<>(alg);
+	}
+
+	/**
+	 * Creates the low level algorithm used by {@link #regionWta} and {@link #regionSubpixelWta}.
+	 */
+	private static <T extends ImageGray, D extends ImageGray> DisparityScoreRowFormat<T,D>
+	createRegionWta( DisparityAlgorithms whichAlg ,
+					 int minDisparity , int maxDisparity,
+					 int regionRadiusX, int regionRadiusY ,
+					 double maxPerPixelError ,
+					 int validateRtoL ,
+					 double texture ,
+					 boolean subpixel ,
+					 Class<T> imageType ) {
+
 		double maxError = (regionRadiusX*2+1)*(regionRadiusY*2+1)*maxPerPixelError;
 
 		// 3 regions are used not just one in this case
@@ -177,14 +176,20 @@ public class FactoryStereoDisparity {
 
 		DisparitySelect select;
 		if( imageType == GrayU8.class || imageType == GrayS16.class ) {
-			select = selectDisparitySubpixel_S32((int) maxError, validateRtoL, texture);
+			if( subpixel )
+				select = selectDisparitySubpixel_S32((int) maxError, validateRtoL, texture);
+			else
+				select = selectDisparity_S32((int) maxError, validateRtoL, texture);
 		} else if( imageType == GrayF32.class ) {
-			select = selectDisparitySubpixel_F32((int) maxError, validateRtoL, texture);
+			if( subpixel )
+				select = selectDisparitySubpixel_F32((int) maxError, validateRtoL, texture);
+			else
+				select = selectDisparity_F32((int) maxError, validateRtoL, texture);
 		} else {
 			throw new IllegalArgumentException("Unknown image type");
 		}
 
-		DisparityScoreRowFormat<T,GrayF32> alg = null;
+		DisparityScoreRowFormat<T,D> alg = null;
 
 		switch( whichAlg ) {
 			case RECT:
@@ -220,7 +225,7 @@ public class FactoryStereoDisparity {
 		if( alg == null)
 			throw new RuntimeException("Image type not supported: "+imageType.getSimpleName() );
 
-		return new WrapDisparitySadRect<>(alg);
+		return alg;
 	}
 
 	/**
@@ -23,12 +23,17 @@ import boofcv.alg.shapes.ellipse.BinaryEllipseDetectorPixel;
 import boofcv.alg.shapes.ellipse.EdgeIntensityEllipse;
 import boofcv.alg.shapes.ellipse.SnapToEllipseEdge;
 import boofcv.alg.shapes.polygon.BinaryPolygonDetector;
+import boofcv.alg.shapes.polygon.BinaryPolygonDetector_MT;
 import boofcv.alg.shapes.polygon.RefineBinaryPolygon;
 import boofcv.alg.shapes.polygon.RefinePolygonCornersToImage;
 import boofcv.alg.shapes.polygon.RefinePolygonLineToImage;
 import boofcv.alg.shapes.polyline.SplitMergeLineFitLoop;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.image.ImageGray;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Factory for detecting higher level shapes
  *
@@ -78,7 +83,8 @@ public class FactoryShapeDetector {
 
 	/**
 	 * Creates a polygon detector.  The polygon is assumed to be a black shape with a much lighter background.
-	 * The polygon can be found to sub-pixel accuracy, if configured to do so.
+	 * The polygon can be found to sub-pixel accuracy, if configured to do so.  If
+	 * {@link BoofConcurrency#USE_CONCURRENT} is true then a {@link BinaryPolygonDetector_MT} is returned.
 	 *
 	 * @param config Configuration for polygon detector
 	 * @param imageType Input image type
@@ -89,28 +95,51 @@ public class FactoryShapeDetector {
 	{
 		config.checkValidity();
 
-		SplitMergeLineFitLoop contourToPolygon = new SplitMergeLineFitLoop(
-				config.contour2Poly_splitFraction,
-				config.contour2Poly_minimumSideFraction,
-				config.contour2Poly_iterations);
-
-		RefineBinaryPolygon<T> refinePolygon = null;
-		if( config.refine != null ) {
-			if( config.refine instanceof ConfigRefinePolygonLineToImage ) {
-				refinePolygon = refinePolygon((ConfigRefinePolygonLineToImage)config.refine,imageType);
-			} else if( config.refine instanceof ConfigRefinePolygonCornersToImage ) {
-				refinePolygon = refinePolygon((ConfigRefinePolygonCornersToImage)config.refine,imageType);
-			} else {
-				throw new IllegalArgumentException("Unknown refine config type");
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			List<BinaryPolygonDetector<T>> workers = new ArrayList<>();
+			for (int i = 0; i < BoofConcurrency.getMaxThreads(); i++) {
+				workers.add(polygonSingle(config, imageType));
 			}
+
+			return new BinaryPolygonDetector_MT<>(config.minimumSides, config.maximumSides,
+					contourToPolygon(config), refinePolygon(config, imageType), config.minContourImageWidthFraction,
+					config.clockwise, config.convex, config.canTouchBorder, config.splitPenalty,
+					config.minimumEdgeIntensity, imageType, workers);
 		}
 
-		return new BinaryPolygonDetector<>(config.minimumSides, config.maximumSides, contourToPolygon,
-				refinePolygon, config.minContourImageWidthFraction,
+		return polygonSingle(config, imageType);
+	}
+
+	private static <T extends ImageGray>
+	BinaryPolygonDetector<T> polygonSingle( ConfigPolygonDetector config, Class<T> imageType)
+	{
+		return new BinaryPolygonDetector<>(config.minimumSides, config.maximumSides, contourToPolygon(config),
+				refinePolygon(config, imageType), config.minContourImageWidthFraction,
 				config.clockwise, config.convex, config.canTouchBorder, config.splitPenalty,
 				config.minimumEdgeIntensity, imageType);
 	}
 
+	private static SplitMergeLineFitLoop contourToPolygon( ConfigPolygonDetector config ) {
+		return new SplitMergeLineFitLoop(
+				config.contour2Poly_splitFraction,
+				config.contour2Poly_minimumSideFraction,
+				config.contour2Poly_iterations);
+	}
+
+	private static <T extends ImageGray>
+	RefineBinaryPolygon<T> refinePolygon( ConfigPolygonDetector config, Class<T> imageType ) {
+		if( config.refine == null )
+			return null;
+
+		if( config.refine instanceof ConfigRefinePolygonLineToImage ) {
+			return refinePolygon((ConfigRefinePolygonLineToImage)config.refine,imageType);
+		} else if( config.refine instanceof ConfigRefinePolygonCornersToImage ) {
+			return refinePolygon((ConfigRefinePolygonCornersToImage)config.refine,imageType);
+		} else {
+			throw new IllegalArgumentException("Unknown refine config type");
+		}
+	}
+
 	public static <T extends ImageGray>
 	RefineBinaryPolygon<T> refinePolygon( ConfigRefinePolygonLineToImage config , Class<T> imageType ) {
 		return new RefinePolygonLineToImage<>(
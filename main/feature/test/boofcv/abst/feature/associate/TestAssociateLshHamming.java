@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.abst.feature.associate;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.feature.associate.FactoryAssociation;
+import boofcv.struct.feature.AssociatedIndex;
+import boofcv.struct.feature.TupleDesc_B;
+import org.ddogleg.struct.FastQueue;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestAssociateLshHamming {
+
+	Random rand = new Random(234);
+
+	@After
+	public void after() {
+		BoofConcurrency.USE_CONCURRENT = false;
+	}
+
+	/**
+	 * Destination features are noisy copies of source features.  Some of them are not in the source list.
+	 */
+	@Test
+	public void associate() {
+		FastQueue<TupleDesc_B> src = createPoints(300);
+		FastQueue<TupleDesc_B> dst = new FastQueue<>(TupleDesc_B.class, false);
+		for (int i = 0; i < src.size; i++) {
+			TupleDesc_B d = src.get(i).copy();
+			d.data[0] ^= 0x101;
+			dst.add(d);
+		}
+		dst.addAll(createPoints(20));
+
+		AssociateDescription<TupleDesc_B> alg = FactoryAssociation.lshHamming(6, 8, 1, 234);
+		alg.setSource(src);
+		alg.setDestination(dst);
+		alg.setThreshold(10);
+		alg.associate();
+
+		FastQueue<AssociatedIndex> matches = alg.getMatches();
+		assertEquals(src.size, matches.size);
+		for (int i = 0; i < matches.size; i++) {
+			AssociatedIndex m = matches.get(i);
+			assertEquals(m.src, m.dst);
+			assertEquals(2, m.fitScore, 1e-8);
+		}
+		assertEquals(0, alg.getUnassociatedSource().size);
+		assertEquals(20, alg.getUnassociatedDestination().size);
+
+		// tighter threshold and nothing should match
+		alg.setThreshold(1);
+		alg.associate();
+		assertEquals(0, alg.getMatches().size);
+
+		// no threshold
+		alg.setThreshold(Double.MAX_VALUE);
+		alg.associate();
+		assertTrue(alg.getMatches().size >= src.size);
+	}
+
+	/**
+	 * The concurrent search should produce identical results
+	 */
+	@Test
+	public void compareToSingleThread() {
+		FastQueue<TupleDesc_B> src = createPoints(500);
+		FastQueue<TupleDesc_B> dst = createPoints(400);
+
+		AssociateDescription<TupleDesc_B> alg = FactoryAssociation.lshHamming(4, 6, 2, 234);
+		alg.setSource(src);
+		alg.setDestination(dst);
+		alg.associate();
+
+		FastQueue<AssociatedIndex> expected = new FastQueue<>(AssociatedIndex.class, true);
+		for (int i = 0; i < alg.getMatches().size; i++) {
+			expected.grow().set(alg.getMatches().get(i));
+		}
+
+		BoofConcurrency.USE_CONCURRENT = true;
+		alg.associate();
+
+		FastQueue<AssociatedIndex> found = alg.getMatches();
+		assertEquals(expected.size, found.size);
+		for (int i = 0; i < expected.size; i++) {
+			assertEquals(expected.get(i).src, found.get(i).src);
+			assertEquals(expected.get(i).dst, found.get(i).dst);
+			assertEquals(expected.get(i).fitScore, found.get(i).fitScore, 0);
+		}
+	}
+
+	private FastQueue<TupleDesc_B> createPoints( int total ) {
+		FastQueue<TupleDesc_B> list = new FastQueue<>(TupleDesc_B.class, false);
+		for (int i = 0; i < total; i++) {
+			TupleDesc_B d = new TupleDesc_B(256);
+			for (int j = 0; j < d.data.length; j++) {
+				d.data[j] = rand.nextInt();
+			}
+			list.add(d);
+		}
+		return list;
+	}
+}
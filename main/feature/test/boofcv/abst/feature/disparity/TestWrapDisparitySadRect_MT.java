@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.abst.feature.disparity;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.feature.disparity.DisparityAlgorithms;
+import boofcv.factory.feature.disparity.FactoryStereoDisparity;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
+import boofcv.testing.BoofTesting;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestWrapDisparitySadRect_MT {
+
+	Random rand = new Random(234);
+
+	int originalThreads;
+
+	@Before
+	public void before() {
+		originalThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(3);
+	}
+
+	@After
+	public void after() {
+		BoofConcurrency.USE_CONCURRENT = false;
+		BoofConcurrency.setMaxThreads(originalThreads);
+	}
+
+	@Test
+	public void compareToSingleThread_rect() {
+		compareToSingleThread(DisparityAlgorithms.RECT, false);
+		compareToSingleThread(DisparityAlgorithms.RECT, true);
+	}
+
+	@Test
+	public void compareToSingleThread_five() {
+		compareToSingleThread(DisparityAlgorithms.RECT_FIVE, false);
+		compareToSingleThread(DisparityAlgorithms.RECT_FIVE, true);
+	}
+
+	private void compareToSingleThread( DisparityAlgorithms which , boolean subpixel ) {
+		GrayU8 left = new GrayU8(60,47);
+		GrayU8 right = new GrayU8(60,47);
+		ImageMiscOps.fillUniform(left, rand, 0, 100);
+		ImageMiscOps.fillUniform(right, rand, 0, 100);
+
+		StereoDisparity<GrayU8,?> expected = create(which, subpixel);
+		BoofConcurrency.USE_CONCURRENT = true;
+		StereoDisparity<GrayU8,?> found = create(which, subpixel);
+		BoofConcurrency.USE_CONCURRENT = false;
+
+		assertTrue(found instanceof WrapDisparitySadRect_MT);
+		assertEquals(3, ((WrapDisparitySadRect_MT)found).getBandAlgs().size());
+
+		expected.process(left, right);
+		found.process(left, right);
+
+		BoofTesting.assertEquals(expected.getDisparity(), found.getDisparity(), 0);
+
+		// process it again to make sure the internal state is correctly reset
+		ImageMiscOps.fillUniform(left, rand, 0, 100);
+		expected.process(left, right);
+		found.process(left, right);
+
+		BoofTesting.assertEquals(expected.getDisparity(), found.getDisparity(), 0);
+	}
+
+	private StereoDisparity<GrayU8,?> create( DisparityAlgorithms which , boolean subpixel ) {
+		if( subpixel )
+			return FactoryStereoDisparity.regionSubpixelWta(which, 2, 12, 2, 3, 30, 2, 0.1, GrayU8.class);
+		else
+			return FactoryStereoDisparity.regionWta(which, 2, 12, 2, 3, 30, 2, 0.1, GrayU8.class);
+	}
+
+	/**
+	 * The image is so small that it can only be processed as a single band
+	 */
+	@Test
+	public void smallImage() {
+		GrayF32 left = new GrayF32(30,8);
+		GrayF32 right = new GrayF32(30,8);
+		ImageMiscOps.fillUniform(left, rand, 0, 100);
+		ImageMiscOps.fillUniform(right, rand, 0, 100);
+
+		StereoDisparity<GrayF32,GrayU8> expected =
+				FactoryStereoDisparity.regionWta(DisparityAlgorithms.RECT, 0, 10, 2, 3, 30, 2, 0.1, GrayF32.class);
+		BoofConcurrency.USE_CONCURRENT = true;
+		StereoDisparity<GrayF32,GrayU8> found =
+				FactoryStereoDisparity.regionWta(DisparityAlgorithms.RECT, 0, 10, 2, 3, 30, 2, 0.1, GrayF32.class);
+		BoofConcurrency.USE_CONCURRENT = false;
+
+		expected.process(left, right);
+		found.process(left, right);
+
+		BoofTesting.assertEquals(expected.getDisparity(), found.getDisparity(), 0);
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.feature.associate;
+
+import boofcv.abst.feature.associate.*;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.feature.MatchScoreType;
+import boofcv.struct.feature.TupleDesc_B;
+import boofcv.struct.feature.TupleDesc_F32;
+import boofcv.struct.feature.TupleDesc_F64;
+import org.ddogleg.struct.FastQueue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the packed implementations against {@link AssociateGreedy}, which they must produce identical results to.
+ *
+ * @author Peter Abeles
+ */
+public class TestAssociateGreedyPacked {
+
+	Random rand = new Random(234);
+
+	int originalThreads;
+	int originalBlockSrc, originalBlockDst;
+
+	@Before
+	public void before() {
+		originalThreads = BoofConcurrency.getMaxThreads();
+		originalBlockSrc = AssociateGreedyPacked.BLOCK_SRC;
+		originalBlockDst = AssociateGreedyPacked.BLOCK_DST;
+		BoofConcurrency.setMaxThreads(3);
+	}
+
+	@After
+	public void after() {
+		BoofConcurrency.USE_CONCURRENT = false;
+		BoofConcurrency.setMaxThreads(originalThreads);
+		AssociateGreedyPacked.BLOCK_SRC = originalBlockSrc;
+		AssociateGreedyPacked.BLOCK_DST = originalBlockDst;
+	}
+
+	@Test
+	public void compare_F64() {
+		FastQueue<TupleDesc_F64> src = createF64(95);
+		FastQueue<TupleDesc_F64> dst = createF64(110);
+
+		ScoreAssociation<TupleDesc_F64> scores[] = new ScoreAssociation[]{
+				new ScoreAssociateEuclideanSq_F64(),new ScoreAssociateEuclidean_F64(),new ScoreAssociateSad_F64()};
+
+		for( ScoreAssociation<TupleDesc_F64> score : scores ) {
+			for( boolean backwards : new boolean[]{false,true}) {
+				compare(new AssociateGreedy<>(score,backwards),
+						new AssociateGreedyPacked_F64<>(score,backwards),src,dst);
+			}
+		}
+	}
+
+	@Test
+	public void compare_F32() {
+		FastQueue<TupleDesc_F32> src = createF32(95);
+		FastQueue<TupleDesc_F32> dst = createF32(110);
+
+		ScoreAssociation<TupleDesc_F32> scores[] = new ScoreAssociation[]{
+				new ScoreAssociateEuclideanSq_F32(),new ScoreAssociateSad_F32()};
+
+		for( ScoreAssociation<TupleDesc_F32> score : scores ) {
+			for( boolean backwards : new boolean[]{false,true}) {
+				compare(new AssociateGreedy<>(score,backwards),
+						new AssociateGreedyPacked_F32(score,backwards),src,dst);
+			}
+		}
+	}
+
+	/**
+	 * Binary descriptors have lots of ties, which is a good test for backwards validation
+	 */
+	@Test
+	public void compare_B() {
+		FastQueue<TupleDesc_B> src = createB(95);
+		FastQueue<TupleDesc_B> dst = createB(110);
+
+		ScoreAssociation<TupleDesc_B> score = new ScoreAssociateHamming_B();
+
+		for( boolean backwards : new boolean[]{false,true}) {
+			compare(new AssociateGreedy<>(score,backwards),
+					new AssociateGreedyPacked_B(score,backwards),src,dst);
+		}
+	}
+
+	@Test
+	public void emptyLists() {
+		AssociateGreedyPacked_F64<TupleDesc_F64> alg =
+				new AssociateGreedyPacked_F64<>(new ScoreAssociateEuclideanSq_F64(),true);
+
+		alg.associate(createF64(0),createF64(10));
+		alg.associate(createF64(10),createF64(0));
+		for (int i = 0; i < 10; i++) {
+			assertEquals(-1,alg.getPairs()[i]);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unsupportedScore() {
+		new AssociateGreedyPacked_F64<>(new ScoreAssociation<TupleDesc_F64>() {
+			@Override
+			public double score(TupleDesc_F64 a, TupleDesc_F64 b) {return 0;}
+
+			@Override
+			public MatchScoreType getScoreType() {return MatchScoreType.NORM_ERROR;}
+		},false);
+	}
+
+	/**
+	 * Compares the two algorithms with different block sizes, threshold, and with or without concurrency
+	 */
+	private <D> void compare( AssociateGreedy<D> expected , AssociateGreedyPacked<D> found ,
+							  FastQueue<D> src , FastQueue<D> dst ) {
+		expected.associate(src,dst);
+		// set the threshold so that roughly half the features are rejected
+		double threshold = median(expected.getFitQuality(),src.size);
+
+		for( double maxError : new double[]{Double.MAX_VALUE,threshold}) {
+			expected.setMaxFitError(maxError);
+			found.setMaxFitError(maxError);
+			expected.associate(src,dst);
+
+			for( int block : new int[]{7,256}) {
+				AssociateGreedyPacked.BLOCK_SRC = block;
+				AssociateGreedyPacked.BLOCK_DST = block;
+				for( boolean concurrent : new boolean[]{false,true}) {
+					BoofConcurrency.USE_CONCURRENT = concurrent;
+					found.associate(src,dst);
+					BoofConcurrency.USE_CONCURRENT = false;
+
+					int total = 0;
+					for (int i = 0; i < src.size; i++) {
+						assertEquals(expected.getPairs()[i],found.getPairs()[i]);
+						assertEquals(expected.getFitQuality()[i],found.getFitQuality()[i],0);
+						if( found.getPairs()[i] >= 0 )
+							total++;
+					}
+					assertTrue(total > 0);
+				}
+			}
+		}
+	}
+
+	private double median( double values[] , int length ) {
+		double copy[] = new double[length];
+		System.arraycopy(values,0,copy,0,length);
+		java.util.Arrays.sort(copy);
+		return copy[length/2];
+	}
+
+	private FastQueue<TupleDesc_F64> createF64( int total ) {
+		FastQueue<TupleDesc_F64> list = new FastQueue<>(TupleDesc_F64.class,false);
+		for (int i = 0; i < total; i++) {
+			TupleDesc_F64 d = new TupleDesc_F64(20);
+			for (int j = 0; j < d.size(); j++) {
+				d.value[j] = rand.nextGaussian();
+			}
+			list.add(d);
+		}
+		return list;
+	}
+
+	private FastQueue<TupleDesc_F32> createF32( int total ) {
+		FastQueue<TupleDesc_F32> list = new FastQueue<>(TupleDesc_F32.class,false);
+		for (int i = 0; i < total; i++) {
+			TupleDesc_F32 d = new TupleDesc_F32(20);
+			for (int j = 0; j < d.size(); j++) {
+				d.value[j] = (float)rand.nextGaussian();
+			}
+			list.add(d);
+		}
+		return list;
+	}
+
+	private FastQueue<TupleDesc_B> createB( int total ) {
+		FastQueue<TupleDesc_B> list = new FastQueue<>(TupleDesc_B.class,false);
+		for (int i = 0; i < total; i++) {
+			TupleDesc_B d = new TupleDesc_B(40);
+			for (int j = 0; j < d.data.length; j++) {
+				d.data[j] = rand.nextInt();
+			}
+			list.add(d);
+		}
+		return list;
+	}
+}
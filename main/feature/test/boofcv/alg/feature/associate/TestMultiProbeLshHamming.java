@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.feature.associate;
+
+import boofcv.alg.descriptor.DescriptorDistance;
+import boofcv.struct.feature.TupleDesc_B;
+import org.ddogleg.struct.FastQueue;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMultiProbeLshHamming {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Searching for a point which is in the list should always find it
+	 */
+	@Test
+	public void exactMatch() {
+		FastQueue<TupleDesc_B> points = createPoints(500, 256);
+
+		MultiProbeLshHamming alg = new MultiProbeLshHamming(2, 10, 0, 234);
+		alg.setPoints(points);
+
+		for (int i = 0; i < points.size; i++) {
+			assertEquals(i, alg.findNearest(points.get(i), Integer.MAX_VALUE));
+		}
+	}
+
+	/**
+	 * Queries are noisy copies of the points.  Most should be found while only examining a fraction of the points
+	 */
+	@Test
+	public void recall() {
+		FastQueue<TupleDesc_B> points = createPoints(2000, 256);
+
+		for( int probe = 0; probe <= 2; probe++ ) {
+			MultiProbeLshHamming alg = new MultiProbeLshHamming(8, 11, probe, 234);
+			alg.setPoints(points);
+			MultiProbeLshHamming.Search search = alg.createSearch();
+
+			int correct = 0;
+			int totalCandidates = 0;
+			for (int i = 0; i < points.size; i++) {
+				TupleDesc_B query = points.get(i).copy();
+				flipBits(query, 20);
+
+				int found = alg.findNearest(query, Integer.MAX_VALUE, search);
+				if( found == i ) {
+					correct++;
+					assertEquals(DescriptorDistance.hamming(query, points.get(i)), search.bestDistance);
+				}
+				totalCandidates += search.candidates;
+			}
+
+			assertTrue(correct > 0.9*points.size);
+			// it should examine far fewer points than brute force.  More probes examine more points
+			assertTrue(totalCandidates < 0.5*points.size*points.size);
+		}
+	}
+
+	/**
+	 * More probes should never reduce the number of candidates which are examined
+	 */
+	@Test
+	public void probeDistance_candidates() {
+		FastQueue<TupleDesc_B> points = createPoints(500, 128);
+		TupleDesc_B query = createPoints(1, 128).get(0);
+
+		int previous = -1;
+		for( int probe = 0; probe <= 2; probe++ ) {
+			MultiProbeLshHamming alg = new MultiProbeLshHamming(4, 8, probe, 234);
+			alg.setPoints(points);
+			MultiProbeLshHamming.Search search = alg.createSearch();
+			alg.findNearest(query, Integer.MAX_VALUE, search);
+			assertTrue(search.candidates >= previous);
+			previous = search.candidates;
+		}
+	}
+
+	@Test
+	public void maxDistance() {
+		FastQueue<TupleDesc_B> points = createPoints(10, 64);
+
+		MultiProbeLshHamming alg = new MultiProbeLshHamming(4, 4, 1, 234);
+		alg.setPoints(points);
+
+		TupleDesc_B query = points.get(3).copy();
+		flipBits(query, 2);
+
+		assertEquals(-1, alg.findNearest(query, 1));
+		assertEquals(3, alg.findNearest(query, 2));
+	}
+
+	/**
+	 * When there are ties the lowest index should be returned
+	 */
+	@Test
+	public void ties() {
+		FastQueue<TupleDesc_B> points = createPoints(1, 64);
+		for (int i = 0; i < 4; i++) {
+			points.add(points.get(0).copy());
+		}
+
+		MultiProbeLshHamming alg = new MultiProbeLshHamming(3, 4, 1, 234);
+		alg.setPoints(points);
+		assertEquals(0, alg.findNearest(points.get(4), Integer.MAX_VALUE));
+	}
+
+	@Test
+	public void emptyList() {
+		MultiProbeLshHamming alg = new MultiProbeLshHamming(3, 4, 1, 234);
+		alg.setPoints(new FastQueue<>(TupleDesc_B.class, false));
+		assertEquals(-1, alg.findNearest(new TupleDesc_B(64), Integer.MAX_VALUE));
+	}
+
+	private void flipBits( TupleDesc_B desc , int total ) {
+		for (int i = 0; i < total; i++) {
+			// the same bit might be flipped twice, but that's fine
+			int bit = rand.nextInt(desc.numBits);
+			desc.data[bit/32] ^= 1 << (bit%32);
+		}
+	}
+
+	private FastQueue<TupleDesc_B> createPoints( int total , int numBits ) {
+		FastQueue<TupleDesc_B> list = new FastQueue<>(TupleDesc_B.class, false);
+		for (int i = 0; i < total; i++) {
+			TupleDesc_B d = new TupleDesc_B(numBits);
+			for (int j = 0; j < d.data.length; j++) {
+				d.data[j] = rand.nextInt();
+			}
+			list.add(d);
+		}
+		return list;
+	}
+}
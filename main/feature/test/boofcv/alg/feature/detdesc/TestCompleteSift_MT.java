@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.feature.detdesc;
+
+import boofcv.abst.feature.detect.extract.ConfigExtract;
+import boofcv.abst.feature.detect.extract.NonMaxLimiter;
+import boofcv.alg.feature.describe.DescribePointSift;
+import boofcv.alg.feature.detect.interest.SiftScaleSpace;
+import boofcv.alg.feature.orientation.OrientationHistogramSift;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.feature.detect.extract.FactoryFeatureExtractor;
+import boofcv.struct.feature.BrightFeature;
+import boofcv.struct.feature.ScalePoint;
+import boofcv.struct.image.GrayF32;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCompleteSift_MT {
+
+	Random rand = new Random(234);
+
+	int originalThreads;
+
+	@Before
+	public void before() {
+		originalThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(3);
+	}
+
+	@After
+	public void after() {
+		BoofConcurrency.USE_CONCURRENT = false;
+		BoofConcurrency.setMaxThreads(originalThreads);
+	}
+
+	/**
+	 * Results should be identical to the single threaded version, including the order
+	 */
+	@Test
+	public void compareToSingleThread() {
+		GrayF32 image = new GrayF32(300,290);
+		GImageMiscOps.fillUniform(image,rand,0,200);
+
+		CompleteSift expected = createSingle();
+		expected.process(image);
+		assertTrue(expected.getDescriptions().size > 10);
+
+		// one worker per scale, fewer workers than scales
+		for( int numWorkers : new int[]{3,2,1}) {
+			BoofConcurrency.USE_CONCURRENT = true;
+			CompleteSift_MT found = createMT(numWorkers);
+			found.process(image);
+			// process twice to make sure internal state is reset
+			found.process(image);
+			BoofConcurrency.USE_CONCURRENT = false;
+
+			compare(expected, found);
+		}
+	}
+
+	private void compare( CompleteSift expected , CompleteSift found ) {
+		assertEquals(expected.getDetections().size, found.getDetections().size);
+		for (int i = 0; i < expected.getDetections().size; i++) {
+			ScalePoint a = expected.getDetections().get(i);
+			ScalePoint b = found.getDetections().get(i);
+			assertEquals(a.x, b.x, 1e-8);
+			assertEquals(a.y, b.y, 1e-8);
+			assertEquals(a.scale, b.scale, 1e-8);
+		}
+
+		assertEquals(expected.getDescriptions().size, found.getDescriptions().size);
+		assertEquals(expected.getLocations().size, found.getLocations().size);
+		assertEquals(expected.getOrientations().size, found.getOrientations().size);
+		for (int i = 0; i < expected.getDescriptions().size; i++) {
+			BrightFeature a = expected.getDescriptions().get(i);
+			BrightFeature b = found.getDescriptions().get(i);
+			assertEquals(a.white, b.white);
+			for (int j = 0; j < a.size(); j++) {
+				assertEquals(a.value[j], b.value[j], 1e-8);
+			}
+			assertEquals(expected.getOrientations().get(i), found.getOrientations().get(i), 1e-8);
+			ScalePoint pa = expected.getLocations().get(i);
+			ScalePoint pb = found.getLocations().get(i);
+			assertEquals(pa.x, pb.x, 1e-8);
+			assertEquals(pa.y, pb.y, 1e-8);
+		}
+	}
+
+	private CompleteSift createSingle() {
+		return new CompleteSift(new SiftScaleSpace(-1,4,3,1.6),10,
+				createLimiter(),createOrientation(),createDescribe());
+	}
+
+	private CompleteSift_MT createMT( int numWorkers ) {
+		List<NonMaxLimiter> extractors = new ArrayList<>();
+		List<OrientationHistogramSift<GrayF32>> orientations = new ArrayList<>();
+		List<DescribePointSift<GrayF32>> describes = new ArrayList<>();
+		for (int i = 0; i < numWorkers; i++) {
+			extractors.add(createLimiter());
+			orientations.add(createOrientation());
+			describes.add(createDescribe());
+		}
+		return new CompleteSift_MT(new SiftScaleSpace(-1,4,3,1.6),10,extractors,orientations,describes);
+	}
+
+	private NonMaxLimiter createLimiter() {
+		return new NonMaxLimiter(FactoryFeatureExtractor.nonmax(new ConfigExtract(1,0,1,true,true,true)),300);
+	}
+
+	private OrientationHistogramSift<GrayF32> createOrientation() {
+		return new OrientationHistogramSift<>(36,1.5,GrayF32.class);
+	}
+
+	private DescribePointSift<GrayF32> createDescribe() {
+		return new DescribePointSift<>(4,4,8,1.5,0.5,0.2,GrayF32.class);
+	}
+}
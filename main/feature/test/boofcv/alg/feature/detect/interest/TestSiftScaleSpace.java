@@ -21,6 +21,7 @@ package boofcv.alg.feature.detect.interest;
 import boofcv.alg.filter.blur.GBlurImageOps;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.struct.image.GrayF32;
+import boofcv.testing.BoofTesting;
 import org.junit.Test;
 
 import java.util.Random;
@@ -94,6 +95,89 @@ public class TestSiftScaleSpace {
 		}
 	}
 
+	/**
+	 * Same as {@link #checkScaleBlur} but with recursive blur used for every image
+	 */
+	@Test
+	public void checkScaleBlur_recursive() {
+		GrayF32 original = new GrayF32(300,340);
+		GImageMiscOps.fillUniform(original,rand,0,100);
+
+		GrayF32 expected = new GrayF32(300,340);
+
+		float sigma0 = 1.6f;
+		SiftScaleSpace alg = new SiftScaleSpace(0,3,2,sigma0);
+		alg.setMinSigmaRecursive(0.5);
+
+		alg.initialize(original);
+
+		for (int i = 0; i < 5; i++) {
+			double sigma = alg.computeSigmaScale(i);
+
+			GBlurImageOps.gaussian(original, expected, sigma, -1, null);
+
+			double averageError = compareImage(expected, alg.getImageScale(i), 0);
+
+			assertTrue(" scale "+i+" error = "+averageError,averageError<2);
+		}
+	}
+
+	/**
+	 * Recursive blur with configurations where some of the blur sigmas are too small for the recursive filter.
+	 * Those should use convolution instead.  Compared against the scale space created using only convolution.
+	 */
+	@Test
+	public void checkScaleBlur_recursive_smallSigma() {
+		checkScaleBlur_recursive(0.8, 3);
+		checkScaleBlur_recursive(1.6, 8);
+	}
+
+	private void checkScaleBlur_recursive( double sigma0 , int numScales ) {
+		GrayF32 original = new GrayF32(300,340);
+		GImageMiscOps.fillUniform(original,rand,0,100);
+
+		SiftScaleSpace expected = new SiftScaleSpace(0,2,numScales,sigma0);
+		SiftScaleSpace found = new SiftScaleSpace(0,2,numScales,sigma0);
+		found.setMinSigmaRecursive(1.0);
+
+		expected.initialize(original);
+		found.initialize(original);
+
+		for (int octave = 0; octave <= 2; octave++) {
+			for (int i = 0; i < found.getNumScaleImages(); i++) {
+				double averageError = compareImage(expected.getImageScale(i), found.getImageScale(i), 0);
+				assertTrue("octave "+octave+" scale "+i+" error = "+averageError, averageError < 1);
+			}
+			assertEquals(octave < 2, expected.computeNextOctave());
+			assertEquals(octave < 2, found.computeNextOctave());
+		}
+	}
+
+	/**
+	 * Sigmas below the threshold should produce the same images as convolution
+	 */
+	@Test
+	public void minSigmaRecursive_belowThreshold() {
+		GrayF32 original = new GrayF32(100,90);
+		GImageMiscOps.fillUniform(original,rand,0,100);
+
+		SiftScaleSpace expected = new SiftScaleSpace(0,1,3,1.6);
+		SiftScaleSpace found = new SiftScaleSpace(0,1,3,1.6);
+		found.setMinSigmaRecursive(100);
+
+		expected.initialize(original);
+		found.initialize(original);
+
+		for (int i = 0; i < expected.getNumScaleImages(); i++) {
+			BoofTesting.assertEquals(expected.getImageScale(i), found.getImageScale(i), 0);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setMinSigmaRecursive_tooSmall() {
+		new SiftScaleSpace(0,1,3,1.6).setMinSigmaRecursive(0.4);
+	}
+
 	@Test
 	public void computeSigmaScale() {
 		SiftScaleSpace alg = new SiftScaleSpace(-1,4,3,1.6);
@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.shapes.polygon;
+
+import boofcv.abst.filter.binary.InputToBinary;
+import boofcv.alg.distort.PixelTransformAffine_F32;
+import boofcv.alg.distort.PixelTransformCached_F32;
+import boofcv.alg.filter.binary.Contour;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.core.image.GeneralizedImageOps;
+import boofcv.factory.filter.binary.FactoryThresholdBinary;
+import boofcv.factory.shape.ConfigPolygonDetector;
+import boofcv.factory.shape.ConfigRefinePolygonCornersToImage;
+import boofcv.factory.shape.ConfigRefinePolygonLineToImage;
+import boofcv.factory.shape.FactoryShapeDetector;
+import boofcv.io.image.ConvertBufferedImage;
+import boofcv.struct.distort.PixelTransform2_F32;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageGray;
+import georegression.struct.affine.Affine2D_F32;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.FastQueue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBinaryPolygonDetector_MT {
+
+	Random rand = new Random(234);
+
+	int width = 500, height = 420;
+
+	int originalMaxThreads;
+
+	@Before
+	public void before() {
+		originalMaxThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(3);
+	}
+
+	@After
+	public void after() {
+		BoofConcurrency.USE_CONCURRENT = false;
+		BoofConcurrency.setMaxThreads(originalMaxThreads);
+	}
+
+	@Test
+	public void factory() {
+		BoofConcurrency.USE_CONCURRENT = true;
+		BinaryPolygonDetector alg = FactoryShapeDetector.polygon(new ConfigPolygonDetector(3,5),GrayU8.class);
+		assertTrue(alg instanceof BinaryPolygonDetector_MT);
+		assertEquals(3,((BinaryPolygonDetector_MT)alg).getWorkers().size());
+
+		BoofConcurrency.USE_CONCURRENT = false;
+		alg = FactoryShapeDetector.polygon(new ConfigPolygonDetector(3,5),GrayU8.class);
+		assertFalse(alg instanceof BinaryPolygonDetector_MT);
+	}
+
+	/**
+	 * Many shapes in the image.  The results should be identical to the single threaded version and in the same order
+	 */
+	@Test
+	public void compareToSingleThread() {
+		for( Class imageType : new Class[]{GrayU8.class, GrayF32.class}) {
+			ImageGray gray = render(imageType);
+			GrayU8 binary = threshold(gray);
+
+			compare(gray, binary, true, null);
+			compare(gray, binary, false, null);
+		}
+	}
+
+	@Test
+	public void compareToSingleThread_lensDistortion() {
+		GrayU8 gray = render(GrayU8.class);
+		GrayU8 binary = threshold(gray);
+
+		Affine2D_F32 a = new Affine2D_F32(0.95f,0.02f,-0.01f,1.02f,1,-2);
+		PixelTransform2_F32 tranFrom = new PixelTransformAffine_F32(a);
+		PixelTransform2_F32 tranTo = new PixelTransformAffine_F32(a.invert(null));
+		// these transforms can't be copied so it should fall back to processing contours sequentially
+		compare(gray, binary, true, new PixelTransform2_F32[]{tranTo,tranFrom});
+		BinaryPolygonDetector_MT<GrayU8> multi = (BinaryPolygonDetector_MT)create(GrayU8.class, true, true);
+		multi.setLensDistortion(width, height, tranTo, tranFrom);
+		assertFalse(multi.workersDistortion);
+
+		// the cached transform's table is shared directly
+		PixelTransform2_F32 cachedFrom = new PixelTransformCached_F32(width,height,tranFrom);
+		PixelTransform2_F32 cachedTo = new PixelTransformCached_F32(width,height,tranTo);
+		compare(gray, binary, false, new PixelTransform2_F32[]{cachedTo,cachedFrom});
+		multi.setLensDistortion(width, height, cachedTo, cachedFrom);
+		assertTrue(multi.workersDistortion);
+		assertWorkersHaveOwnTransform(multi, cachedTo);
+
+		// once the distortion is removed the workers can be used again
+		multi.setLensDistortion(width, height, tranTo, tranFrom);
+		multi.clearLensDistortion();
+		assertTrue(multi.workersDistortion);
+	}
+
+	/**
+	 * Transforms which can't be copied are provided for each worker
+	 */
+	@Test
+	public void compareToSingleThread_lensDistortionWorkers() {
+		GrayU8 gray = render(GrayU8.class);
+		GrayU8 binary = threshold(gray);
+
+		Affine2D_F32 a = new Affine2D_F32(0.95f,0.02f,-0.01f,1.02f,1,-2);
+		Affine2D_F32 a_inv = a.invert(null);
+
+		BinaryPolygonDetector<GrayU8> single = create(GrayU8.class, true, false);
+		BinaryPolygonDetector_MT<GrayU8> multi = (BinaryPolygonDetector_MT)create(GrayU8.class, true, true);
+
+		single.setLensDistortion(width, height, new PixelTransformAffine_F32(a_inv), new PixelTransformAffine_F32(a));
+
+		List<PixelTransform2_F32> workerTo = new ArrayList<>();
+		List<PixelTransform2_F32> workerFrom = new ArrayList<>();
+		for (int i = 0; i < multi.getWorkers().size(); i++) {
+			workerTo.add(new PixelTransformAffine_F32(a_inv));
+			workerFrom.add(new PixelTransformAffine_F32(a));
+		}
+		PixelTransform2_F32 tranTo = new PixelTransformAffine_F32(a_inv);
+		multi.setLensDistortion(width, height, tranTo, new PixelTransformAffine_F32(a), workerTo, workerFrom);
+		assertTrue(multi.workersDistortion);
+		assertWorkersHaveOwnTransform(multi, tranTo);
+
+		single.process(gray, binary);
+		multi.process(gray, binary);
+		assertTrue(single.getFoundPolygons().size() > 10);
+		assertIdentical(single, multi);
+	}
+
+	/**
+	 * Workers must not share a transform instance with each other or the original
+	 */
+	private void assertWorkersHaveOwnTransform( BinaryPolygonDetector_MT<GrayU8> multi ,
+												PixelTransform2_F32 distToUndist ) {
+		List<BinaryPolygonDetector<GrayU8>> workers = multi.getWorkers();
+		for (int i = 0; i < workers.size(); i++) {
+			PixelTransform2_F32 t = workers.get(i).getDistToUndist();
+			assertTrue(t != null && t != distToUndist);
+			for (int j = i+1; j < workers.size(); j++) {
+				assertTrue(t != workers.get(j).getDistToUndist());
+			}
+		}
+	}
+
+	/**
+	 * Process images of different sizes with the same detector.  The workers need to adjust to the new shape too.
+	 */
+	@Test
+	public void compareToSingleThread_changeSize() {
+		BinaryPolygonDetector<GrayU8> single = create(GrayU8.class, true, false);
+		BinaryPolygonDetector<GrayU8> multi = create(GrayU8.class, true, true);
+
+		int shapes[][] = new int[][]{{width,height},{height+40,width-60},{width,height}};
+		for( int[] shape : shapes ) {
+			GrayU8 gray = render(GrayU8.class, shape[0], shape[1]);
+			GrayU8 binary = threshold(gray);
+
+			single.process(gray, binary);
+			multi.process(gray, binary);
+
+			assertTrue(single.getFoundPolygons().size() > 10);
+			assertIdentical(single, multi);
+		}
+	}
+
+	/**
+	 * If the refinement algorithm is changed then it should fall back to sequential processing
+	 */
+	@Test
+	public void changeRefine() {
+		GrayU8 gray = render(GrayU8.class);
+		GrayU8 binary = threshold(gray);
+
+		BinaryPolygonDetector<GrayU8> single = create(GrayU8.class, false, false);
+		BinaryPolygonDetector<GrayU8> multi = create(GrayU8.class, false, true);
+
+		ConfigRefinePolygonLineToImage config = new ConfigRefinePolygonLineToImage();
+		single.setRefinePolygon(FactoryShapeDetector.refinePolygon(config,GrayU8.class));
+		multi.setRefinePolygon(FactoryShapeDetector.refinePolygon(config,GrayU8.class));
+
+		single.process(gray, binary);
+		multi.process(gray, binary);
+		assertIdentical(single, multi);
+
+		// with no refinement the workers can be used again
+		single.setRefinePolygon(null);
+		multi.setRefinePolygon(null);
+		assertTrue(((BinaryPolygonDetector_MT)multi).workersSynchronized);
+
+		single.process(gray, binary);
+		multi.process(gray, binary);
+		assertIdentical(single, multi);
+	}
+
+	private <T extends ImageGray> void compare( T gray , GrayU8 binary , boolean useLines ,
+												PixelTransform2_F32 distortion[] ) {
+		Class<T> imageType = (Class)gray.getClass();
+		BinaryPolygonDetector<T> single = create(imageType, useLines, false);
+		BinaryPolygonDetector<T> multi = create(imageType, useLines, true);
+
+		if( distortion != null ) {
+			single.setLensDistortion(width, height, distortion[0], distortion[1]);
+			multi.setLensDistortion(width, height, distortion[0], distortion[1]);
+		}
+
+		// process it twice to make sure internal state is handled correctly
+		for (int trial = 0; trial < 2; trial++) {
+			single.process(gray, binary);
+			multi.process(gray, binary);
+
+			assertTrue(single.getFoundPolygons().size() > 10);
+			assertIdentical(single, multi);
+		}
+	}
+
+	private void assertIdentical( BinaryPolygonDetector single , BinaryPolygonDetector multi ) {
+		FastQueue<Polygon2D_F64> foundS = single.getFoundPolygons();
+		FastQueue<Polygon2D_F64> foundM = multi.getFoundPolygons();
+		FastQueue<BinaryPolygonDetector.Info> infoS = single.getPolygonInfo();
+		FastQueue<BinaryPolygonDetector.Info> infoM = multi.getPolygonInfo();
+		List<Contour> contourS = single.getUsedContours();
+		List<Contour> contourM = multi.getUsedContours();
+
+		assertEquals(foundS.size, foundM.size);
+		assertEquals(foundS.size, infoM.size);
+		assertEquals(foundS.size, contourM.size());
+
+		for (int i = 0; i < foundS.size; i++) {
+			Polygon2D_F64 a = foundS.get(i);
+			Polygon2D_F64 b = foundM.get(i);
+			assertEquals(a.size(), b.size());
+			for (int j = 0; j < a.size(); j++) {
+				assertEquals(0, a.get(j).distance(b.get(j)), 0);
+			}
+
+			BinaryPolygonDetector.Info ia = infoS.get(i);
+			BinaryPolygonDetector.Info ib = infoM.get(i);
+			assertEquals(ia.external, ib.external);
+			assertEquals(ia.edgeInside, ib.edgeInside, 0);
+			assertEquals(ia.edgeOutside, ib.edgeOutside, 0);
+			assertEquals(ia.borderCorners.size, ib.borderCorners.size);
+
+			assertEquals(contourS.get(i).id, contourM.get(i).id);
+			assertEquals(contourS.get(i).external.size(), contourM.get(i).external.size());
+		}
+	}
+
+	private <T extends ImageGray> BinaryPolygonDetector<T> create( Class<T> imageType , boolean useLines ,
+																	boolean concurrent ) {
+		ConfigPolygonDetector config = new ConfigPolygonDetector(3,6);
+		config.minContourImageWidthFraction = 0.05;
+		config.canTouchBorder = true;
+		if( useLines ) {
+			config.refine = new ConfigRefinePolygonLineToImage();
+		} else {
+			config.refine = new ConfigRefinePolygonCornersToImage();
+		}
+
+		BoofConcurrency.USE_CONCURRENT = concurrent;
+		BinaryPolygonDetector<T> alg = FactoryShapeDetector.polygon(config, imageType);
+		BoofConcurrency.USE_CONCURRENT = false;
+		return alg;
+	}
+
+	/**
+	 * Renders a grid of randomly sized polygons.  Some are cut off by the image border
+	 */
+	private <T extends ImageGray> T render( Class<T> imageType ) {
+		return render(imageType, width, height);
+	}
+
+	private <T extends ImageGray> T render( Class<T> imageType , int width , int height ) {
+		BufferedImage work = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g2 = work.createGraphics();
+		g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		g2.setColor(Color.WHITE);
+		g2.fillRect(0, 0, width, height);
+		g2.setColor(Color.BLACK);
+
+		int cell = 70;
+		for (int y = -10; y < height; y += cell) {
+			for (int x = -10; x < width; x += cell) {
+				int sides = 3 + rand.nextInt(4);
+				double radius = cell*(0.25 + rand.nextDouble()*0.15);
+				double cx = x + cell/2.0, cy = y + cell/2.0;
+				double offset = rand.nextDouble()*Math.PI;
+
+				int px[] = new int[sides], py[] = new int[sides];
+				for (int i = 0; i < sides; i++) {
+					double theta = offset + 2*Math.PI*i/sides;
+					px[i] = (int)(cx + radius*Math.cos(theta));
+					py[i] = (int)(cy + radius*Math.sin(theta));
+				}
+				g2.fillPolygon(px, py, sides);
+			}
+		}
+
+		T gray = GeneralizedImageOps.createSingleBand(imageType, width, height);
+		ConvertBufferedImage.convertFrom(work, gray, true);
+		return gray;
+	}
+
+	private <T extends ImageGray> GrayU8 threshold( T gray ) {
+		InputToBinary<T> inputToBinary = FactoryThresholdBinary.globalFixed(100, true, (Class<T>)gray.getClass());
+		GrayU8 binary = new GrayU8(gray.width, gray.height);
+		inputToBinary.process(gray, binary);
+		return binary;
+	}
+}
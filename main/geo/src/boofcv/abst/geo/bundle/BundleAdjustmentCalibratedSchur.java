@@ -0,0 +1,642 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.abst.geo.bundle;
+
+import boofcv.abst.geo.BundleAdjustmentCalibrated;
+import boofcv.alg.geo.RodriguesRotationJacobian;
+import boofcv.alg.geo.bundle.CalibPoseAndPointRodriguesCodec;
+import boofcv.alg.geo.bundle.CalibratedPoseAndPoint;
+import boofcv.alg.geo.bundle.PointIndexObservation;
+import boofcv.alg.geo.bundle.ViewPointObservations;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.so.Rodrigues_F64;
+import org.ddogleg.struct.FastQueue;
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.factory.LinearSolverFactory;
+import org.ejml.interfaces.linsol.LinearSolver;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Bundle adjustment for calibrated cameras which takes advantage of the problem's sparse structure.  Each
+ * observation only depends on one view and one point, so instead of a dense Jacobian a 2x6 block for the view and
+ * a 2x3 block for the point are saved for each observation.  Levenberg-Marquardt is used to minimize the residual
+ * error and its normal equations are solved using the Schur complement.  Points are eliminated first by inverting
+ * their 3x3 blocks, which leaves a reduced system containing only the views.  After the reduced system has been
+ * solved using Cholesky decomposition, the change in each point's location is found by back substitution.
+ * </p>
+ *
+ * <p>
+ * Memory and computations grow linearly with the number of points and observations, but cubically with the
+ * number of views which are being optimized.  This makes it well suited to problems with many points and a
+ * moderate number of views, such as a sliding window of key frames in visual odometry.  The parametrization is the
+ * same as {@link BundleAdjustmentCalibratedDense}, see {@link CalibPoseAndPointRodriguesCodec}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BundleAdjustmentCalibratedSchur
+		implements BundleAdjustmentCalibrated
+{
+	// converts to and from a parameterized version of the model
+	CalibPoseAndPointRodriguesCodec codec = new CalibPoseAndPointRodriguesCodec();
+	// storage for model parameters and the parameters being considered
+	double param[] = new double[0];
+	double candidate[] = new double[0];
+
+	int maxIterations;
+	double convergenceTol;
+
+	// initial value of the Levenberg-Marquardt damping parameter
+	double initialDamping = 1e-3;
+
+	//------------ Problem structure
+	int numViews, numPoints, numUnknown, numObs;
+	// index of the view in the reduced system, -1 if its pose is known
+	int viewToUnknown[] = new int[0];
+	// which view and point each observation belongs to
+	int obsView[] = new int[0];
+	int obsPoint[] = new int[0];
+	// observation in normalized image coordinates. x and y are interleaved
+	double obsNorm[] = new double[0];
+	// observations are ordered by view. index of the first observation in each view
+	int viewObsStart[] = new int[0];
+	// observations of each point in compressed row format
+	int pointObsStart[] = new int[0];
+	int pointObs[] = new int[0];
+	// transforms for views with a known pose
+	Se3_F64 known[] = new Se3_F64[0];
+
+	//------------ State of each view for the parameters being evaluated
+	// rotation matrix, translation, and partials of the rotation matrix for each view
+	double viewR[] = new double[0];
+	double viewT[] = new double[0];
+	double viewRodJac[] = new double[0];
+	Rodrigues_F64 rodrigues = new Rodrigues_F64();
+	RodriguesRotationJacobian rodJacobian = new RodriguesRotationJacobian();
+	DenseMatrix64F R = new DenseMatrix64F(3,3);
+
+	//------------ Residuals and Jacobian for each observation
+	double residuals[] = new double[0];
+	// 2x6 Jacobian of the view parameters and 2x3 Jacobian of the point.  row-major
+	double jacView[] = new double[0];
+	double jacPoint[] = new double[0];
+
+	//------------ Normal equations
+	// 6x6 blocks J'J for each unknown view
+	double blockU[] = new double[0];
+	// 3x3 blocks J'J for each point and their damped inverse
+	double blockV[] = new double[0];
+	double blockVinv[] = new double[0];
+	// 6x3 block cross terms for each observation
+	double blockW[] = new double[0];
+	// -J'*r for views and points
+	double gradView[] = new double[0];
+	double gradPoint[] = new double[0];
+
+	//------------ Reduced system and its solution
+	DenseMatrix64F S = new DenseMatrix64F(1,1);
+	DenseMatrix64F rhs = new DenseMatrix64F(1,1);
+	DenseMatrix64F deltaView = new DenseMatrix64F(1,1);
+	LinearSolver<DenseMatrix64F> solver;
+	double deltaPoint[] = new double[0];
+	// W*inv(V) for the observation being processed
+	double Y[] = new double[18];
+
+	// number of iterations in the last call to process
+	int iterations;
+
+	/**
+	 * Configures the optimization
+	 *
+	 * @param convergenceTol Stops when the relative change in the sum of squared residuals is less than this.
+	 *                       Try 1e-8
+	 * @param maxIterations Maximum number of iterations.  Try 200 or more
+	 */
+	public BundleAdjustmentCalibratedSchur(double convergenceTol, int maxIterations) {
+		this.convergenceTol = convergenceTol;
+		this.maxIterations = maxIterations;
+	}
+
+	@Override
+	public boolean process(CalibratedPoseAndPoint initialModel,
+						   List<ViewPointObservations> observations)
+	{
+		configure(initialModel, observations);
+
+		codec.encode(initialModel, param);
+
+		double damping = initialDamping;
+		double cost = computeResiduals(param, true);
+		iterations = 0;
+
+		while( iterations < maxIterations && cost > 0 ) {
+			computeNormalEquations();
+
+			// keep on increasing the damping until the cost goes down
+			boolean improved = false;
+			while( iterations < maxIterations ) {
+				iterations++;
+				if( solveStep(damping) ) {
+					double candidateCost = computeResiduals(candidate, false);
+					if( candidateCost < cost ) {
+						double[] swap = param;
+						param = candidate;
+						candidate = swap;
+
+						improved = cost - candidateCost > convergenceTol*cost;
+						cost = computeResiduals(param, true);
+						damping = Math.max(1e-12, damping/10.0);
+						break;
+					}
+				}
+				damping *= 10;
+				if( damping > 1e20 )
+					break;
+			}
+
+			if( !improved )
+				break;
+		}
+
+		codec.decode(param, initialModel);
+
+		return true;
+	}
+
+	/**
+	 * Saves the structure of the problem into arrays and declares storage
+	 */
+	void configure( CalibratedPoseAndPoint model , List<ViewPointObservations> observations ) {
+		numViews = model.getNumViews();
+		numPoints = model.getNumPoints();
+		numUnknown = model.getNumUnknownViews();
+
+		codec.configure(numViews, numPoints, numUnknown, model.getKnownArray());
+		int N = codec.getParamLength();
+		if( param.length < N ) {
+			param = new double[N];
+			candidate = new double[N];
+		}
+
+		if( viewToUnknown.length < numViews ) {
+			viewToUnknown = new int[numViews];
+			viewObsStart = new int[numViews+1];
+			known = new Se3_F64[numViews];
+			viewR = new double[numViews*9];
+			viewT = new double[numViews*3];
+			viewRodJac = new double[numViews*27];
+		}
+		int unknown = 0;
+		for (int view = 0; view < numViews; view++) {
+			if( model.isViewKnown(view) ) {
+				viewToUnknown[view] = -1;
+				known[view] = model.getWorldToCamera(view);
+			} else {
+				viewToUnknown[view] = unknown++;
+				known[view] = null;
+			}
+		}
+
+		numObs = 0;
+		for (int view = 0; view < numViews; view++) {
+			viewObsStart[view] = numObs;
+			numObs += observations.get(view).getPoints().size;
+		}
+		viewObsStart[numViews] = numObs;
+
+		if( obsView.length < numObs ) {
+			obsView = new int[numObs];
+			obsPoint = new int[numObs];
+			obsNorm = new double[numObs*2];
+			pointObs = new int[numObs];
+			residuals = new double[numObs*2];
+			jacView = new double[numObs*12];
+			jacPoint = new double[numObs*6];
+			blockW = new double[numObs*18];
+		}
+		if( pointObsStart.length < numPoints+1 ) {
+			pointObsStart = new int[numPoints+1];
+			blockV = new double[numPoints*9];
+			blockVinv = new double[numPoints*9];
+			gradPoint = new double[numPoints*3];
+			deltaPoint = new double[numPoints*3];
+		}
+		if( blockU.length < numUnknown*36 ) {
+			blockU = new double[numUnknown*36];
+			gradView = new double[numUnknown*6];
+		}
+
+		// flatten the observations
+		int index = 0;
+		for( int i = 0; i <= numPoints; i++ )
+			pointObsStart[i] = 0;
+		for (int view = 0; view < numViews; view++) {
+			FastQueue<PointIndexObservation> points = observations.get(view).getPoints();
+			for (int i = 0; i < points.size; i++, index++) {
+				PointIndexObservation o = points.get(i);
+				obsView[index] = view;
+				obsPoint[index] = o.pointIndex;
+				obsNorm[index*2] = o.obs.x;
+				obsNorm[index*2+1] = o.obs.y;
+				pointObsStart[o.pointIndex+1]++;
+			}
+		}
+
+		// observations of each point
+		for (int i = 0; i < numPoints; i++) {
+			pointObsStart[i+1] += pointObsStart[i];
+		}
+		int counts[] = new int[numPoints];
+		for (int i = 0; i < numObs; i++) {
+			int point = obsPoint[i];
+			pointObs[pointObsStart[point] + counts[point]++] = i;
+		}
+
+		declareReducedSystem();
+	}
+
+	/**
+	 * Declares storage for the reduced system
+	 */
+	void declareReducedSystem() {
+		S.reshape(numUnknown*6, numUnknown*6);
+		rhs.reshape(numUnknown*6, 1);
+		deltaView.reshape(numUnknown*6, 1);
+		solver = LinearSolverFactory.symmPosDef(numUnknown*6);
+	}
+
+	/**
+	 * Computes the residuals and optionally the Jacobian for each observation
+	 *
+	 * @param param Model parameters
+	 * @param jacobian If true the Jacobian will also be computed
+	 * @return sum of squared residuals
+	 */
+	double computeResiduals( double param[] , boolean jacobian ) {
+		decodeViews(param, jacobian);
+		computeObservations(param, jacobian, 0, numObs);
+		return sumResiduals();
+	}
+
+	/**
+	 * Sum of squared residuals
+	 */
+	double sumResiduals() {
+		double cost = 0;
+		for (int i = 0; i < numObs*2; i++) {
+			cost += residuals[i]*residuals[i];
+		}
+		return cost;
+	}
+
+	/**
+	 * Computes the residuals and optionally the Jacobian for a range of observations.  Views must be decoded first.
+	 */
+	void computeObservations( double param[] , boolean jacobian , int obs0 , int obs1 ) {
+		int indexFirstPoint = numUnknown*6;
+		for (int obs = obs0; obs < obs1; obs++) {
+			int view = obsView[obs];
+			int indexPoint = indexFirstPoint + obsPoint[obs]*3;
+			double X = param[indexPoint], Y = param[indexPoint+1], Z = param[indexPoint+2];
+
+			int r = view*9;
+			int t = view*3;
+			double cx = viewR[r  ]*X + viewR[r+1]*Y + viewR[r+2]*Z + viewT[t];
+			double cy = viewR[r+3]*X + viewR[r+4]*Y + viewR[r+5]*Z + viewT[t+1];
+			double cz = viewR[r+6]*X + viewR[r+7]*Y + viewR[r+8]*Z + viewT[t+2];
+
+			double rx = cx/cz - obsNorm[obs*2];
+			double ry = cy/cz - obsNorm[obs*2+1];
+			residuals[obs*2] = rx;
+			residuals[obs*2+1] = ry;
+
+			if( !jacobian )
+				continue;
+
+			double divZ = 1.0/cz;
+			double divZ2 = divZ*divZ;
+
+			// partial for the point: R*dot(X)/z - dot(z)*(R*X+T)/(z^2)
+			int p = obs*6;
+			for (int i = 0; i < 3; i++) {
+				jacPoint[p+i]   = viewR[r+i]*divZ   - viewR[r+6+i]*divZ2*cx;
+				jacPoint[p+3+i] = viewR[r+3+i]*divZ - viewR[r+6+i]*divZ2*cy;
+			}
+
+			if( viewToUnknown[view] < 0 )
+				continue;
+
+			// partials for the Rodrigues coordinates: dot(R)*X/z - dot(z)*(R*X+T)/(z^2)
+			int v = obs*12;
+			for (int i = 0; i < 3; i++) {
+				int j = view*27 + i*9;
+				double dx = viewRodJac[j  ]*X + viewRodJac[j+1]*Y + viewRodJac[j+2]*Z;
+				double dy = viewRodJac[j+3]*X + viewRodJac[j+4]*Y + viewRodJac[j+5]*Z;
+				double dz = viewRodJac[j+6]*X + viewRodJac[j+7]*Y + viewRodJac[j+8]*Z;
+
+				jacView[v+i]   = dx*divZ - dz*divZ2*cx;
+				jacView[v+6+i] = dy*divZ - dz*divZ2*cy;
+			}
+			// partials for the translation
+			jacView[v+3] = divZ;
+			jacView[v+4] = 0;
+			jacView[v+5] = -cx*divZ2;
+			jacView[v+9] = 0;
+			jacView[v+10] = divZ;
+			jacView[v+11] = -cy*divZ2;
+		}
+	}
+
+	/**
+	 * Computes the rotation matrix, translation, and rotation partials for each view
+	 */
+	void decodeViews( double param[] , boolean jacobian ) {
+		for (int view = 0; view < numViews; view++) {
+			int unknown = viewToUnknown[view];
+			if( unknown < 0 ) {
+				Se3_F64 se = known[view];
+				System.arraycopy(se.getR().data, 0, viewR, view*9, 9);
+				viewT[view*3  ] = se.getT().x;
+				viewT[view*3+1] = se.getT().y;
+				viewT[view*3+2] = se.getT().z;
+			} else {
+				int index = unknown*6;
+				double rodX = param[index], rodY = param[index+1], rodZ = param[index+2];
+				rodrigues.setParamVector(rodX, rodY, rodZ);
+				ConvertRotation3D_F64.rodriguesToMatrix(rodrigues, R);
+				System.arraycopy(R.data, 0, viewR, view*9, 9);
+				viewT[view*3  ] = param[index+3];
+				viewT[view*3+1] = param[index+4];
+				viewT[view*3+2] = param[index+5];
+
+				if( jacobian ) {
+					rodJacobian.process(rodX, rodY, rodZ);
+					System.arraycopy(rodJacobian.Rx.data, 0, viewRodJac, view*27, 9);
+					System.arraycopy(rodJacobian.Ry.data, 0, viewRodJac, view*27+9, 9);
+					System.arraycopy(rodJacobian.Rz.data, 0, viewRodJac, view*27+18, 9);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes the blocks in the normal equations J'*J and the gradient -J'*r from the Jacobian
+	 */
+	void computeNormalEquations() {
+		computePointBlocks(0, numPoints);
+		computeViewBlocks(0, numViews);
+	}
+
+	/**
+	 * Computes the 3x3 block J'*J and gradient for a range of points
+	 */
+	void computePointBlocks( int point0 , int point1 ) {
+		for (int point = point0; point < point1; point++) {
+			int v3 = point*3;
+			int v9 = point*9;
+			Arrays.fill(blockV, v9, v9+9, 0);
+			Arrays.fill(gradPoint, v3, v3+3, 0);
+
+			for (int k = pointObsStart[point]; k < pointObsStart[point+1]; k++) {
+				int obs = pointObs[k];
+				double rx = residuals[obs*2], ry = residuals[obs*2+1];
+
+				int p = obs*6;
+				for (int i = 0; i < 3; i++) {
+					double bx = jacPoint[p+i], by = jacPoint[p+3+i];
+					for (int j = 0; j < 3; j++) {
+						blockV[v9+i*3+j] += bx*jacPoint[p+j] + by*jacPoint[p+3+j];
+					}
+					gradPoint[v3+i] -= bx*rx + by*ry;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes the 6x6 block J'*J and gradient for a range of views, and the cross terms for their observations
+	 */
+	void computeViewBlocks( int view0 , int view1 ) {
+		for (int view = view0; view < view1; view++) {
+			int unknown = viewToUnknown[view];
+			if( unknown < 0 )
+				continue;
+
+			int u36 = unknown*36;
+			int u6 = unknown*6;
+			Arrays.fill(blockU, u36, u36+36, 0);
+			Arrays.fill(gradView, u6, u6+6, 0);
+
+			for (int obs = viewObsStart[view]; obs < viewObsStart[view+1]; obs++) {
+				double rx = residuals[obs*2], ry = residuals[obs*2+1];
+
+				int a = obs*12;
+				int p = obs*6;
+				int w = obs*18;
+				for (int i = 0; i < 6; i++) {
+					double ax = jacView[a+i], ay = jacView[a+6+i];
+					for (int j = 0; j < 6; j++) {
+						blockU[u36+i*6+j] += ax*jacView[a+j] + ay*jacView[a+6+j];
+					}
+					for (int j = 0; j < 3; j++) {
+						blockW[w+i*3+j] = ax*jacPoint[p+j] + ay*jacPoint[p+3+j];
+					}
+					gradView[u6+i] -= ax*rx + ay*ry;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Solves for the change in parameters using the Schur complement and saves the results in {@link #candidate}
+	 *
+	 * @param damping Levenberg-Marquardt damping parameter
+	 * @return true if successful
+	 */
+	boolean solveStep( double damping ) {
+		if( !invertPointBlocks(damping, 0, numPoints) )
+			return false;
+
+		// reduced system.  S = U - sum W*inv(V)*W',  rhs = gradView - sum W*inv(V)*gradPoint
+		int N = numUnknown*6;
+		S.zero();
+		for (int unknown = 0; unknown < numUnknown; unknown++) {
+			for (int i = 0; i < 6; i++) {
+				for (int j = 0; j < 6; j++) {
+					S.data[(unknown*6+i)*N + unknown*6+j] = blockU[unknown*36+i*6+j];
+				}
+				S.data[(unknown*6+i)*N + unknown*6+i] += damping*Math.max(blockU[unknown*36+i*7], 1e-12);
+				rhs.data[unknown*6+i] = gradView[unknown*6+i];
+			}
+		}
+
+		for (int point = 0; point < numPoints; point++) {
+			int v9 = point*9;
+			for (int k = pointObsStart[point]; k < pointObsStart[point+1]; k++) {
+				int obsA = pointObs[k];
+				int unknownA = viewToUnknown[obsView[obsA]];
+				if( unknownA < 0 )
+					continue;
+
+				// Y = W*inv(V)
+				int w = obsA*18;
+				for (int i = 0; i < 6; i++) {
+					for (int j = 0; j < 3; j++) {
+						Y[i*3+j] = blockW[w+i*3]*blockVinv[v9+j] + blockW[w+i*3+1]*blockVinv[v9+3+j] +
+								blockW[w+i*3+2]*blockVinv[v9+6+j];
+					}
+					rhs.data[unknownA*6+i] -= Y[i*3]*gradPoint[point*3] + Y[i*3+1]*gradPoint[point*3+1] +
+							Y[i*3+2]*gradPoint[point*3+2];
+				}
+
+				for (int l = pointObsStart[point]; l < pointObsStart[point+1]; l++) {
+					int obsB = pointObs[l];
+					int unknownB = viewToUnknown[obsView[obsB]];
+					if( unknownB < 0 )
+						continue;
+
+					// S_ab -= Y*W_b'
+					int wb = obsB*18;
+					for (int i = 0; i < 6; i++) {
+						int row = (unknownA*6+i)*N + unknownB*6;
+						for (int j = 0; j < 6; j++) {
+							S.data[row+j] -= Y[i*3]*blockW[wb+j*3] + Y[i*3+1]*blockW[wb+j*3+1] +
+									Y[i*3+2]*blockW[wb+j*3+2];
+						}
+					}
+				}
+			}
+		}
+
+		if( N > 0 ) {
+			if( !solver.setA(S) )
+				return false;
+			solver.solve(rhs, deltaView);
+		}
+
+		backSubstitution(0, numPoints);
+		applyStep();
+
+		return true;
+	}
+
+	/**
+	 * Inverts the damped 3x3 blocks for a range of points
+	 *
+	 * @return true if successful
+	 */
+	boolean invertPointBlocks( double damping , int point0 , int point1 ) {
+		for (int point = point0; point < point1; point++) {
+			if( !invertDamped3x3(blockV, point*9, damping, blockVinv) )
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the change in location for a range of points after the change in views has been found.
+	 * delta = inv(V)*(gradPoint - sum W'*deltaView)
+	 */
+	void backSubstitution( int point0 , int point1 ) {
+		double tmp3[] = new double[3];
+		for (int point = point0; point < point1; point++) {
+			tmp3[0] = gradPoint[point*3];
+			tmp3[1] = gradPoint[point*3+1];
+			tmp3[2] = gradPoint[point*3+2];
+			for (int k = pointObsStart[point]; k < pointObsStart[point+1]; k++) {
+				int obs = pointObs[k];
+				int unknown = viewToUnknown[obsView[obs]];
+				if( unknown < 0 )
+					continue;
+				int w = obs*18;
+				for (int j = 0; j < 3; j++) {
+					double sum = 0;
+					for (int i = 0; i < 6; i++) {
+						sum += blockW[w+i*3+j]*deltaView.data[unknown*6+i];
+					}
+					tmp3[j] -= sum;
+				}
+			}
+			int v9 = point*9;
+			for (int i = 0; i < 3; i++) {
+				deltaPoint[point*3+i] = blockVinv[v9+i*3]*tmp3[0] + blockVinv[v9+i*3+1]*tmp3[1] +
+						blockVinv[v9+i*3+2]*tmp3[2];
+			}
+		}
+	}
+
+	/**
+	 * Adds the change in views and points to the parameters and saves the results in {@link #candidate}
+	 */
+	void applyStep() {
+		int N = numUnknown*6;
+		for (int i = 0; i < N; i++) {
+			candidate[i] = param[i] + deltaView.data[i];
+		}
+		for (int i = 0; i < numPoints*3; i++) {
+			candidate[N+i] = param[N+i] + deltaPoint[i];
+		}
+	}
+
+	/**
+	 * Inverts a 3x3 symmetric block after adding damping to its diagonal elements
+	 */
+	static boolean invertDamped3x3( double src[] , int index , double damping , double dst[] ) {
+		double a11 = src[index  ] + damping*Math.max(src[index  ], 1e-12);
+		double a12 = src[index+1];
+		double a13 = src[index+2];
+		double a22 = src[index+4] + damping*Math.max(src[index+4], 1e-12);
+		double a23 = src[index+5];
+		double a33 = src[index+8] + damping*Math.max(src[index+8], 1e-12);
+
+		double c11 = a22*a33 - a23*a23;
+		double c12 = a13*a23 - a12*a33;
+		double c13 = a12*a23 - a13*a22;
+
+		double det = a11*c11 + a12*c12 + a13*c13;
+		if( det == 0 || Double.isNaN(det) || Double.isInfinite(det) )
+			return false;
+
+		double c22 = a11*a33 - a13*a13;
+		double c23 = a12*a13 - a11*a23;
+		double c33 = a11*a22 - a12*a12;
+
+		dst[index  ] = c11/det; dst[index+1] = c12/det; dst[index+2] = c13/det;
+		dst[index+3] = c12/det; dst[index+4] = c22/det; dst[index+5] = c23/det;
+		dst[index+6] = c13/det; dst[index+7] = c23/det; dst[index+8] = c33/det;
+
+		return true;
+	}
+
+	/**
+	 * Number of iterations used in the most recent call to {@link #process}
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	public void setInitialDamping(double initialDamping) {
+		this.initialDamping = initialDamping;
+	}
+}
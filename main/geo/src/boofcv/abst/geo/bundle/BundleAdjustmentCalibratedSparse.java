@@ -0,0 +1,448 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.abst.geo.bundle;
+
+import boofcv.concurrency.IntRangeTask;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Variant of {@link BundleAdjustmentCalibratedSchur} for large problems with hundreds of views and hundreds of
+ * thousands of points.  The reduced camera system is block sparse, since two views are only coupled if they
+ * observe a common point.  Only the non-zero 6x6 blocks are saved, in compressed block row format, and the system is
+ * solved using the conjugate gradient method with a block Jacobi preconditioner.  Neither a dense Jacobian nor a
+ * dense reduced system is ever declared.
+ * </p>
+ *
+ * <p>
+ * Computations are broken up into loops over observations, points, views, or rows in the reduced system.  Each
+ * iteration of a loop only writes to its own elements, which allows them to be run concurrently by
+ * {@link BundleAdjustmentCalibratedSparse_MT} and produce identical results.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BundleAdjustmentCalibratedSparse extends BundleAdjustmentCalibratedSchur {
+
+	//------------ Reduced system in compressed block row format
+	// index of the first block in each row
+	int rowStart[] = new int[0];
+	// column of each block.  sorted in each row
+	int blockCol[] = new int[0];
+	// 6x6 blocks. row-major
+	double blocks[] = new double[0];
+	// index of the diagonal block in each row
+	int diagonal[] = new int[0];
+
+	//------------ Conjugate gradient
+	int maxIterationsCG = 500;
+	double convergenceTolCG = 1e-10;
+	// Cholesky decomposition of the diagonal blocks, used as a preconditioner
+	double precond[] = new double[0];
+	double b[] = new double[0];
+	double x[] = new double[0];
+	double r[] = new double[0];
+	double z[] = new double[0];
+	double p[] = new double[0];
+	double q[] = new double[0];
+	// total number of conjugate gradient iterations in the last call to process
+	int totalIterationsCG;
+
+	// set to true if a concurrent task fails
+	volatile boolean failed;
+	double damping;
+
+	/**
+	 * Configures the optimization
+	 *
+	 * @param convergenceTol Stops when the relative change in the sum of squared residuals is less than this.
+	 *                       Try 1e-8
+	 * @param maxIterations Maximum number of iterations.  Try 200 or more
+	 */
+	public BundleAdjustmentCalibratedSparse(double convergenceTol, int maxIterations) {
+		super(convergenceTol, maxIterations);
+	}
+
+	/**
+	 * Specifies how the reduced camera system is solved.
+	 *
+	 * @param maxIterations Maximum number of conjugate gradient iterations per step.  Try 500
+	 * @param convergenceTol Stops when the norm of the residual relative to the right hand side is less than
+	 *                       this.  Try 1e-10
+	 */
+	public void setConjugateGradient( int maxIterations , double convergenceTol ) {
+		this.maxIterationsCG = maxIterations;
+		this.convergenceTolCG = convergenceTol;
+	}
+
+	/**
+	 * Performs the task on every element in the range.  Overridden by the concurrent implementation.
+	 */
+	void loop( int start , int end , IntRangeTask task ) {
+		task.process(start, end);
+	}
+
+	/**
+	 * Finds which views are coupled by a common point and declares the blocks in the reduced system
+	 */
+	@Override
+	void declareReducedSystem() {
+		totalIterationsCG = 0;
+
+		int N = numUnknown*6;
+		if( b.length < N ) {
+			b = new double[N];
+			x = new double[N];
+			r = new double[N];
+			z = new double[N];
+			p = new double[N];
+			q = new double[N];
+			precond = new double[numUnknown*36];
+			diagonal = new int[numUnknown];
+		}
+		if( rowStart.length < numUnknown+1 )
+			rowStart = new int[numUnknown+1];
+
+		// find the columns in each row
+		int marker[] = new int[numUnknown];
+		Arrays.fill(marker, -1);
+		GrowQueue_I32 cols = new GrowQueue_I32();
+		GrowQueue_I32 row = new GrowQueue_I32();
+
+		for (int view = 0; view < numViews; view++) {
+			int unknownA = viewToUnknown[view];
+			if( unknownA < 0 )
+				continue;
+
+			row.reset();
+			marker[unknownA] = unknownA;
+			row.add(unknownA);
+			for (int obs = viewObsStart[view]; obs < viewObsStart[view+1]; obs++) {
+				int point = obsPoint[obs];
+				for (int k = pointObsStart[point]; k < pointObsStart[point+1]; k++) {
+					int unknownB = viewToUnknown[obsView[pointObs[k]]];
+					if( unknownB < 0 || marker[unknownB] == unknownA )
+						continue;
+					marker[unknownB] = unknownA;
+					row.add(unknownB);
+				}
+			}
+			Arrays.sort(row.data, 0, row.size);
+
+			rowStart[unknownA] = cols.size;
+			for (int i = 0; i < row.size; i++) {
+				if( row.data[i] == unknownA )
+					diagonal[unknownA] = cols.size;
+				cols.add(row.data[i]);
+			}
+		}
+		rowStart[numUnknown] = cols.size;
+
+		blockCol = cols.data;
+		if( blocks.length < cols.size*36 )
+			blocks = new double[cols.size*36];
+
+		// the parent uses this to store the change in views
+		deltaView.reshape(N, 1);
+	}
+
+	/**
+	 * Number of 6x6 blocks in the reduced system
+	 */
+	public int getReducedBlockCount() {
+		return rowStart[numUnknown];
+	}
+
+	@Override
+	double computeResiduals(final double[] param, final boolean jacobian) {
+		decodeViews(param, jacobian);
+		loop(0, numObs, new IntRangeTask() {
+			@Override
+			public void process(int minInclusive, int maxExclusive) {
+				computeObservations(param, jacobian, minInclusive, maxExclusive);
+			}
+		});
+		return sumResiduals();
+	}
+
+	@Override
+	void computeNormalEquations() {
+		loop(0, numPoints, new IntRangeTask() {
+			@Override
+			public void process(int minInclusive, int maxExclusive) {
+				computePointBlocks(minInclusive, maxExclusive);
+			}
+		});
+		loop(0, numViews, new IntRangeTask() {
+			@Override
+			public void process(int minInclusive, int maxExclusive) {
+				computeViewBlocks(minInclusive, maxExclusive);
+			}
+		});
+	}
+
+	@Override
+	boolean solveStep(double damping) {
+		this.damping = damping;
+		failed = false;
+
+		loop(0, numPoints, new IntRangeTask() {
+			@Override
+			public void process(int minInclusive, int maxExclusive) {
+				if( !invertPointBlocks(BundleAdjustmentCalibratedSparse.this.damping, minInclusive, maxExclusive) )
+					failed = true;
+			}
+		});
+		if( failed )
+			return false;
+
+		// views are found by iterating over the rows
+		int N = numUnknown*6;
+		if( N > 0 ) {
+			loop(0, numViews, new IntRangeTask() {
+				@Override
+				public void process(int minInclusive, int maxExclusive) {
+					if( !computeReducedRows(minInclusive, maxExclusive) )
+						failed = true;
+				}
+			});
+			if( failed || !solveConjugateGradient() )
+				return false;
+			System.arraycopy(x, 0, deltaView.data, 0, N);
+		}
+
+		loop(0, numPoints, new IntRangeTask() {
+			@Override
+			public void process(int minInclusive, int maxExclusive) {
+				backSubstitution(minInclusive, maxExclusive);
+			}
+		});
+		applyStep();
+
+		return true;
+	}
+
+	/**
+	 * Computes the rows in the reduced system for a range of views and the preconditioner for each row.
+	 * S = U - sum W*inv(V)*W',  b = gradView - sum W*inv(V)*gradPoint
+	 *
+	 * @return true if successful
+	 */
+	boolean computeReducedRows( int view0 , int view1 ) {
+		double Y[] = new double[18];
+
+		for (int view = view0; view < view1; view++) {
+			int unknownA = viewToUnknown[view];
+			if( unknownA < 0 )
+				continue;
+
+			int rowA = rowStart[unknownA];
+			int rowEnd = rowStart[unknownA+1];
+			Arrays.fill(blocks, rowA*36, rowEnd*36, 0);
+
+			int d = diagonal[unknownA]*36;
+			for (int i = 0; i < 6; i++) {
+				for (int j = 0; j < 6; j++) {
+					blocks[d+i*6+j] = blockU[unknownA*36+i*6+j];
+				}
+				blocks[d+i*7] += damping*Math.max(blockU[unknownA*36+i*7], 1e-12);
+				b[unknownA*6+i] = gradView[unknownA*6+i];
+			}
+
+			for (int obsA = viewObsStart[view]; obsA < viewObsStart[view+1]; obsA++) {
+				int point = obsPoint[obsA];
+				int v9 = point*9;
+
+				// Y = W*inv(V)
+				int w = obsA*18;
+				for (int i = 0; i < 6; i++) {
+					for (int j = 0; j < 3; j++) {
+						Y[i*3+j] = blockW[w+i*3]*blockVinv[v9+j] + blockW[w+i*3+1]*blockVinv[v9+3+j] +
+								blockW[w+i*3+2]*blockVinv[v9+6+j];
+					}
+					b[unknownA*6+i] -= Y[i*3]*gradPoint[point*3] + Y[i*3+1]*gradPoint[point*3+1] +
+							Y[i*3+2]*gradPoint[point*3+2];
+				}
+
+				for (int l = pointObsStart[point]; l < pointObsStart[point+1]; l++) {
+					int obsB = pointObs[l];
+					int unknownB = viewToUnknown[obsView[obsB]];
+					if( unknownB < 0 )
+						continue;
+
+					// S_ab -= Y*W_b'
+					int block = Arrays.binarySearch(blockCol, rowA, rowEnd, unknownB)*36;
+					int wb = obsB*18;
+					for (int i = 0; i < 6; i++) {
+						for (int j = 0; j < 6; j++) {
+							blocks[block+i*6+j] -= Y[i*3]*blockW[wb+j*3] + Y[i*3+1]*blockW[wb+j*3+1] +
+									Y[i*3+2]*blockW[wb+j*3+2];
+						}
+					}
+				}
+			}
+
+			if( !choleskyBlock6(blocks, d, precond, unknownA*36) )
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Solves S*x = b using preconditioned conjugate gradient.  The initial estimate of x is zero.
+	 *
+	 * @return true if successful
+	 */
+	boolean solveConjugateGradient() {
+		int N = numUnknown*6;
+
+		Arrays.fill(x, 0, N, 0);
+		System.arraycopy(b, 0, r, 0, N);
+		double normB = Math.sqrt(dot(b, b, N));
+		if( normB == 0 )
+			return true;
+
+		applyPreconditioner(r, z);
+		System.arraycopy(z, 0, p, 0, N);
+		double rz = dot(r, z, N);
+
+		for (int iteration = 0; iteration < maxIterationsCG; iteration++) {
+			totalIterationsCG++;
+			multiply(p, q);
+			double pq = dot(p, q, N);
+			if( pq <= 0 || Double.isNaN(pq) )
+				return false;
+
+			double alpha = rz/pq;
+			for (int i = 0; i < N; i++) {
+				x[i] += alpha*p[i];
+				r[i] -= alpha*q[i];
+			}
+
+			if( Math.sqrt(dot(r, r, N)) <= convergenceTolCG*normB )
+				break;
+
+			applyPreconditioner(r, z);
+			double rzNext = dot(r, z, N);
+			double beta = rzNext/rz;
+			rz = rzNext;
+			for (int i = 0; i < N; i++) {
+				p[i] = z[i] + beta*p[i];
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * output = S*input
+	 */
+	void multiply( final double input[] , final double output[] ) {
+		loop(0, numUnknown, new IntRangeTask() {
+			@Override
+			public void process(int minInclusive, int maxExclusive) {
+				for (int row = minInclusive; row < maxExclusive; row++) {
+					int out = row*6;
+					Arrays.fill(output, out, out+6, 0);
+					for (int k = rowStart[row]; k < rowStart[row+1]; k++) {
+						int block = k*36;
+						int in = blockCol[k]*6;
+						for (int i = 0; i < 6; i++) {
+							double sum = 0;
+							for (int j = 0; j < 6; j++) {
+								sum += blocks[block+i*6+j]*input[in+j];
+							}
+							output[out+i] += sum;
+						}
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Solves each 6x6 diagonal block using its Cholesky decomposition
+	 */
+	void applyPreconditioner( double input[] , double output[] ) {
+		for (int row = 0; row < numUnknown; row++) {
+			int L = row*36;
+			int v = row*6;
+			// forward substitution
+			for (int i = 0; i < 6; i++) {
+				double sum = input[v+i];
+				for (int j = 0; j < i; j++) {
+					sum -= precond[L+i*6+j]*output[v+j];
+				}
+				output[v+i] = sum/precond[L+i*7];
+			}
+			// backward substitution
+			for (int i = 5; i >= 0; i--) {
+				double sum = output[v+i];
+				for (int j = i+1; j < 6; j++) {
+					sum -= precond[L+j*6+i]*output[v+j];
+				}
+				output[v+i] = sum/precond[L+i*7];
+			}
+		}
+	}
+
+	static double dot( double a[] , double b[] , int length ) {
+		double sum = 0;
+		for (int i = 0; i < length; i++) {
+			sum += a[i]*b[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Computes the lower triangular Cholesky decomposition of a 6x6 block
+	 *
+	 * @return true if the block is positive definite
+	 */
+	static boolean choleskyBlock6( double src[] , int srcIndex , double dst[] , int dstIndex ) {
+		for (int i = 0; i < 6; i++) {
+			for (int j = 0; j <= i; j++) {
+				double sum = src[srcIndex+i*6+j];
+				for (int k = 0; k < j; k++) {
+					sum -= dst[dstIndex+i*6+k]*dst[dstIndex+j*6+k];
+				}
+				if( i == j ) {
+					if( !(sum > 0) )
+						return false;
+					dst[dstIndex+i*7] = Math.sqrt(sum);
+				} else {
+					dst[dstIndex+i*6+j] = sum/dst[dstIndex+j*7];
+				}
+			}
+			for (int j = i+1; j < 6; j++) {
+				dst[dstIndex+i*6+j] = 0;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Total number of conjugate gradient iterations used in the most recent call to {@link #process}
+	 */
+	public int getTotalIterationsCG() {
+		return totalIterationsCG;
+	}
+}
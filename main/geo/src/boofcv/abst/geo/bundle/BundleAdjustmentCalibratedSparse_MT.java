@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.abst.geo.bundle;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+
+/**
+ * Concurrent implementation of {@link BundleAdjustmentCalibratedSparse}.  Residuals and Jacobians of the
+ * observations, the blocks of the normal equations, rows of the reduced system, matrix-vector products, and
+ * back substitution are all computed in blocks by different threads.  Each element is computed the same way as
+ * in the single threaded version and the output is identical.
+ *
+ * @author Peter Abeles
+ */
+public class BundleAdjustmentCalibratedSparse_MT extends BundleAdjustmentCalibratedSparse {
+
+	// minimum number of elements processed by a thread
+	int minBlock = 10;
+
+	/**
+	 * @see BundleAdjustmentCalibratedSparse#BundleAdjustmentCalibratedSparse
+	 */
+	public BundleAdjustmentCalibratedSparse_MT(double convergenceTol, int maxIterations) {
+		super(convergenceTol, maxIterations);
+	}
+
+	@Override
+	void loop(int start, int end, IntRangeTask task) {
+		BoofConcurrency.loopBlocks(start, end, minBlock, task);
+	}
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.geo.robust;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.fitting.modelset.ModelManager;
+import org.ddogleg.fitting.modelset.lmeds.LeastMedianOfSquares;
+import org.ddogleg.sorting.QuickSelect;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>
+ * Concurrent implementation of {@link LeastMedianOfSquares}.  Cycles are evaluated by workers in different threads,
+ * each with their own {@link ModelGenerator} and {@link DistanceFromModel}.  All the samples are drawn before
+ * they are evaluated and the best model is the one with the smallest median error, with ties going to the one which
+ * was drawn first.  The output is the same no matter how many workers there are, but since samples are drawn
+ * differently it won't be identical to {@link LeastMedianOfSquares}.  Unlike {@link LeastMedianOfSquares}, the
+ * input list is not modified.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LeastMedianOfSquares_MT<Model,Point> extends LeastMedianOfSquares<Model,Point> {
+
+	Random rand;
+	int totalCycles;
+	int sampleSize;
+	double maxMedianError;
+	double inlierFrac;
+
+	ModelManager<Model> manager;
+	List<Worker> workers = new ArrayList<>();
+
+	// indexes of the points in each sample
+	int samples[] = new int[0];
+	int permutation[] = new int[0];
+
+	List<Point> dataSet;
+	Model bestParam;
+	double bestMedian;
+	List<Point> inlierSet = new ArrayList<>();
+	int matchToInput[] = new int[0];
+
+	/**
+	 * Configures LMedS.  The number of workers is the size of the lists, which must be the same.
+	 *
+	 * @param generators One for each worker.
+	 * @param distances One for each worker.
+	 * @see LeastMedianOfSquares#LeastMedianOfSquares(long, int, double, double, ModelManager, ModelGenerator, DistanceFromModel)
+	 */
+	public LeastMedianOfSquares_MT(long randSeed, int totalCycles, double maxMedianError, double inlierFraction,
+								   ModelManager<Model> manager,
+								   List<ModelGenerator<Model, Point>> generators,
+								   List<DistanceFromModel<Model, Point>> distances) {
+		super(randSeed, totalCycles, maxMedianError, inlierFraction, manager, generators.get(0), distances.get(0));
+		if( generators.size() != distances.size() )
+			throw new IllegalArgumentException("There must be the same number of generators and distances");
+
+		this.rand = new Random(randSeed);
+		this.totalCycles = totalCycles;
+		this.maxMedianError = maxMedianError;
+		this.inlierFrac = inlierFraction;
+		this.manager = manager;
+		this.sampleSize = generators.get(0).getMinimumPoints();
+		this.bestParam = manager.createModelInstance();
+
+		for (int i = 0; i < generators.size(); i++) {
+			workers.add(new Worker(generators.get(i), distances.get(i)));
+		}
+	}
+
+	/**
+	 * @see LeastMedianOfSquares#LeastMedianOfSquares(long, int, ModelManager, ModelGenerator, DistanceFromModel)
+	 */
+	public LeastMedianOfSquares_MT(long randSeed, int totalCycles, ModelManager<Model> manager,
+								   List<ModelGenerator<Model, Point>> generators,
+								   List<DistanceFromModel<Model, Point>> distances) {
+		this(randSeed, totalCycles, Double.MAX_VALUE, 0, manager, generators, distances);
+	}
+
+	@Override
+	public void setSampleSize(int sampleSize) {
+		super.setSampleSize(sampleSize);
+		this.sampleSize = sampleSize;
+	}
+
+	@Override
+	public boolean process(List<Point> dataSet) {
+		final int N = dataSet.size();
+		if( N < sampleSize )
+			return false;
+		this.dataSet = dataSet;
+
+		if( matchToInput.length < N )
+			matchToInput = new int[N];
+		if( permutation.length < N )
+			permutation = new int[N];
+		if( samples.length < totalCycles*sampleSize )
+			samples = new int[totalCycles*sampleSize];
+		for (int i = 0; i < N; i++) {
+			permutation[i] = i;
+		}
+
+		// draw the samples without replacement
+		for (int i = 0; i < totalCycles; i++) {
+			int offset = i*sampleSize;
+			for (int j = 0; j < sampleSize; j++) {
+				int k = j + rand.nextInt(N-j);
+				int tmp = permutation[j];
+				permutation[j] = permutation[k];
+				permutation[k] = tmp;
+				samples[offset+j] = permutation[j];
+			}
+		}
+
+		BoofConcurrency.loopBlocks(0, workers.size(), 1, new IntRangeTask() {
+			@Override
+			public void process(int minInclusive, int maxExclusive) {
+				for (int i = minInclusive; i < maxExclusive; i++) {
+					workers.get(i).evaluate(i);
+				}
+			}
+		});
+
+		// select the best model in the order they were drawn
+		Worker best = null;
+		for (int i = 0; i < workers.size(); i++) {
+			Worker w = workers.get(i);
+			if( w.bestCycle < 0 )
+				continue;
+			if( best == null || w.bestMedian < best.bestMedian ||
+					(w.bestMedian == best.bestMedian && w.bestCycle < best.bestCycle) ) {
+				best = w;
+			}
+		}
+
+		if( best == null ) {
+			bestMedian = Double.MAX_VALUE;
+		} else {
+			bestMedian = best.bestMedian;
+			manager.copyModel(best.bestModel, bestParam);
+			computeInlierSet(best);
+		}
+		this.dataSet = null;
+
+		return best != null && bestMedian <= maxMedianError;
+	}
+
+	/**
+	 * Selects the points with the smallest errors as inliers if an inlier fraction has been specified.  Otherwise
+	 * all the points are inliers.
+	 */
+	private void computeInlierSet( Worker worker ) {
+		int N = dataSet.size();
+		int numPts = (int)(N*inlierFrac);
+
+		inlierSet.clear();
+		if( inlierFrac > 0 && numPts > sampleSize ) {
+			worker.distance.setModel(bestParam);
+			worker.distance.computeDistance(dataSet, worker.errors);
+
+			int indexes[] = new int[N];
+			QuickSelect.selectIndex(worker.errors, numPts, N, indexes);
+			for (int i = 0; i < numPts; i++) {
+				int index = indexes[i];
+				inlierSet.add(dataSet.get(index));
+				matchToInput[i] = index;
+			}
+		} else {
+			inlierSet.addAll(dataSet);
+			for (int i = 0; i < N; i++) {
+				matchToInput[i] = i;
+			}
+		}
+	}
+
+	@Override
+	public Model getModelParameters() {
+		return bestParam;
+	}
+
+	@Override
+	public List<Point> getMatchSet() {
+		return inlierSet;
+	}
+
+	@Override
+	public int getInputIndex(int matchIndex) {
+		return matchToInput[matchIndex];
+	}
+
+	@Override
+	public double getFitQuality() {
+		return bestMedian;
+	}
+
+	@Override
+	public int getMinimumSize() {
+		return sampleSize;
+	}
+
+	public int getNumberOfWorkers() {
+		return workers.size();
+	}
+
+	/**
+	 * Evaluates a subset of the cycles
+	 */
+	class Worker {
+		ModelGenerator<Model,Point> generator;
+		DistanceFromModel<Model,Point> distance;
+
+		List<Point> sample = new ArrayList<>();
+		Model candidate;
+		double errors[] = new double[0];
+
+		Model bestModel;
+		double bestMedian;
+		int bestCycle;
+
+		Worker(ModelGenerator<Model, Point> generator, DistanceFromModel<Model, Point> distance) {
+			this.generator = generator;
+			this.distance = distance;
+			candidate = manager.createModelInstance();
+			bestModel = manager.createModelInstance();
+		}
+
+		void evaluate( int index ) {
+			int N = dataSet.size();
+			if( errors.length < N )
+				errors = new double[N];
+
+			bestCycle = -1;
+			bestMedian = Double.MAX_VALUE;
+
+			for (int i = index; i < totalCycles; i += workers.size()) {
+				int offset = i*sampleSize;
+				sample.clear();
+				for (int j = 0; j < sampleSize; j++) {
+					sample.add(dataSet.get(samples[offset+j]));
+				}
+				if( !generator.generate(sample, candidate) )
+					continue;
+
+				distance.setModel(candidate);
+				distance.computeDistance(dataSet, errors);
+
+				double median = QuickSelect.select(errors, N/2, N);
+				if( median < bestMedian ) {
+					bestMedian = median;
+					bestCycle = i;
+					Model tmp = bestModel;
+					bestModel = candidate;
+					candidate = tmp;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.geo.robust;
+
+import boofcv.concurrency.IntRangeTask;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.fitting.modelset.ModelManager;
+import org.ddogleg.fitting.modelset.ransac.Ransac;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Variant of {@link Ransac} which can reject hypotheses early and stop once enough iterations have been performed.
+ * Hypotheses are drawn and evaluated in batches.  Before a hypothesis is scored against every point it must pass the
+ * T(d,d) test, where d randomly selected points must all be inliers.  While scoring, a hypothesis is abandoned as
+ * soon as it can't have more inliers than the best hypothesis from the previous batches.  After each batch the number
+ * of iterations needed to have found an outlier free sample, with the specified confidence, is estimated from the
+ * largest inlier set and used to stop early.
+ * </p>
+ *
+ * <p>
+ * Each batch is evaluated by one or more workers, which have their own {@link ModelGenerator} and
+ * {@link DistanceFromModel}.  Samples for the whole batch are drawn before it's evaluated and the best hypothesis
+ * is the one with the most inliers, with ties going to the one which was drawn first.  As a result the output
+ * does not depend on how many workers there are.  See {@link RansacPreemptive_MT} for the concurrent version.
+ * Unlike {@link Ransac}, the input list is not modified.
+ * </p>
+ *
+ * <p>
+ * [1] Chum, O., and J. Matas. "Randomized RANSAC with T(d,d) test." BMVC 2002
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class RansacPreemptive<Model,Point> extends Ransac<Model,Point> {
+
+	// number of hypotheses in each batch
+	int batchSize = 100;
+
+	// number of points which must be inliers before a hypothesis is fully scored
+	int preemptive = 0;
+	// probability of having drawn an outlier free sample before stopping early.  0 to turn off.
+	double confidence = 0;
+
+	ModelManager<Model> manager;
+	List<Worker> workers = new ArrayList<>();
+
+	// indexes of points in each sample in the batch, followed by the points used in the T(d,d) test
+	int samples[] = new int[0];
+	// the number of indexes for each hypothesis in samples
+	int stride;
+	// used to draw samples without replacement
+	int permutation[] = new int[0];
+
+	// input points
+	List<Point> dataSet;
+	// number of inliers in the best hypothesis found in the previous batches
+	int bestCount;
+	// number of hypotheses evaluated in the most recent call to process
+	int iterations;
+
+	/**
+	 * Creates RANSAC with a single worker.
+	 *
+	 * @see Ransac#Ransac
+	 */
+	public RansacPreemptive(long randSeed, ModelManager<Model> manager,
+							ModelGenerator<Model, Point> modelGenerator,
+							DistanceFromModel<Model, Point> modelDistance,
+							int maxIterations, double thresholdFit) {
+		super(randSeed, manager, modelGenerator, modelDistance, maxIterations, thresholdFit);
+		this.manager = manager;
+		workers.add(new Worker(modelGenerator, modelDistance));
+	}
+
+	/**
+	 * Creates RANSAC with a worker for each generator and distance function
+	 */
+	protected RansacPreemptive(long randSeed, ModelManager<Model> manager,
+							   List<ModelGenerator<Model, Point>> generators,
+							   List<DistanceFromModel<Model, Point>> distances,
+							   int maxIterations, double thresholdFit) {
+		super(randSeed, manager, generators.get(0), distances.get(0), maxIterations, thresholdFit);
+		if( generators.size() != distances.size() )
+			throw new IllegalArgumentException("There must be the same number of generators and distances");
+		this.manager = manager;
+		for (int i = 0; i < generators.size(); i++) {
+			workers.add(new Worker(generators.get(i), distances.get(i)));
+		}
+	}
+
+	/**
+	 * Evaluates each worker.  Overridden by the concurrent implementation.
+	 */
+	void loopWorkers( IntRangeTask task ) {
+		task.process(0, workers.size());
+	}
+
+	@Override
+	public boolean process(List<Point> dataSet) {
+		int N = dataSet.size();
+		if( N < modelGenerator.getMinimumPoints() )
+			return false;
+
+		initialize(dataSet);
+		this.dataSet = dataSet;
+
+		int numCheck = Math.min(preemptive, N - sampleSize);
+		stride = sampleSize + numCheck;
+		if( samples.length < batchSize*stride )
+			samples = new int[batchSize*stride];
+		if( permutation.length < N )
+			permutation = new int[N];
+		for (int i = 0; i < N; i++) {
+			permutation[i] = i;
+		}
+
+		bestCount = 0;
+		Worker best = null;
+		iterations = 0;
+		int maxAllowed = maxIterations;
+		while( iterations < maxAllowed && bestCount < N ) {
+			final int batch = Math.min(batchSize, maxAllowed - iterations);
+			drawSamples(batch, N);
+
+			final int firstIteration = iterations;
+			loopWorkers(new IntRangeTask() {
+				@Override
+				public void process(int minInclusive, int maxExclusive) {
+					for (int i = minInclusive; i < maxExclusive; i++) {
+						workers.get(i).evaluate(i, batch, firstIteration);
+					}
+				}
+			});
+			iterations += batch;
+
+			// select the best hypothesis in the order they were drawn
+			for (int i = 0; i < workers.size(); i++) {
+				Worker w = workers.get(i);
+				if( w.bestIteration < 0 )
+					continue;
+				if( best == null || w.bestInliers.size > bestCount ||
+						(w.bestInliers.size == bestCount && w.bestIteration < best.bestIteration) ) {
+					best = w;
+					bestCount = w.bestInliers.size;
+				}
+			}
+			if( best != null ) {
+				saveBest(best);
+				best = null;
+			}
+
+			if( confidence > 0 && bestCount > 0 ) {
+				maxAllowed = Math.min(maxIterations, requiredIterations(bestCount, N, numCheck));
+			}
+		}
+
+		this.dataSet = null;
+		return bestFitPoints.size() > 0;
+	}
+
+	/**
+	 * Draws the points in each sample and for the T(d,d) test without replacement
+	 */
+	private void drawSamples( int batch , int N ) {
+		for (int i = 0; i < batch; i++) {
+			int offset = i*stride;
+			for (int j = 0; j < stride; j++) {
+				int k = j + rand.nextInt(N-j);
+				int tmp = permutation[j];
+				permutation[j] = permutation[k];
+				permutation[k] = tmp;
+				samples[offset+j] = permutation[j];
+			}
+		}
+	}
+
+	/**
+	 * Copies the best hypothesis and its inliers
+	 */
+	private void saveBest( Worker best ) {
+		manager.copyModel(best.bestModel, bestFitParam);
+		bestFitPoints.clear();
+		for (int i = 0; i < best.bestInliers.size; i++) {
+			int index = best.bestInliers.data[i];
+			bestMatchToInput[i] = index;
+			bestFitPoints.add(dataSet.get(index));
+		}
+	}
+
+	/**
+	 * Number of iterations needed to draw an outlier free sample which passes the T(d,d) test with the
+	 * specified confidence.
+	 */
+	int requiredIterations( int numInliers , int N , int numCheck ) {
+		double w = numInliers/(double)N;
+		double pGood = Math.pow(w, sampleSize + numCheck);
+		if( pGood >= 1.0 )
+			return 1;
+		double found = Math.log(1.0-confidence)/Math.log(1.0-pGood);
+		if( Double.isNaN(found) || found > Integer.MAX_VALUE )
+			return Integer.MAX_VALUE;
+		return (int)Math.ceil(found);
+	}
+
+	/**
+	 * Number of points which must be inliers before a hypothesis is scored against every point.  Try 1.
+	 * If 0 then every hypothesis is fully scored.
+	 */
+	public void setPreemptive(int preemptive) {
+		if( preemptive < 0 )
+			throw new IllegalArgumentException("preemptive can't be negative");
+		this.preemptive = preemptive;
+	}
+
+	public int getPreemptive() {
+		return preemptive;
+	}
+
+	/**
+	 * Stops once the probability of having drawn an outlier free sample is at least this value.  Try 0.99.
+	 * If 0 then maxIterations are always performed.
+	 */
+	public void setConfidence(double confidence) {
+		if( confidence < 0 || confidence >= 1 )
+			throw new IllegalArgumentException("confidence must be 0 <= confidence < 1");
+		this.confidence = confidence;
+	}
+
+	public double getConfidence() {
+		return confidence;
+	}
+
+	/**
+	 * Number of hypotheses which are evaluated between checks for early termination
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Number of hypotheses which were drawn in the most recent call to {@link #process}
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	public int getNumberOfWorkers() {
+		return workers.size();
+	}
+
+	/**
+	 * Evaluates a subset of the hypotheses in a batch
+	 */
+	class Worker {
+		ModelGenerator<Model,Point> generator;
+		DistanceFromModel<Model,Point> distance;
+
+		List<Point> sample = new ArrayList<>();
+		Model candidate;
+		GrowQueue_I32 candidateInliers = new GrowQueue_I32();
+
+		// best hypothesis found by this worker in the current batch
+		Model bestModel;
+		GrowQueue_I32 bestInliers = new GrowQueue_I32();
+		int bestIteration;
+
+		Worker(ModelGenerator<Model, Point> generator, DistanceFromModel<Model, Point> distance) {
+			this.generator = generator;
+			this.distance = distance;
+			candidate = manager.createModelInstance();
+			bestModel = manager.createModelInstance();
+		}
+
+		/**
+		 * Evaluates every hypothesis in the batch assigned to this worker
+		 */
+		void evaluate( int index , int batch , int firstIteration ) {
+			bestIteration = -1;
+			bestInliers.reset();
+
+			for (int i = index; i < batch; i += workers.size()) {
+				int offset = i*stride;
+
+				sample.clear();
+				for (int j = 0; j < sampleSize; j++) {
+					sample.add(dataSet.get(samples[offset+j]));
+				}
+				if( !generator.generate(sample, candidate) )
+					continue;
+
+				distance.setModel(candidate);
+
+				// T(d,d) test
+				boolean passed = true;
+				for (int j = sampleSize; j < stride && passed; j++) {
+					passed = distance.computeDistance(dataSet.get(samples[offset+j])) < thresholdFit;
+				}
+				if( !passed )
+					continue;
+
+				// it needs to have more inliers than the best hypothesis found so far to be selected
+				int target = Math.max(bestCount, bestInliers.size);
+				if( !score(target) )
+					continue;
+
+				Model tmp = bestModel;
+				bestModel = candidate;
+				candidate = tmp;
+				GrowQueue_I32 tmpI = bestInliers;
+				bestInliers = candidateInliers;
+				candidateInliers = tmpI;
+				bestIteration = firstIteration + i;
+			}
+		}
+
+		/**
+		 * Finds the inliers for the candidate.  Stops early if it can't have more than target inliers.
+		 *
+		 * @return true if there are more than target inliers
+		 */
+		boolean score( int target ) {
+			int N = dataSet.size();
+			candidateInliers.reset();
+			for (int i = 0; i < N; i++) {
+				if( distance.computeDistance(dataSet.get(i)) < thresholdFit ) {
+					candidateInliers.add(i);
+				} else if( candidateInliers.size + N - i - 1 <= target ) {
+					return false;
+				}
+			}
+			return candidateInliers.size > target;
+		}
+	}
+}
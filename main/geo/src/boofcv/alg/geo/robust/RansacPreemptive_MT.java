@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.geo.robust;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.fitting.modelset.ModelManager;
+
+import java.util.List;
+
+/**
+ * Concurrent implementation of {@link RansacPreemptive}.  The hypotheses in each batch are evaluated by workers in
+ * different threads, each with their own {@link ModelGenerator} and {@link DistanceFromModel}.  The output is
+ * identical to the single threaded version.
+ *
+ * @author Peter Abeles
+ */
+public class RansacPreemptive_MT<Model,Point> extends RansacPreemptive<Model,Point> {
+
+	/**
+	 * Configures RANSAC.  The number of workers is the size of the lists, which must be the same.
+	 *
+	 * @param generators One for each worker.
+	 * @param distances One for each worker.
+	 * @see org.ddogleg.fitting.modelset.ransac.Ransac#Ransac
+	 */
+	public RansacPreemptive_MT(long randSeed, ModelManager<Model> manager,
+							   List<ModelGenerator<Model, Point>> generators,
+							   List<DistanceFromModel<Model, Point>> distances,
+							   int maxIterations, double thresholdFit) {
+		super(randSeed, manager, generators, distances, maxIterations, thresholdFit);
+	}
+
+	@Override
+	void loopWorkers(IntRangeTask task) {
+		BoofConcurrency.loopBlocks(0, workers.size(), 1, task);
+	}
+}
@@ -21,7 +21,8 @@ package boofcv.factory.geo;
 import boofcv.struct.Configuration;
 
 /**
- * Standard configuration for {@link org.ddogleg.fitting.modelset.ransac.Ransac RANSAC}.
+ * Standard configuration for {@link org.ddogleg.fitting.modelset.ransac.Ransac RANSAC}.  If preemptive or
+ * confidence is set then {@link boofcv.alg.geo.robust.RansacPreemptive} is used.
  *
  * @author Peter Abeles
  */
@@ -38,6 +39,18 @@ public class ConfigRansac implements Configuration {
 	 * Inlier threshold.
 	 */
 	public double inlierThreshold;
+	/**
+	 * Number of randomly selected points which must all be inliers before a hypothesis is scored against every
+	 * point, the T(d,d) test.  Most bad hypotheses are then rejected after a few distance computations.  Try 1.
+	 * If 0 then every hypothesis is scored.
+	 */
+	public int preemptive = 0;
+	/**
+	 * If greater than zero then RANSAC will stop once the probability that it has drawn a sample with no outliers
+	 * is at least this value, given the largest inlier set found so far.  Try 0.99.  If 0 then maxIterations
+	 * are always performed.
+	 */
+	public double confidence = 0;
 
 	public ConfigRansac(int maxIterations, double inlierThreshold) {
 		this.maxIterations = maxIterations;
@@ -49,6 +62,9 @@ public class ConfigRansac implements Configuration {
 
 	@Override
 	public void checkValidity() {
-
+		if( preemptive < 0 )
+			throw new IllegalArgumentException("preemptive can't be negative");
+		if( confidence < 0 || confidence >= 1 )
+			throw new IllegalArgumentException("confidence must be 0 <= confidence < 1");
 	}
 }
@@ -20,6 +20,8 @@ package boofcv.factory.geo;
 
 import boofcv.abst.geo.*;
 import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedDense;
+import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedSparse;
+import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedSparse_MT;
 import boofcv.abst.geo.f.*;
 import boofcv.abst.geo.h.LeastSquaresHomography;
 import boofcv.abst.geo.h.WrapHomographyLinear;
@@ -37,6 +39,7 @@ import boofcv.alg.geo.pose.P3PGrunert;
 import boofcv.alg.geo.pose.PnPLepetitEPnP;
 import boofcv.alg.geo.pose.PoseFromPairLinear6;
 import boofcv.alg.geo.trifocal.TrifocalAlgebraicPoint7;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.geo.AssociatedPair;
 import georegression.fitting.MotionTransformPoint;
 import georegression.fitting.se.FitSpecialEuclideanOps_F64;
@@ -66,6 +69,23 @@ public class FactoryMultiView {
 		return new BundleAdjustmentCalibratedDense(tol,maxIterations);
 	}
 
+	/**
+	 * Creates bundle adjustment for a camera with a know and fixed intrinsic calibration which takes advantage of
+	 * the problem's sparse structure.  Intended for large problems with many views and points.  If
+	 * {@link BoofConcurrency#USE_CONCURRENT} is true then a concurrent implementation is returned.
+	 *
+	 * @see BundleAdjustmentCalibratedSparse
+	 *
+	 * @param tol Convergence tolerance.  Try 1e-8
+	 * @param maxIterations Maximum number of iterations. Try 200 or more
+	 * @return Bundle Adjustment
+	 */
+	public static BundleAdjustmentCalibrated bundleCalibratedSparse(double tol , int maxIterations) {
+		if( BoofConcurrency.USE_CONCURRENT )
+			return new BundleAdjustmentCalibratedSparse_MT(tol,maxIterations);
+		return new BundleAdjustmentCalibratedSparse(tol,maxIterations);
+	}
+
 	/**
 	 * Returns an algorithm for estimating a homography matrix given a set of
 	 * {@link AssociatedPair}.
@@ -23,10 +23,8 @@ import boofcv.abst.geo.Estimate1ofPnP;
 import boofcv.abst.geo.TriangulateTwoViewsCalibrated;
 import boofcv.alg.geo.DistanceModelMonoPixels;
 import boofcv.alg.geo.pose.PnPDistanceReprojectionSq;
-import boofcv.alg.geo.robust.DistanceHomographySq;
-import boofcv.alg.geo.robust.DistanceSe3SymmetricSq;
-import boofcv.alg.geo.robust.GenerateHomographyLinear;
-import boofcv.alg.geo.robust.Se3FromEssentialGenerator;
+import boofcv.alg.geo.robust.*;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.calib.CameraPinholeRadial;
 import boofcv.struct.geo.AssociatedPair;
 import boofcv.struct.geo.Point2D3D;
@@ -40,10 +38,14 @@ import org.ddogleg.fitting.modelset.ModelManager;
 import org.ddogleg.fitting.modelset.lmeds.LeastMedianOfSquares;
 import org.ddogleg.fitting.modelset.ransac.Ransac;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Factory for creating robust false-positive tolerant estimation algorithms in multi-view geometry.  These
  * algorithms tend to have a lot of boilerplate associated with them and the goal of this factory
- * is to make their use much easier and less error prone.
+ * is to make their use much easier and less error prone.  If {@link BoofConcurrency#USE_CONCURRENT} is true
+ * then concurrent implementations are returned with a model generator and distance function for each thread.
  *
  * @author Peter Abeles
  */
@@ -66,14 +68,18 @@ public class FactoryMultiViewRobust {
 	public static LeastMedianOfSquares<Se3_F64, Point2D3D> pnpLMedS( ConfigPnP pnp,
 																	 ConfigLMedS lmeds)
 	{
-		Estimate1ofPnP estimatorPnP = FactoryMultiView.computePnP_1(EnumPNP.P3P_FINSTERWALDER, -1, 1);
-		DistanceModelMonoPixels<Se3_F64,Point2D3D> distance = new PnPDistanceReprojectionSq();
-		distance.setIntrinsic(pnp.intrinsic.fx,pnp.intrinsic.fy,pnp.intrinsic.skew);
+		List<ModelGenerator<Se3_F64,Point2D3D>> generators = new ArrayList<>();
+		List<DistanceFromModel<Se3_F64,Point2D3D>> distances = new ArrayList<>();
+		for (int i = 0; i < numberOfWorkers(); i++) {
+			Estimate1ofPnP estimatorPnP = FactoryMultiView.computePnP_1(EnumPNP.P3P_FINSTERWALDER, -1, 1);
+			DistanceModelMonoPixels<Se3_F64,Point2D3D> distance = new PnPDistanceReprojectionSq();
+			distance.setIntrinsic(pnp.intrinsic.fx,pnp.intrinsic.fy,pnp.intrinsic.skew);
+			generators.add(new EstimatorToGenerator<>(estimatorPnP));
+			distances.add(distance);
+		}
 		ModelManagerSe3_F64 manager = new ModelManagerSe3_F64();
-		EstimatorToGenerator<Se3_F64,Point2D3D> generator =
-				new EstimatorToGenerator<>(estimatorPnP);
 
-		return new LeastMedianOfSquares<>(lmeds.randSeed, lmeds.totalCycles, manager, generator, distance);
+		return lmeds(lmeds, manager, generators, distances);
 	}
 
 	/**
@@ -89,17 +95,21 @@ public class FactoryMultiViewRobust {
 	public static Ransac<Se3_F64, Point2D3D> pnpRansac( ConfigPnP pnp,
 														ConfigRansac ransac)
 	{
-		Estimate1ofPnP estimatorPnP = FactoryMultiView.computePnP_1(pnp.which, -1, pnp.numResolve);
-		DistanceModelMonoPixels<Se3_F64,Point2D3D> distance = new PnPDistanceReprojectionSq();
-		distance.setIntrinsic(pnp.intrinsic.fx,pnp.intrinsic.fy,pnp.intrinsic.skew);
+		List<ModelGenerator<Se3_F64,Point2D3D>> generators = new ArrayList<>();
+		List<DistanceFromModel<Se3_F64,Point2D3D>> distances = new ArrayList<>();
+		for (int i = 0; i < numberOfWorkers(); i++) {
+			Estimate1ofPnP estimatorPnP = FactoryMultiView.computePnP_1(pnp.which, -1, pnp.numResolve);
+			DistanceModelMonoPixels<Se3_F64,Point2D3D> distance = new PnPDistanceReprojectionSq();
+			distance.setIntrinsic(pnp.intrinsic.fx,pnp.intrinsic.fy,pnp.intrinsic.skew);
+			generators.add(new EstimatorToGenerator<>(estimatorPnP));
+			distances.add(distance);
+		}
 		ModelManagerSe3_F64 manager = new ModelManagerSe3_F64();
-		EstimatorToGenerator<Se3_F64,Point2D3D> generator =
-				new EstimatorToGenerator<>(estimatorPnP);
 
 		// convert from pixels to pixels squared
 		double threshold = ransac.inlierThreshold*ransac.inlierThreshold;
 
-		return new Ransac<>(ransac.randSeed, manager, generator, distance, ransac.maxIterations, threshold);
+		return ransac(ransac, manager, generators, distances, threshold);
 	}
 
 	/**
@@ -121,23 +131,12 @@ public class FactoryMultiViewRobust {
 
 		essential.checkValidity();
 
-		Estimate1ofEpipolar essentialAlg = FactoryMultiView.
-				computeFundamental_1(essential.which, essential.numResolve);
-		TriangulateTwoViewsCalibrated triangulate = FactoryMultiView.triangulateTwoGeometric();
+		List<ModelGenerator<Se3_F64,AssociatedPair>> generators = new ArrayList<>();
+		List<DistanceFromModel<Se3_F64,AssociatedPair>> distances = new ArrayList<>();
+		essential(essential, generators, distances);
 		ModelManager<Se3_F64> manager = new ModelManagerSe3_F64();
-		ModelGenerator<Se3_F64, AssociatedPair> generateEpipolarMotion =
-				new Se3FromEssentialGenerator(essentialAlg, triangulate);
-
-		CameraPinholeRadial intrinsic = essential.intrinsic;
-
-		DistanceFromModel<Se3_F64, AssociatedPair> distanceSe3 =
-				new DistanceSe3SymmetricSq(triangulate,
-						intrinsic.fx, intrinsic.fy, intrinsic.skew,
-						intrinsic.fx, intrinsic.fy, intrinsic.skew);
 
-
-		return new LeastMedianOfSquares<>
-				(lmeds.randSeed, lmeds.totalCycles, manager, generateEpipolarMotion, distanceSe3);
+		return lmeds(lmeds, manager, generators, distances);
 
 	}
 
@@ -156,24 +155,33 @@ public class FactoryMultiViewRobust {
 
 		essential.checkValidity();
 
-		Estimate1ofEpipolar essentialAlg = FactoryMultiView.
-				computeFundamental_1(essential.which, essential.numResolve);
-		TriangulateTwoViewsCalibrated triangulate = FactoryMultiView.triangulateTwoGeometric();
+		List<ModelGenerator<Se3_F64,AssociatedPair>> generators = new ArrayList<>();
+		List<DistanceFromModel<Se3_F64,AssociatedPair>> distances = new ArrayList<>();
+		essential(essential, generators, distances);
 		ModelManager<Se3_F64> manager = new ModelManagerSe3_F64();
-		ModelGenerator<Se3_F64, AssociatedPair> generateEpipolarMotion =
-				new Se3FromEssentialGenerator(essentialAlg, triangulate);
 
-		CameraPinholeRadial intrinsic = essential.intrinsic;
+		double ransacTOL = ransac.inlierThreshold * ransac.inlierThreshold * 2.0;
 
-		DistanceFromModel<Se3_F64, AssociatedPair> distanceSe3 =
-				new DistanceSe3SymmetricSq(triangulate,
-						intrinsic.fx, intrinsic.fy, intrinsic.skew,
-						intrinsic.fx, intrinsic.fy, intrinsic.skew);
+		return ransac(ransac, manager, generators, distances, ransacTOL);
+	}
 
-		double ransacTOL = ransac.inlierThreshold * ransac.inlierThreshold * 2.0;
+	/**
+	 * Creates a generator and distance function for estimating motion from the essential matrix for each worker
+	 */
+	private static void essential( ConfigEssential essential,
+								   List<ModelGenerator<Se3_F64,AssociatedPair>> generators,
+								   List<DistanceFromModel<Se3_F64,AssociatedPair>> distances ) {
+		CameraPinholeRadial intrinsic = essential.intrinsic;
 
-		return new Ransac<>(ransac.randSeed, manager, generateEpipolarMotion, distanceSe3,
-				ransac.maxIterations, ransacTOL);
+		for (int i = 0; i < numberOfWorkers(); i++) {
+			Estimate1ofEpipolar essentialAlg = FactoryMultiView.
+					computeFundamental_1(essential.which, essential.numResolve);
+			TriangulateTwoViewsCalibrated triangulate = FactoryMultiView.triangulateTwoGeometric();
+			generators.add(new Se3FromEssentialGenerator(essentialAlg, triangulate));
+			distances.add(new DistanceSe3SymmetricSq(triangulate,
+					intrinsic.fx, intrinsic.fy, intrinsic.skew,
+					intrinsic.fx, intrinsic.fy, intrinsic.skew));
+		}
 	}
 
 	/**
@@ -197,12 +205,12 @@ public class FactoryMultiViewRobust {
 		if( homography == null )
 			homography = new ConfigHomography();
 
+		List<ModelGenerator<Homography2D_F64,AssociatedPair>> generators = new ArrayList<>();
+		List<DistanceFromModel<Homography2D_F64,AssociatedPair>> distances = new ArrayList<>();
+		homography(homography, generators, distances);
 		ModelManager<Homography2D_F64> manager = new ModelManagerHomography2D_F64();
-		GenerateHomographyLinear modelFitter = new GenerateHomographyLinear(homography.normalize);
-		DistanceHomographySq distance = new DistanceHomographySq();
 
-		return new LeastMedianOfSquares<>
-				(lmeds.randSeed, lmeds.totalCycles, manager, modelFitter, distance);
+		return lmeds(lmeds, manager, generators, distances);
 	}
 
 	/**
@@ -226,13 +234,73 @@ public class FactoryMultiViewRobust {
 		if( homography == null )
 			homography = new ConfigHomography();
 
+		List<ModelGenerator<Homography2D_F64,AssociatedPair>> generators = new ArrayList<>();
+		List<DistanceFromModel<Homography2D_F64,AssociatedPair>> distances = new ArrayList<>();
+		homography(homography, generators, distances);
 		ModelManager<Homography2D_F64> manager = new ModelManagerHomography2D_F64();
-		GenerateHomographyLinear modelFitter = new GenerateHomographyLinear(homography.normalize);
-		DistanceHomographySq distance = new DistanceHomographySq();
 
 		double ransacTol = ransac.inlierThreshold*ransac.inlierThreshold;
 
-		return new Ransac<>
-				(ransac.randSeed, manager, modelFitter, distance, ransac.maxIterations, ransacTol);
+		return ransac(ransac, manager, generators, distances, ransacTol);
+	}
+
+	private static void homography( ConfigHomography homography,
+									List<ModelGenerator<Homography2D_F64,AssociatedPair>> generators,
+									List<DistanceFromModel<Homography2D_F64,AssociatedPair>> distances ) {
+		for (int i = 0; i < numberOfWorkers(); i++) {
+			generators.add(new GenerateHomographyLinear(homography.normalize));
+			distances.add(new DistanceHomographySq());
+		}
+	}
+
+	/**
+	 * Number of generators and distance functions which need to be created.  One for each thread if
+	 * {@link BoofConcurrency#USE_CONCURRENT} is true.
+	 */
+	private static int numberOfWorkers() {
+		return BoofConcurrency.USE_CONCURRENT ? BoofConcurrency.getMaxThreads() : 1;
+	}
+
+	/**
+	 * Creates RANSAC.  If there are multiple workers then {@link RansacPreemptive_MT} is used.  If only one and
+	 * preemptive scoring or early termination is requested, then {@link RansacPreemptive}.  Otherwise the
+	 * original {@link Ransac}.
+	 */
+	private static <Model,Point> Ransac<Model,Point> ransac( ConfigRansac config , ModelManager<Model> manager,
+															 List<ModelGenerator<Model,Point>> generators,
+															 List<DistanceFromModel<Model,Point>> distances,
+															 double threshold ) {
+		config.checkValidity();
+
+		RansacPreemptive<Model,Point> alg;
+		if( generators.size() > 1 ) {
+			alg = new RansacPreemptive_MT<>(config.randSeed, manager, generators, distances,
+					config.maxIterations, threshold);
+		} else if( config.preemptive > 0 || config.confidence > 0 ) {
+			alg = new RansacPreemptive<>(config.randSeed, manager, generators.get(0), distances.get(0),
+					config.maxIterations, threshold);
+		} else {
+			return new Ransac<>(config.randSeed, manager, generators.get(0), distances.get(0),
+					config.maxIterations, threshold);
+		}
+		alg.setPreemptive(config.preemptive);
+		alg.setConfidence(config.confidence);
+		return alg;
+	}
+
+	/**
+	 * Creates LMedS.  If there are multiple workers then {@link LeastMedianOfSquares_MT} is used.
+	 */
+	private static <Model,Point> LeastMedianOfSquares<Model,Point> lmeds( ConfigLMedS config,
+																		  ModelManager<Model> manager,
+																		  List<ModelGenerator<Model,Point>> generators,
+																		  List<DistanceFromModel<Model,Point>> distances ) {
+		if( generators.size() > 1 ) {
+			return new LeastMedianOfSquares_MT<>(config.randSeed, config.totalCycles, manager,
+					generators, distances);
+		} else {
+			return new LeastMedianOfSquares<>(config.randSeed, config.totalCycles, manager,
+					generators.get(0), distances.get(0));
+		}
 	}
 }
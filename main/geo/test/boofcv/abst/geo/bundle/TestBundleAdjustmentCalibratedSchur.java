@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.abst.geo.bundle;
+
+import boofcv.alg.geo.GeoTestingOps;
+import boofcv.alg.geo.bundle.CalibPoseAndPointResiduals;
+import boofcv.alg.geo.bundle.CalibratedPoseAndPoint;
+import boofcv.alg.geo.bundle.ViewPointObservations;
+import georegression.struct.point.Point3D_F64;
+import org.ejml.ops.MatrixFeatures;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createModel;
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createObservations;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBundleAdjustmentCalibratedSchur {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Perfect observations and model
+	 */
+	@Test
+	public void perfect() {
+		CalibratedPoseAndPoint model = createModel(2,4,rand);
+		List<ViewPointObservations> observations = createObservations(model,2,4);
+
+		BundleAdjustmentCalibratedSchur alg = new BundleAdjustmentCalibratedSchur(1e-8,500);
+
+		assertTrue(alg.process(model, observations));
+
+		assertEquals(0,computeError(model,observations),1e-8);
+	}
+
+	/**
+	 * Perfect observations with a corrupted model.  See if the error decreases
+	 */
+	@Test
+	public void noisy() {
+		CalibratedPoseAndPoint model = createModel(2,4,rand);
+		List<ViewPointObservations> observations = createObservations(model,2,4);
+
+		BundleAdjustmentCalibratedSchur alg = new BundleAdjustmentCalibratedSchur(1e-12,500);
+
+		model.getWorldToCamera(0).getT().x += 0.02;
+		model.getWorldToCamera(1).getT().y -= 0.01;
+
+		double errorBefore = computeError(model,observations);
+		assertTrue(alg.process(model, observations));
+		double errorAfter = computeError(model,observations);
+
+		assertTrue(errorAfter<errorBefore*0.1);
+	}
+
+	/**
+	 * Compare against the dense implementation on a small problem with known and unknown views.  Both minimize
+	 * the same cost function with the same parametrization so they should converge to the same solution.
+	 */
+	@Test
+	public void compareToDense() {
+		int numViews = 4, numPoints = 20;
+		CalibratedPoseAndPoint truth = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = createObservations(truth,numViews,numPoints);
+
+		// two views are known so that there is a unique solution, otherwise the scale is ambiguous
+		truth.setViewKnown(0,true);
+		truth.setViewKnown(2,true);
+
+		CalibratedPoseAndPoint modelDense = copy(truth);
+		corrupt(modelDense,rand);
+		CalibratedPoseAndPoint modelSchur = copy(modelDense);
+
+		new BundleAdjustmentCalibratedDense(1e-12,500).process(modelDense,observations);
+		new BundleAdjustmentCalibratedSchur(1e-12,500).process(modelSchur,observations);
+
+		assertEquals(0,computeError(modelSchur,observations),1e-8);
+
+		for (int i = 0; i < numViews; i++) {
+			assertTrue(MatrixFeatures.isIdentical(modelDense.getWorldToCamera(i).getR(),
+					modelSchur.getWorldToCamera(i).getR(),1e-6));
+			assertEquals(0,modelDense.getWorldToCamera(i).getT().distance(
+					modelSchur.getWorldToCamera(i).getT()),1e-6);
+		}
+		for (int i = 0; i < numPoints; i++) {
+			assertEquals(0,modelDense.getPoint(i).distance(modelSchur.getPoint(i)),1e-6);
+		}
+	}
+
+	/**
+	 * Problem with more views and points than the dense implementation can handle in a reasonable amount of time
+	 */
+	@Test
+	public void larger() {
+		int numViews = 30, numPoints = 500;
+		CalibratedPoseAndPoint model = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = createObservations(model,numViews,numPoints);
+		model.setViewKnown(0,true);
+		model.setViewKnown(1,true);
+
+		corrupt(model,rand);
+		double errorBefore = computeError(model,observations);
+
+		BundleAdjustmentCalibratedSchur alg = new BundleAdjustmentCalibratedSchur(1e-12,200);
+		assertTrue(alg.process(model, observations));
+
+		double errorAfter = computeError(model,observations);
+		assertTrue(errorAfter < errorBefore*1e-6);
+	}
+
+	static void corrupt( CalibratedPoseAndPoint model , Random rand ) {
+		for (int i = 0; i < model.getNumViews(); i++) {
+			if( model.isViewKnown(i) )
+				continue;
+			model.getWorldToCamera(i).getT().x += rand.nextGaussian()*0.01;
+			model.getWorldToCamera(i).getT().y += rand.nextGaussian()*0.01;
+		}
+		for (int i = 0; i < model.getNumPoints(); i++) {
+			Point3D_F64 p = model.getPoint(i);
+			p.x += rand.nextGaussian()*0.01;
+			p.z += rand.nextGaussian()*0.01;
+		}
+	}
+
+	static CalibratedPoseAndPoint copy( CalibratedPoseAndPoint original ) {
+		CalibratedPoseAndPoint copy = new CalibratedPoseAndPoint();
+		copy.configure(original.getNumViews(),original.getNumPoints());
+		for (int i = 0; i < original.getNumViews(); i++) {
+			copy.setViewKnown(i,original.isViewKnown(i));
+			copy.getWorldToCamera(i).set(original.getWorldToCamera(i));
+		}
+		for (int i = 0; i < original.getNumPoints(); i++) {
+			copy.getPoint(i).set(original.getPoint(i));
+		}
+		return copy;
+	}
+
+	static double computeError( CalibratedPoseAndPoint model ,
+								List<ViewPointObservations> observations )
+	{
+		CalibPoseAndPointResiduals func = new CalibPoseAndPointResiduals();
+		func.configure(null,model,observations);
+		double residuals[] = new double[ func.getNumOfOutputsM() ];
+
+		func.process(model,residuals);
+
+		return GeoTestingOps.residualError(residuals);
+	}
+}
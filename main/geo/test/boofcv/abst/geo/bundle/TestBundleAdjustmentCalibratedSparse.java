@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.abst.geo.bundle;
+
+import boofcv.alg.geo.bundle.CalibratedPoseAndPoint;
+import boofcv.alg.geo.bundle.PointIndexObservation;
+import boofcv.alg.geo.bundle.ViewPointObservations;
+import org.ejml.ops.MatrixFeatures;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createModel;
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createObservations;
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedSchur.computeError;
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedSchur.copy;
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedSchur.corrupt;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBundleAdjustmentCalibratedSparse {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Perfect observations and model
+	 */
+	@Test
+	public void perfect() {
+		CalibratedPoseAndPoint model = createModel(2,4,rand);
+		List<ViewPointObservations> observations = createObservations(model,2,4);
+
+		BundleAdjustmentCalibratedSparse alg = new BundleAdjustmentCalibratedSparse(1e-8,500);
+
+		assertTrue(alg.process(model, observations));
+
+		assertEquals(0,computeError(model,observations),1e-8);
+	}
+
+	/**
+	 * Compare against the dense implementation on a small problem with known and unknown views
+	 */
+	@Test
+	public void compareToDense() {
+		int numViews = 4, numPoints = 20;
+		CalibratedPoseAndPoint truth = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = createObservations(truth,numViews,numPoints);
+
+		// two views are known so that there is a unique solution, otherwise the scale is ambiguous
+		truth.setViewKnown(0,true);
+		truth.setViewKnown(2,true);
+
+		CalibratedPoseAndPoint modelDense = copy(truth);
+		corrupt(modelDense,rand);
+		CalibratedPoseAndPoint modelSparse = copy(modelDense);
+
+		new BundleAdjustmentCalibratedDense(1e-12,500).process(modelDense,observations);
+		new BundleAdjustmentCalibratedSparse(1e-12,500).process(modelSparse,observations);
+
+		assertEquals(0,computeError(modelSparse,observations),1e-8);
+		assertIdentical(modelDense,modelSparse,1e-6);
+	}
+
+	/**
+	 * Each point is only seen by a few views, which makes the reduced system sparse.  Compare against the
+	 * dense Schur complement implementation.
+	 */
+	@Test
+	public void sparseObservations() {
+		int numViews = 20, numPoints = 400;
+		CalibratedPoseAndPoint truth = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = bandedObservations(truth,numViews,numPoints);
+		truth.setViewKnown(0,true);
+		truth.setViewKnown(1,true);
+
+		CalibratedPoseAndPoint modelSchur = copy(truth);
+		corrupt(modelSchur,rand);
+		CalibratedPoseAndPoint modelSparse = copy(modelSchur);
+		double errorBefore = computeError(modelSparse,observations);
+
+		new BundleAdjustmentCalibratedSchur(1e-12,200).process(modelSchur,observations);
+		BundleAdjustmentCalibratedSparse alg = new BundleAdjustmentCalibratedSparse(1e-12,200);
+		assertTrue(alg.process(modelSparse,observations));
+
+		// views are only coupled to the views next to them
+		int numUnknown = numViews-2;
+		assertEquals(numUnknown*5-6,alg.getReducedBlockCount());
+		assertTrue(alg.getTotalIterationsCG() > 0);
+
+		assertTrue(computeError(modelSparse,observations) < errorBefore*1e-6);
+		assertIdentical(modelSchur,modelSparse,1e-6);
+	}
+
+	/**
+	 * Each point is seen by three views which are next to each other.  View i can see points which
+	 * start at views i-2 to i.
+	 */
+	static List<ViewPointObservations> bandedObservations( CalibratedPoseAndPoint model ,
+														   int numViews , int numPoints ) {
+		List<ViewPointObservations> all = createObservations(model,numViews,numPoints);
+		List<ViewPointObservations> banded = new ArrayList<>();
+
+		for (int view = 0; view < numViews; view++) {
+			ViewPointObservations v = new ViewPointObservations();
+			for( PointIndexObservation o : all.get(view).getPoints().toList() ) {
+				int first = o.pointIndex % (numViews-2);
+				if( view >= first && view < first+3 ) {
+					v.getPoints().grow().set(o.pointIndex,o.obs);
+				}
+			}
+			banded.add(v);
+		}
+		return banded;
+	}
+
+	static void assertIdentical( CalibratedPoseAndPoint a , CalibratedPoseAndPoint b , double tol ) {
+		for (int i = 0; i < a.getNumViews(); i++) {
+			assertTrue(MatrixFeatures.isIdentical(a.getWorldToCamera(i).getR(), b.getWorldToCamera(i).getR(), tol));
+			assertEquals(0, a.getWorldToCamera(i).getT().distance(b.getWorldToCamera(i).getT()), tol);
+		}
+		for (int i = 0; i < a.getNumPoints(); i++) {
+			assertEquals(0, a.getPoint(i).distance(b.getPoint(i)), tol);
+		}
+	}
+}
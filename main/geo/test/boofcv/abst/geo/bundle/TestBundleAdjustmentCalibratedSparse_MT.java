@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.abst.geo.bundle;
+
+import boofcv.alg.geo.bundle.CalibratedPoseAndPoint;
+import boofcv.alg.geo.bundle.ViewPointObservations;
+import boofcv.concurrency.BoofConcurrency;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createModel;
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedSchur.copy;
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedSchur.corrupt;
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedSparse.assertIdentical;
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedSparse.bandedObservations;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBundleAdjustmentCalibratedSparse_MT {
+
+	Random rand = new Random(234);
+
+	int originalThreads;
+
+	@Before
+	public void before() {
+		originalThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(3);
+	}
+
+	@After
+	public void after() {
+		BoofConcurrency.USE_CONCURRENT = false;
+		BoofConcurrency.setMaxThreads(originalThreads);
+	}
+
+	@Test
+	public void compareToSingleThread() {
+		int numViews = 30, numPoints = 1000;
+		CalibratedPoseAndPoint expected = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = bandedObservations(expected,numViews,numPoints);
+		expected.setViewKnown(0,true);
+		expected.setViewKnown(1,true);
+		corrupt(expected,rand);
+		CalibratedPoseAndPoint found = copy(expected);
+
+		BundleAdjustmentCalibratedSparse single = new BundleAdjustmentCalibratedSparse(1e-12,50);
+		BundleAdjustmentCalibratedSparse_MT multi = new BundleAdjustmentCalibratedSparse_MT(1e-12,50);
+
+		assertTrue(single.process(expected,observations));
+		assertTrue(multi.process(found,observations));
+
+		assertEquals(single.getIterations(),multi.getIterations());
+		assertEquals(single.getTotalIterationsCG(),multi.getTotalIterationsCG());
+		assertIdentical(expected,found,0);
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.geo.robust;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.geo.AssociatedPair;
+import georegression.fitting.homography.ModelManagerHomography2D_F64;
+import georegression.struct.homography.Homography2D_F64;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLeastMedianOfSquares_MT {
+
+	int originalThreads;
+
+	@Before
+	public void before() {
+		originalThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(3);
+	}
+
+	@After
+	public void after() {
+		BoofConcurrency.USE_CONCURRENT = false;
+		BoofConcurrency.setMaxThreads(originalThreads);
+	}
+
+	/**
+	 * Should find the correct model and the inlier set should be the points with the smallest errors
+	 */
+	@Test
+	public void correctSolution() {
+		TestRansacPreemptive data = new TestRansacPreemptive();
+
+		LeastMedianOfSquares_MT<Homography2D_F64,AssociatedPair> alg = create(3, 0.5);
+		assertTrue(alg.process(data.observations));
+
+		Homography2D_F64 found = alg.getModelParameters();
+		for (int i = 0; i < 9; i++) {
+			assertEquals(data.truth.get(i/3,i%3)/data.truth.a33, found.get(i/3,i%3)/found.a33, 1e-6);
+		}
+		assertEquals(0, alg.getFitQuality(), 1e-8);
+
+		// half the points are inliers.  All of them should be from the true inlier set
+		assertEquals(200, alg.getMatchSet().size());
+		for (int i = 0; i < alg.getMatchSet().size(); i++) {
+			int index = alg.getInputIndex(i);
+			assertTrue(data.inliers.contains(index));
+			assertTrue(alg.getMatchSet().get(i) == data.observations.get(index));
+		}
+	}
+
+	/**
+	 * The number of workers should not change the results
+	 */
+	@Test
+	public void numberOfWorkers() {
+		TestRansacPreemptive data = new TestRansacPreemptive();
+
+		LeastMedianOfSquares_MT<Homography2D_F64,AssociatedPair> expected = create(1, 0.5);
+		assertTrue(expected.process(data.observations));
+
+		for (int numWorkers = 2; numWorkers <= 4; numWorkers++) {
+			LeastMedianOfSquares_MT<Homography2D_F64,AssociatedPair> found = create(numWorkers, 0.5);
+			assertTrue(found.process(data.observations));
+
+			assertEquals(expected.getFitQuality(), found.getFitQuality(), 0);
+			for (int i = 0; i < 9; i++) {
+				assertEquals(expected.getModelParameters().get(i/3,i%3),
+						found.getModelParameters().get(i/3,i%3), 0);
+			}
+			for (int i = 0; i < expected.getMatchSet().size(); i++) {
+				assertEquals(expected.getInputIndex(i), found.getInputIndex(i));
+			}
+		}
+	}
+
+	private LeastMedianOfSquares_MT<Homography2D_F64,AssociatedPair> create( int numWorkers , double inlierFrac ) {
+		List<ModelGenerator<Homography2D_F64,AssociatedPair>> generators = new ArrayList<>();
+		List<DistanceFromModel<Homography2D_F64,AssociatedPair>> distances = new ArrayList<>();
+		for (int i = 0; i < numWorkers; i++) {
+			generators.add(new GenerateHomographyLinear(true));
+			distances.add(new DistanceHomographySq());
+		}
+		return new LeastMedianOfSquares_MT<>(234, 100, Double.MAX_VALUE, inlierFrac,
+				new ModelManagerHomography2D_F64(), generators, distances);
+	}
+}
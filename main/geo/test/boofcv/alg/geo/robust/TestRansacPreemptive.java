@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.geo.robust;
+
+import boofcv.struct.geo.AssociatedPair;
+import georegression.fitting.homography.ModelManagerHomography2D_F64;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.transform.homography.HomographyPointOps_F64;
+import org.ddogleg.fitting.modelset.ransac.Ransac;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRansacPreemptive {
+
+	Random rand = new Random(234);
+
+	Homography2D_F64 truth = new Homography2D_F64(1.1,0.05,20,-0.02,0.95,-15,1e-4,-2e-4,1);
+	List<AssociatedPair> observations = new ArrayList<>();
+	Set<Integer> inliers = new HashSet<>();
+
+	public TestRansacPreemptive() {
+		createObservations(400, 0.6);
+	}
+
+	/**
+	 * With no preemptive test or early termination it should find the inliers and use every iteration
+	 */
+	@Test
+	public void basic() {
+		RansacPreemptive<Homography2D_F64,AssociatedPair> alg = create(200);
+
+		assertTrue(alg.process(observations));
+		assertEquals(200, alg.getIterations());
+		checkSolution(alg);
+	}
+
+	@Test
+	public void preemptive() {
+		RansacPreemptive<Homography2D_F64,AssociatedPair> alg = create(200);
+		alg.setPreemptive(1);
+
+		assertTrue(alg.process(observations));
+		checkSolution(alg);
+	}
+
+	/**
+	 * Stop early once enough iterations have been performed
+	 */
+	@Test
+	public void confidence() {
+		RansacPreemptive<Homography2D_F64,AssociatedPair> alg = create(5000);
+		alg.setConfidence(0.999);
+
+		assertTrue(alg.process(observations));
+		checkSolution(alg);
+
+		// for 60% inliers and 4 points 50 iterations are needed.  It will stop at the end of the first batch
+		assertEquals(100, alg.getIterations());
+	}
+
+	/**
+	 * The input list should not be modified
+	 */
+	@Test
+	public void inputNotModified() {
+		List<AssociatedPair> copy = new ArrayList<>(observations);
+		RansacPreemptive<Homography2D_F64,AssociatedPair> alg = create(200);
+		alg.setPreemptive(2);
+		assertTrue(alg.process(observations));
+
+		for (int i = 0; i < copy.size(); i++) {
+			assertTrue(copy.get(i) == observations.get(i));
+		}
+	}
+
+	/**
+	 * Not enough points for a single hypothesis
+	 */
+	@Test
+	public void tooFewPoints() {
+		RansacPreemptive<Homography2D_F64,AssociatedPair> alg = create(200);
+		assertFalse(alg.process(observations.subList(0,3)));
+	}
+
+	/**
+	 * Calls to process should be independent
+	 */
+	@Test
+	public void multipleCalls() {
+		RansacPreemptive<Homography2D_F64,AssociatedPair> alg = create(200);
+		assertTrue(alg.process(observations));
+		assertTrue(alg.process(observations.subList(0,200)));
+
+		for (int i = 0; i < alg.getMatchSet().size(); i++) {
+			assertTrue(alg.getInputIndex(i) < 200);
+		}
+	}
+
+	private RansacPreemptive<Homography2D_F64,AssociatedPair> create( int maxIterations ) {
+		return new RansacPreemptive<>(234, new ModelManagerHomography2D_F64(),
+				new GenerateHomographyLinear(true), new DistanceHomographySq(), maxIterations, 1.0);
+	}
+
+	void checkSolution( Ransac<Homography2D_F64,AssociatedPair> alg ) {
+		checkSolution(alg, observations, inliers);
+	}
+
+	static void checkSolution( Ransac<Homography2D_F64,AssociatedPair> alg ,
+							   List<AssociatedPair> observations , Set<Integer> inliers ) {
+		List<AssociatedPair> matched = alg.getMatchSet();
+		assertEquals(inliers.size(), matched.size());
+		for (int i = 0; i < matched.size(); i++) {
+			int index = alg.getInputIndex(i);
+			assertTrue(inliers.contains(index));
+			assertTrue(matched.get(i) == observations.get(index));
+		}
+	}
+
+	void createObservations( int total , double inlierFraction ) {
+		for (int i = 0; i < total; i++) {
+			AssociatedPair p = new AssociatedPair();
+			p.p1.set(rand.nextDouble()*600, rand.nextDouble()*400);
+			if( rand.nextDouble() < inlierFraction ) {
+				HomographyPointOps_F64.transform(truth, p.p1, p.p2);
+				inliers.add(i);
+			} else {
+				p.p2.set(rand.nextDouble()*600, rand.nextDouble()*400);
+			}
+			observations.add(p);
+		}
+	}
+}
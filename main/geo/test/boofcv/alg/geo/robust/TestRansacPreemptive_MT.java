@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.geo.robust;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.geo.AssociatedPair;
+import georegression.fitting.homography.ModelManagerHomography2D_F64;
+import georegression.struct.homography.Homography2D_F64;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRansacPreemptive_MT {
+
+	int originalThreads;
+
+	@Before
+	public void before() {
+		originalThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(3);
+	}
+
+	@After
+	public void after() {
+		BoofConcurrency.USE_CONCURRENT = false;
+		BoofConcurrency.setMaxThreads(originalThreads);
+	}
+
+	@Test
+	public void compareToSingleThread() {
+		compareToSingleThread(0, 0);
+		compareToSingleThread(1, 0);
+		compareToSingleThread(2, 0.99);
+	}
+
+	private void compareToSingleThread( int preemptive , double confidence ) {
+		TestRansacPreemptive data = new TestRansacPreemptive();
+
+		for (int numWorkers = 1; numWorkers <= 4; numWorkers++) {
+			RansacPreemptive_MT<Homography2D_F64,AssociatedPair> found = create(numWorkers);
+			RansacPreemptive<Homography2D_F64,AssociatedPair> expected = new RansacPreemptive<>(234,
+					new ModelManagerHomography2D_F64(), new GenerateHomographyLinear(true),
+					new DistanceHomographySq(), 300, 1.0);
+
+			expected.setPreemptive(preemptive);
+			expected.setConfidence(confidence);
+			found.setPreemptive(preemptive);
+			found.setConfidence(confidence);
+
+			// call it twice to make sure the state is handled correctly
+			for (int trial = 0; trial < 2; trial++) {
+				assertTrue(expected.process(data.observations));
+				assertTrue(found.process(data.observations));
+
+				assertEquals(expected.getIterations(), found.getIterations());
+				assertEquals(expected.getMatchSet().size(), found.getMatchSet().size());
+				for (int i = 0; i < expected.getMatchSet().size(); i++) {
+					assertEquals(expected.getInputIndex(i), found.getInputIndex(i));
+				}
+				Homography2D_F64 a = expected.getModelParameters();
+				Homography2D_F64 b = found.getModelParameters();
+				for (int i = 0; i < 9; i++) {
+					assertEquals(a.get(i/3,i%3), b.get(i/3,i%3), 0);
+				}
+			}
+			data.checkSolution(found);
+		}
+	}
+
+	private RansacPreemptive_MT<Homography2D_F64,AssociatedPair> create( int numWorkers ) {
+		List<ModelGenerator<Homography2D_F64,AssociatedPair>> generators = new ArrayList<>();
+		List<DistanceFromModel<Homography2D_F64,AssociatedPair>> distances = new ArrayList<>();
+		for (int i = 0; i < numWorkers; i++) {
+			generators.add(new GenerateHomographyLinear(true));
+			distances.add(new DistanceHomographySq());
+		}
+		return new RansacPreemptive_MT<>(234, new ModelManagerHomography2D_F64(), generators, distances, 300, 1.0);
+	}
+}
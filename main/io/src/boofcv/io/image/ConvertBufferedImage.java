@@ -18,6 +18,7 @@
 
 package boofcv.io.image;
 
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.struct.image.*;
 import sun.awt.image.ByteInterleavedRaster;
@@ -315,13 +316,21 @@ public class ConvertBufferedImage {
 			dst = new GrayU8(src.getWidth(), src.getHeight());
 		}
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvertBufferedImage_MT.convertFrom(src, dst);
+		} else {
+			convertFromImpl(src, dst);
+		}
+
+		return dst;
+	}
+
+	static void convertFromImpl(BufferedImage src, GrayU8 dst) {
 		try {
-			if (src.getRaster() instanceof ByteInterleavedRaster ) {
-				if( src.getType() != BufferedImage.TYPE_BYTE_INDEXED ) {
-					ConvertRaster.bufferedToGray((ByteInterleavedRaster) src.getRaster(), dst);
-				} else {
-					ConvertRaster.bufferedToGray(src, dst);
-				}
+			if( ConvertRaster.isIndexed(src) ) {
+				ConvertRaster.indexedToGray(src, dst);
+			} else if (src.getRaster() instanceof ByteInterleavedRaster ) {
+				ConvertRaster.bufferedToGray((ByteInterleavedRaster) src.getRaster(), dst);
 			} else if (src.getRaster() instanceof IntegerInterleavedRaster) {
 				ConvertRaster.bufferedToGray((IntegerInterleavedRaster) src.getRaster(), dst);
 			} else if( src.getRaster().getClass() == SunWritableRaster.class ) {
@@ -333,8 +342,6 @@ public class ConvertBufferedImage {
 			// Applets don't allow access to the raster()
 			ConvertRaster.bufferedToGray(src, dst);
 		}
-
-		return dst;
 	}
 
 	/**
@@ -354,17 +361,25 @@ public class ConvertBufferedImage {
 			dst = GeneralizedImageOps.createSingleBand(type, src.getWidth(), src.getHeight());
 		}
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvertBufferedImage_MT.convertFrom(src, dst);
+		} else {
+			convertFromImpl(src, dst);
+		}
+
+		return dst;
+	}
+
+	static void convertFromImpl(BufferedImage src, GrayI16 dst) {
 		try {
 			if (src.getRaster() instanceof ShortInterleavedRaster ) {
 				ConvertRaster.bufferedToGray((ShortInterleavedRaster) src.getRaster(), dst);
-				return dst;
+				return;
 			}
 		} catch( java.security.AccessControlException e) {}
 
 		// Applets don't allow access to the raster() or the image type wasn't supported
 		ConvertRaster.bufferedToGray(src, dst);
-
-		return dst;
 	}
 
 	/**
@@ -385,13 +400,21 @@ public class ConvertBufferedImage {
 			dst = new GrayF32(src.getWidth(), src.getHeight());
 		}
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvertBufferedImage_MT.convertFrom(src, dst);
+		} else {
+			convertFromImpl(src, dst);
+		}
+
+		return dst;
+	}
+
+	static void convertFromImpl(BufferedImage src, GrayF32 dst) {
 		try {
-			if (src.getRaster() instanceof ByteInterleavedRaster ) {
-				if( src.getType() != BufferedImage.TYPE_BYTE_INDEXED ) {
-					ConvertRaster.bufferedToGray((ByteInterleavedRaster) src.getRaster(), dst);
-				} else {
-					ConvertRaster.bufferedToGray(src, dst);
-				}
+			if( ConvertRaster.isIndexed(src) ) {
+				ConvertRaster.indexedToGray(src, dst);
+			} else if (src.getRaster() instanceof ByteInterleavedRaster ) {
+				ConvertRaster.bufferedToGray((ByteInterleavedRaster) src.getRaster(), dst);
 			} else if (src.getRaster() instanceof IntegerInterleavedRaster) {
 				ConvertRaster.bufferedToGray((IntegerInterleavedRaster) src.getRaster(), dst);
 			} else if( src.getRaster().getClass() == SunWritableRaster.class ) {
@@ -403,8 +426,6 @@ public class ConvertBufferedImage {
 			// Applets don't allow access to the raster()
 			ConvertRaster.bufferedToGray(src, dst);
 		}
-
-		return dst;
 	}
 
 	/**
@@ -430,26 +451,53 @@ public class ConvertBufferedImage {
 			}
 		}
 
-		try {
-			WritableRaster raster = src.getRaster();
+		if( type != GrayU8.class && type != GrayF32.class )
+			throw new IllegalArgumentException("Band type not supported yet");
 
+		try {
 			int numBands;
 			if( src.getType() == BufferedImage.TYPE_BYTE_INDEXED )
 				numBands = 3;
 			else
-				numBands = raster.getNumBands();
+				numBands = src.getRaster().getNumBands();
 
 			if( dst == null)
 				dst = new Planar<>(type, src.getWidth(), src.getHeight(), numBands);
 			else if( dst.getNumBands() != numBands )
 				throw new IllegalArgumentException("Expected "+numBands+" bands in dst not "+dst.getNumBands());
+		} catch( java.security.AccessControlException e) {
+			// Applets don't allow access to the raster()
+			if( dst == null )
+				dst = new Planar<>(type, src.getWidth(), src.getHeight(), 3);
+		}
+
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvertBufferedImage_MT.convertFrom(src, dst);
+		} else {
+			convertFromMultiImpl(src, dst);
+		}
 
+		// if requested, ensure the ordering of the bands
+		if( orderRgb ) {
+			orderBandsIntoRGB(dst,src);
+		}
+
+		return dst;
+	}
+
+	static void convertFromMultiImpl(BufferedImage src, Planar dst ) {
+		Class type = dst.getBandType();
+
+		try {
 			if( type == GrayU8.class ) {
-				if (src.getRaster() instanceof ByteInterleavedRaster &&
-						src.getType() != BufferedImage.TYPE_BYTE_INDEXED ) {
+				if( ConvertRaster.isIndexed(src) ) {
+					ConvertRaster.indexedToMulti_U8(src, (Planar<GrayU8>) dst);
+				} else if (src.getRaster() instanceof ByteInterleavedRaster ) {
 					if( src.getType() == BufferedImage.TYPE_BYTE_GRAY)  {
-						for( int i = 0; i < dst.getNumBands(); i++ )
-							ConvertRaster.bufferedToGray(src, ((Planar<GrayU8>) dst).getBand(i));
+						GrayU8 band0 = ((Planar<GrayU8>) dst).getBand(0);
+						ConvertRaster.bufferedToGray((ByteInterleavedRaster) src.getRaster(), band0);
+						for( int i = 1; i < dst.getNumBands(); i++ )
+							((Planar<GrayU8>) dst).getBand(i).setTo(band0);
 					} else {
 						ConvertRaster.bufferedToMulti_U8((ByteInterleavedRaster) src.getRaster(), (Planar<GrayU8>) dst);
 					}
@@ -459,11 +507,14 @@ public class ConvertBufferedImage {
 					ConvertRaster.bufferedToMulti_U8(src, (Planar<GrayU8>) dst);
 				}
 			} else if( type == GrayF32.class ) {
-				if (src.getRaster() instanceof ByteInterleavedRaster &&
-						src.getType() != BufferedImage.TYPE_BYTE_INDEXED  ) {
+				if( ConvertRaster.isIndexed(src) ) {
+					ConvertRaster.indexedToMulti_F32(src, (Planar<GrayF32>) dst);
+				} else if (src.getRaster() instanceof ByteInterleavedRaster ) {
 					if( src.getType() == BufferedImage.TYPE_BYTE_GRAY)  {
-						for( int i = 0; i < dst.getNumBands(); i++ )
-							ConvertRaster.bufferedToGray(src,((Planar<GrayF32>)dst).getBand(i));
+						GrayF32 band0 = ((Planar<GrayF32>) dst).getBand(0);
+						ConvertRaster.bufferedToGray((ByteInterleavedRaster) src.getRaster(), band0);
+						for( int i = 1; i < dst.getNumBands(); i++ )
+							((Planar<GrayF32>) dst).getBand(i).setTo(band0);
 					} else {
 						ConvertRaster.bufferedToMulti_F32((ByteInterleavedRaster) src.getRaster(), (Planar<GrayF32>) dst);
 					}
@@ -478,22 +529,12 @@ public class ConvertBufferedImage {
 
 		} catch( java.security.AccessControlException e) {
 			// Applets don't allow access to the raster()
-			if( dst == null )
-				dst = new Planar<>(type, src.getWidth(), src.getHeight(), 3);
-
 			if( type == GrayU8.class ) {
 				ConvertRaster.bufferedToMulti_U8(src, (Planar<GrayU8>) dst);
 			} else if( type == GrayF32.class ) {
 				ConvertRaster.bufferedToMulti_F32(src, (Planar<GrayF32>)dst);
 			}
 		}
-
-		// if requested, ensure the ordering of the bands
-		if( orderRgb ) {
-			orderBandsIntoRGB(dst,src);
-		}
-
-		return dst;
 	}
 
 	public static void convertFromInterleaved(BufferedImage src, ImageInterleaved dst, boolean orderRgb)
@@ -505,50 +546,57 @@ public class ConvertBufferedImage {
 			throw new IllegalArgumentException("image dimension are different");
 		}
 
-		try {
-			WritableRaster raster = src.getRaster();
+		if( !(dst instanceof InterleavedU8) && !(dst instanceof InterleavedF32) )
+			throw new IllegalArgumentException("Data type not supported yet");
 
+		try {
 			int numBands;
 			if( src.getType() == BufferedImage.TYPE_BYTE_INDEXED )
 				numBands = 3;
 			else
-				numBands = raster.getNumBands();
+				numBands = src.getRaster().getNumBands();
 
 			if( dst.getNumBands() != numBands )
 				throw new IllegalArgumentException("Expected "+numBands+" bands in dst not "+dst.getNumBands());
+		} catch( java.security.AccessControlException e) {
+			// Applets don't allow access to the raster()
+		}
+
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvertBufferedImage_MT.convertFrom(src, dst);
+		} else {
+			convertFromInterleavedImpl(src, dst);
+		}
+
+		// if requested, ensure the ordering of the bands
+		if( orderRgb ) {
+			orderBandsIntoRGB(dst,src);
+		}
+	}
 
+	static void convertFromInterleavedImpl(BufferedImage src, ImageInterleaved dst)
+	{
+		try {
 			if( dst instanceof InterleavedU8 ) {
-				if (src.getRaster() instanceof ByteInterleavedRaster ){
-					if(src.getType() != BufferedImage.TYPE_BYTE_INDEXED) {
-						if (src.getType() == BufferedImage.TYPE_BYTE_GRAY) {
-							ConvertRaster.bufferedToGray(src, (InterleavedU8) dst);
-						} else {
-							ConvertRaster.bufferedToInterleaved((ByteInterleavedRaster) src.getRaster(), (InterleavedU8) dst);
-						}
-					} else {
-						ConvertRaster.bufferedToInterleaved(src, (InterleavedU8) dst);
-					}
+				if( ConvertRaster.isIndexed(src) ) {
+					ConvertRaster.indexedToInterleaved(src, (InterleavedU8) dst);
+				} else if (src.getRaster() instanceof ByteInterleavedRaster ){
+					ConvertRaster.bufferedToInterleaved((ByteInterleavedRaster) src.getRaster(), (InterleavedU8) dst);
 				} else if (src.getRaster() instanceof IntegerInterleavedRaster) {
 					ConvertRaster.bufferedToInterleaved((IntegerInterleavedRaster) src.getRaster(), (InterleavedU8) dst);
-				} else if (src.getRaster() instanceof SunWritableRaster) {
+				} else if (src.getRaster().getClass() == SunWritableRaster.class) {
 					ConvertRaster.bufferedToInterleaved((SunWritableRaster) src.getRaster(), (InterleavedU8) dst);
 				} else {
 					ConvertRaster.bufferedToInterleaved(src, (InterleavedU8) dst);
 				}
 			} else if( dst instanceof InterleavedF32 ) {
-				if (src.getRaster() instanceof ByteInterleavedRaster ) {
-					if(src.getType() != BufferedImage.TYPE_BYTE_INDEXED) {
-						if (src.getType() == BufferedImage.TYPE_BYTE_GRAY) {
-							ConvertRaster.bufferedToGray(src, (InterleavedF32) dst);
-						} else {
-							ConvertRaster.bufferedToInterleaved((ByteInterleavedRaster) src.getRaster(), (InterleavedF32) dst);
-						}
-					} else {
-						ConvertRaster.bufferedToInterleaved(src, (InterleavedF32) dst);
-					}
+				if( ConvertRaster.isIndexed(src) ) {
+					ConvertRaster.indexedToInterleaved(src, (InterleavedF32) dst);
+				} else if (src.getRaster() instanceof ByteInterleavedRaster ) {
+					ConvertRaster.bufferedToInterleaved((ByteInterleavedRaster) src.getRaster(), (InterleavedF32) dst);
 				} else if (src.getRaster() instanceof IntegerInterleavedRaster) {
 					ConvertRaster.bufferedToInterleaved((IntegerInterleavedRaster) src.getRaster(), (InterleavedF32) dst);
-				} else if (src.getRaster() instanceof SunWritableRaster) {
+				} else if (src.getRaster().getClass() == SunWritableRaster.class) {
 					ConvertRaster.bufferedToInterleaved((SunWritableRaster) src.getRaster(), (InterleavedF32) dst);
 				} else {
 					ConvertRaster.bufferedToInterleaved(src, (InterleavedF32) dst);
@@ -567,10 +615,25 @@ public class ConvertBufferedImage {
 				throw new IllegalArgumentException("Unsupported dst image type");
 			}
 		}
+	}
 
-		// if requested, ensure the ordering of the bands
-		if( orderRgb ) {
-			orderBandsIntoRGB(dst,src);
+	/**
+	 * Converts the BufferedImage into the image without any checks or changes to the band order.  Used to process
+	 * blocks of rows.
+	 */
+	static void convertFromImpl( BufferedImage src , ImageBase dst ) {
+		if( dst instanceof GrayU8 ) {
+			convertFromImpl(src, (GrayU8) dst);
+		} else if( dst instanceof GrayI16 ) {
+			convertFromImpl(src, (GrayI16) dst);
+		} else if( dst instanceof GrayF32 ) {
+			convertFromImpl(src, (GrayF32) dst);
+		} else if( dst instanceof Planar ) {
+			convertFromMultiImpl(src, (Planar) dst);
+		} else if( dst instanceof ImageInterleaved ) {
+			convertFromInterleavedImpl(src, (ImageInterleaved) dst);
+		} else {
+			throw new IllegalArgumentException("Unknown type " + dst.getClass().getSimpleName());
 		}
 	}
 
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.image;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.struct.image.ImageBase;
+import sun.awt.image.SunWritableRaster;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * <p>
+ * Concurrent implementation of the functions in {@link ConvertBufferedImage} which convert from a
+ * {@link BufferedImage}.  The image is split into bands of rows using {@link BufferedImage#getSubimage} and each
+ * band is converted in its own thread by the single threaded code, so the output is identical.
+ * </p>
+ *
+ * <p>
+ * Called by {@link ConvertBufferedImage} when {@link BoofConcurrency#USE_CONCURRENT} is true.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ConvertBufferedImage_MT {
+
+	/**
+	 * Minimum number of pixels converted by a single thread.  Below this the overhead isn't worth it.
+	 */
+	public static int MIN_BLOCK_PIXELS = 1 << 15;
+
+	/**
+	 * Converts the BufferedImage into the image.  The band order is not changed.
+	 *
+	 * @param src Input image
+	 * @param dst Output image.  Must be the same shape as src and have the correct number of bands.
+	 */
+	public static void convertFrom( final BufferedImage src , final ImageBase dst ) {
+		if( !canSplit(src) ) {
+			ConvertBufferedImage.convertFromImpl(src, dst);
+			return;
+		}
+
+		final int width = src.getWidth();
+		int minRows = Math.max(1, MIN_BLOCK_PIXELS/Math.max(1,width));
+
+		BoofConcurrency.loopBlocks(0, src.getHeight(), minRows, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				BufferedImage srcBlock = src.getSubimage(0, y0, width, y1 - y0);
+				ImageBase dstBlock = dst.subimage(0, y0, width, y1, null);
+				ConvertBufferedImage.convertFromImpl(srcBlock, dstBlock);
+			}
+		});
+	}
+
+	/**
+	 * Checks to see if the image can be converted in blocks.  The functions for {@link SunWritableRaster}
+	 * assume the data starts at the beginning of the array, which isn't true for a sub-image.
+	 */
+	static boolean canSplit( BufferedImage src ) {
+		try {
+			return src.getRaster().getClass() != SunWritableRaster.class;
+		} catch( java.security.AccessControlException e ) {
+			return false;
+		}
+	}
+}
@@ -24,6 +24,7 @@ import sun.awt.image.*;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
 import java.awt.image.WritableRaster;
 
 /**
@@ -1162,6 +1163,256 @@ public class ConvertRaster {
 		}
 	}
 
+	/**
+	 * Returns true if the pixels in the image are indexes into an {@link IndexColorModel} and its raster
+	 * can be read directly by the indexed functions in this class.  Includes TYPE_BYTE_INDEXED and TYPE_BYTE_BINARY.
+	 */
+	public static boolean isIndexed( BufferedImage src ) {
+		if( !(src.getColorModel() instanceof IndexColorModel) )
+			return false;
+
+		WritableRaster raster = src.getRaster();
+		if( raster instanceof BytePackedRaster )
+			return true;
+		return raster instanceof ByteInterleavedRaster && raster.getNumBands() == 1;
+	}
+
+	/**
+	 * Converts an indexed image into a gray scale image.  The color map is converted into gray once and then
+	 * each pixel is looked up.  Produces the same results as the getRGB() based function.
+	 *
+	 * @see #isIndexed(BufferedImage)
+	 */
+	public static void indexedToGray(BufferedImage src, GrayU8 dst) {
+		indexedToGray(src, dst.data, dst.startIndex, dst.stride, dst.width, dst.height);
+	}
+
+	/**
+	 * Converts an indexed image into a gray scale image.  The color map is converted into gray once and then
+	 * each pixel is looked up.  Produces the same results as the getRGB() based function.
+	 *
+	 * @see #isIndexed(BufferedImage)
+	 */
+	public static void indexedToGray(BufferedImage src, GrayF32 dst) {
+		float[] gray = indexedGrayF32(indexedPalette(src));
+
+		WritableRaster raster = src.getRaster();
+		byte[] row = new byte[dst.width];
+		for (int y = 0; y < dst.height; y++) {
+			readIndexes(raster, y, row);
+			int indexDst = dst.startIndex + y*dst.stride;
+			for (int x = 0; x < dst.width; x++) {
+				dst.data[indexDst++] = gray[row[x] & 0xFF];
+			}
+		}
+	}
+
+	/**
+	 * Converts an indexed image into a planar image.  If the output has 3 bands the color is written in RGB order
+	 * and if it has one band gray is written.
+	 *
+	 * @see #isIndexed(BufferedImage)
+	 */
+	public static void indexedToMulti_U8(BufferedImage src, Planar<GrayU8> dst) {
+		if( dst.getNumBands() == 1 ) {
+			indexedToGray(src, dst.getBand(0));
+			return;
+		} else if( dst.getNumBands() != 3 ) {
+			throw new IllegalArgumentException("Unsupported number of input bands");
+		}
+
+		int[] palette = indexedPalette(src);
+		byte[] band1 = dst.getBand(0).data;
+		byte[] band2 = dst.getBand(1).data;
+		byte[] band3 = dst.getBand(2).data;
+
+		WritableRaster raster = src.getRaster();
+		byte[] row = new byte[dst.width];
+		for (int y = 0; y < dst.height; y++) {
+			readIndexes(raster, y, row);
+			int index = dst.startIndex + y*dst.stride;
+			for (int x = 0; x < dst.width; x++, index++) {
+				int argb = palette[row[x] & 0xFF];
+
+				band1[index] = (byte) (argb >>> 16);
+				band2[index] = (byte) (argb >>> 8);
+				band3[index] = (byte) argb;
+			}
+		}
+	}
+
+	/**
+	 * Converts an indexed image into a planar image.  If the output has 3 bands the color is written in RGB order,
+	 * 4 bands in ARGB order, and if it has one band gray is written.
+	 *
+	 * @see #isIndexed(BufferedImage)
+	 */
+	public static void indexedToMulti_F32(BufferedImage src, Planar<GrayF32> dst) {
+		int numBands = dst.getNumBands();
+		if( numBands == 1 ) {
+			indexedToGray(src, dst.getBand(0));
+			return;
+		} else if( numBands != 3 && numBands != 4 ) {
+			throw new IllegalArgumentException("Unsupported number of input bands");
+		}
+
+		// look up table for each band
+		int[] palette = indexedPalette(src);
+		float[][] tables = new float[numBands][palette.length];
+		for (int i = 0; i < palette.length; i++) {
+			for (int band = 0, shift = 8*(numBands-1); band < numBands; band++, shift -= 8) {
+				tables[band][i] = (palette[i] >>> shift) & 0xFF;
+			}
+		}
+
+		WritableRaster raster = src.getRaster();
+		byte[] row = new byte[dst.width];
+		for (int y = 0; y < dst.height; y++) {
+			readIndexes(raster, y, row);
+			int indexStart = dst.startIndex + y*dst.stride;
+			for (int band = 0; band < numBands; band++) {
+				float[] table = tables[band];
+				float[] data = dst.getBand(band).data;
+				int index = indexStart;
+				for (int x = 0; x < dst.width; x++, index++) {
+					data[index] = table[row[x] & 0xFF];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Converts an indexed image into an interleaved image.  If the output has 3 bands the color is written in
+	 * RGB order and if it has one band gray is written.
+	 *
+	 * @see #isIndexed(BufferedImage)
+	 */
+	public static void indexedToInterleaved(BufferedImage src, InterleavedU8 dst) {
+		if( dst.getNumBands() == 1 ) {
+			indexedToGray(src, dst.data, dst.startIndex, dst.stride, dst.width, dst.height);
+			return;
+		} else if( dst.getNumBands() != 3 ) {
+			throw new IllegalArgumentException("Unsupported number of input bands");
+		}
+
+		int[] palette = indexedPalette(src);
+
+		WritableRaster raster = src.getRaster();
+		byte[] row = new byte[dst.width];
+		for (int y = 0; y < dst.height; y++) {
+			readIndexes(raster, y, row);
+			int indexDst = dst.startIndex + y*dst.stride;
+			for (int x = 0; x < dst.width; x++) {
+				int argb = palette[row[x] & 0xFF];
+
+				dst.data[indexDst++] = (byte) (argb >>> 16);
+				dst.data[indexDst++] = (byte) (argb >>> 8);
+				dst.data[indexDst++] = (byte) argb;
+			}
+		}
+	}
+
+	/**
+	 * Converts an indexed image into an interleaved image.  If the output has 3 bands the color is written in
+	 * RGB order, 4 bands in ARGB order, and if it has one band gray is written.
+	 *
+	 * @see #isIndexed(BufferedImage)
+	 */
+	public static void indexedToInterleaved(BufferedImage src, InterleavedF32 dst) {
+		int numBands = dst.getNumBands();
+		if( numBands != 1 && numBands != 3 && numBands != 4 )
+			throw new IllegalArgumentException("Unsupported number of input bands");
+
+		int[] palette = indexedPalette(src);
+		float[] gray = numBands == 1 ? indexedGrayF32(palette) : null;
+
+		WritableRaster raster = src.getRaster();
+		byte[] row = new byte[dst.width];
+		for (int y = 0; y < dst.height; y++) {
+			readIndexes(raster, y, row);
+			int indexDst = dst.startIndex + y*dst.stride;
+			for (int x = 0; x < dst.width; x++) {
+				int index = row[x] & 0xFF;
+				if( gray != null ) {
+					dst.data[indexDst++] = gray[index];
+				} else {
+					int argb = palette[index];
+					for (int shift = 8*(numBands-1); shift >= 0; shift -= 8) {
+						dst.data[indexDst++] = (argb >>> shift) & 0xFF;
+					}
+				}
+			}
+		}
+	}
+
+	private static void indexedToGray(BufferedImage src, byte[] dstData, int dstStartIndex, int dstStride,
+									  int width, int height) {
+		int[] palette = indexedPalette(src);
+		byte[] gray = new byte[palette.length];
+		for (int i = 0; i < palette.length; i++) {
+			int argb = palette[i];
+			gray[i] = (byte) ((((argb >>> 16) & 0xFF) + ((argb >>> 8) & 0xFF) + (argb & 0xFF)) / 3);
+		}
+
+		WritableRaster raster = src.getRaster();
+		byte[] row = new byte[width];
+		for (int y = 0; y < height; y++) {
+			readIndexes(raster, y, row);
+			int indexDst = dstStartIndex + y*dstStride;
+			for (int x = 0; x < width; x++) {
+				dstData[indexDst++] = gray[row[x] & 0xFF];
+			}
+		}
+	}
+
+	/**
+	 * Returns the ARGB value of every possible pixel value in the indexed image
+	 */
+	private static int[] indexedPalette( BufferedImage src ) {
+		IndexColorModel model = (IndexColorModel)src.getColorModel();
+		int[] palette = new int[256];
+		for (int i = 0; i < palette.length; i++) {
+			palette[i] = model.getRGB(i);
+		}
+		return palette;
+	}
+
+	private static float[] indexedGrayF32( int[] palette ) {
+		float[] gray = new float[palette.length];
+		for (int i = 0; i < palette.length; i++) {
+			int argb = palette[i];
+			int r = (argb >>> 16) & 0xFF;
+			int g = (argb >>> 8) & 0xFF;
+			int b = argb & 0xFF;
+
+			gray[i] = (r + g + b) / 3.0f;
+		}
+		return gray;
+	}
+
+	/**
+	 * Reads the color map index of each pixel in row 'y' of an indexed raster.
+	 */
+	private static void readIndexes( WritableRaster src , int y , byte[] row ) {
+		if( src instanceof BytePackedRaster ) {
+			BytePackedRaster packed = (BytePackedRaster)src;
+			byte[] data = packed.getDataStorage();
+			int bits = packed.getPixelBitStride();
+			int mask = (1 << bits) - 1;
+
+			// pixels are packed starting with the most significant bit
+			int bit = packed.getDataBitOffset() + y*packed.getScanlineStride()*8;
+			for (int x = 0; x < row.length; x++, bit += bits) {
+				int shift = 8 - bits - (bit & 7);
+				row[x] = (byte) ((data[bit >> 3] >> shift) & mask);
+			}
+		} else {
+			ByteInterleavedRaster raster = (ByteInterleavedRaster)src;
+			int indexSrc = getOffset(raster) + y*raster.getScanlineStride();
+			System.arraycopy(raster.getDataStorage(), indexSrc, row, 0, row.length);
+		}
+	}
+
 	public static void grayToBuffered(GrayU8 src, ByteInterleavedRaster dst) {
 
 		final byte[] srcData = src.data;
@@ -28,6 +28,8 @@ import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
 import java.io.*;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.security.AccessControlException;
 import java.util.ArrayList;
 import java.util.List;
@@ -351,7 +353,88 @@ public class UtilImageIO {
 	public static Planar<GrayU8> loadPPM_U8(String fileName , Planar<GrayU8> storage , GrowQueue_I8 temp )
 			throws IOException
 	{
-		return loadPPM_U8(new FileInputStream(fileName),storage,temp);
+		return loadPPM_U8(new File(fileName),storage,temp);
+	}
+
+	/**
+	 * Reads a PPM image file directly into a Planar<GrayU8> image using a {@link FileChannel}.  The interleaved
+	 * pixels are read in a single bulk operation and then split into bands.
+	 *
+	 * @param file Location of PPM file
+	 * @param storage (Optional) Where the image is written in to.  Will be resized if needed.
+	 *                   If null or the number of bands isn't 3, a new instance is declared.
+	 * @param temp (Optional) Used internally to store the image.  Can be null.
+	 * @return The image.
+	 * @throws IOException
+	 */
+	public static Planar<GrayU8> loadPPM_U8(File file , Planar<GrayU8> storage , GrowQueue_I8 temp )
+			throws IOException
+	{
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			PnmHeader header = readPnmHeader(channel, 6);
+			int w = header.width, h = header.height;
+
+			if( storage == null || storage.getNumBands() != 3 )
+				storage = new Planar<>(GrayU8.class,w,h,3 );
+			else
+				storage.reshape(w,h);
+
+			int length = w*h*3;
+			if( temp == null )
+				temp = new GrowQueue_I8(length);
+			temp.resize(length);
+
+			readFully(channel, ByteBuffer.wrap(temp.data, 0, length));
+
+			byte data[] = temp.data;
+			byte band0[] = storage.getBand(0).data;
+			byte band1[] = storage.getBand(1).data;
+			byte band2[] = storage.getBand(2).data;
+
+			int indexIn = 0;
+			for( int y = 0; y < h; y++ ) {
+				int indexOut = storage.startIndex + y*storage.stride;
+				int end = indexOut + w;
+				for( ; indexOut < end; indexOut++ ) {
+					band0[indexOut] = data[indexIn++];
+					band1[indexOut] = data[indexIn++];
+					band2[indexOut] = data[indexIn++];
+				}
+			}
+			return storage;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads a PPM image file directly into an {@link InterleavedU8} image using a {@link FileChannel}.  Pixels
+	 * are read straight into the image's data array without any intermediate copies.
+	 *
+	 * @param file Location of PPM file
+	 * @param storage (Optional) Where the image is written in to.  Will be resized if needed.
+	 *                   If null or the number of bands isn't 3, a new instance is declared.
+	 * @return The image.
+	 * @throws IOException
+	 */
+	public static InterleavedU8 loadPPM_U8(File file , InterleavedU8 storage ) throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			PnmHeader header = readPnmHeader(channel, 6);
+
+			if( storage == null || storage.getNumBands() != 3 )
+				storage = new InterleavedU8(header.width, header.height, 3);
+			else if( storage.width != header.width || storage.height != header.height )
+				storage.reshape(header.width, header.height);
+
+			readRows(channel, storage.data, storage.startIndex, storage.stride, storage.width*3, storage.height);
+			return storage;
+		} finally {
+			in.close();
+		}
 	}
 
 	/**
@@ -421,7 +504,35 @@ public class UtilImageIO {
 	public static GrayU8 loadPGM_U8(String fileName , GrayU8 storage )
 			throws IOException
 	{
-		return loadPGM_U8(new FileInputStream(fileName),storage);
+		return loadPGM_U8(new File(fileName),storage);
+	}
+
+	/**
+	 * Reads a PGM image file directly into a {@link GrayU8} image using a {@link FileChannel}.  Pixels
+	 * are read straight into the image's data array without any intermediate copies.
+	 *
+	 * @param file Location of PGM file
+	 * @param storage (Optional) Where the image is written in to.  Will be resized if needed.
+	 *                If null a new image will be declared.
+	 * @return The read in image
+	 * @throws IOException
+	 */
+	public static GrayU8 loadPGM_U8(File file , GrayU8 storage ) throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			PnmHeader header = readPnmHeader(channel, 5);
+
+			if( storage == null )
+				storage = new GrayU8(header.width, header.height);
+			else if( storage.width != header.width || storage.height != header.height )
+				storage.reshape(header.width, header.height);
+
+			readRows(channel, storage.data, storage.startIndex, storage.stride, storage.width, storage.height);
+			return storage;
+		} finally {
+			in.close();
+		}
 	}
 
 	/**
@@ -462,34 +573,54 @@ public class UtilImageIO {
 	 * @throws IOException
 	 */
 	public static void savePPM(Planar<GrayU8> rgb , String fileName , GrowQueue_I8 temp ) throws IOException {
-		File out = new File(fileName);
-		DataOutputStream os = new DataOutputStream(new FileOutputStream(out));
-
-		String header = String.format("P6\n%d %d\n255\n", rgb.width, rgb.height);
-		os.write(header.getBytes());
+		savePPM(rgb, new File(fileName), temp);
+	}
 
+	/**
+	 * Saves an image in PPM format using a {@link FileChannel}.  The bands are interleaved into the work space
+	 * and written in a single bulk operation.
+	 *
+	 * @param rgb 3-band RGB image
+	 * @param file Location where the image is to be written to.
+	 * @param temp (Optional) Used internally to store the image.  Can be null.
+	 * @throws IOException
+	 */
+	public static void savePPM(Planar<GrayU8> rgb , File file , GrowQueue_I8 temp ) throws IOException {
 		if( temp == null )
 			temp = new GrowQueue_I8();
 		temp.resize(rgb.width*rgb.height*3);
 		byte data[] = temp.data;
 
-		GrayU8 band0 = rgb.getBand(0);
-		GrayU8 band1 = rgb.getBand(1);
-		GrayU8 band2 = rgb.getBand(2);
+		byte band0[] = rgb.getBand(0).data;
+		byte band1[] = rgb.getBand(1).data;
+		byte band2[] = rgb.getBand(2).data;
 
 		int indexOut = 0;
 		for( int y = 0; y < rgb.height; y++ ) {
 			int index = rgb.startIndex + y*rgb.stride;
-			for( int x = 0; x < rgb.width; x++ , index++) {
-				data[indexOut++] = band0.data[index];
-				data[indexOut++] = band1.data[index];
-				data[indexOut++] = band2.data[index];
+			int end = index + rgb.width;
+			for( ; index < end; index++ ) {
+				data[indexOut++] = band0[index];
+				data[indexOut++] = band1[index];
+				data[indexOut++] = band2[index];
 			}
 		}
 
-		os.write(data,0,temp.size);
+		writePnm(file, 6, rgb.width, rgb.height, data, 0, rgb.width*3, rgb.width*3);
+	}
 
-		os.close();
+	/**
+	 * Saves an image in PPM format using a {@link FileChannel}.  Pixels are written directly from the image's
+	 * data array.
+	 *
+	 * @param rgb 3-band interleaved RGB image
+	 * @param file Location where the image is to be written to.
+	 * @throws IOException
+	 */
+	public static void savePPM(InterleavedU8 rgb , File file ) throws IOException {
+		if( rgb.getNumBands() != 3 )
+			throw new IllegalArgumentException("Image must have 3 bands");
+		writePnm(file, 6, rgb.width, rgb.height, rgb.data, rgb.startIndex, rgb.stride, rgb.width*3);
 	}
 
 	/**
@@ -500,15 +631,136 @@ public class UtilImageIO {
 	 * @throws IOException
 	 */
 	public static void savePGM(GrayU8 gray , String fileName ) throws IOException {
-		File out = new File(fileName);
-		DataOutputStream os = new DataOutputStream(new FileOutputStream(out));
+		savePGM(gray, new File(fileName));
+	}
+
+	/**
+	 * Saves an image in PGM format using a {@link FileChannel}.  Pixels are written directly from the image's
+	 * data array.
+	 *
+	 * @param gray Gray scale image
+	 * @param file Location where the image is to be written to.
+	 * @throws IOException
+	 */
+	public static void savePGM(GrayU8 gray , File file ) throws IOException {
+		writePnm(file, 5, gray.width, gray.height, gray.data, gray.startIndex, gray.stride, gray.width);
+	}
+
+	/**
+	 * Writes the header and the pixels.  If the rows are contiguous they are written in a single operation.
+	 *
+	 * @param type 5 for PGM and 6 for PPM
+	 * @param rowLength Number of bytes in each row
+	 */
+	private static void writePnm( File file , int type , int width , int height ,
+								  byte[] data , int startIndex , int stride , int rowLength ) throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			FileChannel channel = out.getChannel();
+			String header = String.format("P%d\n%d %d\n255\n", type, width, height);
+			writeFully(channel, ByteBuffer.wrap(header.getBytes()));
+
+			if( stride == rowLength ) {
+				writeFully(channel, ByteBuffer.wrap(data, startIndex, rowLength*height));
+			} else {
+				for (int y = 0; y < height; y++) {
+					writeFully(channel, ByteBuffer.wrap(data, startIndex + y*stride, rowLength));
+				}
+			}
+		} finally {
+			out.close();
+		}
+	}
 
-		String header = String.format("P5\n%d %d\n255\n", gray.width, gray.height);
-		os.write(header.getBytes());
+	/**
+	 * Reads the pixels into the array.  If the rows are contiguous they are read in a single operation.
+	 */
+	private static void readRows( FileChannel channel , byte[] data , int startIndex , int stride ,
+								  int rowLength , int height ) throws IOException {
+		if( stride == rowLength ) {
+			readFully(channel, ByteBuffer.wrap(data, startIndex, rowLength*height));
+		} else {
+			for (int y = 0; y < height; y++) {
+				readFully(channel, ByteBuffer.wrap(data, startIndex + y*stride, rowLength));
+			}
+		}
+	}
+
+	private static void readFully( FileChannel channel , ByteBuffer buffer ) throws IOException {
+		while( buffer.hasRemaining() ) {
+			if( channel.read(buffer) < 0 )
+				throw new EOFException("Unexpected end of file");
+		}
+	}
+
+	private static void writeFully( FileChannel channel , ByteBuffer buffer ) throws IOException {
+		while( buffer.hasRemaining() ) {
+			channel.write(buffer);
+		}
+	}
 
-		os.write(gray.data,0,gray.width*gray.height);
+	/**
+	 * Reads a binary PGM (P5) or PPM (P6) header.  Comments are skipped.  When it returns, the channel is
+	 * positioned at the first pixel.
+	 *
+	 * @param type 5 for PGM and 6 for PPM
+	 */
+	private static PnmHeader readPnmHeader( FileChannel channel , int type ) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate((int)Math.min(1024, channel.size()));
+		readFully(channel, buffer);
+		buffer.flip();
+
+		if( buffer.remaining() < 2 || buffer.get() != 'P' || buffer.get() != '0'+type )
+			throw new IOException("Expected a P"+type+" image");
+
+		PnmHeader header = new PnmHeader();
+		header.width = readPnmInteger(buffer);
+		header.height = readPnmInteger(buffer);
+		int maxValue = readPnmInteger(buffer);
+		if( maxValue > 255 )
+			throw new IOException("Only 8-bit images are supported");
+		if( !buffer.hasRemaining() )
+			throw new IOException("Header is too long");
+		// a single white space character separates the header from the pixels
+		buffer.get();
+
+		channel.position(buffer.position());
+		return header;
+	}
+
+	private static int readPnmInteger( ByteBuffer buffer ) throws IOException {
+		// skip white space and comments
+		while( true ) {
+			if( !buffer.hasRemaining() )
+				throw new IOException("Header is too long");
+			byte b = buffer.get(buffer.position());
+			if( b == '#' ) {
+				while( buffer.hasRemaining() && buffer.get() != '\n' ) {}
+			} else if( Character.isWhitespace(b) ) {
+				buffer.get();
+			} else {
+				break;
+			}
+		}
+
+		int value = 0;
+		int digits = 0;
+		while( buffer.hasRemaining() ) {
+			byte b = buffer.get(buffer.position());
+			if( b < '0' || b > '9' )
+				break;
+			buffer.get();
+			value = value*10 + (b-'0');
+			if( ++digits > 9 )
+				throw new IOException("Header value is too large");
+		}
+		if( digits == 0 )
+			throw new IOException("Expected a number in the header");
+		return value;
+	}
 
-		os.close();
+	private static class PnmHeader {
+		int width, height;
 	}
 
 	private static String readLine( DataInputStream in ) throws IOException {
@@ -20,13 +20,12 @@ package boofcv.io.video;
 
 import boofcv.io.image.SimpleImageSequence;
 import boofcv.io.wrapper.images.ImageStreamSequence;
-import boofcv.io.wrapper.images.JpegByteImageSequence;
+import boofcv.io.wrapper.images.MjpegMappedSequence;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
 
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.util.List;
+import java.io.IOException;
 
 /**
  * This video interface attempts to load a native reader.  If that fails, jcodec, if that fails it just
@@ -62,10 +61,8 @@ public class DynamicVideoInterface implements VideoInterface {
 		if( fileName.endsWith("mjpeg") || fileName.endsWith("MJPEG") ||
 				fileName.endsWith("mjpg") || fileName.endsWith("MJPG") ) {
 			try {
-				VideoMjpegCodec codec = new VideoMjpegCodec();
-				List<byte[]> data = codec.read(new FileInputStream(fileName));
-				return new JpegByteImageSequence<>(imageType, data, false);
-			} catch (FileNotFoundException e) {
+				return new MjpegMappedSequence<>(fileName, imageType, true);
+			} catch (IOException e) {
 				throw new RuntimeException(e);
 			}
 		} else if( fileName.endsWith("mpng") || fileName.endsWith("MPNG")) {
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.io.video;
+
+import org.ddogleg.struct.GrowQueue_I32;
+import org.ddogleg.struct.GrowQueue_I64;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>
+ * Location of every JPEG frame inside of an MJPEG file.  Created by scanning the file once for start of image (SOI)
+ * and end of image (EOI) markers, using the same rules as {@link VideoMjpegCodec}.  Once created, the index can
+ * be saved next to the video so that the file doesn't need to be scanned again the next time it's opened.
+ * A saved index is only used if the size and modification time of the video haven't changed.
+ * </p>
+ *
+ * <p>
+ * Each frame starts at its SOI marker and includes its EOI marker.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MjpegFrameIndex {
+
+	public static final int MAGIC = 0x4D4A4958;
+	public static final int VERSION = 1;
+
+	// size of the buffer used when scanning the file
+	private static final int SCAN_BUFFER = 1024*1024;
+
+	// location of the first byte in each frame
+	GrowQueue_I64 offsets = new GrowQueue_I64();
+	// number of bytes in each frame
+	GrowQueue_I32 lengths = new GrowQueue_I32();
+
+	// size and modification time of the file the index was created from
+	long fileLength;
+	long lastModified;
+
+	/**
+	 * Loads the index from the default location or, if there is no valid saved index, scans the video and
+	 * optionally saves the results
+	 *
+	 * @param video The MJPEG video
+	 * @param saveIndex If true and the video was scanned then the index is saved. Failure to save is ignored.
+	 * @return The index
+	 */
+	public static MjpegFrameIndex loadOrCreate( File video , boolean saveIndex ) throws IOException {
+		File indexFile = defaultIndexFile(video);
+		if( indexFile.exists() ) {
+			try {
+				MjpegFrameIndex index = load(indexFile);
+				if( index.isValidFor(video) )
+					return index;
+			} catch( IOException ignore ) {
+				// fall through and recreate the index
+			}
+		}
+
+		MjpegFrameIndex index = scan(video);
+		if( saveIndex ) {
+			try {
+				index.save(indexFile);
+			} catch( IOException ignore ) {
+				// most likely the directory is read only
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Location the index is saved at by default.  The video's file name with ".idx" appended.
+	 */
+	public static File defaultIndexFile( File video ) {
+		return new File(video.getPath()+".idx");
+	}
+
+	/**
+	 * Scans the video for SOI and EOI markers.  The file is read sequentially in large blocks.
+	 *
+	 * @param video The MJPEG video
+	 * @return The index
+	 */
+	public static MjpegFrameIndex scan( File video ) throws IOException {
+		MjpegFrameIndex index = new MjpegFrameIndex();
+		index.fileLength = video.length();
+		index.lastModified = video.lastModified();
+
+		FileInputStream in = new FileInputStream(video);
+		try {
+			FileChannel channel = in.getChannel();
+			ByteBuffer buffer = ByteBuffer.allocateDirect(SCAN_BUFFER);
+
+			boolean foundFF = false;
+			// true if inside of a frame and looking for EOI
+			boolean inFrame = false;
+			long frameStart = 0;
+			long position = 0;
+
+			while( channel.read(buffer) > 0 ) {
+				buffer.flip();
+				while( buffer.hasRemaining() ) {
+					byte b = buffer.get();
+					if( foundFF ) {
+						if( !inFrame && b == VideoMjpegCodec.SOI ) {
+							inFrame = true;
+							frameStart = position-1;
+							foundFF = false;
+						} else if( inFrame && b == VideoMjpegCodec.EOI ) {
+							inFrame = false;
+							index.add(frameStart, position+1-frameStart);
+							foundFF = false;
+						} else if( b != (byte)0xFF ) {
+							foundFF = false;
+						}
+					} else if( b == (byte)0xFF ) {
+						foundFF = true;
+					}
+					position++;
+				}
+				buffer.clear();
+			}
+
+			// a truncated frame at the end is still included, just like VideoMjpegCodec
+			if( inFrame && position-frameStart > 2 ) {
+				index.add(frameStart, position-frameStart);
+			}
+		} finally {
+			in.close();
+		}
+
+		return index;
+	}
+
+	private void add( long offset , long length ) throws IOException {
+		if( length > Integer.MAX_VALUE )
+			throw new IOException("Frame is too large");
+		offsets.add(offset);
+		lengths.add((int)length);
+	}
+
+	/**
+	 * Returns true if the index was created from a file with the same size and modification time
+	 */
+	public boolean isValidFor( File video ) {
+		return video.length() == fileLength && video.lastModified() == lastModified;
+	}
+
+	/**
+	 * Saves the index
+	 */
+	public void save( File file ) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(fileLength);
+			out.writeLong(lastModified);
+			out.writeInt(offsets.size);
+			for (int i = 0; i < offsets.size; i++) {
+				out.writeLong(offsets.get(i));
+				out.writeInt(lengths.get(i));
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Loads a saved index.  Does not check to see if it's valid for a video.
+	 */
+	public static MjpegFrameIndex load( File file ) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if( in.readInt() != MAGIC )
+				throw new IOException("Not an MJPEG index");
+			if( in.readInt() != VERSION )
+				throw new IOException("Unsupported version");
+
+			MjpegFrameIndex index = new MjpegFrameIndex();
+			index.fileLength = in.readLong();
+			index.lastModified = in.readLong();
+			int N = in.readInt();
+			if( N < 0 )
+				throw new IOException("Negative number of frames");
+			for (int i = 0; i < N; i++) {
+				index.offsets.add(in.readLong());
+				index.lengths.add(in.readInt());
+			}
+			return index;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Number of frames in the video
+	 */
+	public int size() {
+		return offsets.size;
+	}
+
+	/**
+	 * Location of the first byte in the frame
+	 */
+	public long getOffset( int frame ) {
+		return offsets.get(frame);
+	}
+
+	/**
+	 * Number of bytes in the frame
+	 */
+	public int getLength( int frame ) {
+		return lengths.get(frame);
+	}
+
+	public long getFileLength() {
+		return fileLength;
+	}
+}
@@ -24,7 +24,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Very simple MJPEG reader
+ * Very simple MJPEG reader.  {@link #read} loads the whole file into memory.  For large files use
+ * {@link boofcv.io.wrapper.images.MjpegMappedSequence} instead, which memory maps the file.
  *
  * @author Peter Abeles
  */
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.io.wrapper.images;
+
+import boofcv.io.image.ConvertBufferedImage;
+import boofcv.io.image.SimpleImageSequence;
+import boofcv.io.image.UtilImageIO;
+import boofcv.struct.image.*;
+import org.ddogleg.struct.GrowQueue_I8;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * Loads a sequence of PGM or PPM images from a directory.  Pixels are read directly into the output image using
+ * the {@link java.nio.channels.FileChannel} based functions in {@link UtilImageIO}, the same output image is
+ * reused for every frame, and the {@link BufferedImage} for the GUI is only created if it's requested.  Images
+ * are returned in the order of their sorted file names.
+ * </p>
+ *
+ * <p>
+ * Supported output types are {@link GrayU8} for PGM and {@link InterleavedU8} or Planar {@link GrayU8} with 3 bands
+ * for PPM.  To read images ahead of time on a different thread, wrap it in {@link PrefetchImageSequence}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LoadPnmImageSequence<T extends ImageBase> implements SimpleImageSequence<T> {
+
+	List<File> files = new ArrayList<>();
+
+	ImageType<T> type;
+	T image;
+	// true if the output is a color image and PPM files are read
+	boolean color;
+
+	// work space for reading into a planar image
+	GrowQueue_I8 work = new GrowQueue_I8();
+
+	// GUI image and if it's been updated for the current frame
+	BufferedImage imageGUI;
+	boolean guiValid;
+
+	// index of the next image
+	int index;
+
+	/**
+	 * Finds all the images in the directory
+	 *
+	 * @param type Type of output image
+	 * @param directory Directory containing the images
+	 */
+	public LoadPnmImageSequence(ImageType<T> type, String directory ) {
+		this.type = type;
+		this.image = type.createImage(1,1);
+
+		if( image instanceof GrayU8 ) {
+			color = false;
+		} else if( image instanceof InterleavedU8 ||
+				(image instanceof Planar && ((Planar)image).getBandType() == GrayU8.class) ) {
+			color = true;
+		} else {
+			throw new IllegalArgumentException("Unsupported image type "+type);
+		}
+
+		File dir = new File(directory);
+		if (!dir.isDirectory())
+			throw new IllegalArgumentException("directory must specify a directory.  path = "+directory);
+
+		final String suffix = color ? ".ppm" : ".pgm";
+		File[] found = dir.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.toLowerCase().endsWith(suffix);
+			}
+		});
+		for( File f : found ) {
+			files.add(f);
+		}
+		Collections.sort(files);
+	}
+
+	@Override
+	public int getNextWidth() {
+		return image.getWidth();
+	}
+
+	@Override
+	public int getNextHeight() {
+		return image.getHeight();
+	}
+
+	@Override
+	public boolean hasNext() {
+		return index < files.size();
+	}
+
+	@Override
+	public T next() {
+		File file = files.get(index++);
+		try {
+			if( !color ) {
+				UtilImageIO.loadPGM_U8(file, (GrayU8)image);
+			} else if( image instanceof InterleavedU8 ) {
+				image = (T)UtilImageIO.loadPPM_U8(file, (InterleavedU8)image);
+			} else {
+				image = (T)UtilImageIO.loadPPM_U8(file, (Planar<GrayU8>)image, work);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		guiValid = false;
+		return image;
+	}
+
+	/**
+	 * Converts the most recent image into a {@link BufferedImage}
+	 */
+	@Override
+	public BufferedImage getGuiImage() {
+		if( !guiValid ) {
+			if( imageGUI != null && (imageGUI.getWidth() != image.width || imageGUI.getHeight() != image.height) )
+				imageGUI = null;
+			imageGUI = ConvertBufferedImage.convertTo(image, imageGUI, true);
+			guiValid = true;
+		}
+		return imageGUI;
+	}
+
+	@Override
+	public void close() {
+	}
+
+	@Override
+	public int getFrameNumber() {
+		return index-1;
+	}
+
+	@Override
+	public void setLoop(boolean loop) {
+		if( loop )
+			throw new IllegalArgumentException("Looping isn't supported");
+	}
+
+	@Override
+	public ImageType<T> getImageType() {
+		return type;
+	}
+
+	@Override
+	public void reset() {
+		index = 0;
+	}
+
+	/**
+	 * Number of images in the sequence
+	 */
+	public int getTotalImages() {
+		return files.size();
+	}
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.io.wrapper.images;
+
+import boofcv.io.image.ConvertBufferedImage;
+import boofcv.io.image.SimpleImageSequence;
+import boofcv.io.video.MjpegFrameIndex;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * <p>
+ * Reads an MJPEG file by memory mapping it.  A {@link MjpegFrameIndex} specifies where each frame is, which allows
+ * any frame to be jumped to in constant time.  Frames are only decoded when requested, so the memory used doesn't
+ * depend on the size of the video.  When possible the decoded {@link BufferedImage} is reused.
+ * </p>
+ *
+ * <p>
+ * Files larger than 2 GB are mapped in several segments.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MjpegMappedSequence<T extends ImageBase>
+		implements SimpleImageSequence<T>
+{
+	// maximum size of a mapped segment
+	static int SEGMENT_SIZE = 1 << 30;
+
+	MjpegFrameIndex index;
+	RandomAccessFile file;
+	List<ByteBuffer> segments = new ArrayList<>();
+
+	// storage for the compressed frame
+	byte[] work = new byte[0];
+
+	ImageReader reader;
+	// stream which the reader is currently reading from
+	ImageInputStream stream;
+	// type of the previously decoded image
+	ImageTypeSpecifier decodedType;
+	BufferedImage original;
+	T image;
+	ImageType<T> imageType;
+
+	// the next frame which will be read
+	int nextFrame;
+	// the frame which was most recently read
+	int frameNumber = -1;
+
+	// loop back and forth in the sequence
+	boolean loop = false;
+	// is it traversing in the forwards or backwards direction
+	boolean forward = true;
+
+	/**
+	 * Opens the video.  A saved index is loaded if available, otherwise the file is scanned.
+	 *
+	 * @param fileName MJPEG video
+	 * @param imageType Type of output image
+	 * @param saveIndex If true and the file had to be scanned, the index will be saved for next time
+	 */
+	public MjpegMappedSequence( String fileName , ImageType<T> imageType , boolean saveIndex ) throws IOException {
+		this(fileName, MjpegFrameIndex.loadOrCreate(new File(fileName), saveIndex), imageType);
+	}
+
+	/**
+	 * Opens the video using the provided index.
+	 *
+	 * @param fileName MJPEG video
+	 * @param index Location of frames in the video
+	 * @param imageType Type of output image
+	 */
+	public MjpegMappedSequence( String fileName , MjpegFrameIndex index , ImageType<T> imageType ) throws IOException {
+		this.index = index;
+		this.imageType = imageType;
+		this.image = imageType.createImage(1,1);
+
+		file = new RandomAccessFile(fileName,"r");
+		FileChannel channel = file.getChannel();
+		long size = channel.size();
+		for (long start = 0; start < size; start += SEGMENT_SIZE) {
+			long length = Math.min(SEGMENT_SIZE, size-start);
+			segments.add(channel.map(FileChannel.MapMode.READ_ONLY, start, length));
+		}
+
+		Iterator<ImageReader> readers = ImageIO.getImageReadersByFormatName("jpeg");
+		if( !readers.hasNext() )
+			throw new RuntimeException("No JPEG reader available");
+		reader = readers.next();
+	}
+
+	/**
+	 * Number of frames in the video
+	 */
+	public int getTotalFrames() {
+		return index.size();
+	}
+
+	/**
+	 * Changes which frame will be returned by the next call to {@link #next()}
+	 *
+	 * @param frame Index of the frame
+	 */
+	public void setFrame( int frame ) {
+		if( frame < 0 || frame >= index.size() )
+			throw new IllegalArgumentException("Frame out of range: "+frame);
+		nextFrame = frame;
+	}
+
+	/**
+	 * Decodes the specified frame.  The returned image is owned by this class and can be modified by the
+	 * next call.  Doesn't change the next frame.
+	 *
+	 * @param frame Index of the frame
+	 * @return The decoded frame
+	 */
+	public BufferedImage decode( int frame ) {
+		try {
+			setReaderInput(frame);
+			ImageReadParam param = reader.getDefaultReadParam();
+			ImageTypeSpecifier type = reader.getImageTypes(0).next();
+			if( original != null && type.equals(decodedType) &&
+					original.getWidth() == reader.getWidth(0) && original.getHeight() == reader.getHeight(0) ) {
+				param.setDestination(original);
+			}
+			original = reader.read(0, param);
+			decodedType = type;
+			return original;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Copies the compressed frame and points the reader at it
+	 */
+	private void setReaderInput( int frame ) throws IOException {
+		long offset = index.getOffset(frame);
+		int length = index.getLength(frame);
+		if( work.length < length )
+			work = new byte[ length ];
+
+		// the frame can be split between two segments
+		int copied = 0;
+		while( copied < length ) {
+			long location = offset + copied;
+			ByteBuffer segment = segments.get((int)(location/SEGMENT_SIZE)).duplicate();
+			segment.position((int)(location % SEGMENT_SIZE));
+			int amount = Math.min(length-copied, segment.remaining());
+			segment.get(work, copied, amount);
+			copied += amount;
+		}
+
+		// the data is already in memory so don't let ImageIO create a file cache
+		closeStream();
+		stream = new MemoryCacheImageInputStream(new ByteArrayInputStream(work, 0, length));
+		reader.setInput(stream, true, true);
+	}
+
+	private void closeStream() {
+		if( stream == null )
+			return;
+		try {
+			stream.close();
+		} catch (IOException ignore) {
+		}
+		stream = null;
+	}
+
+	@Override
+	public int getNextWidth() {
+		try {
+			setReaderInput(nextFrame);
+			return reader.getWidth(0);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public int getNextHeight() {
+		try {
+			setReaderInput(nextFrame);
+			return reader.getHeight(0);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		return index.size() > 0 && (loop || nextFrame < index.size());
+	}
+
+	@Override
+	public T next() {
+		frameNumber = nextFrame;
+		decode(frameNumber);
+		image.reshape(original.getWidth(),original.getHeight());
+		ConvertBufferedImage.convertFrom(original,image, true);
+
+		if( forward ) {
+			nextFrame++;
+			if( loop && nextFrame >= index.size() ) {
+				nextFrame = Math.max(0,index.size()-2);
+				forward = false;
+			}
+		} else {
+			nextFrame--;
+			if( nextFrame < 0 ) {
+				nextFrame = Math.min(1,index.size()-1);
+				forward = true;
+			}
+		}
+
+		return image;
+	}
+
+	@Override
+	public BufferedImage getGuiImage() {
+		return original;
+	}
+
+	@Override
+	public void close() {
+		reader.dispose();
+		closeStream();
+		segments.clear();
+		try {
+			file.close();
+		} catch (IOException ignore) {
+		}
+	}
+
+	/**
+	 * Index of the frame most recently returned by {@link #next()}.  -1 if no frames have been read.
+	 */
+	@Override
+	public int getFrameNumber() {
+		return frameNumber;
+	}
+
+	@Override
+	public void setLoop(boolean loop) {
+		this.loop = loop;
+	}
+
+	@Override
+	public ImageType<T> getImageType() {
+		return imageType;
+	}
+
+	@Override
+	public void reset() {
+		nextFrame = 0;
+		frameNumber = -1;
+		forward = true;
+	}
+
+	public MjpegFrameIndex getIndex() {
+		return index;
+	}
+}
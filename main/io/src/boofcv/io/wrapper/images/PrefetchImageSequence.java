@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.io.wrapper.images;
+
+import boofcv.io.image.SimpleImageSequence;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.util.ArrayDeque;
+
+/**
+ * <p>
+ * Wrapper around a {@link SimpleImageSequence} which decodes images on a background thread before they are
+ * requested.  Decoded images are stored in a ring of reusable images, so after the first few frames no new
+ * memory is allocated.  The wrapped sequence is only accessed by the background thread while it's running.
+ * </p>
+ *
+ * <p>
+ * How the background thread behaves when all the images are full is specified by {@link Backpressure}.
+ * {@link Backpressure#BLOCK BLOCK} waits until an image has been consumed and every frame is returned.
+ * {@link Backpressure#DROP_OLDEST DROP_OLDEST} discards the oldest frame which hasn't been returned yet, which
+ * keeps the latency low when reading from a live source.
+ * </p>
+ *
+ * <p>
+ * {@link #getFrameNumber()} and {@link #getGuiImage()} return the values the wrapped sequence had when the frame
+ * was decoded.  If the GUI image is a {@link BufferedImage} it's copied, otherwise the reference is saved.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class PrefetchImageSequence<T extends ImageBase>
+		implements SimpleImageSequence<T>
+{
+	/**
+	 * What to do when the background thread has filled all the images
+	 */
+	public enum Backpressure {
+		/**
+		 * Wait until an image has been consumed
+		 */
+		BLOCK,
+		/**
+		 * Discard the oldest image which has not been consumed
+		 */
+		DROP_OLDEST
+	}
+
+	SimpleImageSequence<T> sequence;
+	Backpressure backpressure;
+
+	// used to synchronize access to everything below
+	final Object lock = new Object();
+
+	// images which have been decoded, from oldest to newest
+	ArrayDeque<Frame<T>> filled = new ArrayDeque<>();
+	// images which can be written to
+	ArrayDeque<Frame<T>> free = new ArrayDeque<>();
+	// the image most recently returned by next()
+	Frame<T> current;
+
+	Thread thread;
+	boolean running;
+	// true if the wrapped sequence has no more images
+	boolean finished;
+	// exception thrown by the wrapped sequence
+	RuntimeException error;
+
+	// frame number before next() is called
+	int initialFrameNumber;
+	// total number of frames discarded
+	int totalDropped;
+
+	/**
+	 * Wraps the sequence and starts decoding in the background
+	 *
+	 * @param sequence The sequence being wrapped.  Must not be accessed directly after this.
+	 * @param numPrefetch Maximum number of images decoded ahead of time.  Must be &ge; 1
+	 * @param backpressure What to do when all the images are full
+	 */
+	public PrefetchImageSequence(SimpleImageSequence<T> sequence, int numPrefetch, Backpressure backpressure ) {
+		if( numPrefetch < 1 )
+			throw new IllegalArgumentException("Must prefetch at least one image");
+		this.sequence = sequence;
+		this.backpressure = backpressure;
+
+		// one extra for the image held by the user
+		for (int i = 0; i < numPrefetch+1; i++) {
+			free.add(new Frame<>(sequence.getImageType()));
+		}
+
+		initialFrameNumber = sequence.getFrameNumber();
+		start();
+	}
+
+	/**
+	 * Wraps the sequence and prefetches up to 3 images using {@link Backpressure#BLOCK}
+	 *
+	 * @param sequence The sequence being wrapped.  Must not be accessed directly after this.
+	 */
+	public PrefetchImageSequence(SimpleImageSequence<T> sequence ) {
+		this(sequence, 3, Backpressure.BLOCK);
+	}
+
+	/**
+	 * Starts the background thread
+	 */
+	private void start() {
+		synchronized (lock) {
+			running = true;
+			finished = false;
+			error = null;
+		}
+		thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				decodeLoop();
+			}
+		},"PrefetchImageSequence");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops the background thread and waits for it to finish.  An image which was being decoded is kept.
+	 */
+	private void stop() {
+		synchronized (lock) {
+			running = false;
+			lock.notifyAll();
+		}
+		boolean interrupted = false;
+		while( thread.isAlive() ) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if( interrupted )
+			Thread.currentThread().interrupt();
+	}
+
+	private void decodeLoop() {
+		while( true ) {
+			Frame<T> frame;
+			synchronized (lock) {
+				while( running && free.isEmpty() ) {
+					if( backpressure == Backpressure.DROP_OLDEST && !filled.isEmpty() ) {
+						free.add(filled.pollFirst());
+						totalDropped++;
+						break;
+					}
+					waitOnLock();
+				}
+				if( !running )
+					return;
+				frame = free.pollFirst();
+			}
+
+			try {
+				if( !sequence.hasNext() ) {
+					synchronized (lock) {
+						free.add(frame);
+						finished = true;
+						lock.notifyAll();
+					}
+					return;
+				}
+				frame.set(sequence.next(), sequence.getGuiImage(), sequence.getFrameNumber());
+			} catch( RuntimeException e ) {
+				synchronized (lock) {
+					free.add(frame);
+					error = e;
+					finished = true;
+					lock.notifyAll();
+				}
+				return;
+			}
+
+			synchronized (lock) {
+				filled.add(frame);
+				lock.notifyAll();
+			}
+		}
+	}
+
+	private void waitOnLock() {
+		try {
+			lock.wait();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public int getNextWidth() {
+		synchronized (lock) {
+			if( !hasNext() )
+				throw new IllegalArgumentException("No more images");
+			return filled.peekFirst().image.getWidth();
+		}
+	}
+
+	@Override
+	public int getNextHeight() {
+		synchronized (lock) {
+			if( !hasNext() )
+				throw new IllegalArgumentException("No more images");
+			return filled.peekFirst().image.getHeight();
+		}
+	}
+
+	/**
+	 * Waits until the next image has been decoded or there are no more images
+	 */
+	@Override
+	public boolean hasNext() {
+		synchronized (lock) {
+			while( filled.isEmpty() && !finished )
+				waitOnLock();
+			if( filled.isEmpty() && error != null )
+				throw error;
+			return !filled.isEmpty();
+		}
+	}
+
+	@Override
+	public T next() {
+		synchronized (lock) {
+			if( !hasNext() )
+				throw new IllegalArgumentException("No more images");
+			if( current != null )
+				free.add(current);
+			current = filled.pollFirst();
+			lock.notifyAll();
+			return current.image;
+		}
+	}
+
+	@Override
+	public <InternalImage> InternalImage getGuiImage() {
+		synchronized (lock) {
+			return current == null ? null : (InternalImage)current.gui;
+		}
+	}
+
+	@Override
+	public void close() {
+		stop();
+		sequence.close();
+	}
+
+	@Override
+	public int getFrameNumber() {
+		synchronized (lock) {
+			return current == null ? initialFrameNumber : current.frameNumber;
+		}
+	}
+
+	/**
+	 * Passed to the wrapped sequence.  Images which have already been decoded are not affected.
+	 */
+	@Override
+	public void setLoop(boolean loop) {
+		stop();
+		sequence.setLoop(loop);
+		start();
+	}
+
+	@Override
+	public ImageType<T> getImageType() {
+		return sequence.getImageType();
+	}
+
+	/**
+	 * Discards all the decoded images and resets the wrapped sequence
+	 */
+	@Override
+	public void reset() {
+		stop();
+		synchronized (lock) {
+			free.addAll(filled);
+			filled.clear();
+			if( current != null )
+				free.add(current);
+			current = null;
+		}
+		sequence.reset();
+		initialFrameNumber = sequence.getFrameNumber();
+		start();
+	}
+
+	/**
+	 * Total number of frames which have been discarded because of {@link Backpressure#DROP_OLDEST}
+	 */
+	public int getTotalDropped() {
+		synchronized (lock) {
+			return totalDropped;
+		}
+	}
+
+	/**
+	 * Storage for a decoded frame
+	 */
+	static class Frame<T extends ImageBase> {
+		T image;
+		Object gui;
+		BufferedImage guiCopy;
+		int frameNumber;
+
+		Frame( ImageType<T> type ) {
+			image = type.createImage(1,1);
+		}
+
+		void set( T image , Object gui , int frameNumber ) {
+			this.image.setTo(image);
+			this.frameNumber = frameNumber;
+			if( gui instanceof BufferedImage ) {
+				guiCopy = copy((BufferedImage)gui, guiCopy);
+				this.gui = guiCopy;
+			} else {
+				this.gui = gui;
+			}
+		}
+
+		/**
+		 * Copies the image, reusing the destination if it has the same shape and type
+		 */
+		static BufferedImage copy( BufferedImage src , BufferedImage dst ) {
+			if( dst != null && dst.getWidth() == src.getWidth() && dst.getHeight() == src.getHeight() &&
+					dst.getType() == src.getType() && src.getType() != BufferedImage.TYPE_CUSTOM ) {
+				dst.setData(src.getRaster());
+				return dst;
+			}
+			ColorModel cm = src.getColorModel();
+			return new BufferedImage(cm, src.copyData(null), cm.isAlphaPremultiplied(), null);
+		}
+	}
+}
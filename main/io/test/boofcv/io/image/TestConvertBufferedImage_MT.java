@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.io.image;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.image.*;
+import boofcv.testing.BoofTesting;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestConvertBufferedImage_MT {
+
+	Random rand = new Random(234);
+
+	int width = 31;
+	int height = 73;
+
+	int originalMinPixels;
+	int originalThreads;
+
+	@Before
+	public void before() {
+		originalMinPixels = ConvertBufferedImage_MT.MIN_BLOCK_PIXELS;
+		originalThreads = BoofConcurrency.getMaxThreads();
+
+		// force it to create several thin bands
+		ConvertBufferedImage_MT.MIN_BLOCK_PIXELS = 1;
+		BoofConcurrency.setMaxThreads(5);
+	}
+
+	@After
+	public void after() {
+		ConvertBufferedImage_MT.MIN_BLOCK_PIXELS = originalMinPixels;
+		BoofConcurrency.setMaxThreads(originalThreads);
+		BoofConcurrency.USE_CONCURRENT = false;
+	}
+
+	/**
+	 * Converts every standard BufferedImage type into every image type and compares against the single threaded
+	 * results
+	 */
+	@Test
+	public void compareToSingleThread() {
+		int types[] = new int[]{BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_3BYTE_BGR,
+				BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB,
+				BufferedImage.TYPE_INT_BGR, BufferedImage.TYPE_BYTE_INDEXED, BufferedImage.TYPE_USHORT_GRAY,
+				BufferedImage.TYPE_USHORT_565_RGB};
+
+		List<BufferedImage> images = new ArrayList<>();
+		for( int type : types ) {
+			images.add(TestConvertRaster.createBufferedByType(width, height, type, rand));
+		}
+		images.add(TestConvertRaster.createBinary(width, height, 2, rand));
+
+		for( BufferedImage orig : images ) {
+			for (int i = 0; i < 2; i++) {
+				BufferedImage img = i == 0 ? orig : orig.getSubimage(1, 2, width - 3, height - 4);
+				int numBands = numBands(img);
+
+				compare(img, ImageType.single(GrayU8.class));
+				compare(img, ImageType.single(GrayF32.class));
+				compare(img, ImageType.pl(numBands, GrayU8.class));
+				compare(img, ImageType.pl(numBands, GrayF32.class));
+				compare(img, ImageType.il(numBands, InterleavedU8.class));
+				compare(img, ImageType.il(numBands, InterleavedF32.class));
+				if( img.getType() == BufferedImage.TYPE_USHORT_GRAY ) {
+					compare(img, ImageType.single(GrayU16.class));
+				}
+			}
+		}
+	}
+
+	private void compare( BufferedImage img , ImageType type ) {
+		BoofConcurrency.USE_CONCURRENT = false;
+		ImageBase expected = ConvertBufferedImage.convertFrom(img, true, type);
+		BoofConcurrency.USE_CONCURRENT = true;
+		ImageBase found = ConvertBufferedImage.convertFrom(img, true, type);
+		BoofConcurrency.USE_CONCURRENT = false;
+
+		BoofTesting.assertEquals(expected, found, 0);
+	}
+
+	private static int numBands( BufferedImage img ) {
+		if( img.getType() == BufferedImage.TYPE_BYTE_INDEXED )
+			return 3;
+		return img.getRaster().getNumBands();
+	}
+}
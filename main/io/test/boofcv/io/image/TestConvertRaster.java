@@ -29,9 +29,13 @@ import sun.awt.image.ShortInterleavedRaster;
 import sun.awt.image.SunWritableRaster;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
 import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
@@ -122,12 +126,75 @@ public class TestConvertRaster {
 		assertEquals(2005, out.get(0, 0));
 	}
 
+	/**
+	 * Compare the indexed functions against the functions which use getRGB()
+	 */
+	@Test
+	public void indexed() {
+		List<BufferedImage> images = new ArrayList<>();
+		images.add(createByteIndexed(imgWidth, imgHeight, rand));
+		images.add(createBinary(imgWidth, imgHeight, 1, rand));
+		images.add(createBinary(imgWidth, imgHeight, 2, rand));
+		images.add(createBinary(imgWidth, imgHeight, 4, rand));
+
+		for( BufferedImage orig : images ) {
+			assertTrue(ConvertRaster.isIndexed(orig));
+
+			for (int i = 0; i < 2; i++) {
+				BufferedImage img = i == 0 ? orig : orig.getSubimage(1, 2, imgWidth - 3, imgHeight - 2);
+				int w = img.getWidth(), h = img.getHeight();
+
+				GrayU8 grayU8 = new GrayU8(w,h), expectedU8 = new GrayU8(w,h);
+				ConvertRaster.indexedToGray(img, grayU8);
+				ConvertRaster.bufferedToGray(img, expectedU8);
+				BoofTesting.assertEquals(expectedU8, grayU8, 0);
+
+				GrayF32 grayF32 = new GrayF32(w,h), expectedF32 = new GrayF32(w,h);
+				ConvertRaster.indexedToGray(img, grayF32);
+				ConvertRaster.bufferedToGray(img, expectedF32);
+				BoofTesting.assertEquals(expectedF32, grayF32, 0);
+
+				for( int numBands : new int[]{1,3} ) {
+					Planar<GrayU8> plU8 = new Planar<>(GrayU8.class,w,h,numBands);
+					Planar<GrayU8> plU8_expected = new Planar<>(GrayU8.class,w,h,numBands);
+					ConvertRaster.indexedToMulti_U8(img, plU8);
+					ConvertRaster.bufferedToMulti_U8(img, plU8_expected);
+					BoofTesting.assertEquals(plU8_expected, plU8, 0);
+
+					InterleavedU8 ilU8 = new InterleavedU8(w,h,numBands);
+					InterleavedU8 ilU8_expected = new InterleavedU8(w,h,numBands);
+					ConvertRaster.indexedToInterleaved(img, ilU8);
+					ConvertRaster.bufferedToInterleaved(img, ilU8_expected);
+					BoofTesting.assertEquals(ilU8_expected, ilU8, 0);
+				}
+
+				for( int numBands : new int[]{1,3,4} ) {
+					Planar<GrayF32> plF32 = new Planar<>(GrayF32.class,w,h,numBands);
+					Planar<GrayF32> plF32_expected = new Planar<>(GrayF32.class,w,h,numBands);
+					ConvertRaster.indexedToMulti_F32(img, plF32);
+					ConvertRaster.bufferedToMulti_F32(img, plF32_expected);
+					BoofTesting.assertEquals(plF32_expected, plF32, 0);
+
+					InterleavedF32 ilF32 = new InterleavedF32(w,h,numBands);
+					InterleavedF32 ilF32_expected = new InterleavedF32(w,h,numBands);
+					ConvertRaster.indexedToInterleaved(img, ilF32);
+					ConvertRaster.bufferedToInterleaved(img, ilF32_expected);
+					BoofTesting.assertEquals(ilF32_expected, ilF32, 0);
+				}
+			}
+		}
+	}
+
 	private boolean isTestMethod(Method m) {
 		Class<?> types[] = m.getParameterTypes();
 
 		if (types.length != 2)
 			return false;
 
+		// indexed images are checked against the getRGB() functions in indexed()
+		if( m.getName().startsWith("indexed") )
+			return false;
+
 		if (ImageBase.class.isAssignableFrom(types[0]) ||
 				ImageBase.class.isAssignableFrom(types[1]))
 			return true;
@@ -309,6 +376,28 @@ public class TestConvertRaster {
 		return ret;
 	}
 
+	/**
+	 * Creates a TYPE_BYTE_BINARY image with a random color map and the specified number of bits per pixel
+	 */
+	public static BufferedImage createBinary(int width, int height, int bits, Random rand) {
+		int size = 1 << bits;
+		byte[] r = new byte[size], g = new byte[size], b = new byte[size];
+		rand.nextBytes(r);
+		rand.nextBytes(g);
+		rand.nextBytes(b);
+
+		IndexColorModel model = new IndexColorModel(bits, size, r, g, b);
+		BufferedImage ret = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY, model);
+
+		WritableRaster raster = ret.getRaster();
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				raster.setSample(x, y, 0, rand.nextInt(size));
+			}
+		}
+		return ret;
+	}
+
 	public static BufferedImage createIntBuff(int width, int height, Random rand) {
 		BufferedImage ret = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
 		randomize(ret, rand);
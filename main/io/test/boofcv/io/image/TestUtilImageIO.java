@@ -20,11 +20,13 @@ package boofcv.io.image;
 
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.InterleavedU8;
 import boofcv.struct.image.Planar;
 import org.junit.Test;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Random;
 
@@ -109,6 +111,77 @@ public class TestUtilImageIO {
 		assertTrue(f.delete());
 	}
 
+	@Test
+	public void loadImage_saveImage_PPM_interleaved() throws IOException {
+		InterleavedU8 orig = new InterleavedU8(width,height,3);
+		GImageMiscOps.fillUniform(orig,rand,0,256);
+
+		File f = File.createTempFile("temp",".ppm");
+		UtilImageIO.savePPM(orig,f);
+
+		// the planar and interleaved loaders should read the same pixels
+		InterleavedU8 found = UtilImageIO.loadPPM_U8(f,new InterleavedU8(2,3,3));
+		Planar<GrayU8> foundPl = UtilImageIO.loadPPM_U8(f.getPath(),null,null);
+
+		assertEquals(width,found.width);
+		assertEquals(height,found.height);
+		for( int y = 0; y < height; y++ ) {
+			for( int x = 0; x < width; x++ ) {
+				for( int k = 0; k < 3; k++ ) {
+					assertEquals(orig.getBand(x,y,k),found.getBand(x,y,k));
+					assertEquals(orig.getBand(x,y,k),foundPl.getBand(k).get(x,y));
+				}
+			}
+		}
+
+		assertTrue(f.delete());
+	}
+
+	/**
+	 * Save and load sub-images, which are not stored contiguously
+	 */
+	@Test
+	public void loadImage_saveImage_PGM_subimage() throws IOException {
+		GrayU8 larger = new GrayU8(width+10,height+5);
+		GImageMiscOps.fillUniform(larger,rand,0,256);
+		GrayU8 orig = larger.subimage(3,2,width+3,height+2,null);
+
+		File f = File.createTempFile("temp",".pgm");
+		UtilImageIO.savePGM(orig,f);
+
+		GrayU8 storage = new GrayU8(width+10,height+5).subimage(5,1,width+5,height+1,null);
+		GrayU8 found = UtilImageIO.loadPGM_U8(f,storage);
+		assertTrue(found == storage);
+
+		for( int y = 0; y < height; y++ ) {
+			for( int x = 0; x < width; x++ ) {
+				assertEquals(orig.get(x,y),found.get(x,y));
+			}
+		}
+
+		assertTrue(f.delete());
+	}
+
+	/**
+	 * Headers with comments and arbitrary white space
+	 */
+	@Test
+	public void loadPGM_header() throws IOException {
+		File f = File.createTempFile("temp",".pgm");
+		FileOutputStream out = new FileOutputStream(f);
+		out.write("P5 # comment\n# another comment\n3  2\n255\n".getBytes());
+		out.write(new byte[]{1,2,3,4,5,(byte)200});
+		out.close();
+
+		GrayU8 found = UtilImageIO.loadPGM_U8(f,null);
+		assertEquals(3,found.width);
+		assertEquals(2,found.height);
+		assertEquals(1,found.get(0,0));
+		assertEquals(200,found.get(2,1));
+
+		assertTrue(f.delete());
+	}
+
 	/**
 	 * See if load image fails gracefully if an image is not present
 	 */
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.io.wrapper.images;
+
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.io.image.UtilImageIO;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageType;
+import boofcv.struct.image.InterleavedU8;
+import boofcv.struct.image.Planar;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLoadPnmImageSequence {
+
+	Random rand = new Random(234);
+
+	File directory;
+	InterleavedU8 color[] = new InterleavedU8[3];
+	GrayU8 gray[] = new GrayU8[3];
+
+	@Before
+	public void before() throws IOException {
+		directory = File.createTempFile("pnm","");
+		assertTrue(directory.delete());
+		assertTrue(directory.mkdir());
+
+		for (int i = 0; i < 3; i++) {
+			color[i] = new InterleavedU8(20+i,15,3);
+			gray[i] = new GrayU8(20+i,15);
+			GImageMiscOps.fillUniform(color[i],rand,0,256);
+			GImageMiscOps.fillUniform(gray[i],rand,0,256);
+			UtilImageIO.savePPM(color[i], new File(directory,"image"+i+".ppm"));
+			UtilImageIO.savePGM(gray[i], new File(directory,"image"+i+".pgm"));
+		}
+	}
+
+	@After
+	public void after() {
+		for( File f : directory.listFiles() ) {
+			f.delete();
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void gray() {
+		LoadPnmImageSequence<GrayU8> alg = new LoadPnmImageSequence<>(ImageType.single(GrayU8.class), directory.getPath());
+		assertEquals(3, alg.getTotalImages());
+
+		for (int i = 0; i < 3; i++) {
+			assertTrue(alg.hasNext());
+			GrayU8 found = alg.next();
+			assertEquals(i, alg.getFrameNumber());
+			for (int y = 0; y < found.height; y++) {
+				for (int x = 0; x < found.width; x++) {
+					assertEquals(gray[i].get(x,y), found.get(x,y));
+				}
+			}
+			BufferedImage gui = alg.getGuiImage();
+			assertEquals(found.width, gui.getWidth());
+			assertEquals(found.get(3,4), gui.getRaster().getSample(3,4,0));
+		}
+		assertFalse(alg.hasNext());
+
+		alg.reset();
+		assertTrue(alg.hasNext());
+		assertEquals(20, alg.next().width);
+	}
+
+	@Test
+	public void interleaved() {
+		LoadPnmImageSequence<InterleavedU8> alg =
+				new LoadPnmImageSequence<>(ImageType.il(3, InterleavedU8.class), directory.getPath());
+
+		for (int i = 0; i < 3; i++) {
+			InterleavedU8 found = alg.next();
+			for (int y = 0; y < found.height; y++) {
+				for (int x = 0; x < found.width; x++) {
+					for (int k = 0; k < 3; k++) {
+						assertEquals(color[i].getBand(x,y,k), found.getBand(x,y,k));
+					}
+				}
+			}
+		}
+		assertFalse(alg.hasNext());
+	}
+
+	@Test
+	public void planar() {
+		LoadPnmImageSequence<Planar<GrayU8>> alg =
+				new LoadPnmImageSequence<>(ImageType.pl(3, GrayU8.class), directory.getPath());
+
+		for (int i = 0; i < 3; i++) {
+			Planar<GrayU8> found = alg.next();
+			for (int y = 0; y < found.height; y++) {
+				for (int x = 0; x < found.width; x++) {
+					for (int k = 0; k < 3; k++) {
+						assertEquals(color[i].getBand(x,y,k), found.getBand(k).get(x,y));
+					}
+				}
+			}
+		}
+		assertFalse(alg.hasNext());
+	}
+}
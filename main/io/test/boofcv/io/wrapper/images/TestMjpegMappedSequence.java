@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.io.wrapper.images;
+
+import boofcv.io.video.MjpegFrameIndex;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMjpegMappedSequence {
+
+	Random rand = new Random(234);
+
+	File video;
+	List<byte[]> frames = new ArrayList<>();
+
+	@Before
+	public void before() throws IOException {
+		video = File.createTempFile("mapped", ".mjpeg");
+
+		FileOutputStream out = new FileOutputStream(video);
+		for (int i = 0; i < 5; i++) {
+			BufferedImage img = new BufferedImage(30+i, 20, BufferedImage.TYPE_BYTE_GRAY);
+			for (int y = 0; y < img.getHeight(); y++) {
+				for (int x = 0; x < img.getWidth(); x++) {
+					img.getRaster().setSample(x, y, 0, rand.nextInt(256));
+				}
+			}
+			ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+			ImageIO.write(img, "jpg", jpeg);
+			frames.add(jpeg.toByteArray());
+			out.write(jpeg.toByteArray());
+			// junk between frames should be skipped
+			out.write(new byte[]{1, 2, (byte) 0xFF, 3});
+		}
+		out.close();
+	}
+
+	@After
+	public void after() {
+		video.delete();
+		MjpegFrameIndex.defaultIndexFile(video).delete();
+		MjpegMappedSequence.SEGMENT_SIZE = 1 << 30;
+	}
+
+	@Test
+	public void index() throws IOException {
+		MjpegFrameIndex index = MjpegFrameIndex.scan(video);
+		assertEquals(frames.size(), index.size());
+
+		long offset = 0;
+		for (int i = 0; i < frames.size(); i++) {
+			assertEquals(offset, index.getOffset(i));
+			assertEquals(frames.get(i).length, index.getLength(i));
+			offset += frames.get(i).length + 4;
+		}
+	}
+
+	@Test
+	public void index_saveLoad() throws IOException {
+		File indexFile = MjpegFrameIndex.defaultIndexFile(video);
+		assertFalse(indexFile.exists());
+
+		MjpegFrameIndex expected = MjpegFrameIndex.loadOrCreate(video, true);
+		assertTrue(indexFile.exists());
+
+		MjpegFrameIndex found = MjpegFrameIndex.load(indexFile);
+		assertTrue(found.isValidFor(video));
+		assertEquals(expected.size(), found.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.getOffset(i), found.getOffset(i));
+			assertEquals(expected.getLength(i), found.getLength(i));
+		}
+	}
+
+	@Test
+	public void readAll() throws IOException {
+		readAll(1 << 30);
+	}
+
+	/**
+	 * Frames are split across mapped segments
+	 */
+	@Test
+	public void readAll_segments() throws IOException {
+		readAll(300);
+	}
+
+	private void readAll( int segmentSize ) throws IOException {
+		MjpegMappedSequence.SEGMENT_SIZE = segmentSize;
+		MjpegMappedSequence<GrayU8> alg = new MjpegMappedSequence<>(video.getPath(), ImageType.single(GrayU8.class), false);
+		assertEquals(frames.size(), alg.getTotalFrames());
+		assertEquals(-1, alg.getFrameNumber());
+
+		for (int i = 0; i < frames.size(); i++) {
+			assertTrue(alg.hasNext());
+			assertEquals(30+i, alg.getNextWidth());
+			assertEquals(20, alg.getNextHeight());
+			GrayU8 found = alg.next();
+			assertEquals(i, alg.getFrameNumber());
+			checkFrame(i, found);
+		}
+		assertFalse(alg.hasNext());
+		alg.close();
+	}
+
+	@Test
+	public void setFrame_reset() throws IOException {
+		MjpegMappedSequence<GrayU8> alg = new MjpegMappedSequence<>(video.getPath(), ImageType.single(GrayU8.class), false);
+
+		alg.setFrame(3);
+		checkFrame(3, alg.next());
+		assertEquals(3, alg.getFrameNumber());
+		checkFrame(4, alg.next());
+		assertFalse(alg.hasNext());
+
+		alg.reset();
+		assertTrue(alg.hasNext());
+		assertEquals(-1, alg.getFrameNumber());
+		checkFrame(0, alg.next());
+
+		// the decoded image should be reused when the shape doesn't change
+		BufferedImage gui = alg.getGuiImage();
+		alg.setFrame(0);
+		checkFrame(0, alg.next());
+		assertSame(gui, alg.getGuiImage());
+		alg.close();
+	}
+
+	@Test
+	public void loop() throws IOException {
+		MjpegMappedSequence<GrayU8> alg = new MjpegMappedSequence<>(video.getPath(), ImageType.single(GrayU8.class), false);
+		alg.setLoop(true);
+
+		int expected[] = new int[]{0,1,2,3,4,3,2,1,0,1,2};
+		for (int i = 0; i < expected.length; i++) {
+			assertTrue(alg.hasNext());
+			alg.next();
+			assertEquals(expected[i], alg.getFrameNumber());
+		}
+		alg.close();
+	}
+
+	private void checkFrame( int frame , GrayU8 found ) {
+		try {
+			BufferedImage expected = ImageIO.read(new ByteArrayInputStream(frames.get(frame)));
+			assertEquals(expected.getWidth(), found.width);
+			assertEquals(expected.getHeight(), found.height);
+			for (int y = 0; y < found.height; y++) {
+				for (int x = 0; x < found.width; x++) {
+					assertEquals(expected.getRaster().getSample(x, y, 0), found.get(x, y));
+				}
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.io.wrapper.images;
+
+import boofcv.io.image.SimpleImageSequence;
+import boofcv.io.wrapper.images.PrefetchImageSequence.Backpressure;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageType;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPrefetchImageSequence {
+
+	@Test
+	public void block() {
+		Dummy dummy = new Dummy(20);
+		PrefetchImageSequence<GrayU8> alg = new PrefetchImageSequence<>(dummy, 3, Backpressure.BLOCK);
+
+		assertEquals(-1, alg.getFrameNumber());
+		assertEquals(ImageType.single(GrayU8.class).getDataType(), alg.getImageType().getDataType());
+
+		for (int i = 0; i < 20; i++) {
+			assertTrue(alg.hasNext());
+			assertEquals(10+i, alg.getNextWidth());
+			assertEquals(5, alg.getNextHeight());
+			GrayU8 image = alg.next();
+			checkFrame(alg, image, i);
+		}
+		assertFalse(alg.hasNext());
+
+		// reset should start from the beginning again
+		alg.reset();
+		assertEquals(-1, alg.getFrameNumber());
+		for (int i = 0; i < 20; i++) {
+			checkFrame(alg, alg.next(), i);
+		}
+		assertFalse(alg.hasNext());
+
+		alg.close();
+		assertTrue(dummy.closed);
+	}
+
+	/**
+	 * The images which are returned should be valid until next is called again, even if the wrapped
+	 * sequence modifies its images
+	 */
+	@Test
+	public void imagesNotModified() {
+		PrefetchImageSequence<GrayU8> alg = new PrefetchImageSequence<>(new Dummy(20), 2, Backpressure.BLOCK);
+
+		GrayU8 image = alg.next();
+		// give the background thread time to fill all the images
+		sleep(100);
+		checkFrame(alg, image, 0);
+		alg.close();
+	}
+
+	@Test
+	public void dropOldest() {
+		Dummy dummy = new Dummy(30);
+		PrefetchImageSequence<GrayU8> alg = new PrefetchImageSequence<>(dummy, 2, Backpressure.DROP_OLDEST);
+
+		// let it decode everything
+		for (int trial = 0; trial < 100 && dummy.index < 30; trial++) {
+			sleep(10);
+		}
+		assertEquals(30, dummy.index);
+
+		int previous = -1;
+		int count = 0;
+		while( alg.hasNext() ) {
+			GrayU8 image = alg.next();
+			int frame = alg.getFrameNumber();
+			assertTrue(frame > previous);
+			checkFrame(alg, image, frame);
+			previous = frame;
+			count++;
+		}
+		// the most recent frames are kept
+		assertEquals(29, previous);
+		assertEquals(30, count + alg.getTotalDropped());
+		assertTrue(alg.getTotalDropped() > 0);
+		alg.close();
+	}
+
+	@Test
+	public void exceptionPassedOn() {
+		Dummy dummy = new Dummy(10);
+		dummy.failAt = 4;
+		PrefetchImageSequence<GrayU8> alg = new PrefetchImageSequence<>(dummy, 3, Backpressure.BLOCK);
+
+		for (int i = 0; i < 4; i++) {
+			checkFrame(alg, alg.next(), i);
+		}
+		try {
+			alg.hasNext();
+			fail("Exception expected");
+		} catch( IllegalStateException ignore ){}
+		alg.close();
+	}
+
+	private void checkFrame( PrefetchImageSequence<GrayU8> alg , GrayU8 image , int frame ) {
+		assertEquals(frame, alg.getFrameNumber());
+		assertEquals(10+frame, image.width);
+		assertEquals(frame, image.get(0,0));
+		assertEquals(frame, image.get(image.width-1,image.height-1));
+
+		BufferedImage gui = alg.getGuiImage();
+		assertEquals(image.width, gui.getWidth());
+		assertEquals(frame, gui.getRaster().getSample(1,1,0));
+	}
+
+	private static void sleep( long milli ) {
+		try {
+			Thread.sleep(milli);
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Each frame has a different width and is filled with the frame number.  Images are reused.
+	 */
+	static class Dummy implements SimpleImageSequence<GrayU8> {
+		int total;
+		volatile int index = 0;
+		int failAt = -1;
+		boolean closed = false;
+		GrayU8 image = new GrayU8(1,1);
+		BufferedImage gui;
+
+		Dummy(int total) {
+			this.total = total;
+		}
+
+		@Override
+		public int getNextWidth() {
+			return 10+index;
+		}
+
+		@Override
+		public int getNextHeight() {
+			return 5;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return index < total;
+		}
+
+		@Override
+		public GrayU8 next() {
+			if( index == failAt )
+				throw new IllegalStateException("Failed");
+			image.reshape(10+index,5);
+			for (int i = 0; i < image.data.length; i++) {
+				image.data[i] = (byte)index;
+			}
+			if( gui == null || gui.getWidth() != image.width )
+				gui = new BufferedImage(image.width, image.height, BufferedImage.TYPE_BYTE_GRAY);
+			for (int y = 0; y < gui.getHeight(); y++) {
+				for (int x = 0; x < gui.getWidth(); x++) {
+					gui.getRaster().setSample(x,y,0,index);
+				}
+			}
+			index++;
+			return image;
+		}
+
+		@Override
+		public <InternalImage> InternalImage getGuiImage() {
+			return (InternalImage)gui;
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+
+		@Override
+		public int getFrameNumber() {
+			return index-1;
+		}
+
+		@Override
+		public void setLoop(boolean loop) {}
+
+		@Override
+		public ImageType<GrayU8> getImageType() {
+			return ImageType.single(GrayU8.class);
+		}
+
+		@Override
+		public void reset() {
+			index = 0;
+		}
+	}
+}
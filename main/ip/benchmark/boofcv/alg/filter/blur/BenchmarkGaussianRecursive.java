@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.filter.blur;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.alg.misc.ImageStatistics;
+import boofcv.misc.PerformerBase;
+import boofcv.misc.ProfileOperation;
+import boofcv.struct.image.GrayF32;
+
+import java.util.Random;
+
+/**
+ * Compares the speed and accuracy of Gaussian blur computed using convolution against the recursive (IIR)
+ * approximation.  Accuracy is measured inside the image, away from the border where the two handle the image
+ * border differently.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkGaussianRecursive {
+	static int imgWidth = 640;
+	static int imgHeight = 480;
+	static long TEST_TIME = 1000;
+
+	static GrayF32 input = new GrayF32(imgWidth,imgHeight);
+	static GrayF32 output = new GrayF32(imgWidth,imgHeight);
+	static GrayF32 storage = new GrayF32(imgWidth,imgHeight);
+
+	static double sigma;
+
+	public static class Convolution extends PerformerBase {
+		@Override
+		public void process() {
+			BlurImageOps.gaussian(input,output,sigma,-1,storage);
+		}
+	}
+
+	public static class Recursive extends PerformerBase {
+		@Override
+		public void process() {
+			BlurImageOps.gaussianRecursive(input,output,sigma);
+		}
+	}
+
+	public static void main( String args[] ) {
+		ImageMiscOps.fillUniform(input,new Random(234),0,100);
+
+		System.out.println("=========  Profile Image Size "+imgWidth+" x "+imgHeight+" ==========");
+		System.out.println();
+
+		for( double s : new double[]{1,2,4,8,16,32} ) {
+			sigma = s;
+			int radius = (int)Math.ceil(sigma*4);
+
+			GrayF32 expected = BlurImageOps.gaussian(input,null,sigma,radius,null);
+			GrayF32 found = BlurImageOps.gaussianRecursive(input,null,sigma);
+			GrayF32 a = expected.subimage(radius,radius,imgWidth-radius,imgHeight-radius);
+			GrayF32 b = found.subimage(radius,radius,imgWidth-radius,imgHeight-radius);
+
+			System.out.printf("sigma = %4.1f  mean error = %7.4f%n",sigma,ImageStatistics.meanDiffAbs(a,b));
+			ProfileOperation.printOpsPerSec(new Convolution(), TEST_TIME);
+			ProfileOperation.printOpsPerSec(new Recursive(), TEST_TIME);
+		}
+	}
+}
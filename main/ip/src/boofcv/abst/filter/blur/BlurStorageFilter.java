@@ -62,6 +62,8 @@ public class BlurStorageFilter<T extends ImageGray> implements BlurFilter<T> {
 			storage = GeneralizedImageOps.createSingleBand(inputType,1,1);
 		} else if( functionName.equals("median")) {
 			operation = new MedianOperator();
+		} else if( functionName.equals("gaussianRecursive")) {
+			operation = new GaussianRecursiveOperation();
 		} else {
 			throw new IllegalArgumentException("Unknown function "+functionName);
 		}
@@ -128,6 +130,13 @@ public class BlurStorageFilter<T extends ImageGray> implements BlurFilter<T> {
 		}
 	}
 
+	private class GaussianRecursiveOperation implements BlurOperation {
+		@Override
+		public void process(ImageBase input, ImageBase output) {
+			GBlurImageOps.gaussianRecursive(input,output,sigma);
+		}
+	}
+
 	private class MedianOperator implements BlurOperation {
 		@Override
 		public void process(ImageBase input, ImageBase output) {
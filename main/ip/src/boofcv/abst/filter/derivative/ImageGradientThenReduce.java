@@ -21,6 +21,7 @@ package boofcv.abst.filter.derivative;
 import boofcv.core.image.border.BorderType;
 import boofcv.struct.image.ImageGray;
 import boofcv.struct.image.ImageMultiBand;
+import boofcv.struct.image.ImagePool;
 import boofcv.struct.image.ImageType;
 
 /**
@@ -42,6 +43,9 @@ public class ImageGradientThenReduce<Input extends ImageMultiBand,
 	// storage for intermediate results
 	Middle middleX,middleY;
 
+	// (Optional) if not null then intermediate results are borrowed from the pool
+	ImagePool pool;
+
 	public ImageGradientThenReduce(ImageGradient<Input, Middle> gradient,
 								   GradientMultiToSingleBand<Middle, Output> reduce) {
 		this.gradient = gradient;
@@ -51,6 +55,18 @@ public class ImageGradientThenReduce<Input extends ImageMultiBand,
 		middleY = gradient.getDerivativeType().createImage(1,1);
 	}
 
+	/**
+	 * Intermediate results will be borrowed from the pool inside of process() and returned once finished,
+	 * instead of being stored inside this class.
+	 */
+	public ImageGradientThenReduce(ImageGradient<Input, Middle> gradient,
+								   GradientMultiToSingleBand<Middle, Output> reduce,
+								   ImagePool pool ) {
+		this.gradient = gradient;
+		this.reduce = reduce;
+		this.pool = pool;
+	}
+
 	@Override
 	public void setBorderType(BorderType type) {
 		gradient.setBorderType(type);
@@ -66,6 +82,10 @@ public class ImageGradientThenReduce<Input extends ImageMultiBand,
 		return gradient.getBorder();
 	}
 
+	public ImagePool getImagePool() {
+		return pool;
+	}
+
 	@Override
 	public ImageType<Output> getDerivativeType() {
 		return ImageType.single(reduce.getOutputType());
@@ -73,6 +93,20 @@ public class ImageGradientThenReduce<Input extends ImageMultiBand,
 
 	@Override
 	public void process(Input inputImage, Output derivX, Output derivY) {
+		if( pool != null ) {
+			ImageType<Middle> type = gradient.getDerivativeType();
+			Middle middleX = pool.borrow(type,inputImage.width,inputImage.height);
+			Middle middleY = pool.borrow(type,inputImage.width,inputImage.height);
+			try {
+				gradient.process(inputImage, middleX, middleY);
+				reduce.process(middleX,middleY, derivX,derivY);
+			} finally {
+				pool.giveBack(middleX);
+				pool.giveBack(middleY);
+			}
+			return;
+		}
+
 		middleX.reshape(inputImage.width,inputImage.height);
 		middleY.reshape(inputImage.width,inputImage.height);
 
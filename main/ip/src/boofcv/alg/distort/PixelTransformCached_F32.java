@@ -47,6 +47,19 @@ public class PixelTransformCached_F32 extends PixelTransform2_F32 {
 		}
 	}
 
+	/**
+	 * Creates a new instance which shares the precomputed transform with the original.  Since
+	 * {@link #compute} writes its output into the instance, the copy can be used in a different
+	 * thread than the original.
+	 *
+	 * @param original Transform whose look up table is to be shared
+	 */
+	public PixelTransformCached_F32( PixelTransformCached_F32 original ) {
+		this.map = original.map;
+		this.width = original.width;
+		this.height = original.height;
+	}
+
 	@Override
 	public void compute(int x, int y) {
 //		if( x < 0 || y < 0 || x >= width || y >= height )
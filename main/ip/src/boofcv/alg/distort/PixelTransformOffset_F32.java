@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.distort;
+
+import boofcv.struct.distort.PixelTransform2_F32;
+import georegression.struct.point.Point2D_I32;
+
+/**
+ * Applies a transform to the coordinates of a sub-image.  Coordinates are shifted by the offset into the full
+ * image, transformed, then shifted back.  Copies share the same offset, so changing it in one changes it in
+ * all of them.
+ *
+ * @author Peter Abeles
+ */
+public class PixelTransformOffset_F32 extends PixelTransform2_F32 {
+
+	PixelTransform2_F32 alg;
+	// location of the sub-image inside the full image
+	Point2D_I32 offset;
+
+	/**
+	 * Creates a transform with an offset of zero
+	 *
+	 * @param alg Transform of full image coordinates
+	 */
+	public PixelTransformOffset_F32( PixelTransform2_F32 alg ) {
+		this.alg = alg;
+		this.offset = new Point2D_I32();
+	}
+
+	/**
+	 * Creates a new instance which shares its offset with the original but uses a different transform.  Typically
+	 * used to create a copy which can be invoked in a different thread.
+	 *
+	 * @param original Transform whose offset is to be shared
+	 * @param alg Transform of full image coordinates.  Should be equivalent to the original's.
+	 */
+	public PixelTransformOffset_F32( PixelTransformOffset_F32 original , PixelTransform2_F32 alg ) {
+		this.alg = alg;
+		this.offset = original.offset;
+	}
+
+	public void setOffset( int offsetX , int offsetY ) {
+		offset.set(offsetX, offsetY);
+	}
+
+	@Override
+	public void compute(int x, int y) {
+		int offsetX = offset.x, offsetY = offset.y;
+		alg.compute(x + offsetX, y + offsetY);
+		distX = alg.distX - offsetX;
+		distY = alg.distY - offsetY;
+	}
+
+	public int getOffsetX() {
+		return offset.x;
+	}
+
+	public int getOffsetY() {
+		return offset.y;
+	}
+
+	public PixelTransform2_F32 getTransform() {
+		return alg;
+	}
+}
@@ -56,6 +56,31 @@ public class GThresholdImageOps {
 		return computeOtsu(histogram,range,total)+minValue;
 	}
 
+	/**
+	 * Computes the variance based threshold using Otsu's method from a single band {@link ImageBufferU8}.  The
+	 * histogram is computed directly from the buffer.
+	 *
+	 * @param input Input gray-scale image
+	 * @return Selected threshold.
+	 */
+	public static int computeOtsu( ImageBufferU8 input ) {
+		if( input.numBands != 1 )
+			throw new IllegalArgumentException("Expected a single band image");
+
+		int histogram[] = new int[ 256 ];
+
+		for( int y = 0; y < input.height; y++ ) {
+			int index = input.startIndex + y*input.stride;
+			int end = index + input.width;
+
+			for( ; index < end; index++ ) {
+				histogram[input.data.get(index) & 0xFF]++;
+			}
+		}
+
+		return computeOtsu(histogram,256,input.width*input.height);
+	}
+
 	/**
 	 * Computes the variance based Otsu threshold from a histogram directly. The threshold is selected by minimizing the
 	 * spread of both foreground and background pixel values.
@@ -231,6 +256,47 @@ public class GThresholdImageOps {
 		}
 	}
 
+	/**
+	 * Applies a global threshold to a single band {@link ImageBufferU8}, reading the pixels directly from the
+	 * buffer.  See {@link ThresholdImageOps#threshold(GrayU8, GrayU8, int, boolean)}.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param output (Optional) Binary output image. If null a new image will be declared. Modified.
+	 * @param threshold threshold value.
+	 * @param down If true then the inequality &le; is used, otherwise if false then &gt; is used.
+	 * @return binary image.
+	 */
+	public static GrayU8 threshold( ImageBufferU8 input , GrayU8 output ,
+									int threshold , boolean down )
+	{
+		if( input.numBands != 1 )
+			throw new IllegalArgumentException("Expected a single band image");
+		if( output == null ) {
+			output = new GrayU8(input.width,input.height);
+		} else if( output.width != input.width || output.height != input.height ) {
+			throw new IllegalArgumentException("Output image must have the same shape as the input");
+		}
+
+		for( int y = 0; y < input.height; y++ ) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+
+			int end = indexIn + input.width;
+
+			if( down ) {
+				for( ; indexIn < end; indexIn++ , indexOut++ ) {
+					output.data[indexOut] = (byte)((input.data.get(indexIn) & 0xFF) <= threshold ? 1 : 0);
+				}
+			} else {
+				for( ; indexIn < end; indexIn++ , indexOut++ ) {
+					output.data[indexOut] = (byte)((input.data.get(indexIn) & 0xFF) > threshold ? 1 : 0);
+				}
+			}
+		}
+
+		return output;
+	}
+
 	/**
 	 * <p>
 	 * Thresholds the image using a locally adaptive threshold that is computed using a local square region centered
@@ -19,11 +19,12 @@
 package boofcv.alg.filter.blur;
 
 import boofcv.alg.InputSanityCheck;
-import boofcv.alg.filter.blur.impl.ImplMedianHistogramInner;
-import boofcv.alg.filter.blur.impl.ImplMedianSortEdgeNaive;
-import boofcv.alg.filter.blur.impl.ImplMedianSortNaive;
+import boofcv.alg.filter.blur.impl.ImplMedianHistogram;
+import boofcv.alg.filter.blur.impl.ImplMedianSortColumns;
+import boofcv.alg.filter.blur.impl.ImplRecursiveGaussian;
 import boofcv.alg.filter.convolve.ConvolveImageMean;
 import boofcv.alg.filter.convolve.ConvolveNormalized;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.factory.filter.kernel.FactoryKernelGaussian;
 import boofcv.struct.convolve.Kernel1D_F32;
@@ -35,6 +36,11 @@ import boofcv.struct.image.*;
  * Catch all class for function which "blur" an image, typically used to "reduce" the amount
  * of noise in the image.
  *
+ * <p>
+ * Concurrency: If {@link BoofConcurrency#USE_CONCURRENT} is true then the median filters call
+ * {@link BlurImageOps_MT}, which produces identical results using multiple threads.
+ * </p>
+ *
  * @author Peter Abeles
  */
 public class BlurImageOps {
@@ -63,7 +69,7 @@ public class BlurImageOps {
 	}
 
 	/**
-	 * Applies a median filter.
+	 * Applies a median filter.  The time to process each pixel is independent of the radius.
 	 *
 	 * @param input Input image.  Not modified.
 	 * @param output (Optional) Storage for output image, Can be null.  Modified.
@@ -71,17 +77,37 @@ public class BlurImageOps {
 	 * @return Output blurred image.
 	 */
 	public static GrayU8 median(GrayU8 input, GrayU8 output, int radius) {
+		if( BoofConcurrency.USE_CONCURRENT )
+			return BlurImageOps_MT.median(input, output, radius);
+
 		if( radius <= 0 )
 			throw new IllegalArgumentException("Radius must be > 0");
 
 		output = InputSanityCheck.checkDeclare(input,output);
 
-		int w = radius*2+1;
-		int offset[] = new int[ w*w ];
-		int histogram[] = new int[ 256 ];
+		ImplMedianHistogram.process(input, output, radius, 0, input.height);
+
+		return output;
+	}
+
+	/**
+	 * Applies a median filter.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Storage for output image, Can be null.  Modified.
+	 * @param radius Radius of the median blur function.
+	 * @return Output blurred image.
+	 */
+	public static GrayU16 median(GrayU16 input, GrayU16 output, int radius) {
+		if( BoofConcurrency.USE_CONCURRENT )
+			return BlurImageOps_MT.median(input, output, radius);
+
+		if( radius <= 0 )
+			throw new IllegalArgumentException("Radius must be > 0");
+
+		output = InputSanityCheck.checkDeclare(input,output);
 
-		ImplMedianHistogramInner.process(input, output, radius, offset, histogram);
-		ImplMedianSortEdgeNaive.process(input, output, radius, offset);
+		ImplMedianHistogram.process(input, output, radius, 0, input.height);
 
 		return output;
 	}
@@ -164,13 +190,15 @@ public class BlurImageOps {
 	 * @return Output blurred image.
 	 */
 	public static GrayF32 median(GrayF32 input, GrayF32 output, int radius) {
+		if( BoofConcurrency.USE_CONCURRENT )
+			return BlurImageOps_MT.median(input, output, radius);
 
 		if( radius <= 0 )
 			throw new IllegalArgumentException("Radius must be > 0");
 
 		output = InputSanityCheck.checkDeclare(input,output);
 
-		ImplMedianSortNaive.process(input,output,radius,null);
+		ImplMedianSortColumns.process(input, output, radius, 0, input.height);
 
 		return output;
 	}
@@ -223,6 +251,46 @@ public class BlurImageOps {
 		return output;
 	}
 
+	/**
+	 * Applies Gaussian blur using a recursive (IIR) filter.  Unlike {@link #gaussian(GrayF32, GrayF32, double, int, GrayF32)}
+	 * the cost per pixel does not depend on sigma, making it much faster for large sigmas.  The result is an
+	 * approximation, see {@link ImplRecursiveGaussian} for its accuracy.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Storage for output image, Can be null.  Modified.
+	 * @param sigma Gaussian distribution's sigma.  Must be &ge; 0.5
+	 * @return Output blurred image.
+	 */
+	public static GrayF32 gaussianRecursive(GrayF32 input, GrayF32 output, double sigma ) {
+		output = InputSanityCheck.checkDeclare(input,output);
+
+		ImplRecursiveGaussian alg = new ImplRecursiveGaussian(sigma);
+		alg.horizontal(input, output);
+		alg.vertical(output, output);
+
+		return output;
+	}
+
+	/**
+	 * Applies Gaussian blur using a recursive (IIR) filter.
+	 *
+	 * @see #gaussianRecursive(GrayF32, GrayF32, double)
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Storage for output image, Can be null.  Modified.
+	 * @param sigma Gaussian distribution's sigma.  Must be &ge; 0.5
+	 * @return Output blurred image.
+	 */
+	public static GrayF64 gaussianRecursive(GrayF64 input, GrayF64 output, double sigma ) {
+		output = InputSanityCheck.checkDeclare(input,output);
+
+		ImplRecursiveGaussian alg = new ImplRecursiveGaussian(sigma);
+		alg.horizontal(input, output);
+		alg.vertical(output, output);
+
+		return output;
+	}
+
 	/**
 	 * Applies mean box filter to a {@link Planar}
 	 *
@@ -292,4 +360,27 @@ public class BlurImageOps {
 		}
 		return output;
 	}
+
+	/**
+	 * Applies Gaussian blur using a recursive (IIR) filter to a {@link Planar}
+	 *
+	 * @see #gaussianRecursive(GrayF32, GrayF32, double)
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Storage for output image, Can be null.  Modified.
+	 * @param sigma Gaussian distribution's sigma.  Must be &ge; 0.5
+	 * @param <T> Input image type.
+	 * @return Output blurred image.
+	 */
+	public static <T extends ImageGray>
+	Planar<T> gaussianRecursive(Planar<T> input, Planar<T> output, double sigma ) {
+
+		if( output == null )
+			output = input.createNew(input.width,input.height);
+
+		for( int band = 0; band < input.getNumBands(); band++ ) {
+			GBlurImageOps.gaussianRecursive(input.getBand(band),output.getBand(band),sigma);
+		}
+		return output;
+	}
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.filter.blur;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.alg.filter.blur.impl.ImplMedianHistogram;
+import boofcv.alg.filter.blur.impl.ImplMedianSortColumns;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU16;
+import boofcv.struct.image.GrayU8;
+
+/**
+ * <p>
+ * Concurrent implementations of functions in {@link BlurImageOps}.  The image is split into horizontal bands of rows
+ * which are processed in parallel by the thread pool in {@link BoofConcurrency}.  Each band reads from the entire
+ * input image but only writes to its own rows, producing output which is identical to {@link BlurImageOps}.
+ * </p>
+ *
+ * <p>
+ * Typically these functions are not called directly.  Instead set {@link BoofConcurrency#USE_CONCURRENT} to true
+ * and {@link BlurImageOps} will call them.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BlurImageOps_MT {
+
+	/**
+	 * Minimum number of rows in each band.  Each band has to initialize its histograms from scratch, so
+	 * bands which are too thin will waste time.
+	 */
+	public static int MIN_BAND_ROWS = 32;
+
+	/**
+	 * Applies a median filter.
+	 *
+	 * @see BlurImageOps#median(GrayU8, GrayU8, int)
+	 */
+	public static GrayU8 median(final GrayU8 input, GrayU8 output, final int radius) {
+		if( radius <= 0 )
+			throw new IllegalArgumentException("Radius must be > 0");
+
+		final GrayU8 out = InputSanityCheck.checkDeclare(input,output);
+
+		BoofConcurrency.loopBlocks(0, input.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImplMedianHistogram.process(input, out, radius, y0, y1);
+			}
+		});
+
+		return out;
+	}
+
+	/**
+	 * Applies a median filter.
+	 *
+	 * @see BlurImageOps#median(GrayU16, GrayU16, int)
+	 */
+	public static GrayU16 median(final GrayU16 input, GrayU16 output, final int radius) {
+		if( radius <= 0 )
+			throw new IllegalArgumentException("Radius must be > 0");
+
+		final GrayU16 out = InputSanityCheck.checkDeclare(input,output);
+
+		BoofConcurrency.loopBlocks(0, input.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImplMedianHistogram.process(input, out, radius, y0, y1);
+			}
+		});
+
+		return out;
+	}
+
+	/**
+	 * Applies a median filter.
+	 *
+	 * @see BlurImageOps#median(GrayF32, GrayF32, int)
+	 */
+	public static GrayF32 median(final GrayF32 input, GrayF32 output, final int radius) {
+		if( radius <= 0 )
+			throw new IllegalArgumentException("Radius must be > 0");
+
+		final GrayF32 out = InputSanityCheck.checkDeclare(input,output);
+
+		BoofConcurrency.loopBlocks(0, input.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImplMedianSortColumns.process(input, out, radius, y0, y1);
+			}
+		});
+
+		return out;
+	}
+}
@@ -68,6 +68,8 @@ public class GBlurImageOps {
 	T median(T input, T output, int radius ) {
 		if( input instanceof GrayU8) {
 			return (T)BlurImageOps.median((GrayU8) input, (GrayU8) output, radius);
+		} else if( input instanceof GrayU16) {
+			return (T)BlurImageOps.median((GrayU16) input, (GrayU16) output, radius);
 		} else if( input instanceof GrayF32) {
 			return (T)BlurImageOps.median((GrayF32) input, (GrayF32) output, radius);
 		} else if( input instanceof Planar) {
@@ -102,4 +104,84 @@ public class GBlurImageOps {
 			throw new IllegalArgumentException("Unsupported image type: "+input.getClass().getSimpleName());
 		}
 	}
+
+	/**
+	 * Applies Gaussian blur using a recursive (IIR) filter.  The cost per pixel does not depend on sigma.
+	 * See {@link BlurImageOps#gaussianRecursive(GrayF32, GrayF32, double)}.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Storage for output image, Can be null.  Modified.
+	 * @param sigma Gaussian distribution's sigma.  Must be &ge; 0.5
+	 * @param <T> Input image type.
+	 * @return Output blurred image.
+	 */
+	public static <T extends ImageBase>
+	T gaussianRecursive(T input, T output, double sigma ) {
+		if( input instanceof GrayF32) {
+			return (T)BlurImageOps.gaussianRecursive((GrayF32)input,(GrayF32)output,sigma);
+		} else if( input instanceof GrayF64) {
+			return (T)BlurImageOps.gaussianRecursive((GrayF64)input,(GrayF64)output,sigma);
+		} else if( input instanceof Planar) {
+			return (T)BlurImageOps.gaussianRecursive((Planar)input,(Planar)output,sigma);
+		} else  {
+			throw new IllegalArgumentException("Unsupported image type: "+input.getClass().getSimpleName());
+		}
+	}
+
+	/**
+	 * Applies a mean box filter.  Storage for intermediate results is borrowed from the pool and returned
+	 * before this function exits.  Named differently from {@link #mean(ImageBase, ImageBase, int, ImageBase)}
+	 * so that existing calls which pass in null for storage remain unambiguous.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Storage for output image, Can be null.  Modified.
+	 * @param radius Radius of the box blur function.
+	 * @param pool Pool which intermediate storage is borrowed from.
+	 * @param <T> Input image type.
+	 * @return Output blurred image.
+	 */
+	public static <T extends ImageBase>
+	T meanPooled(T input, T output, int radius, ImagePool pool ) {
+		ImageBase storage = borrowStorage(input, pool);
+		try {
+			return mean(input, output, radius, storage);
+		} finally {
+			pool.giveBack(storage);
+		}
+	}
+
+	/**
+	 * Applies Gaussian blur.  Storage for intermediate results is borrowed from the pool and returned
+	 * before this function exits.  See {@link #meanPooled}.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Storage for output image, Can be null.  Modified.
+	 * @param sigma Gaussian distribution's sigma.  If &le; 0 then will be selected based on radius.
+	 * @param radius Radius of the Gaussian blur function. If &le; 0 then radius will be determined by sigma.
+	 * @param pool Pool which intermediate storage is borrowed from.
+	 * @param <T> Input image type.
+	 * @return Output blurred image.
+	 */
+	public static <T extends ImageBase>
+	T gaussianPooled(T input, T output, double sigma , int radius, ImagePool pool ) {
+		ImageBase storage = borrowStorage(input, pool);
+		try {
+			return gaussian(input, output, sigma, radius, (T)storage);
+		} finally {
+			pool.giveBack(storage);
+		}
+	}
+
+	/**
+	 * Borrows storage for intermediate results.  Gray images need an image of the same type while
+	 * {@link Planar} images are processed one band at a time and need a single band image.
+	 */
+	private static ImageBase borrowStorage( ImageBase input , ImagePool pool ) {
+		if( input instanceof Planar ) {
+			Planar planar = (Planar)input;
+			return pool.borrow(ImageType.single(planar.getBandType()), input.width, input.height);
+		} else {
+			return pool.borrowSameShape(input);
+		}
+	}
 }
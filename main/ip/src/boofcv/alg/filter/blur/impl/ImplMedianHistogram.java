@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.filter.blur.impl;
+
+import boofcv.struct.image.GrayU16;
+import boofcv.struct.image.GrayU8;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Median filters which are computed using histograms that slide across the image.  The square region is truncated
+ * at the image border, producing the same output as {@link ImplMedianSortNaive} for the entire image.
+ * </p>
+ *
+ * <p>
+ * Only the rows from y0 to y1 are written to, which allows the image to be processed in bands of rows.  Pixels
+ * outside the band are still read when they fall inside the square region.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImplMedianHistogram {
+
+	/**
+	 * <p>
+	 * Median filter which takes constant time per pixel, independent of the radius.  A histogram is maintained
+	 * for each column in the image, which is updated as the region moves down one row by removing the top pixel
+	 * and adding the bottom pixel.  The histogram of the square region is then updated as it moves right by
+	 * adding and removing entire column histograms.  Each histogram has two levels, 16 coarse bins and 256 fine bins.
+	 * Coarse bins are always kept up to date and are used to find which fine bins contain the median.  Fine
+	 * bins in the square region's histogram are only updated when they are needed.
+	 * </p>
+	 *
+	 * <p>
+	 * [1] S. Perreault and P. Hebert, "Median Filtering in Constant Time," IEEE Transactions on Image Processing,
+	 * vol. 16, no. 9, 2007
+	 * </p>
+	 *
+	 * @param input Input image. Not modified.
+	 * @param output Filtered output image. Modified.
+	 * @param radius Size of the filter region.
+	 * @param y0 First row which is processed.  Inclusive.
+	 * @param y1 Last row which is processed.  Exclusive.
+	 */
+	public static void process(GrayU8 input, GrayU8 output, int radius, int y0, int y1) {
+		final int width = input.width;
+		final int height = input.height;
+
+		// histogram for each column
+		int columnCoarse[] = new int[ width*16 ];
+		int columnFine[] = new int[ width*256 ];
+
+		// histogram for the square region
+		int coarse[] = new int[16];
+		int fine[] = new int[256];
+		// position of the region when the fine bins in each coarse bin was last brought up to date
+		int lastX[] = new int[16];
+
+		// initialize the column histograms for the first row
+		int rowA = Math.max(0, y0 - radius);
+		int rowB = Math.min(height, y0 + radius + 1);
+		for (int y = rowA; y < rowB; y++) {
+			int index = input.startIndex + y*input.stride;
+			for (int x = 0; x < width; x++) {
+				int value = input.data[index++] & 0xFF;
+				columnCoarse[x*16 + (value >> 4)]++;
+				columnFine[x*256 + value]++;
+			}
+		}
+
+		for (int y = y0; y < y1; y++) {
+			// move the column histograms down one row
+			if( y > y0 ) {
+				int remove = y - radius - 1;
+				if( remove >= 0 ) {
+					int index = input.startIndex + remove*input.stride;
+					for (int x = 0; x < width; x++) {
+						int value = input.data[index++] & 0xFF;
+						columnCoarse[x*16 + (value >> 4)]--;
+						columnFine[x*256 + value]--;
+					}
+				}
+				int add = y + radius;
+				if( add < height ) {
+					int index = input.startIndex + add*input.stride;
+					for (int x = 0; x < width; x++) {
+						int value = input.data[index++] & 0xFF;
+						columnCoarse[x*16 + (value >> 4)]++;
+						columnFine[x*256 + value]++;
+					}
+				}
+			}
+
+			int numRows = Math.min(height, y + radius + 1) - Math.max(0, y - radius);
+
+			// initialize the region's coarse histogram.  Fine bins will be computed when needed
+			Arrays.fill(coarse, 0);
+			Arrays.fill(lastX, -2*radius - 2);
+			int endX = Math.min(width, radius + 1);
+			for (int x = 0; x < endX; x++) {
+				addColumn(columnCoarse, x*16, coarse, 0);
+			}
+
+			int indexOut = output.startIndex + y*output.stride;
+			for (int x = 0; x < width; x++) {
+				int numCols = Math.min(width, x + radius + 1) - Math.max(0, x - radius);
+				int threshold = (numRows*numCols)/2 + 1;
+
+				// find the coarse bin which contains the median
+				int bin = 0;
+				int sum = 0;
+				for (; bin < 16; bin++) {
+					if( sum + coarse[bin] >= threshold )
+						break;
+					sum += coarse[bin];
+				}
+
+				updateFine(columnFine, fine, lastX, bin, x, radius, width);
+
+				// find the median inside the fine bins
+				int value = bin*16;
+				int end = value + 16;
+				for (; value < end; value++) {
+					sum += fine[value];
+					if( sum >= threshold )
+						break;
+				}
+				output.data[indexOut++] = (byte)value;
+
+				// move the region to the right
+				int remove = x - radius;
+				if( remove >= 0 )
+					removeColumn(columnCoarse, remove*16, coarse, 0);
+				int add = x + radius + 1;
+				if( add < width )
+					addColumn(columnCoarse, add*16, coarse, 0);
+			}
+		}
+	}
+
+	/**
+	 * Updates the fine bins inside the specified coarse bin so that they are for the region centered at x.
+	 */
+	private static void updateFine( int columnFine[] , int fine[] , int lastX[] , int bin , int x ,
+									int radius , int width ) {
+		int offset = bin*16;
+		int last = lastX[bin];
+		lastX[bin] = x;
+
+		if( x - last > 2*radius + 1 ) {
+			// the old region doesn't overlap with the current region so compute it from scratch
+			Arrays.fill(fine, offset, offset + 16, 0);
+			int start = Math.max(0, x - radius);
+			int end = Math.min(width, x + radius + 1);
+			for (int col = start; col < end; col++) {
+				addColumn(columnFine, col*256 + offset, fine, offset);
+			}
+		} else {
+			for (int i = last + 1; i <= x; i++) {
+				int remove = i - radius - 1;
+				if( remove >= 0 )
+					removeColumn(columnFine, remove*256 + offset, fine, offset);
+				int add = i + radius;
+				if( add < width )
+					addColumn(columnFine, add*256 + offset, fine, offset);
+			}
+		}
+	}
+
+	/**
+	 * Adds 16 bins in a column histogram to the region's histogram
+	 */
+	private static void addColumn( int column[] , int columnIndex , int region[] , int regionIndex ) {
+		for (int i = 0; i < 16; i++) {
+			region[regionIndex + i] += column[columnIndex + i];
+		}
+	}
+
+	/**
+	 * Removes 16 bins in a column histogram from the region's histogram
+	 */
+	private static void removeColumn( int column[] , int columnIndex , int region[] , int regionIndex ) {
+		for (int i = 0; i < 16; i++) {
+			region[regionIndex + i] -= column[columnIndex + i];
+		}
+	}
+
+	/**
+	 * <p>
+	 * Median filter for 16-bit images.  Column histograms with 65536 bins would require too much memory, so the
+	 * square region's histogram is instead updated as it moves right by removing the pixels in the left column
+	 * and adding the pixels in the right column.  The cost of an update grows linearly with the radius, but finding
+	 * the median is constant time because the histogram has two levels, 256 coarse bins and 65536 fine bins.
+	 * </p>
+	 *
+	 * @param input Input image. Not modified.
+	 * @param output Filtered output image. Modified.
+	 * @param radius Size of the filter region.
+	 * @param y0 First row which is processed.  Inclusive.
+	 * @param y1 Last row which is processed.  Exclusive.
+	 */
+	public static void process(GrayU16 input, GrayU16 output, int radius, int y0, int y1) {
+		final int width = input.width;
+		final int height = input.height;
+
+		int coarse[] = new int[256];
+		int fine[] = new int[65536];
+
+		for (int y = y0; y < y1; y++) {
+			int rowA = Math.max(0, y - radius);
+			int rowB = Math.min(height, y + radius + 1);
+			int numRows = rowB - rowA;
+
+			// the histogram is empty at the start of each row
+			int endX = Math.min(width, radius + 1);
+			for (int x = 0; x < endX; x++) {
+				updateColumn(input, x, rowA, rowB, coarse, fine, 1);
+			}
+
+			int indexOut = output.startIndex + y*output.stride;
+			for (int x = 0; x < width; x++) {
+				int numCols = Math.min(width, x + radius + 1) - Math.max(0, x - radius);
+				int threshold = (numRows*numCols)/2 + 1;
+
+				int bin = 0;
+				int sum = 0;
+				for (; bin < 256; bin++) {
+					if( sum + coarse[bin] >= threshold )
+						break;
+					sum += coarse[bin];
+				}
+
+				int value = bin*256;
+				int end = value + 256;
+				for (; value < end; value++) {
+					sum += fine[value];
+					if( sum >= threshold )
+						break;
+				}
+				output.data[indexOut++] = (short)value;
+
+				int remove = x - radius;
+				if( remove >= 0 )
+					updateColumn(input, remove, rowA, rowB, coarse, fine, -1);
+				int add = x + radius + 1;
+				if( add < width )
+					updateColumn(input, add, rowA, rowB, coarse, fine, 1);
+			}
+
+			// remove the columns which are still in the histogram so that it's empty for the next row
+			for (int x = Math.max(0, width - radius); x < width; x++) {
+				updateColumn(input, x, rowA, rowB, coarse, fine, -1);
+			}
+		}
+	}
+
+	/**
+	 * Adds or removes the pixels in a column from the histogram
+	 */
+	private static void updateColumn( GrayU16 input , int x , int rowA , int rowB ,
+									  int coarse[] , int fine[] , int amount ) {
+		int index = input.startIndex + rowA*input.stride + x;
+		for (int y = rowA; y < rowB; y++, index += input.stride) {
+			int value = input.data[index] & 0xFFFF;
+			coarse[value >> 8] += amount;
+			fine[value] += amount;
+		}
+	}
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.filter.blur.impl;
+
+import boofcv.struct.image.GrayF32;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Median filter for floating point images which keeps the pixels in each column of the square region sorted.  As
+ * the region moves down one row, the top pixel is removed from each column and the bottom pixel inserted.  The
+ * median of the region is then found by counting how many pixels in each sorted column are above and below the
+ * previous median, using a binary search, and then stepping through the sorted columns from the previous median
+ * until the new median has been reached.  Since the previous median is close to the new median only a few steps
+ * are required.  Produces the same output as {@link ImplMedianSortNaive}, but the cost of each pixel grows with
+ * the radius instead of the radius squared.
+ * </p>
+ *
+ * <p>
+ * Pixels are sorted using the same ordering as {@link Float#compare}, where -0 is less than 0 and NaN is larger
+ * than everything else.  To do this, each value is converted into an int whose natural ordering is the same.
+ * </p>
+ *
+ * <p>
+ * Only the rows from y0 to y1 are written to, which allows the image to be processed in bands of rows.  Pixels
+ * outside the band are still read when they fall inside the square region.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImplMedianSortColumns {
+
+	/**
+	 * Performs a median filter.
+	 *
+	 * @param input Raw input image.
+	 * @param output Filtered image.
+	 * @param radius Size of the filter's region.
+	 * @param y0 First row which is processed.  Inclusive.
+	 * @param y1 Last row which is processed.  Exclusive.
+	 */
+	public static void process(GrayF32 input, GrayF32 output, int radius, int y0, int y1) {
+		final int width = input.width;
+		final int height = input.height;
+		final int w = 2*radius + 1;
+
+		// sorted pixel values in each column, see toKey().  Column x starts at x*w
+		int sorted[] = new int[ width*w ];
+		// location of the next pixel in each column when stepping towards the median
+		int cursor[] = new int[ w ];
+
+		// initialize the sorted columns for the first row
+		int rowA = Math.max(0, y0 - radius);
+		int rowB = Math.min(height, y0 + radius + 1);
+		int numRows = rowB - rowA;
+		for (int x = 0; x < width; x++) {
+			int index = input.startIndex + rowA*input.stride + x;
+			for (int i = 0; i < numRows; i++, index += input.stride) {
+				sorted[x*w + i] = toKey(input.data[index]);
+			}
+			Arrays.sort(sorted, x*w, x*w + numRows);
+		}
+
+		for (int y = y0; y < y1; y++) {
+			// move the sorted columns down one row
+			if( y > y0 ) {
+				int remove = y - radius - 1;
+				if( remove >= 0 ) {
+					int index = input.startIndex + remove*input.stride;
+					for (int x = 0; x < width; x++) {
+						int start = x*w;
+						int i = Arrays.binarySearch(sorted, start, start + numRows, toKey(input.data[index++]));
+						System.arraycopy(sorted, i + 1, sorted, i, start + numRows - i - 1);
+					}
+					numRows--;
+				}
+				int add = y + radius;
+				if( add < height ) {
+					int index = input.startIndex + add*input.stride;
+					for (int x = 0; x < width; x++) {
+						int start = x*w;
+						int value = toKey(input.data[index++]);
+						int i = upperBound(sorted, start, start + numRows, value);
+						System.arraycopy(sorted, i, sorted, i + 1, start + numRows - i);
+						sorted[i] = value;
+					}
+					numRows++;
+				}
+			}
+
+			// initial guess is the median of the first column
+			int median = sorted[numRows/2];
+
+			int indexOut = output.startIndex + y*output.stride;
+			for (int x = 0; x < width; x++) {
+				int colA = Math.max(0, x - radius);
+				int colB = Math.min(width, x + radius + 1);
+				int numCols = colB - colA;
+				int target = (numRows*numCols)/2;
+
+				// number of pixels which are less than and less than or equal to the previous median
+				int countLess = 0;
+				int countLessEqual = 0;
+				for (int col = colA; col < colB; col++) {
+					int start = col*w;
+					countLess += lowerBound(sorted, start, start + numRows, median) - start;
+					countLessEqual += upperBound(sorted, start, start + numRows, median) - start;
+				}
+
+				if( target < countLess ) {
+					// step down from the previous median
+					for (int col = colA; col < colB; col++) {
+						int start = col*w;
+						cursor[col - colA] = lowerBound(sorted, start, start + numRows, median) - 1 - start;
+					}
+					for (int step = countLess - target; step > 0; step--) {
+						int best = -1;
+						int bestValue = Integer.MIN_VALUE;
+						for (int i = 0; i < numCols; i++) {
+							int c = cursor[i];
+							if( c >= 0 ) {
+								int value = sorted[(colA + i)*w + c];
+								if( best == -1 || value > bestValue ) {
+									best = i;
+									bestValue = value;
+								}
+							}
+						}
+						cursor[best]--;
+						median = bestValue;
+					}
+				} else if( target >= countLessEqual ) {
+					// step up from the previous median
+					for (int col = colA; col < colB; col++) {
+						int start = col*w;
+						cursor[col - colA] = upperBound(sorted, start, start + numRows, median) - start;
+					}
+					for (int step = target - countLessEqual + 1; step > 0; step--) {
+						int best = -1;
+						int bestValue = Integer.MAX_VALUE;
+						for (int i = 0; i < numCols; i++) {
+							int c = cursor[i];
+							if( c < numRows ) {
+								int value = sorted[(colA + i)*w + c];
+								if( best == -1 || value < bestValue ) {
+									best = i;
+									bestValue = value;
+								}
+							}
+						}
+						cursor[best]++;
+						median = bestValue;
+					}
+				}
+
+				output.data[indexOut++] = fromKey(median);
+			}
+		}
+	}
+
+	/**
+	 * Index of the first element in the sorted range which is &ge; value
+	 */
+	static int lowerBound( int sorted[] , int start , int end , int value ) {
+		while( start < end ) {
+			int middle = (start + end) >>> 1;
+			if( sorted[middle] < value )
+				start = middle + 1;
+			else
+				end = middle;
+		}
+		return start;
+	}
+
+	/**
+	 * Index of the first element in the sorted range which is &gt; value
+	 */
+	static int upperBound( int sorted[] , int start , int end , int value ) {
+		while( start < end ) {
+			int middle = (start + end) >>> 1;
+			if( sorted[middle] <= value )
+				start = middle + 1;
+			else
+				end = middle;
+		}
+		return start;
+	}
+
+	/**
+	 * Converts the float into an int which is ordered the same way as {@link Float#compare}.  Negative values have
+	 * all bits except the sign flipped, so that more negative values are smaller.
+	 */
+	static int toKey( float value ) {
+		int bits = Float.floatToIntBits(value);
+		return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+	}
+
+	/**
+	 * Reverses {@link #toKey(float)}
+	 */
+	static float fromKey( int key ) {
+		return Float.intBitsToFloat(key ^ ((key >> 31) & 0x7FFFFFFF));
+	}
+}
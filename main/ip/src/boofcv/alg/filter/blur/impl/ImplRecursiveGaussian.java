@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.filter.blur.impl;
+
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayF64;
+
+/**
+ * <p>
+ * Recursive (IIR) approximation of Gaussian blur.  The computational cost per pixel is constant and does not depend on
+ * sigma, unlike convolution with a kernel whose width grows with sigma.  Each row and column is filtered by a third
+ * order causal filter followed by a third order anti-causal filter, using the coefficients from [1].  At the end of
+ * each line the anti-causal filter is initialized using [2], which is equivalent to extending the line using
+ * the value of its last element.  The start of the line is extended in the same way.
+ * </p>
+ *
+ * <p>
+ * The approximation improves as sigma gets larger.  When applied to random values between 0 and 1 the maximum
+ * difference from convolution with a Gaussian kernel is about 0.05 for sigma = 1, 0.01 for sigma = 3, and 0.002
+ * for sigma = 10.  The signal is extended at the image border instead of the kernel being renormalized, which
+ * is what {@link boofcv.alg.filter.blur.BlurImageOps#gaussian} does, so near the border the two will differ
+ * by more.
+ * </p>
+ *
+ * <p>
+ * [1] I.T. Young, L.J. van Vliet, and M. van Ginkel, "Recursive Gabor Filtering," IEEE Transactions on Signal
+ * Processing, vol. 50, no. 11, 2002<br>
+ * [2] B. Triggs and M. Sdika, "Boundary conditions for Young-van Vliet recursive filtering," IEEE Transactions on
+ * Signal Processing, vol. 54, no. 6, 2006
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImplRecursiveGaussian {
+
+	// standard deviation of the Gaussian
+	double sigma;
+
+	// gain and feedback coefficients of the recursive filter
+	double B, a1, a2, a3;
+
+	// matrix which computes the initial state of the anti-causal filter
+	double M[] = new double[9];
+
+	// work space
+	double work[] = new double[0];
+	double row1[] = new double[0], row2[] = new double[0], row3[] = new double[0];
+	double last[] = new double[0];
+
+	public ImplRecursiveGaussian( double sigma ) {
+		setSigma(sigma);
+	}
+
+	/**
+	 * Changes the Gaussian's standard deviation and recomputes the filter coefficients
+	 *
+	 * @param sigma Standard deviation.  Must be &ge; 0.5
+	 */
+	public void setSigma( double sigma ) {
+		if( sigma < 0.5 )
+			throw new IllegalArgumentException("Sigma must be >= 0.5");
+		this.sigma = sigma;
+
+		final double m0 = 1.16680, m1 = 1.10783, m2 = 1.40586;
+
+		double q;
+		if( sigma < 3.556 )
+			q = -0.2568 + 0.5784*sigma + 0.0561*sigma*sigma;
+		else
+			q = 2.5091 + 0.9804*(sigma - 3.556);
+
+		double qq = q*q;
+		double scale = (m0 + q)*(m1*m1 + m2*m2 + 2*m1*q + qq);
+
+		a1 = q*(2*m0*m1 + m1*m1 + m2*m2 + (2*m0 + 4*m1)*q + 3*qq)/scale;
+		a2 = -qq*(m0 + 2*m1 + 3*q)/scale;
+		a3 = qq*q/scale;
+		B = 1.0 - (a1 + a2 + a3);
+
+		// Triggs and Sdika initial conditions
+		double s = 1.0/((1.0 + a1 - a2 + a3)*(1.0 - a1 - a2 - a3)*(1.0 + a2 + (a1 - a3)*a3));
+		M[0] = s*(-a3*a1 + 1.0 - a3*a3 - a2);
+		M[1] = s*(a3 + a1)*(a2 + a3*a1);
+		M[2] = s*a3*(a1 + a3*a2);
+		M[3] = s*(a1 + a3*a2);
+		M[4] = -s*(a2 - 1.0)*(a2 + a3*a1);
+		M[5] = -s*a3*(a3*a1 + a3*a3 + a2 - 1.0);
+		M[6] = s*(a3*a1 + a2 + a1*a1 - a2*a2);
+		M[7] = s*(a1*a2 + a3*a2*a2 - a1*a3*a3 - a3*a3*a3 - a3*a2 + a3);
+		M[8] = s*a3*(a1 + a3*a2);
+	}
+
+	/**
+	 * Blurs each row in the image.  The input and output can be the same image.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output Output image.  Modified.
+	 */
+	public void horizontal( GrayF32 input , GrayF32 output ) {
+		final int width = input.width;
+		if( work.length < width )
+			work = new double[ width ];
+
+		for (int y = 0; y < input.height; y++) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+
+			// causal pass.  The signal is extended to the left using the first value
+			double w1 = input.data[indexIn], w2 = w1, w3 = w1;
+			for (int x = 0; x < width; x++) {
+				double w = B*input.data[indexIn + x] + a1*w1 + a2*w2 + a3*w3;
+				work[x] = w;
+				w3 = w2; w2 = w1; w1 = w;
+			}
+
+			// anti-causal pass.  The signal is extended to the right using the last value
+			double u = input.data[indexIn + width - 1];
+			double d1 = w1 - u, d2 = w2 - u, d3 = w3 - u;
+			double y1 = B*(M[0]*d1 + M[1]*d2 + M[2]*d3) + u;
+			double y2 = B*(M[3]*d1 + M[4]*d2 + M[5]*d3) + u;
+			double y3 = B*(M[6]*d1 + M[7]*d2 + M[8]*d3) + u;
+			output.data[indexOut + width - 1] = (float)y1;
+			for (int x = width - 2; x >= 0; x--) {
+				double v = B*work[x] + a1*y1 + a2*y2 + a3*y3;
+				output.data[indexOut + x] = (float)v;
+				y3 = y2; y2 = y1; y1 = v;
+			}
+		}
+	}
+
+	/**
+	 * Blurs each column in the image.  The image is traversed row by row, with all the columns being processed
+	 * at once.  The input and output can be the same image.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output Output image.  Modified.
+	 */
+	public void vertical( GrayF32 input , GrayF32 output ) {
+		final int width = input.width;
+		final int height = input.height;
+		declareRows(width);
+
+		// save the last row since the input can be overwritten
+		int indexLast = input.startIndex + (height-1)*input.stride;
+		for (int x = 0; x < width; x++) {
+			last[x] = input.data[indexLast + x];
+		}
+
+		// causal pass.  The signal is extended up using the first row
+		double p1[] = row1, p2[] = row2, p3[] = row3;
+		for (int x = 0; x < width; x++) {
+			p1[x] = p2[x] = p3[x] = input.data[input.startIndex + x];
+		}
+		for (int y = 0; y < height; y++) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+			for (int x = 0; x < width; x++) {
+				double w = B*input.data[indexIn + x] + a1*p1[x] + a2*p2[x] + a3*p3[x];
+				p3[x] = w;
+				output.data[indexOut + x] = (float)w;
+			}
+			double tmp[] = p3; p3 = p2; p2 = p1; p1 = tmp;
+		}
+
+		// anti-causal pass.  The signal is extended down using the last row
+		int indexOut = output.startIndex + (height-1)*output.stride;
+		for (int x = 0; x < width; x++) {
+			double u = last[x];
+			double d1 = p1[x] - u, d2 = p2[x] - u, d3 = p3[x] - u;
+			p1[x] = B*(M[0]*d1 + M[1]*d2 + M[2]*d3) + u;
+			p2[x] = B*(M[3]*d1 + M[4]*d2 + M[5]*d3) + u;
+			p3[x] = B*(M[6]*d1 + M[7]*d2 + M[8]*d3) + u;
+			output.data[indexOut + x] = (float)p1[x];
+		}
+		for (int y = height - 2; y >= 0; y--) {
+			indexOut = output.startIndex + y*output.stride;
+			for (int x = 0; x < width; x++) {
+				double v = B*output.data[indexOut + x] + a1*p1[x] + a2*p2[x] + a3*p3[x];
+				p3[x] = v;
+				output.data[indexOut + x] = (float)v;
+			}
+			double tmp[] = p3; p3 = p2; p2 = p1; p1 = tmp;
+		}
+	}
+
+	/**
+	 * Blurs each row in the image.  The input and output can be the same image.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output Output image.  Modified.
+	 */
+	public void horizontal( GrayF64 input , GrayF64 output ) {
+		final int width = input.width;
+		if( work.length < width )
+			work = new double[ width ];
+
+		for (int y = 0; y < input.height; y++) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+
+			// causal pass.  The signal is extended to the left using the first value
+			double w1 = input.data[indexIn], w2 = w1, w3 = w1;
+			for (int x = 0; x < width; x++) {
+				double w = B*input.data[indexIn + x] + a1*w1 + a2*w2 + a3*w3;
+				work[x] = w;
+				w3 = w2; w2 = w1; w1 = w;
+			}
+
+			// anti-causal pass.  The signal is extended to the right using the last value
+			double u = input.data[indexIn + width - 1];
+			double d1 = w1 - u, d2 = w2 - u, d3 = w3 - u;
+			double y1 = B*(M[0]*d1 + M[1]*d2 + M[2]*d3) + u;
+			double y2 = B*(M[3]*d1 + M[4]*d2 + M[5]*d3) + u;
+			double y3 = B*(M[6]*d1 + M[7]*d2 + M[8]*d3) + u;
+			output.data[indexOut + width - 1] = y1;
+			for (int x = width - 2; x >= 0; x--) {
+				double v = B*work[x] + a1*y1 + a2*y2 + a3*y3;
+				output.data[indexOut + x] = v;
+				y3 = y2; y2 = y1; y1 = v;
+			}
+		}
+	}
+
+	/**
+	 * Blurs each column in the image.  The image is traversed row by row, with all the columns being processed
+	 * at once.  The input and output can be the same image.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output Output image.  Modified.
+	 */
+	public void vertical( GrayF64 input , GrayF64 output ) {
+		final int width = input.width;
+		final int height = input.height;
+		declareRows(width);
+
+		// save the last row since the input can be overwritten
+		int indexLast = input.startIndex + (height-1)*input.stride;
+		for (int x = 0; x < width; x++) {
+			last[x] = input.data[indexLast + x];
+		}
+
+		// causal pass.  The signal is extended up using the first row
+		double p1[] = row1, p2[] = row2, p3[] = row3;
+		for (int x = 0; x < width; x++) {
+			p1[x] = p2[x] = p3[x] = input.data[input.startIndex + x];
+		}
+		for (int y = 0; y < height; y++) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+			for (int x = 0; x < width; x++) {
+				double w = B*input.data[indexIn + x] + a1*p1[x] + a2*p2[x] + a3*p3[x];
+				p3[x] = w;
+				output.data[indexOut + x] = w;
+			}
+			double tmp[] = p3; p3 = p2; p2 = p1; p1 = tmp;
+		}
+
+		// anti-causal pass.  The signal is extended down using the last row
+		int indexOut = output.startIndex + (height-1)*output.stride;
+		for (int x = 0; x < width; x++) {
+			double u = last[x];
+			double d1 = p1[x] - u, d2 = p2[x] - u, d3 = p3[x] - u;
+			p1[x] = B*(M[0]*d1 + M[1]*d2 + M[2]*d3) + u;
+			p2[x] = B*(M[3]*d1 + M[4]*d2 + M[5]*d3) + u;
+			p3[x] = B*(M[6]*d1 + M[7]*d2 + M[8]*d3) + u;
+			output.data[indexOut + x] = p1[x];
+		}
+		for (int y = height - 2; y >= 0; y--) {
+			indexOut = output.startIndex + y*output.stride;
+			for (int x = 0; x < width; x++) {
+				double v = B*output.data[indexOut + x] + a1*p1[x] + a2*p2[x] + a3*p3[x];
+				p3[x] = v;
+				output.data[indexOut + x] = v;
+			}
+			double tmp[] = p3; p3 = p2; p2 = p1; p1 = tmp;
+		}
+	}
+
+	private void declareRows( int width ) {
+		if( row1.length < width ) {
+			row1 = new double[ width ];
+			row2 = new double[ width ];
+			row3 = new double[ width ];
+			last = new double[ width ];
+		}
+	}
+
+	public double getSigma() {
+		return sigma;
+	}
+}
@@ -20,6 +20,7 @@ package boofcv.alg.filter.convolve;
 
 import boofcv.alg.InputSanityCheck;
 import boofcv.alg.filter.convolve.noborder.*;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.convolve.*;
 import boofcv.struct.image.*;
 
@@ -41,6 +42,11 @@ import boofcv.struct.image.*;
  * handle image edges specialized functions are provided.
  * </p>
  *
+ * <p>
+ * Concurrency: If {@link BoofConcurrency#USE_CONCURRENT} is true then {@link ConvolveImageNoBorder_MT} is called
+ * instead, which produces identical results using multiple threads.
+ * </p>
+ *
  * @author Peter Abeles
  */
 @SuppressWarnings({"ForLoopReplaceableByForEach"})
@@ -57,6 +63,11 @@ public class ConvolveImageNoBorder {
 								  GrayF32 input, GrayF32 output) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.horizontal(kernel, input, output);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_F32_F32.horizontal(kernel, input, output))
 			ConvolveImageStandard.horizontal(kernel, input, output);
 	}
@@ -72,6 +83,11 @@ public class ConvolveImageNoBorder {
 								  GrayF64 input, GrayF64 output) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.horizontal(kernel, input, output);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_F64_F64.horizontal(kernel, input, output))
 			ConvolveImageStandard.horizontal(kernel, input, output);
 	}
@@ -87,6 +103,11 @@ public class ConvolveImageNoBorder {
 								  GrayU8 input, GrayI8 output, int divisor ) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.horizontal(kernel, input, output, divisor);
+			return;
+		}
+
 		if( !ConvolveImageUnrolled_U8_I8_Div.horizontal(kernel, input,  output, divisor))
 			ConvolveImageStandard.horizontal(kernel, input,  output, divisor);
 	}
@@ -101,6 +122,11 @@ public class ConvolveImageNoBorder {
 	public static void horizontal(Kernel1D_I32 kernel, GrayU8 input, GrayI16 output ) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.horizontal(kernel, input, output);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_U8_I16.horizontal(kernel, input,  output ))
 			ConvolveImageStandard.horizontal(kernel, input,  output);
 	}
@@ -116,6 +142,11 @@ public class ConvolveImageNoBorder {
 								  GrayU8 input, GrayS32 output ) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.horizontal(kernel, input, output);
+			return;
+		}
+
 		// todo add unroll
 		ConvolveImageStandard.horizontal(kernel, input, output);
 	}
@@ -130,6 +161,11 @@ public class ConvolveImageNoBorder {
 	public static void horizontal(Kernel1D_I32 kernel, GrayS16 input, GrayI16 output) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.horizontal(kernel, input, output);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_S16_I16.horizontal(kernel, input, output))
 			ConvolveImageStandard.horizontal(kernel, input, output);
 	}
@@ -146,6 +182,11 @@ public class ConvolveImageNoBorder {
 								  GrayS16 input, GrayI16 output, int divisor) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.horizontal(kernel, input, output, divisor);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_S16_I16_Div.horizontal(kernel, input, output, divisor))
 			ConvolveImageStandard.horizontal(kernel, input, output, divisor);
 	}
@@ -162,6 +203,11 @@ public class ConvolveImageNoBorder {
 								  GrayS32 input, GrayS32 output, int divisor) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.horizontal(kernel, input, output, divisor);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_S32_S32_Div.horizontal(kernel, input, output, divisor))
 			ConvolveImageStandard.horizontal(kernel, input, output, divisor);
 	}
@@ -177,6 +223,11 @@ public class ConvolveImageNoBorder {
 	public static void vertical(Kernel1D_F32 kernel, GrayF32 input, GrayF32 output) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.vertical(kernel, input, output);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_F32_F32.vertical(kernel, input,  output))
 			ConvolveImageStandard.vertical(kernel, input,  output);
 	}
@@ -192,6 +243,11 @@ public class ConvolveImageNoBorder {
 	public static void vertical(Kernel1D_F64 kernel, GrayF64 input, GrayF64 output) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.vertical(kernel, input, output);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_F64_F64.vertical(kernel, input,  output))
 			ConvolveImageStandard.vertical(kernel, input,  output);
 	}
@@ -208,6 +264,11 @@ public class ConvolveImageNoBorder {
 								GrayU8 input, GrayI8 output, int divisor) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.vertical(kernel, input, output, divisor);
+			return;
+		}
+
 		if( !ConvolveImageUnrolled_U8_I8_Div.vertical(kernel, input,  output, divisor))
 			ConvolveImageStandard.vertical(kernel, input,  output, divisor);
 	}
@@ -224,6 +285,11 @@ public class ConvolveImageNoBorder {
 								GrayU16 input, GrayI8 output, int divisor) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.vertical(kernel, input, output, divisor);
+			return;
+		}
+
 		// TODO unroll
 		ConvolveImageStandard.vertical(kernel, input,  output, divisor);
 	}
@@ -239,6 +305,11 @@ public class ConvolveImageNoBorder {
 	public static void vertical(Kernel1D_I32 kernel, GrayU8 input, GrayI16 output ) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.vertical(kernel, input, output);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_U8_I16.vertical(kernel, input,  output))
 			ConvolveImageStandard.vertical(kernel, input,  output);
 	}
@@ -254,6 +325,11 @@ public class ConvolveImageNoBorder {
 	public static void vertical(Kernel1D_I32 kernel, GrayU8 input, GrayS32 output ) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.vertical(kernel, input, output);
+			return;
+		}
+
 		// todo add unroll
 		ConvolveImageStandard.vertical(kernel, input,  output);
 	}
@@ -268,6 +344,11 @@ public class ConvolveImageNoBorder {
 	public static void vertical(Kernel1D_I32 kernel, GrayS16 input, GrayI16 output ) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.vertical(kernel, input, output);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_S16_I16.vertical(kernel, input,  output))
 			ConvolveImageStandard.vertical(kernel, input,  output);
 	}
@@ -284,6 +365,11 @@ public class ConvolveImageNoBorder {
 	public static void vertical(Kernel1D_I32 kernel, GrayS16 input, GrayI16 output, int divisor ) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.vertical(kernel, input, output, divisor);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_S16_I16_Div.vertical(kernel, input, output, divisor))
 			ConvolveImageStandard.vertical(kernel, input, output, divisor);
 	}
@@ -300,6 +386,11 @@ public class ConvolveImageNoBorder {
 	public static void vertical(Kernel1D_I32 kernel, GrayS32 input, GrayI16 output, int divisor ) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.vertical(kernel, input, output, divisor);
+			return;
+		}
+
 		// todo unroll
 		ConvolveImageStandard.vertical(kernel, input, output, divisor);
 	}
@@ -316,6 +407,11 @@ public class ConvolveImageNoBorder {
 	public static void vertical(Kernel1D_I32 kernel, GrayS32 input, GrayS32 output, int divisor ) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.vertical(kernel, input, output, divisor);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_S32_S32_Div.vertical(kernel, input, output, divisor))
 			ConvolveImageStandard.vertical(kernel, input, output, divisor);
 	}
@@ -330,6 +426,11 @@ public class ConvolveImageNoBorder {
 	public static void convolve(Kernel2D_F32 kernel, GrayF32 input, GrayF32 output) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.convolve(kernel, input, output);
+			return;
+		}
+
 		if( !ConvolveImageUnrolled_F32_F32.convolve(kernel,input,output))
 			ConvolveImageStandard.convolve(kernel, input,  output);
 	}
@@ -344,6 +445,11 @@ public class ConvolveImageNoBorder {
 	public static void convolve(Kernel2D_F64 kernel, GrayF64 input, GrayF64 output) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.convolve(kernel, input, output);
+			return;
+		}
+
 		if( !ConvolveImageUnrolled_F64_F64.convolve(kernel,input,output))
 			ConvolveImageStandard.convolve(kernel, input,  output);
 	}
@@ -360,6 +466,11 @@ public class ConvolveImageNoBorder {
 								GrayU8 input, GrayI8 output, int divisor) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.convolve(kernel, input, output, divisor);
+			return;
+		}
+
 		if( !ConvolveImageUnrolled_U8_I8_Div.convolve(kernel,input,output,divisor))
 			ConvolveImageStandard.convolve(kernel, input,  output, divisor);
 	}
@@ -374,6 +485,11 @@ public class ConvolveImageNoBorder {
 	public static void convolve(Kernel2D_I32 kernel, GrayU8 input, GrayI16 output) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.convolve(kernel, input, output);
+			return;
+		}
+
 		if( !ConvolveImageUnrolled_U8_I16.convolve(kernel,input,output))
 			ConvolveImageStandard.convolve(kernel, input,  output);
 	}
@@ -388,6 +504,11 @@ public class ConvolveImageNoBorder {
 	public static void convolve(Kernel2D_I32 kernel, GrayU8 input, GrayS32 output) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.convolve(kernel, input, output);
+			return;
+		}
+
 		// todo add unrolled
 		ConvolveImageStandard.convolve(kernel, input,  output);
 	}
@@ -402,6 +523,11 @@ public class ConvolveImageNoBorder {
 	public static void convolve(Kernel2D_I32 kernel, GrayS16 input, GrayI16 output) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.convolve(kernel, input, output);
+			return;
+		}
+
 		if( !ConvolveImageUnrolled_S16_I16.convolve(kernel,input,output))
 			ConvolveImageStandard.convolve(kernel, input,  output);
 	}
@@ -417,6 +543,11 @@ public class ConvolveImageNoBorder {
 	public static void convolve(Kernel2D_I32 kernel, GrayS16 input, GrayI16 output, int divisor ) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.convolve(kernel, input, output, divisor);
+			return;
+		}
+
 		if( !ConvolveImageUnrolled_S16_I16_Div.convolve(kernel,input,output,divisor))
 			ConvolveImageStandard.convolve(kernel, input,  output, divisor);
 	}
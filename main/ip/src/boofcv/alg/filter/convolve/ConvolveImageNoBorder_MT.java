@@ -0,0 +1,663 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.filter.convolve;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.alg.filter.convolve.noborder.*;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.struct.convolve.*;
+import boofcv.struct.image.*;
+
+
+/**
+ * <p>
+ * Concurrent implementation of {@link ConvolveImageNoBorder}.  The image is split into horizontal bands of rows
+ * which are convolved in parallel by the thread pool in {@link BoofConcurrency}.  Each band is a sub-image
+ * which has been expanded by the kernel's extent along the y-axis, so that every output row is computed by exactly
+ * one band using the same single threaded code.  The output is identical to {@link ConvolveImageNoBorder}.
+ * </p>
+ *
+ * <p>
+ * Typically these functions are not called directly.  Instead set {@link BoofConcurrency#USE_CONCURRENT} to true
+ * and {@link ConvolveImageNoBorder} will call them.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings({"ForLoopReplaceableByForEach"})
+public class ConvolveImageNoBorder_MT {
+
+	/**
+	 * Minimum number of rows in each band.  Prevents small images from being split up into bands which are so
+	 * thin that the threading overhead dominates.
+	 */
+	public static int MIN_BAND_ROWS = 32;
+
+	/**
+	 * Performs a horizontal 1D convolution across the image.  The horizontal border is not processed.
+	 *
+	 * @param input	 The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 */
+	public static void horizontal(final Kernel1D_F32 kernel, final GrayF32 input, final GrayF32 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				GrayF32 bandIn = input.subimage(0, y0, input.width, y1);
+				GrayF32 bandOut = output.subimage(0, y0, output.width, y1);
+
+				if (!ConvolveImageUnrolled_F32_F32.horizontal(kernel, bandIn, bandOut))
+					ConvolveImageStandard.horizontal(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Performs a horizontal 1D convolution across the image.  The horizontal border is not processed.
+	 *
+	 * @param input	 The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 */
+	public static void horizontal(final Kernel1D_F64 kernel, final GrayF64 input, final GrayF64 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				GrayF64 bandIn = input.subimage(0, y0, input.width, y1);
+				GrayF64 bandOut = output.subimage(0, y0, output.width, y1);
+
+				if (!ConvolveImageUnrolled_F64_F64.horizontal(kernel, bandIn, bandOut))
+					ConvolveImageStandard.horizontal(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Performs a horizontal 1D convolution across the image.  The horizontal border is not processed.
+	 *
+	 * @param input	 The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 */
+	public static void horizontal(final Kernel1D_I32 kernel, final GrayU8 input, final GrayI8 output, final int divisor) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				GrayU8 bandIn = input.subimage(0, y0, input.width, y1);
+				GrayI8 bandOut = (GrayI8)output.subimage(0, y0, output.width, y1);
+
+				if (!ConvolveImageUnrolled_U8_I8_Div.horizontal(kernel, bandIn, bandOut, divisor))
+					ConvolveImageStandard.horizontal(kernel, bandIn, bandOut, divisor);
+			}
+		});
+	}
+
+	/**
+	 * Performs a horizontal 1D convolution across the image.  The horizontal border is not processed.
+	 *
+	 * @param input	 The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 */
+	public static void horizontal(final Kernel1D_I32 kernel, final GrayU8 input, final GrayI16 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				GrayU8 bandIn = input.subimage(0, y0, input.width, y1);
+				GrayI16 bandOut = (GrayI16)output.subimage(0, y0, output.width, y1);
+
+				if (!ConvolveImageUnrolled_U8_I16.horizontal(kernel, bandIn, bandOut))
+					ConvolveImageStandard.horizontal(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Performs a horizontal 1D convolution across the image.  The horizontal border is not processed.
+	 *
+	 * @param input	 The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 */
+	public static void horizontal(final Kernel1D_I32 kernel, final GrayU8 input, final GrayS32 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				GrayU8 bandIn = input.subimage(0, y0, input.width, y1);
+				GrayS32 bandOut = output.subimage(0, y0, output.width, y1);
+
+				ConvolveImageStandard.horizontal(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Performs a horizontal 1D convolution across the image.  The horizontal border is not processed.
+	 *
+	 * @param input	 The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 */
+	public static void horizontal(final Kernel1D_I32 kernel, final GrayS16 input, final GrayI16 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				GrayS16 bandIn = input.subimage(0, y0, input.width, y1);
+				GrayI16 bandOut = (GrayI16)output.subimage(0, y0, output.width, y1);
+
+				if (!ConvolveImageUnrolled_S16_I16.horizontal(kernel, bandIn, bandOut))
+					ConvolveImageStandard.horizontal(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Performs a horizontal 1D convolution across the image.  The horizontal border is not processed.
+	 *
+	 * @param input The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 * @param divisor The value that the convolved image is divided by.
+	 */
+	public static void horizontal(final Kernel1D_I32 kernel, final GrayS16 input, final GrayI16 output, final int divisor) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				GrayS16 bandIn = input.subimage(0, y0, input.width, y1);
+				GrayI16 bandOut = (GrayI16)output.subimage(0, y0, output.width, y1);
+
+				if (!ConvolveImageUnrolled_S16_I16_Div.horizontal(kernel, bandIn, bandOut, divisor))
+					ConvolveImageStandard.horizontal(kernel, bandIn, bandOut, divisor);
+			}
+		});
+	}
+
+	/**
+	 * Performs a horizontal 1D convolution across the image.  The horizontal border is not processed.
+	 *
+	 * @param input The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 * @param divisor The value that the convolved image is divided by.
+	 */
+	public static void horizontal(final Kernel1D_I32 kernel, final GrayS32 input, final GrayS32 output, final int divisor) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				GrayS32 bandIn = input.subimage(0, y0, input.width, y1);
+				GrayS32 bandOut = output.subimage(0, y0, output.width, y1);
+
+				if (!ConvolveImageUnrolled_S32_S32_Div.horizontal(kernel, bandIn, bandOut, divisor))
+					ConvolveImageStandard.horizontal(kernel, bandIn, bandOut, divisor);
+			}
+		});
+	}
+
+	/**
+	 * Performs a vertical 1D convolution across the image in the vertical direction.
+	 * The vertical border is not processed.
+	 *
+	 * @param input The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 */
+	public static void vertical(final Kernel1D_F32 kernel, final GrayF32 input, final GrayF32 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				int top = bandTop(kernel, y0);
+				int bottom = bandBottom(kernel, y1, input.height);
+				GrayF32 bandIn = input.subimage(0, top, input.width, bottom);
+				GrayF32 bandOut = output.subimage(0, top, output.width, bottom);
+
+				if (!ConvolveImageUnrolled_F32_F32.vertical(kernel, bandIn, bandOut))
+					ConvolveImageStandard.vertical(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Performs a vertical 1D convolution across the image in the vertical direction.
+	 * The vertical border is not processed.
+	 *
+	 * @param input The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 */
+	public static void vertical(final Kernel1D_F64 kernel, final GrayF64 input, final GrayF64 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				int top = bandTop(kernel, y0);
+				int bottom = bandBottom(kernel, y1, input.height);
+				GrayF64 bandIn = input.subimage(0, top, input.width, bottom);
+				GrayF64 bandOut = output.subimage(0, top, output.width, bottom);
+
+				if (!ConvolveImageUnrolled_F64_F64.vertical(kernel, bandIn, bandOut))
+					ConvolveImageStandard.vertical(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Performs a vertical 1D convolution across the image in the vertical direction.
+	 * The vertical border is not processed.
+	 *
+	 * @param input The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 */
+	public static void vertical(final Kernel1D_I32 kernel, final GrayU8 input, final GrayI8 output, final int divisor) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				int top = bandTop(kernel, y0);
+				int bottom = bandBottom(kernel, y1, input.height);
+				GrayU8 bandIn = input.subimage(0, top, input.width, bottom);
+				GrayI8 bandOut = (GrayI8)output.subimage(0, top, output.width, bottom);
+
+				if (!ConvolveImageUnrolled_U8_I8_Div.vertical(kernel, bandIn, bandOut, divisor))
+					ConvolveImageStandard.vertical(kernel, bandIn, bandOut, divisor);
+			}
+		});
+	}
+
+	/**
+	 * Performs a vertical 1D convolution across the image in the vertical direction.
+	 * The vertical border is not processed.
+	 *
+	 * @param input The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 */
+	public static void vertical(final Kernel1D_I32 kernel, final GrayU16 input, final GrayI8 output, final int divisor) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				int top = bandTop(kernel, y0);
+				int bottom = bandBottom(kernel, y1, input.height);
+				GrayU16 bandIn = input.subimage(0, top, input.width, bottom);
+				GrayI8 bandOut = (GrayI8)output.subimage(0, top, output.width, bottom);
+
+				ConvolveImageStandard.vertical(kernel, bandIn, bandOut, divisor);
+			}
+		});
+	}
+
+	/**
+	 * Performs a vertical 1D convolution across the image in the vertical direction.
+	 * The vertical border is not processed.
+	 *
+	 * @param input The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 */
+	public static void vertical(final Kernel1D_I32 kernel, final GrayU8 input, final GrayI16 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				int top = bandTop(kernel, y0);
+				int bottom = bandBottom(kernel, y1, input.height);
+				GrayU8 bandIn = input.subimage(0, top, input.width, bottom);
+				GrayI16 bandOut = (GrayI16)output.subimage(0, top, output.width, bottom);
+
+				if (!ConvolveImageUnrolled_U8_I16.vertical(kernel, bandIn, bandOut))
+					ConvolveImageStandard.vertical(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Performs a vertical 1D convolution across the image in the vertical direction.
+	 * The vertical border is not processed.
+	 *
+	 * @param input The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 */
+	public static void vertical(final Kernel1D_I32 kernel, final GrayU8 input, final GrayS32 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				int top = bandTop(kernel, y0);
+				int bottom = bandBottom(kernel, y1, input.height);
+				GrayU8 bandIn = input.subimage(0, top, input.width, bottom);
+				GrayS32 bandOut = output.subimage(0, top, output.width, bottom);
+
+				ConvolveImageStandard.vertical(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Performs a vertical 1D convolution across the image in the vertical direction.
+	 * The vertical border is not processed.
+	 *
+	 * @param input The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 */
+	public static void vertical(final Kernel1D_I32 kernel, final GrayS16 input, final GrayI16 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				int top = bandTop(kernel, y0);
+				int bottom = bandBottom(kernel, y1, input.height);
+				GrayS16 bandIn = input.subimage(0, top, input.width, bottom);
+				GrayI16 bandOut = (GrayI16)output.subimage(0, top, output.width, bottom);
+
+				if (!ConvolveImageUnrolled_S16_I16.vertical(kernel, bandIn, bandOut))
+					ConvolveImageStandard.vertical(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Performs a vertical 1D convolution across the image in the vertical direction.
+	 * The vertical border is not processed.
+	 *
+	 * @param input The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 * @param divisor The value that the convolved image is divided by.
+	 */
+	public static void vertical(final Kernel1D_I32 kernel, final GrayS16 input, final GrayI16 output, final int divisor) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				int top = bandTop(kernel, y0);
+				int bottom = bandBottom(kernel, y1, input.height);
+				GrayS16 bandIn = input.subimage(0, top, input.width, bottom);
+				GrayI16 bandOut = (GrayI16)output.subimage(0, top, output.width, bottom);
+
+				if (!ConvolveImageUnrolled_S16_I16_Div.vertical(kernel, bandIn, bandOut, divisor))
+					ConvolveImageStandard.vertical(kernel, bandIn, bandOut, divisor);
+			}
+		});
+	}
+
+	/**
+	 * Performs a vertical 1D convolution across the image in the vertical direction.
+	 * The vertical border is not processed.
+	 *
+	 * @param input The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 * @param divisor The value that the convolved image is divided by.
+	 */
+	public static void vertical(final Kernel1D_I32 kernel, final GrayS32 input, final GrayI16 output, final int divisor) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				int top = bandTop(kernel, y0);
+				int bottom = bandBottom(kernel, y1, input.height);
+				GrayS32 bandIn = input.subimage(0, top, input.width, bottom);
+				GrayI16 bandOut = (GrayI16)output.subimage(0, top, output.width, bottom);
+
+				ConvolveImageStandard.vertical(kernel, bandIn, bandOut, divisor);
+			}
+		});
+	}
+
+	/**
+	 * Performs a vertical 1D convolution across the image in the vertical direction.
+	 * The vertical border is not processed.
+	 *
+	 * @param input The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 * @param divisor The value that the convolved image is divided by.
+	 */
+	public static void vertical(final Kernel1D_I32 kernel, final GrayS32 input, final GrayS32 output, final int divisor) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				int top = bandTop(kernel, y0);
+				int bottom = bandBottom(kernel, y1, input.height);
+				GrayS32 bandIn = input.subimage(0, top, input.width, bottom);
+				GrayS32 bandOut = output.subimage(0, top, output.width, bottom);
+
+				if (!ConvolveImageUnrolled_S32_S32_Div.vertical(kernel, bandIn, bandOut, divisor))
+					ConvolveImageStandard.vertical(kernel, bandIn, bandOut, divisor);
+			}
+		});
+	}
+
+	/**
+	 * Performs a 2D convolution across the image.  The image's borders are not processed.
+	 *
+	 * @param kernel A square kernel that will be convolved across the source image
+	 * @param input  The source image that is to be convolved
+	 * @param output   The results of the convolution
+	 */
+	public static void convolve(final Kernel2D_F32 kernel, final GrayF32 input, final GrayF32 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				int top = bandTop(kernel, y0);
+				int bottom = bandBottom(kernel, y1, input.height);
+				GrayF32 bandIn = input.subimage(0, top, input.width, bottom);
+				GrayF32 bandOut = output.subimage(0, top, output.width, bottom);
+
+				if (!ConvolveImageUnrolled_F32_F32.convolve(kernel, bandIn, bandOut))
+					ConvolveImageStandard.convolve(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Performs a 2D convolution across the image.  The image's borders are not processed.
+	 *
+	 * @param kernel A square kernel that will be convolved across the source image
+	 * @param input  The source image that is to be convolved
+	 * @param output   The results of the convolution
+	 */
+	public static void convolve(final Kernel2D_F64 kernel, final GrayF64 input, final GrayF64 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				int top = bandTop(kernel, y0);
+				int bottom = bandBottom(kernel, y1, input.height);
+				GrayF64 bandIn = input.subimage(0, top, input.width, bottom);
+				GrayF64 bandOut = output.subimage(0, top, output.width, bottom);
+
+				if (!ConvolveImageUnrolled_F64_F64.convolve(kernel, bandIn, bandOut))
+					ConvolveImageStandard.convolve(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Performs a 2D convolution with division across the image.  The image's borders are not processed.
+	 *
+	 * @param kernel  A square kernel that will be convolved across the source image
+	 * @param input   The source image that is to be convolved
+	 * @param output	The results of the convolution
+	 * @param divisor The value that the convolved image is divided by.
+	 */
+	public static void convolve(final Kernel2D_I32 kernel, final GrayU8 input, final GrayI8 output, final int divisor) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				int top = bandTop(kernel, y0);
+				int bottom = bandBottom(kernel, y1, input.height);
+				GrayU8 bandIn = input.subimage(0, top, input.width, bottom);
+				GrayI8 bandOut = (GrayI8)output.subimage(0, top, output.width, bottom);
+
+				if (!ConvolveImageUnrolled_U8_I8_Div.convolve(kernel, bandIn, bandOut, divisor))
+					ConvolveImageStandard.convolve(kernel, bandIn, bandOut, divisor);
+			}
+		});
+	}
+
+	/**
+	 * Performs a 2D convolution across the image.  The image's borders are not processed.
+	 *
+	 * @param kernel A square kernel that will be convolved across the source image
+	 * @param input  The source image that is to be convolved
+	 * @param output   The results of the convolution
+	 */
+	public static void convolve(final Kernel2D_I32 kernel, final GrayU8 input, final GrayI16 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				int top = bandTop(kernel, y0);
+				int bottom = bandBottom(kernel, y1, input.height);
+				GrayU8 bandIn = input.subimage(0, top, input.width, bottom);
+				GrayI16 bandOut = (GrayI16)output.subimage(0, top, output.width, bottom);
+
+				if (!ConvolveImageUnrolled_U8_I16.convolve(kernel, bandIn, bandOut))
+					ConvolveImageStandard.convolve(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Performs a 2D convolution across the image.  The image's borders are not processed.
+	 *
+	 * @param kernel A square kernel that will be convolved across the source image
+	 * @param input  The source image that is to be convolved
+	 * @param output   The results of the convolution
+	 */
+	public static void convolve(final Kernel2D_I32 kernel, final GrayU8 input, final GrayS32 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				int top = bandTop(kernel, y0);
+				int bottom = bandBottom(kernel, y1, input.height);
+				GrayU8 bandIn = input.subimage(0, top, input.width, bottom);
+				GrayS32 bandOut = output.subimage(0, top, output.width, bottom);
+
+				ConvolveImageStandard.convolve(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Performs a 2D convolution across the image.  The image's borders are not processed.
+	 *
+	 * @param kernel A square kernel that will be convolved across the source image
+	 * @param input  The source image that is to be convolved
+	 * @param output   The results of the convolution
+	 */
+	public static void convolve(final Kernel2D_I32 kernel, final GrayS16 input, final GrayI16 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				int top = bandTop(kernel, y0);
+				int bottom = bandBottom(kernel, y1, input.height);
+				GrayS16 bandIn = input.subimage(0, top, input.width, bottom);
+				GrayI16 bandOut = (GrayI16)output.subimage(0, top, output.width, bottom);
+
+				if (!ConvolveImageUnrolled_S16_I16.convolve(kernel, bandIn, bandOut))
+					ConvolveImageStandard.convolve(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Performs a 2D convolution across the image.  The image's borders are not processed.
+	 *
+	 * @param kernel A square kernel that will be convolved across the source image
+	 * @param input  The source image that is to be convolved
+	 * @param output   The results of the convolution
+	 * @param divisor The value that the convolved image is divided by.
+	 */
+	public static void convolve(final Kernel2D_I32 kernel, final GrayS16 input, final GrayI16 output, final int divisor) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		BoofConcurrency.loopBlocks(0, output.height, MIN_BAND_ROWS, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				int top = bandTop(kernel, y0);
+				int bottom = bandBottom(kernel, y1, input.height);
+				GrayS16 bandIn = input.subimage(0, top, input.width, bottom);
+				GrayI16 bandOut = (GrayI16)output.subimage(0, top, output.width, bottom);
+
+				if (!ConvolveImageUnrolled_S16_I16_Div.convolve(kernel, bandIn, bandOut, divisor))
+					ConvolveImageStandard.convolve(kernel, bandIn, bandOut, divisor);
+			}
+		});
+	}
+
+	/**
+	 * First row in the input band which is needed to compute output rows starting at y0
+	 */
+	private static int bandTop( KernelBase kernel , int y0 ) {
+		return Math.max(0, y0 - kernel.getOffset());
+	}
+
+	/**
+	 * Row after the last row in the input band which is needed to compute output rows up to y1
+	 */
+	private static int bandBottom( KernelBase kernel , int y1 , int height ) {
+		return Math.min(height, y1 + kernel.getWidth() - 1 - kernel.getOffset());
+	}
+}
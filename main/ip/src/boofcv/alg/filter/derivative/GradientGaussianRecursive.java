@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.filter.derivative;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.alg.filter.blur.BlurImageOps;
+import boofcv.core.image.border.FactoryImageBorderAlgs;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayF64;
+
+/**
+ * <p>
+ * Computes the image gradient after blurring the image with a recursive (IIR) Gaussian filter.  This approximates
+ * convolution with the derivative of a Gaussian kernel, but the cost per pixel does not depend on sigma.  As
+ * suggested by Young and van Vliet, the image is first blurred using
+ * {@link BlurImageOps#gaussianRecursive(GrayF32, GrayF32, double)}, then the derivative is computed using
+ * {@link GradientThree}.  The image border is handled by extending the blurred image, which is consistent with
+ * how the recursive filter handles the border.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class GradientGaussianRecursive {
+
+	/**
+	 * Computes the derivative of a Gaussian blurred {@link GrayF32} along the x and y axes.
+	 *
+	 * @param orig Image which is to be differentiated. Not Modified.
+	 * @param derivX Derivative along the x-axis. Modified.
+	 * @param derivY Derivative along the y-axis. Modified.
+	 * @param sigma Gaussian distribution's sigma.  Must be &ge; 0.5
+	 * @param storage (Optional) Storage for the blurred image.  Reshaped to match the input.  Can be null.  Modified.
+	 */
+	public static void process(GrayF32 orig, GrayF32 derivX, GrayF32 derivY, double sigma, GrayF32 storage ) {
+		InputSanityCheck.checkSameShape(orig, derivX, derivY);
+		if( storage == null )
+			storage = new GrayF32(orig.width, orig.height);
+		else
+			storage.reshape(orig.width, orig.height);
+
+		BlurImageOps.gaussianRecursive(orig, storage, sigma);
+		GradientThree.process(storage, derivX, derivY, FactoryImageBorderAlgs.extend(storage));
+	}
+
+	/**
+	 * Computes the derivative of a Gaussian blurred {@link GrayF64} along the x and y axes.
+	 *
+	 * @param orig Image which is to be differentiated. Not Modified.
+	 * @param derivX Derivative along the x-axis. Modified.
+	 * @param derivY Derivative along the y-axis. Modified.
+	 * @param sigma Gaussian distribution's sigma.  Must be &ge; 0.5
+	 * @param storage (Optional) Storage for the blurred image.  Reshaped to match the input.  Can be null.  Modified.
+	 */
+	public static void process(GrayF64 orig, GrayF64 derivX, GrayF64 derivY, double sigma, GrayF64 storage ) {
+		InputSanityCheck.checkSameShape(orig, derivX, derivY);
+		if( storage == null )
+			storage = new GrayF64(orig.width, orig.height);
+		else
+			storage.reshape(orig.width, orig.height);
+
+		BlurImageOps.gaussianRecursive(orig, storage, sigma);
+		gradientThree(storage, derivX, derivY);
+	}
+
+	/**
+	 * Same as {@link GradientThree} with an extended border.  {@link GradientThree} doesn't support {@link GrayF64}.
+	 */
+	private static void gradientThree(GrayF64 orig, GrayF64 derivX, GrayF64 derivY) {
+		final double[] data = orig.data;
+		final int width = orig.width;
+		final int height = orig.height;
+
+		for (int y = 0; y < height; y++) {
+			// pixels outside the image have the same value as the closest pixel inside
+			int up = y > 0 ? orig.stride : 0;
+			int down = y < height - 1 ? orig.stride : 0;
+
+			int indexX = derivX.startIndex + derivX.stride * y;
+			int indexY = derivY.startIndex + derivY.stride * y;
+			int indexSrc = orig.startIndex + orig.stride * y;
+
+			for (int x = 0; x < width; x++, indexSrc++) {
+				int left = x > 0 ? 1 : 0;
+				int right = x < width - 1 ? 1 : 0;
+
+				derivX.data[indexX++] = (data[indexSrc + right] - data[indexSrc - left]) * 0.5;
+				derivY.data[indexY++] = (data[indexSrc + down] - data[indexSrc - up]) * 0.5;
+			}
+		}
+	}
+}
@@ -51,6 +51,9 @@ public class ImageLocalNormalization<T extends GrayF> {
 
 	protected Class<T> imageType;
 
+	// how the image border is handled
+	protected BorderType borderType;
+
 	// handle the image border.  If null then normalization is used
 	ImageBorder<T> border;
 
@@ -62,6 +65,7 @@ public class ImageLocalNormalization<T extends GrayF> {
 	 */
 	public ImageLocalNormalization( Class<T> imageType , BorderType borderType ) {
 		this.imageType = imageType;
+		this.borderType = borderType;
 
 		if( borderType != BorderType.NORMALIZED )
 			border = FactoryImageBorder.generic(borderType, ImageType.single(imageType));
@@ -217,4 +221,8 @@ public class ImageLocalNormalization<T extends GrayF> {
 	public Class<T> getImageType() {
 		return imageType;
 	}
+
+	public BorderType getBorderType() {
+		return borderType;
+	}
 }
@@ -0,0 +1,569 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.misc;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.struct.image.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * High level interface for applying a sequence of pixel-wise operations to an image without creating intermediate
+ * images.  Uses a flow style interface, like {@link boofcv.abst.distort.FDistort}.  Operations are recorded
+ * and nothing is computed until {@link #apply} is called.  Then each row in the input is converted into floats,
+ * every operation is applied to the row, and the results are written into the output image.  This way the
+ * input and output images are only traversed once and the row being processed stays in the cache, instead of
+ * a full pass over memory for each operation.
+ * </p>
+ *
+ * <p>
+ * The results are identical to converting the input into a {@link GrayF32} with
+ * {@link boofcv.core.image.ConvertImage}, calling the equivalent {@link PixelMath} function for each operation on
+ * {@link GrayF32} images, then converting into the output type with {@link boofcv.core.image.ConvertImage}.
+ * If {@link BoofConcurrency#USE_CONCURRENT} is true then rows are processed concurrently.
+ * </p>
+ *
+ * <pre>
+ * new FPixelMath(inputU8).multiply(1.5f).plus(-20).boundImage(0,255).apply(outputU8);
+ * </pre>
+ *
+ * @author Peter Abeles
+ */
+public class FPixelMath {
+
+	// input image
+	ImageGray input;
+
+	// operations which are applied in order
+	List<Operation> operations = new ArrayList<>();
+
+	// minimum number of rows processed by a thread
+	int minBlock = 10;
+
+	/**
+	 * Specifies the input image
+	 */
+	public FPixelMath(ImageGray input) {
+		this.input = input;
+	}
+
+	/**
+	 * Changes the input image without discarding the operations.  Other images referenced by the operations
+	 * are not changed.
+	 */
+	public FPixelMath setInput(ImageGray input) {
+		this.input = input;
+		return this;
+	}
+
+	/**
+	 * Discards all the operations
+	 */
+	public FPixelMath reset() {
+		operations.clear();
+		return this;
+	}
+
+	/**
+	 * @see PixelMath#abs(GrayF32, GrayF32)
+	 */
+	public FPixelMath abs() {
+		operations.add(new Operation() {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				for (int i = 0; i < width; i++) {
+					row[i] = Math.abs(row[i]);
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * @see PixelMath#invert(GrayF32, GrayF32)
+	 */
+	public FPixelMath invert() {
+		operations.add(new Operation() {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				for (int i = 0; i < width; i++) {
+					row[i] = -row[i];
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * @see PixelMath#multiply(GrayF32, float, GrayF32)
+	 */
+	public FPixelMath multiply( final float value ) {
+		operations.add(new Operation() {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				for (int i = 0; i < width; i++) {
+					row[i] = row[i]*value;
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * @see PixelMath#multiply(GrayF32, float, float, float, GrayF32)
+	 */
+	public FPixelMath multiply( final float value , final float lower , final float upper ) {
+		operations.add(new Operation() {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				for (int i = 0; i < width; i++) {
+					float val = row[i]*value;
+					if( val < lower ) val = lower;
+					if( val > upper ) val = upper;
+					row[i] = val;
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * @see PixelMath#divide(GrayF32, float, GrayF32)
+	 */
+	public FPixelMath divide( final float denominator ) {
+		operations.add(new Operation() {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				for (int i = 0; i < width; i++) {
+					row[i] = row[i]/denominator;
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * @see PixelMath#divide(GrayF32, float, float, float, GrayF32)
+	 */
+	public FPixelMath divide( final float denominator , final float lower , final float upper ) {
+		operations.add(new Operation() {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				for (int i = 0; i < width; i++) {
+					float val = row[i]/denominator;
+					if( val < lower ) val = lower;
+					if( val > upper ) val = upper;
+					row[i] = val;
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * @see PixelMath#plus(GrayF32, float, GrayF32)
+	 */
+	public FPixelMath plus( final float value ) {
+		operations.add(new Operation() {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				for (int i = 0; i < width; i++) {
+					row[i] = row[i] + value;
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * @see PixelMath#plus(GrayF32, float, float, float, GrayF32)
+	 */
+	public FPixelMath plus( final float value , final float lower , final float upper ) {
+		operations.add(new Operation() {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				for (int i = 0; i < width; i++) {
+					float val = row[i] + value;
+					if( val < lower ) val = lower;
+					if( val > upper ) val = upper;
+					row[i] = val;
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * @see PixelMath#minus(GrayF32, float, GrayF32)
+	 */
+	public FPixelMath minus( final float value ) {
+		operations.add(new Operation() {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				for (int i = 0; i < width; i++) {
+					row[i] = row[i] - value;
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * @see PixelMath#minus(float, GrayF32, GrayF32)
+	 */
+	public FPixelMath minusFrom( final float value ) {
+		operations.add(new Operation() {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				for (int i = 0; i < width; i++) {
+					row[i] = value - row[i];
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * @see PixelMath#boundImage(GrayF32, float, float)
+	 */
+	public FPixelMath boundImage( final float min , final float max ) {
+		operations.add(new Operation() {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				for (int i = 0; i < width; i++) {
+					float value = row[i];
+					if( value < min )
+						row[i] = min;
+					else if( value > max )
+						row[i] = max;
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * @see PixelMath#log(GrayF32, GrayF32)
+	 */
+	public FPixelMath log() {
+		operations.add(new Operation() {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				for (int i = 0; i < width; i++) {
+					row[i] = (float)Math.log(1 + row[i]);
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * @see PixelMath#pow2(GrayF32, GrayF32)
+	 */
+	public FPixelMath pow2() {
+		operations.add(new Operation() {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				for (int i = 0; i < width; i++) {
+					float v = row[i];
+					row[i] = v*v;
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * @see PixelMath#sqrt(GrayF32, GrayF32)
+	 */
+	public FPixelMath sqrt() {
+		operations.add(new Operation() {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				for (int i = 0; i < width; i++) {
+					row[i] = (float)Math.sqrt(row[i]);
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * Adds another image to the current value.
+	 *
+	 * @see PixelMath#add(GrayF32, GrayF32, GrayF32)
+	 */
+	public FPixelMath add( final ImageGray image ) {
+		operations.add(new Operation(image) {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				readRow(image, y, work);
+				for (int i = 0; i < width; i++) {
+					row[i] = row[i] + work[i];
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * Subtracts another image from the current value
+	 *
+	 * @see PixelMath#subtract(GrayF32, GrayF32, GrayF32)
+	 */
+	public FPixelMath subtract( final ImageGray image ) {
+		operations.add(new Operation(image) {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				readRow(image, y, work);
+				for (int i = 0; i < width; i++) {
+					row[i] = row[i] - work[i];
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * Multiplies the current value by another image
+	 *
+	 * @see PixelMath#multiply(GrayF32, GrayF32, GrayF32)
+	 */
+	public FPixelMath multiply( final ImageGray image ) {
+		operations.add(new Operation(image) {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				readRow(image, y, work);
+				for (int i = 0; i < width; i++) {
+					row[i] = row[i] * work[i];
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * Divides the current value by another image
+	 *
+	 * @see PixelMath#divide(GrayF32, GrayF32, GrayF32)
+	 */
+	public FPixelMath divide( final ImageGray image ) {
+		operations.add(new Operation(image) {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				readRow(image, y, work);
+				for (int i = 0; i < width; i++) {
+					row[i] = row[i] / work[i];
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * Absolute value of the difference between the current value and another image
+	 *
+	 * @see PixelMath#diffAbs(GrayF32, GrayF32, GrayF32)
+	 */
+	public FPixelMath diffAbs( final ImageGray image ) {
+		operations.add(new Operation(image) {
+			@Override
+			void process(float[] row, float[] work, int y, int width) {
+				readRow(image, y, work);
+				for (int i = 0; i < width; i++) {
+					row[i] = Math.abs(row[i] - work[i]);
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * Applies all the operations to the input image and writes the results into the output image.  The
+	 * output can be the same instance as the input.
+	 *
+	 * @param output Output image.  Must be the same shape as the input.  Modified.
+	 * @return The output image
+	 */
+	public <T extends ImageGray> T apply( final T output ) {
+		InputSanityCheck.checkSameShape(input, output);
+		for (int i = 0; i < operations.size(); i++) {
+			Operation op = operations.get(i);
+			if( op.image != null )
+				InputSanityCheck.checkSameShape(input, op.image);
+		}
+
+		IntRangeTask task = new IntRangeTask() {
+			@Override
+			public void process(int minInclusive, int maxExclusive) {
+				processRows(output, minInclusive, maxExclusive);
+			}
+		};
+
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			BoofConcurrency.loopBlocks(0, input.height, minBlock, task);
+		} else {
+			task.process(0, input.height);
+		}
+
+		return output;
+	}
+
+	/**
+	 * Applies all the operations and writes the results into a new {@link GrayF32}
+	 */
+	public GrayF32 apply() {
+		return apply(new GrayF32(input.width, input.height));
+	}
+
+	/**
+	 * Applies the operations to a range of rows
+	 */
+	void processRows( ImageGray output , int y0 , int y1 ) {
+		int width = input.width;
+		float[] row = new float[width];
+		float[] work = new float[width];
+
+		for (int y = y0; y < y1; y++) {
+			readRow(input, y, row);
+			for (int i = 0; i < operations.size(); i++) {
+				operations.get(i).process(row, work, y, width);
+			}
+			writeRow(row, y, output);
+		}
+	}
+
+	/**
+	 * Converts a row in the image into floats the same way {@link boofcv.core.image.ConvertImage} does
+	 */
+	static void readRow( ImageGray image , int y , float[] row ) {
+		int index = image.startIndex + y*image.stride;
+		int width = image.width;
+
+		if( image instanceof GrayF32 ) {
+			System.arraycopy(((GrayF32)image).data, index, row, 0, width);
+		} else if( image instanceof GrayU8 ) {
+			byte[] data = ((GrayU8)image).data;
+			for (int i = 0; i < width; i++) {
+				row[i] = (float)(data[index++] & 0xFF);
+			}
+		} else if( image instanceof GrayS8 ) {
+			byte[] data = ((GrayS8)image).data;
+			for (int i = 0; i < width; i++) {
+				row[i] = (float)(data[index++]);
+			}
+		} else if( image instanceof GrayU16 ) {
+			short[] data = ((GrayU16)image).data;
+			for (int i = 0; i < width; i++) {
+				row[i] = (float)(data[index++] & 0xFFFF);
+			}
+		} else if( image instanceof GrayS16 ) {
+			short[] data = ((GrayS16)image).data;
+			for (int i = 0; i < width; i++) {
+				row[i] = (float)(data[index++]);
+			}
+		} else if( image instanceof GrayS32 ) {
+			int[] data = ((GrayS32)image).data;
+			for (int i = 0; i < width; i++) {
+				row[i] = (float)(data[index++]);
+			}
+		} else if( image instanceof GrayS64 ) {
+			long[] data = ((GrayS64)image).data;
+			for (int i = 0; i < width; i++) {
+				row[i] = (float)(data[index++]);
+			}
+		} else if( image instanceof GrayF64 ) {
+			double[] data = ((GrayF64)image).data;
+			for (int i = 0; i < width; i++) {
+				row[i] = (float)(data[index++]);
+			}
+		} else {
+			throw new IllegalArgumentException("Unsupported image type "+image.getClass().getSimpleName());
+		}
+	}
+
+	/**
+	 * Writes a row of floats into the image the same way {@link boofcv.core.image.ConvertImage} does
+	 */
+	static void writeRow( float[] row , int y , ImageGray image ) {
+		int index = image.startIndex + y*image.stride;
+		int width = image.width;
+
+		if( image instanceof GrayF32 ) {
+			System.arraycopy(row, 0, ((GrayF32)image).data, index, width);
+		} else if( image instanceof GrayI8 ) {
+			byte[] data = ((GrayI8)image).data;
+			for (int i = 0; i < width; i++) {
+				data[index++] = (byte)row[i];
+			}
+		} else if( image instanceof GrayI16 ) {
+			short[] data = ((GrayI16)image).data;
+			for (int i = 0; i < width; i++) {
+				data[index++] = (short)row[i];
+			}
+		} else if( image instanceof GrayS32 ) {
+			int[] data = ((GrayS32)image).data;
+			for (int i = 0; i < width; i++) {
+				data[index++] = (int)row[i];
+			}
+		} else if( image instanceof GrayS64 ) {
+			long[] data = ((GrayS64)image).data;
+			for (int i = 0; i < width; i++) {
+				data[index++] = (long)row[i];
+			}
+		} else if( image instanceof GrayF64 ) {
+			double[] data = ((GrayF64)image).data;
+			for (int i = 0; i < width; i++) {
+				data[index++] = row[i];
+			}
+		} else {
+			throw new IllegalArgumentException("Unsupported image type "+image.getClass().getSimpleName());
+		}
+	}
+
+	/**
+	 * Pixel-wise operation which is applied to a row
+	 */
+	static abstract class Operation {
+		// image used by the operation, if any
+		ImageGray image;
+
+		Operation() {
+		}
+
+		Operation(ImageGray image) {
+			this.image = image;
+		}
+
+		/**
+		 * Applies the operation to the row
+		 *
+		 * @param row Values in the row.  Modified.
+		 * @param work Storage which the operation can use
+		 * @param y Which row is being processed
+		 * @param width Number of elements in the row
+		 */
+		abstract void process(float[] row, float[] work, int y, int width);
+	}
+}
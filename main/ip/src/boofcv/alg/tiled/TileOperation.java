@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.tiled;
+
+import boofcv.struct.image.ImageGray;
+
+/**
+ * Operation which is applied to each tile in a {@link boofcv.struct.image.TiledImage} by
+ * {@link TiledImageExecutor}.  The input image contains the tile plus the surrounding halo, clipped
+ * to the image's bounds.  Only the output pixels inside the tile are used.
+ *
+ * @author Peter Abeles
+ */
+public interface TileOperation<In extends ImageGray, Out extends ImageGray> {
+
+	/**
+	 * Processes a region of the image.
+	 *
+	 * @param input Region of the input image, including the halo.  Not modified.
+	 * @param output Storage for the output image.  Same shape as the input.  Modified.
+	 * @param x0 x-coordinate of the region's top-left corner in the full image.
+	 * @param y0 y-coordinate of the region's top-left corner in the full image.
+	 */
+	void process( In input , Out output , int x0 , int y0 );
+}
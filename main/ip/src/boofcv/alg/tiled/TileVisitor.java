@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.tiled;
+
+import boofcv.struct.ImageRectangle;
+import boofcv.struct.image.ImageGray;
+
+/**
+ * Examines each tile in a {@link boofcv.struct.image.TiledImage}.  Typically used to detect features.  To
+ * avoid a feature being found more than once, only features inside the tile should be kept.  The halo
+ * provides the context needed to detect features near the tile's edge.
+ *
+ * @author Peter Abeles
+ */
+public interface TileVisitor<In extends ImageGray> {
+
+	/**
+	 * Examines a region of the image.
+	 *
+	 * @param input Region of the input image, including the halo.  Not modified.
+	 * @param x0 x-coordinate of the region's top-left corner in the full image.
+	 * @param y0 y-coordinate of the region's top-left corner in the full image.
+	 * @param tile The tile in full image coordinates.  Lower extent inclusive and upper extent exclusive.
+	 */
+	void visit( In input , int x0 , int y0 , ImageRectangle tile );
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.tiled;
+
+import boofcv.abst.filter.FilterImageInterface;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.struct.ImageRectangle;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.TiledImage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Applies algorithms designed for {@link ImageGray} to a {@link TiledImage} one tile at a time, so that only a
+ * few tiles need to be in memory.  Each tile is processed along with a halo of pixels around it, which is clipped
+ * at the image's border.  If an algorithm only looks at pixels within the halo's distance of each output pixel,
+ * e.g. a convolution whose radius is at most the halo, then the output will be identical to processing the
+ * entire image at once, including along the image border.
+ * </p>
+ *
+ * <p>
+ * If {@link BoofConcurrency#USE_CONCURRENT} is true and more than one worker is provided, then tiles are processed
+ * in parallel with each worker processing every N-th tile.  Each worker must be a separate instance since
+ * most algorithms have internal storage.
+ * </p>
+ *
+ * <p>
+ * The input and output must be different images.  Tiles are written to the output while other tiles are still
+ * being read, so if they were the same image a halo could contain pixels which have already been processed.
+ * </p>
+ *
+ * <p>
+ * The tiled images need to be able to cache enough tiles.  With a halo, a region overlaps its tile and up to 8
+ * neighbors, and each worker is on a different tile at the same time.  So maxCachedTiles should be about
+ * 9*workers for the input.  Otherwise, since workers move through the tiles in an interleaved order, tiles
+ * are discarded before their neighbors are done with them and are then read from the file again.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class TiledImageExecutor {
+
+	// number of pixels around each tile which are also given to the algorithm
+	int halo;
+
+	/**
+	 * @param halo Number of pixels around each tile which are included in the region that's processed.
+	 */
+	public TiledImageExecutor(int halo) {
+		if( halo < 0 )
+			throw new IllegalArgumentException("Halo must be zero or more");
+		this.halo = halo;
+	}
+
+	/**
+	 * Processes the input image with a single operation.  See {@link #process(TiledImage, TiledImage, List)}.
+	 */
+	public <In extends ImageGray, Out extends ImageGray>
+	void process( TiledImage<In> input , TiledImage<Out> output , TileOperation<In,Out> operation ) {
+		List<TileOperation<In,Out>> workers = new ArrayList<>();
+		workers.add(operation);
+		process(input, output, workers);
+	}
+
+	/**
+	 * Processes every tile in the input image and writes the results into the output image.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output Output image.  Must have the same shape as the input and can't be the input.  Modified.
+	 * @param workers The operation.  One for each thread.
+	 */
+	public <In extends ImageGray, Out extends ImageGray>
+	void process( final TiledImage<In> input , final TiledImage<Out> output ,
+				  final List<TileOperation<In,Out>> workers ) {
+		if( input == (TiledImage)output )
+			throw new IllegalArgumentException("Input and output must be different images");
+		if( input.getWidth() != output.getWidth() || input.getHeight() != output.getHeight() )
+			throw new IllegalArgumentException("Input and output must have the same shape");
+
+		final int numTiles = input.getNumTilesX()*input.getNumTilesY();
+		final int numWorkers = BoofConcurrency.USE_CONCURRENT ? Math.min(workers.size(), numTiles) : 1;
+
+		BoofConcurrency.loopBlocks(0, numWorkers, 1, new IntRangeTask() {
+			@Override
+			public void process(int minInclusive, int maxExclusive) {
+				for (int index = minInclusive; index < maxExclusive; index++) {
+					TileOperation<In,Out> operation = workers.get(index);
+					Workspace<In,Out> work = new Workspace<>(input, output);
+
+					for (int i = index; i < numTiles; i += numWorkers) {
+						work.setTile(i);
+						input.getRegion(work.region.x0, work.region.y0, work.input);
+						operation.process(work.input, work.output, work.region.x0, work.region.y0);
+
+						work.output.subimage(work.tile.x0 - work.region.x0, work.tile.y0 - work.region.y0,
+								work.tile.x1 - work.region.x0, work.tile.y1 - work.region.y0, work.outputTile);
+						output.setRegion(work.tile.x0, work.tile.y0, work.outputTile);
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Visits the input image with a single visitor.  See {@link #visit(TiledImage, List)}.
+	 */
+	public <In extends ImageGray>
+	void visit( TiledImage<In> input , TileVisitor<In> visitor ) {
+		List<TileVisitor<In>> workers = new ArrayList<>();
+		workers.add(visitor);
+		visit(input, workers);
+	}
+
+	/**
+	 * Visits every tile in the input image.  When run concurrently, each visitor will see a different subset
+	 * of the tiles and results need to be combined after this function returns.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param workers The visitor.  One for each thread.
+	 */
+	public <In extends ImageGray>
+	void visit( final TiledImage<In> input , final List<TileVisitor<In>> workers ) {
+		final int numTiles = input.getNumTilesX()*input.getNumTilesY();
+		final int numWorkers = BoofConcurrency.USE_CONCURRENT ? Math.min(workers.size(), numTiles) : 1;
+
+		BoofConcurrency.loopBlocks(0, numWorkers, 1, new IntRangeTask() {
+			@Override
+			public void process(int minInclusive, int maxExclusive) {
+				for (int index = minInclusive; index < maxExclusive; index++) {
+					TileVisitor<In> visitor = workers.get(index);
+					Workspace<In,In> work = new Workspace<>(input, null);
+
+					for (int i = index; i < numTiles; i += numWorkers) {
+						work.setTile(i);
+						input.getRegion(work.region.x0, work.region.y0, work.input);
+						visitor.visit(work.input, work.region.x0, work.region.y0, work.tile);
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Creates an operation which applies the filter to each tile.  The halo should be at least as large as
+	 * the filter's border.
+	 */
+	public static <In extends ImageGray, Out extends ImageGray>
+	TileOperation<In,Out> wrap( final FilterImageInterface<In,Out> filter ) {
+		return new TileOperation<In, Out>() {
+			@Override
+			public void process(In input, Out output, int x0, int y0) {
+				filter.process(input, output);
+			}
+		};
+	}
+
+	public int getHalo() {
+		return halo;
+	}
+
+	/**
+	 * Storage used by a single worker
+	 */
+	private class Workspace<In extends ImageGray, Out extends ImageGray> {
+		TiledImage<In> image;
+
+		// region which is processed, which includes the halo
+		ImageRectangle region = new ImageRectangle();
+		// the tile
+		ImageRectangle tile = new ImageRectangle();
+
+		In input;
+		Out output;
+		Out outputTile;
+
+		Workspace( TiledImage<In> image , TiledImage<Out> outputImage ) {
+			this.image = image;
+			int maxWidth = Math.min(image.getWidth(), image.getTileWidth() + 2*halo);
+			int maxHeight = Math.min(image.getHeight(), image.getTileHeight() + 2*halo);
+			input = image.createImage(maxWidth, maxHeight);
+			if( outputImage != null ) {
+				output = outputImage.createImage(maxWidth, maxHeight);
+				outputTile = outputImage.createImage(1, 1);
+			}
+		}
+
+		void setTile( int index ) {
+			int tx = index%image.getNumTilesX();
+			int ty = index/image.getNumTilesX();
+
+			tile.x0 = tx*image.getTileWidth();
+			tile.y0 = ty*image.getTileHeight();
+			tile.x1 = Math.min(image.getWidth(), tile.x0 + image.getTileWidth());
+			tile.y1 = Math.min(image.getHeight(), tile.y0 + image.getTileHeight());
+
+			region.x0 = Math.max(0, tile.x0 - halo);
+			region.y0 = Math.max(0, tile.y0 - halo);
+			region.x1 = Math.min(image.getWidth(), tile.x1 + halo);
+			region.y1 = Math.min(image.getHeight(), tile.y1 + halo);
+
+			input.reshape(region.getWidth(), region.getHeight());
+			if( output != null )
+				output.reshape(region.getWidth(), region.getHeight());
+		}
+	}
+}
@@ -23,6 +23,8 @@ import boofcv.core.image.border.BorderType;
 import boofcv.factory.filter.convolve.FactoryConvolveDown;
 import boofcv.struct.convolve.Kernel1D;
 import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.ImagePool;
+import boofcv.struct.image.ImageType;
 import boofcv.struct.pyramid.PyramidDiscrete;
 
 /**
@@ -48,6 +50,9 @@ public class PyramidDiscreteSampleBlur<T extends ImageGray> extends PyramidDiscr
 
 	// stores the results from the first convolution
 	private T temp;
+
+	// (Optional) if not null then the results from the first convolution are stored in an image borrowed from it
+	private ImagePool pool;
 	GenericConvolveDown<T,T> horizontal;
 	GenericConvolveDown<T,T> vertical;
 
@@ -89,7 +94,7 @@ public class PyramidDiscreteSampleBlur<T extends ImageGray> extends PyramidDiscr
 	public void process(T input) {
 		super.initialize(input.width,input.height);
 
-		if( temp == null ) {
+		if( temp == null && pool == null ) {
 			// declare it to be the latest image that it might need to be, resize below
 			temp = (T)input.createNew(1,1);
 		}
@@ -106,24 +111,56 @@ public class PyramidDiscreteSampleBlur<T extends ImageGray> extends PyramidDiscr
 			horizontal.setSkip(skip);
 			vertical.setSkip(skip);
 
-			temp.reshape(input.width/skip,input.height);
-			horizontal.process(input,temp);
-			vertical.process(temp,getLayer(0));
+			T work = declareWork(input.width/skip,input.height);
+			horizontal.process(input,work);
+			vertical.process(work,getLayer(0));
+			releaseWork(work);
 		}
 
 		for (int index = 1; index < getNumLayers(); index++) {
 			int skip = scale[index]/scale[index-1];
 			T prev = getLayer(index-1);
-			temp.reshape(prev.width/skip,prev.height);
+			T work = declareWork(prev.width/skip,prev.height);
 
 			horizontal.setSkip(skip);
 			vertical.setSkip(skip);
 
-			horizontal.process(prev,temp);
-			vertical.process(temp,getLayer(index));
+			horizontal.process(prev,work);
+			vertical.process(work,getLayer(index));
+			releaseWork(work);
+		}
+	}
+
+	/**
+	 * Returns an image for storing the results of the first convolution.
+	 */
+	private T declareWork( int width , int height ) {
+		if( pool == null ) {
+			temp.reshape(width,height);
+			return temp;
+		} else {
+			return pool.borrow(ImageType.single(getImageType()),width,height);
 		}
 	}
 
+	private void releaseWork( T work ) {
+		if( pool != null )
+			pool.giveBack(work);
+	}
+
+	public ImagePool getImagePool() {
+		return pool;
+	}
+
+	/**
+	 * If set then workspace images are borrowed from the pool instead of being owned by this class
+	 *
+	 * @param pool Pool for workspace images.  Set to null to disable.
+	 */
+	public void setImagePool(ImagePool pool) {
+		this.pool = pool;
+	}
+
 	/**
 	 * There is no offset since a symmetric kernel is applied starting at pixel (0,0)
 	 *
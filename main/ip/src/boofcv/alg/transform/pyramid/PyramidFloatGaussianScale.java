@@ -22,9 +22,12 @@ import boofcv.abst.filter.blur.BlurStorageFilter;
 import boofcv.alg.distort.DistortImageOps;
 import boofcv.alg.distort.PixelTransformAffine_F32;
 import boofcv.alg.distort.impl.DistortSupport;
+import boofcv.alg.filter.blur.GBlurImageOps;
 import boofcv.alg.interpolate.InterpolatePixelS;
 import boofcv.factory.filter.blur.FactoryBlurFilter;
 import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.ImagePool;
+import boofcv.struct.image.ImageType;
 import boofcv.struct.pyramid.PyramidFloat;
 
 
@@ -52,12 +55,18 @@ public class PyramidFloatGaussianScale< T extends ImageGray> extends PyramidFloa
 	// used to store the blurred image
 	protected T tempImage;
 
+	// (Optional) if not null then the blurred image is borrowed from this pool
+	protected ImagePool pool;
+
 	// how much each layer is blurred before sub-sampling
 	protected float[] sigmaLayers;
 
 	// The effective amount of blur in each pyramid layer relative to the input image
 	protected double[] sigma;
 
+	// layers which are blurred using a sigma at or above this value use the recursive Gaussian filter
+	protected double minSigmaRecursive = Double.MAX_VALUE;
+
 	/**
 	 * Configures the pyramid
 	 *
@@ -94,7 +103,7 @@ public class PyramidFloatGaussianScale< T extends ImageGray> extends PyramidFloa
 		if( isSaveOriginalReference() )
 			throw new IllegalArgumentException("The original reference cannot be saved");
 
-		if( tempImage == null ) {
+		if( tempImage == null && pool == null ) {
 			tempImage = (T)input.createNew(input.width,input.height);
 		}
 
@@ -102,21 +111,65 @@ public class PyramidFloatGaussianScale< T extends ImageGray> extends PyramidFloa
 			T prev = i == 0 ? input : getLayer(i-1);
 			T layer = getLayer(i);
 
+			T blurred;
+			if( pool == null ) {
+				blurred = tempImage;
+				blurred.reshape(prev.width,prev.height);
+			} else {
+				blurred = pool.borrow(ImageType.single(getImageType()),prev.width,prev.height);
+			}
+
 			// Apply the requested blur to the previous layer
-			BlurStorageFilter<T> blur = (BlurStorageFilter<T>) FactoryBlurFilter.gaussian(layer.getClass(), sigmaLayers[i],-1);
-			tempImage.reshape(prev.width,prev.height);
-			blur.process(prev,tempImage);
+			if( sigmaLayers[i] >= minSigmaRecursive ) {
+				GBlurImageOps.gaussianRecursive(prev, blurred, sigmaLayers[i]);
+			} else {
+				BlurStorageFilter<T> blur = (BlurStorageFilter<T>) FactoryBlurFilter.gaussian(layer.getClass(), sigmaLayers[i],-1);
+				blur.process(prev,blurred);
+			}
 
 			// Resample the blurred image
 			if( scale[i] == 1 ) {
-				layer.setTo(tempImage);
+				layer.setTo(blurred);
 			} else {
-				PixelTransformAffine_F32 model = DistortSupport.transformScale(layer,tempImage, null);
-				DistortImageOps.distortSingle(tempImage,layer, true, model,interpolate);
+				PixelTransformAffine_F32 model = DistortSupport.transformScale(layer,blurred, null);
+				DistortImageOps.distortSingle(blurred,layer, true, model,interpolate);
 			}
+
+			if( pool != null )
+				pool.giveBack(blurred);
 		}
 	}
 
+	public ImagePool getImagePool() {
+		return pool;
+	}
+
+	/**
+	 * If set then workspace images are borrowed from the pool instead of being owned by this class
+	 *
+	 * @param pool Pool for workspace images.  Set to null to disable.
+	 */
+	public void setImagePool(ImagePool pool) {
+		this.pool = pool;
+	}
+
+	public double getMinSigmaRecursive() {
+		return minSigmaRecursive;
+	}
+
+	/**
+	 * Layers which are blurred using a sigma at or above this value will use
+	 * {@link GBlurImageOps#gaussianRecursive}, whose cost doesn't depend on sigma, instead of convolution.
+	 * Only floating point images are supported.  By default recursive blur is never used.
+	 *
+	 * @param minSigmaRecursive Smallest sigma which uses recursive blur.  Must be &ge; 0.5
+	 */
+	public void setMinSigmaRecursive(double minSigmaRecursive) {
+		if( minSigmaRecursive < 0.5 )
+			throw new IllegalArgumentException("Recursive Gaussian requires sigma >= 0.5");
+		this.minSigmaRecursive = minSigmaRecursive;
+	}
+
 	public InterpolatePixelS<T> getInterpolate() {
 		return interpolate;
 	}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * Global settings and a shared thread pool for algorithms which have a concurrent implementation.  By default
+ * everything runs single threaded.  Setting {@link #USE_CONCURRENT} to true will cause functions which support it
+ * to split their work up into blocks which are then processed by a shared {@link ForkJoinPool}.  Concurrent
+ * implementations are required to produce results which are identical to the single threaded version.
+ * </p>
+ *
+ * <p>
+ * Work is broken up into contiguous blocks, e.g. bands of image rows, with one block per thread.  If a function
+ * is called from inside a thread in the pool the blocks are forked into the same pool, so nested calls will not
+ * dead lock.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BoofConcurrency {
+
+	/**
+	 * If true then functions with a concurrent implementation will use it.
+	 */
+	public static boolean USE_CONCURRENT = false;
+
+	// pool which is shared by all concurrent algorithms
+	private static ForkJoinPool pool = new ForkJoinPool();
+
+	/**
+	 * Changes the maximum number of threads in the shared pool.  The old pool is shut down after it
+	 * finishes any work already submitted to it.
+	 *
+	 * @param maxThreads Maximum number of threads.  Must be &ge; 1
+	 */
+	public static synchronized void setMaxThreads( int maxThreads ) {
+		if( maxThreads < 1 )
+			throw new IllegalArgumentException("Number of threads must be at least one");
+		if( pool.getParallelism() == maxThreads )
+			return;
+		ForkJoinPool old = pool;
+		pool = new ForkJoinPool(maxThreads);
+		old.shutdown();
+	}
+
+	/**
+	 * Returns the maximum number of threads in the shared pool
+	 */
+	public static int getMaxThreads() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Returns the thread pool which is shared by all concurrent algorithms
+	 */
+	public static ForkJoinPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Splits the range into contiguous blocks, one for each thread, and processes them concurrently.  Blocks
+	 * will contain at least minBlock values, unless the range is smaller than that.  If only one block is
+	 * needed it is processed in the calling thread.  Returns after all blocks have been processed.
+	 *
+	 * @param start First value in the range, inclusive.
+	 * @param end Last value in the range, exclusive.
+	 * @param minBlock Minimum number of values in each block.  Must be &ge; 1
+	 * @param task Processes a single block.
+	 */
+	public static void loopBlocks( int start , int end , int minBlock , final IntRangeTask task ) {
+		int length = end-start;
+		if( length <= 0 )
+			return;
+
+		final ForkJoinPool pool = BoofConcurrency.pool;
+		int numBlocks = Math.min(pool.getParallelism(), length/Math.max(1,minBlock));
+
+		if( numBlocks <= 1 ) {
+			task.process(start,end);
+			return;
+		}
+
+		final List<RecursiveAction> actions = new ArrayList<RecursiveAction>();
+		for( int i = 0; i < numBlocks; i++ ) {
+			final int blockStart = start + (int)((long)length*i/numBlocks);
+			final int blockEnd = start + (int)((long)length*(i+1)/numBlocks);
+			actions.add(new RecursiveAction() {
+				@Override
+				protected void compute() {
+					task.process(blockStart,blockEnd);
+				}
+			});
+		}
+
+		if( ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == pool ) {
+			ForkJoinTask.invokeAll(actions);
+		} else {
+			pool.invoke(new RecursiveAction() {
+				@Override
+				protected void compute() {
+					invokeAll(actions);
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.concurrency;
+
+/**
+ * Processes a range of integer values, typically a band of image rows.  Used to pass a block of work
+ * into {@link BoofConcurrency}.
+ *
+ * @author Peter Abeles
+ */
+public interface IntRangeTask {
+
+	/**
+	 * Processes the range of values from minInclusive to maxExclusive.
+	 *
+	 * @param minInclusive First value in the range, inclusive.
+	 * @param maxExclusive Last value in the range, exclusive.
+	 */
+	void process( int minInclusive , int maxExclusive );
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.core.image;
+
+import boofcv.struct.image.*;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * Functions for converting an {@link ImageBufferU8} into standard BoofCV images.  Pixels are read directly
+ * from the buffer and converted as they are written into the output image, so a frame from a camera or native
+ * library can be turned into the image type an algorithm needs without first copying it into a Java array.
+ * Conversions follow the same conventions as {@link ConvertImage}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ConvertImageBuffer {
+
+	/**
+	 * Copies a single band buffer image into a {@link GrayU8}.
+	 *
+	 * @param input (Input) Single band image. Not modified.
+	 * @param output (Optional) The output image.  If null a new image is created. Modified.
+	 * @return Converted image.
+	 */
+	public static GrayU8 convert( ImageBufferU8 input , GrayU8 output ) {
+		checkBands(input, 1);
+		output = checkDeclare(input, output, GrayU8.class);
+
+		ByteBuffer data = input.data.duplicate();
+		for (int y = 0; y < input.height; y++) {
+			data.position(input.startIndex + y*input.stride);
+			data.get(output.data, output.startIndex + y*output.stride, input.width);
+		}
+
+		return output;
+	}
+
+	/**
+	 * Converts a single band buffer image into a {@link GrayF32}.
+	 *
+	 * @param input (Input) Single band image. Not modified.
+	 * @param output (Optional) The output image.  If null a new image is created. Modified.
+	 * @return Converted image.
+	 */
+	public static GrayF32 convert( ImageBufferU8 input , GrayF32 output ) {
+		checkBands(input, 1);
+		output = checkDeclare(input, output, GrayF32.class);
+
+		ByteBuffer data = input.data;
+		for (int y = 0; y < input.height; y++) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+			int end = indexIn + input.width;
+
+			for( ; indexIn < end; indexIn++ ) {
+				output.data[indexOut++] = data.get(indexIn) & 0xFF;
+			}
+		}
+
+		return output;
+	}
+
+	/**
+	 * Copies a buffer image into an {@link InterleavedU8} with the same number of bands.
+	 *
+	 * @param input (Input) Image. Not modified.
+	 * @param output (Optional) The output image.  If null a new image is created. Modified.
+	 * @return Converted image.
+	 */
+	public static InterleavedU8 convert( ImageBufferU8 input , InterleavedU8 output ) {
+		output = checkDeclareInterleaved(input, output, InterleavedU8.class);
+
+		ByteBuffer data = input.data.duplicate();
+		int length = input.width*input.numBands;
+		for (int y = 0; y < input.height; y++) {
+			data.position(input.startIndex + y*input.stride);
+			data.get(output.data, output.startIndex + y*output.stride, length);
+		}
+
+		return output;
+	}
+
+	/**
+	 * Converts a buffer image into an {@link InterleavedF32} with the same number of bands.
+	 *
+	 * @param input (Input) Image. Not modified.
+	 * @param output (Optional) The output image.  If null a new image is created. Modified.
+	 * @return Converted image.
+	 */
+	public static InterleavedF32 convert( ImageBufferU8 input , InterleavedF32 output ) {
+		output = checkDeclareInterleaved(input, output, InterleavedF32.class);
+
+		ByteBuffer data = input.data;
+		int length = input.width*input.numBands;
+		for (int y = 0; y < input.height; y++) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+			int end = indexIn + length;
+
+			for( ; indexIn < end; indexIn++ ) {
+				output.data[indexOut++] = data.get(indexIn) & 0xFF;
+			}
+		}
+
+		return output;
+	}
+
+	/**
+	 * Converts a buffer image into a {@link Planar} image with the same number of bands.
+	 *
+	 * @param input (Input) Image. Not modified.
+	 * @param output (Optional) The output image.  If null a new image is created. Modified.
+	 * @return Converted image.
+	 */
+	public static Planar<GrayU8> convert( ImageBufferU8 input , Planar<GrayU8> output ) {
+		if (output == null) {
+			output = new Planar<>(GrayU8.class, input.width, input.height, input.numBands);
+		} else if( output.width != input.width || output.height != input.height ) {
+			throw new IllegalArgumentException("Output image must have the same shape as the input");
+		} else if( output.getNumBands() != input.numBands ) {
+			throw new IllegalArgumentException("Output image must have the same number of bands as the input");
+		}
+
+		ByteBuffer data = input.data;
+		final int numBands = input.numBands;
+		for (int band = 0; band < numBands; band++) {
+			GrayU8 b = output.getBand(band);
+
+			for (int y = 0; y < input.height; y++) {
+				int indexIn = input.startIndex + y*input.stride + band;
+				int indexOut = b.startIndex + y*b.stride;
+				int end = indexOut + input.width;
+
+				for( ; indexOut < end; indexOut++ , indexIn += numBands ) {
+					b.data[indexOut] = data.get(indexIn);
+				}
+			}
+		}
+
+		return output;
+	}
+
+	/**
+	 * Converts a buffer image into a {@link GrayU8} by averaging each pixel across all the bands.
+	 *
+	 * @param input (Input) Image. Not modified.
+	 * @param output (Optional) The single band output image.  If null a new image is created. Modified.
+	 * @return Converted image.
+	 */
+	public static GrayU8 average( ImageBufferU8 input , GrayU8 output ) {
+		final int numBands = input.numBands;
+		if( numBands == 1 )
+			return convert(input, output);
+
+		output = checkDeclare(input, output, GrayU8.class);
+
+		ByteBuffer data = input.data;
+		for (int y = 0; y < input.height; y++) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+
+			for (int x = 0; x < input.width; x++) {
+				int sum = 0;
+				int indexInEnd = indexIn + numBands;
+				while( indexIn < indexInEnd ) {
+					sum += data.get(indexIn++) & 0xFF;
+				}
+				output.data[indexOut++] = (byte)(sum/numBands);
+			}
+		}
+
+		return output;
+	}
+
+	/**
+	 * Converts a buffer image into a {@link GrayF32} by averaging each pixel across all the bands.
+	 *
+	 * @param input (Input) Image. Not modified.
+	 * @param output (Optional) The single band output image.  If null a new image is created. Modified.
+	 * @return Converted image.
+	 */
+	public static GrayF32 average( ImageBufferU8 input , GrayF32 output ) {
+		final int numBands = input.numBands;
+		if( numBands == 1 )
+			return convert(input, output);
+
+		output = checkDeclare(input, output, GrayF32.class);
+
+		ByteBuffer data = input.data;
+		for (int y = 0; y < input.height; y++) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+
+			for (int x = 0; x < input.width; x++) {
+				int sum = 0;
+				int indexInEnd = indexIn + numBands;
+				while( indexIn < indexInEnd ) {
+					sum += data.get(indexIn++) & 0xFF;
+				}
+				output.data[indexOut++] = sum/(float)numBands;
+			}
+		}
+
+		return output;
+	}
+
+	private static void checkBands( ImageBufferU8 input , int numBands ) {
+		if( input.numBands != numBands )
+			throw new IllegalArgumentException("Expected "+numBands+" bands not "+input.numBands);
+	}
+
+	private static <T extends ImageGray> T checkDeclare( ImageBufferU8 input , T output , Class<T> type ) {
+		if( output == null )
+			return GeneralizedImageOps.createSingleBand(type, input.width, input.height);
+		if( output.width != input.width || output.height != input.height )
+			throw new IllegalArgumentException("Output image must have the same shape as the input");
+		return output;
+	}
+
+	private static <T extends ImageInterleaved> T checkDeclareInterleaved( ImageBufferU8 input , T output ,
+																		 Class<T> type ) {
+		if( output == null )
+			return GeneralizedImageOps.createInterleaved(type, input.width, input.height, input.numBands);
+		if( output.width != input.width || output.height != input.height )
+			throw new IllegalArgumentException("Output image must have the same shape as the input");
+		if( output.numBands != input.numBands )
+			throw new IllegalArgumentException("Output image must have the same number of bands as the input");
+		return output;
+	}
+}
@@ -19,6 +19,12 @@
 package boofcv.factory.filter.blur;
 
 import boofcv.abst.filter.blur.BlurStorageFilter;
+import boofcv.alg.filter.blur.BlurImageOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayF64;
+import boofcv.struct.image.GrayU16;
+import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageGray;
 
 /**
@@ -29,7 +35,9 @@ import boofcv.struct.image.ImageGray;
 public class FactoryBlurFilter {
 
 	/**
-	 * Creates a median filter for the specified image type.
+	 * Creates a median filter for the specified image type.  {@link GrayU8} and {@link GrayU16} images are
+	 * processed using histograms, see {@link BlurImageOps#median(GrayU8, GrayU8, int)}.  Rows are processed
+	 * concurrently if {@link BoofConcurrency#USE_CONCURRENT} is true.
 	 *
 	 * @param type Image type.
 	 * @param radius Size of the filter.
@@ -60,4 +68,19 @@ public class FactoryBlurFilter {
 	public static <T extends ImageGray> BlurStorageFilter<T> gaussian(Class<T> type , double sigma , int radius ) {
 		return new BlurStorageFilter<>("gaussian", type, sigma, radius);
 	}
+
+	/**
+	 * Creates a Gaussian filter which uses a recursive (IIR) filter.  The cost per pixel does not depend on sigma,
+	 * making it much faster than {@link #gaussian} for large sigmas, but it is an approximation.
+	 * See {@link BlurImageOps#gaussianRecursive(GrayF32, GrayF32, double)}.  Only floating point images are supported.
+	 *
+	 * @param type Image type.
+	 * @param sigma Gaussian distribution's sigma.  Must be &ge; 0.5
+	 * @return Gaussian image filter.
+	 */
+	public static <T extends ImageGray> BlurStorageFilter<T> gaussianRecursive(Class<T> type , double sigma ) {
+		if( type != GrayF32.class && type != GrayF64.class )
+			throw new IllegalArgumentException("Only GrayF32 and GrayF64 are supported");
+		return new BlurStorageFilter<>("gaussianRecursive", type, sigma, -1);
+	}
 }
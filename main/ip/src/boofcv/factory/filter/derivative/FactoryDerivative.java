@@ -54,6 +54,30 @@ public class FactoryDerivative {
 									   DerivativeReduceType type,
 									   Class<D> outputType )
 	{
+		return new ImageGradientThenReduce<>(gradient, createReducer(gradient, type, outputType));
+	}
+
+	/**
+	 * Same as {@link #gradientReduce(ImageGradient, DerivativeReduceType, Class)} but the intermediate multi-band
+	 * gradient is borrowed from the pool each time it's invoked instead of being stored internally.
+	 *
+	 * @param pool Pool which intermediate images are borrowed from
+	 * @return Gradient
+	 */
+	public static <I extends ImageMultiBand, M extends ImageMultiBand, D extends ImageGray>
+	ImageGradient<I,D> gradientReduce( ImageGradient<I,M> gradient ,
+									   DerivativeReduceType type,
+									   Class<D> outputType ,
+									   ImagePool pool )
+	{
+		return new ImageGradientThenReduce<>(gradient, createReducer(gradient, type, outputType), pool);
+	}
+
+	private static <M extends ImageMultiBand, D extends ImageGray>
+	GradientMultiToSingleBand<M,D> createReducer( ImageGradient<?,M> gradient ,
+												  DerivativeReduceType type,
+												  Class<D> outputType )
+	{
 
 		String name;
 
@@ -78,10 +102,7 @@ public class FactoryDerivative {
 
 
 		Method m = findReduce(name,middleType, outputType);
-		GradientMultiToSingleBand_Reflection<M,D> reducer =
-				new GradientMultiToSingleBand_Reflection<>(m, gradient.getDerivativeType(), outputType);
-
-		return new ImageGradientThenReduce<>(gradient, reducer);
+		return new GradientMultiToSingleBand_Reflection<>(m, gradient.getDerivativeType(), outputType);
 	}
 
 	/**
@@ -27,6 +27,7 @@ import boofcv.factory.filter.kernel.FactoryKernelGaussian;
 import boofcv.factory.interpolate.FactoryInterpolation;
 import boofcv.struct.convolve.Kernel1D;
 import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.ImagePool;
 import boofcv.struct.pyramid.PyramidDiscrete;
 import boofcv.struct.pyramid.PyramidFloat;
 
@@ -58,6 +59,23 @@ public class FactoryPyramid {
 		return new PyramidDiscreteSampleBlur<>(kernel, sigma, imageType, saveOriginalReference, scaleFactors);
 	}
 
+	/**
+	 * Same as {@link #discreteGaussian(int[], double, int, boolean, Class)} but workspace images are borrowed
+	 * from the pool.
+	 *
+	 * @param pool Pool which workspace images are borrowed from.
+	 * @return PyramidDiscrete
+	 */
+	public static <T extends ImageGray>
+	PyramidDiscrete<T> discreteGaussian( int[] scaleFactors , double sigma , int radius ,
+										 boolean saveOriginalReference, Class<T> imageType , ImagePool pool )
+	{
+		PyramidDiscreteSampleBlur<T> pyramid = (PyramidDiscreteSampleBlur<T>)
+				discreteGaussian(scaleFactors, sigma, radius, saveOriginalReference, imageType);
+		pyramid.setImagePool(pool);
+		return pyramid;
+	}
+
 	/**
 	 * Creates a float pyramid where each layer is blurred using a Gaussian with the specified
 	 * sigma.  Bilinear interpolation is used when sub-sampling.
@@ -76,6 +94,20 @@ public class FactoryPyramid {
 		return new PyramidFloatGaussianScale<>(interp, scaleFactors, sigmas, imageType);
 	}
 
+	/**
+	 * Same as {@link #floatGaussian(double[], double[], Class)} but workspace images are borrowed from the pool.
+	 *
+	 * @param pool Pool which workspace images are borrowed from.
+	 * @return PyramidFloat
+	 */
+	public static <T extends ImageGray>
+	PyramidFloat<T> floatGaussian( double scaleFactors[], double []sigmas , Class<T> imageType , ImagePool pool ) {
+		PyramidFloatGaussianScale<T> pyramid = (PyramidFloatGaussianScale<T>)
+				floatGaussian(scaleFactors, sigmas, imageType);
+		pyramid.setImagePool(pool);
+		return pyramid;
+	}
+
 	/**
 	 * Constructs an image pyramid which is designed to mimic a {@link boofcv.struct.gss.GaussianScaleSpace}.  Each layer in the pyramid
 	 * should have the equivalent amount of blur that a space-space constructed with the same parameters would have.
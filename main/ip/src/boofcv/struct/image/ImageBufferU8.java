@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.struct.image;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * Describes an 8-bit gray scale or interleaved image whose pixels are stored in a {@link ByteBuffer}, which is
+ * typically a direct buffer owned by a camera or a native library.  The pixels are not copied, which allows
+ * functions such as {@link boofcv.core.image.ConvertImageBuffer},
+ * {@link boofcv.core.encoding.ConvertNV21}, and {@link boofcv.alg.filter.binary.GThresholdImageOps} to read
+ * them directly into the image type that's needed, avoiding an intermediate copy into a Java array.
+ * </p>
+ *
+ * <p>
+ * Most algorithms require {@link ImageGray} or {@link ImageInterleaved} and will not accept this image.
+ * Pixels are read with absolute gets, so the buffer's position and limit are ignored and not modified.
+ * The pixel at (x,y) and band b is at index startIndex + y*stride + x*numBands + b.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImageBufferU8 {
+	/**
+	 * Buffer which contains the pixels.  Not owned by this image.
+	 */
+	public ByteBuffer data;
+	/**
+	 * Index of the first pixel in the buffer
+	 */
+	public int startIndex;
+	/**
+	 * Number of bytes between the start of each row
+	 */
+	public int stride;
+	/**
+	 * Number of columns in the image.
+	 */
+	public int width;
+	/**
+	 * Number of rows in the image.
+	 */
+	public int height;
+	/**
+	 * Number of bands in each pixel
+	 */
+	public int numBands;
+
+	/**
+	 * Wraps a buffer which contains a densely packed image.
+	 *
+	 * @param data Buffer which contains the pixels.
+	 * @param width Number of columns in the image.
+	 * @param height Number of rows in the image.
+	 * @param numBands Number of bands in each pixel.
+	 */
+	public ImageBufferU8(ByteBuffer data, int width, int height, int numBands) {
+		setTo(data, 0, width*numBands, width, height, numBands);
+	}
+
+	public ImageBufferU8() {
+	}
+
+	/**
+	 * Changes the buffer and the image's shape.
+	 *
+	 * @param data Buffer which contains the pixels.
+	 * @param startIndex Index of the first pixel.
+	 * @param stride Number of bytes between the start of each row.  Must be &ge; width*numBands
+	 * @param width Number of columns in the image.
+	 * @param height Number of rows in the image.
+	 * @param numBands Number of bands in each pixel.
+	 */
+	public void setTo(ByteBuffer data, int startIndex, int stride, int width, int height, int numBands) {
+		if( stride < width*numBands )
+			throw new IllegalArgumentException("Stride is too small");
+		if( height > 0 && startIndex + (long)(height - 1)*stride + width*numBands > data.capacity() )
+			throw new IllegalArgumentException("Buffer is too small for the image");
+
+		this.data = data;
+		this.startIndex = startIndex;
+		this.stride = stride;
+		this.width = width;
+		this.height = height;
+		this.numBands = numBands;
+	}
+
+	/**
+	 * Creates a sub-image which references the same buffer.
+	 *
+	 * @param x0 x-coordinate of top-left corner of the sub-image, inclusive.
+	 * @param y0 y-coordinate of top-left corner of the sub-image, inclusive.
+	 * @param x1 x-coordinate of bottom-right corner of the sub-image, exclusive.
+	 * @param y1 y-coordinate of bottom-right corner of the sub-image, exclusive.
+	 * @param output Storage for the sub-image.  If null a new instance is created.
+	 * @return A sub-image of this image.
+	 */
+	public ImageBufferU8 subimage(int x0, int y0, int x1, int y1, ImageBufferU8 output) {
+		if( x0 < 0 || y0 < 0 || x1 > width || y1 > height || x1 < x0 || y1 < y0 )
+			throw new IllegalArgumentException("Sub-image is outside the image");
+		if( output == null )
+			output = new ImageBufferU8();
+
+		output.data = data;
+		output.startIndex = getIndex(x0, y0);
+		output.stride = stride;
+		output.width = x1 - x0;
+		output.height = y1 - y0;
+		output.numBands = numBands;
+
+		return output;
+	}
+
+	/**
+	 * Returns the value of a pixel in a single band image
+	 */
+	public int get(int x, int y) {
+		if( !isInBounds(x, y) )
+			throw new ImageAccessException("Requested pixel is out of bounds: "+x+" "+y);
+		return data.get(getIndex(x, y)) & 0xFF;
+	}
+
+	/**
+	 * Returns the value of a band in a pixel
+	 */
+	public int getBand(int x, int y, int band) {
+		if( !isInBounds(x, y) )
+			throw new ImageAccessException("Requested pixel is out of bounds: "+x+" "+y);
+		if( band < 0 || band >= numBands )
+			throw new ImageAccessException("Invalid band requested.");
+		return data.get(getIndex(x, y) + band) & 0xFF;
+	}
+
+	public final boolean isInBounds(int x, int y) {
+		return x >= 0 && x < width && y >= 0 && y < height;
+	}
+
+	public int getIndex(int x, int y) {
+		return startIndex + y*stride + x*numBands;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getNumBands() {
+		return numBands;
+	}
+}
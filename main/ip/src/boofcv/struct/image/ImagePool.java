@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.struct.image;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * Thread safe pool of images which can be borrowed and then given back when no longer needed.  Intended to
+ * reduce the amount of memory which is allocated for workspace images, which in long running applications
+ * causes the garbage collector to run more often.  Images are indexed by their {@link ImageType} and shape.
+ * If no image with the requested type and shape is available a new one is created with
+ * {@link ImageType#createImage(int, int)}.  Statistics are kept on how often a request could be filled by an
+ * existing image (hit) and how often a new one was created (miss).
+ * </p>
+ *
+ * <p>
+ * The contents of a borrowed image are undefined.  Once an image has been given back it must not be used again
+ * by the borrower.  Sub-images can't be given back since they share their data with another image.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImagePool {
+
+	// images which are available to be borrowed
+	private Map<Key,ArrayDeque<ImageBase>> available = new HashMap<>();
+
+	// maximum number of images with the same type and shape which are saved
+	private int maxPerShape;
+
+	// number of times a request was filled by an existing image
+	private long hits;
+	// number of times a new image needed to be created
+	private long misses;
+
+	/**
+	 * Configures the pool
+	 *
+	 * @param maxPerShape Maximum number of images with the same type and shape which are saved for
+	 *                    later use.  Additional images are discarded when given back.
+	 */
+	public ImagePool(int maxPerShape) {
+		if( maxPerShape < 1 )
+			throw new IllegalArgumentException("maxPerShape must be at least one");
+		this.maxPerShape = maxPerShape;
+	}
+
+	/**
+	 * Pool which saves up to 10 images of the same type and shape.
+	 */
+	public ImagePool() {
+		this(10);
+	}
+
+	/**
+	 * Borrows an image of the specified type and shape.  The image's contents are undefined.
+	 *
+	 * @param type Type of image.
+	 * @param width Image width
+	 * @param height Image height
+	 * @return An image which the caller has exclusive access to until it is given back
+	 */
+	public synchronized <T extends ImageBase> T borrow( ImageType<T> type , int width , int height ) {
+		ArrayDeque<ImageBase> list = available.get(new Key(type, width, height));
+
+		if( list == null || list.isEmpty() ) {
+			misses++;
+			return type.createImage(width, height);
+		} else {
+			hits++;
+			return (T)list.removeLast();
+		}
+	}
+
+	/**
+	 * Borrows an image which has the same type and shape as the provided image.
+	 *
+	 * @param image Example image.  Not modified.
+	 * @return An image which the caller has exclusive access to until it is given back
+	 */
+	public <T extends ImageBase> T borrowSameShape( T image ) {
+		return (T)borrow(image.getImageType(), image.width, image.height);
+	}
+
+	/**
+	 * Gives the image back to the pool so that it can be borrowed again.  If the limit on images of
+	 * its type and shape has been reached it is discarded.
+	 *
+	 * @param image The image being given back.  If null nothing happens.
+	 */
+	public synchronized void giveBack( ImageBase image ) {
+		if( image == null )
+			return;
+		if( image.isSubimage() )
+			throw new IllegalArgumentException("Sub-images can't be added to the pool");
+
+		Key key = new Key(image.getImageType(), image.width, image.height);
+		ArrayDeque<ImageBase> list = available.get(key);
+		if( list == null ) {
+			list = new ArrayDeque<>();
+			available.put(key, list);
+		}
+
+		if( list.size() < maxPerShape )
+			list.add(image);
+	}
+
+	/**
+	 * Discards all the available images.  Statistics are not modified.
+	 */
+	public synchronized void clear() {
+		available.clear();
+	}
+
+	/**
+	 * Sets the hit and miss counters to zero.
+	 */
+	public synchronized void resetStatistics() {
+		hits = 0;
+		misses = 0;
+	}
+
+	/**
+	 * Number of times a request was filled using an existing image
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Number of times a new image had to be created
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Total number of images which can be borrowed without creating a new image
+	 */
+	public synchronized int getTotalAvailable() {
+		int total = 0;
+		for( ArrayDeque<ImageBase> list : available.values() ) {
+			total += list.size();
+		}
+		return total;
+	}
+
+	public int getMaxPerShape() {
+		return maxPerShape;
+	}
+
+	/**
+	 * Uniquely identifies an image's type and shape
+	 */
+	private static class Key {
+		ImageType.Family family;
+		ImageDataType dataType;
+		int numBands;
+		int width, height;
+
+		public Key(ImageType type, int width, int height) {
+			this.family = type.getFamily();
+			this.dataType = type.getDataType();
+			// single band images can have any value here
+			this.numBands = family == ImageType.Family.GRAY ? 1 : type.getNumBands();
+			this.width = width;
+			this.height = height;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if( !(o instanceof Key) )
+				return false;
+			Key k = (Key)o;
+			return family == k.family && dataType == k.dataType && numBands == k.numBands &&
+					width == k.width && height == k.height;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = family.hashCode();
+			result = 31*result + dataType.hashCode();
+			result = 31*result + numBands;
+			result = 31*result + width;
+			result = 31*result + height;
+			return result;
+		}
+	}
+}
@@ -0,0 +1,484 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.struct.image;
+
+import boofcv.core.image.GeneralizedImageOps;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Gray scale image which is stored in a file as a grid of tiles, allowing images which are too large to fit in
+ * memory or in a single Java array to be processed.  Only a limited number of tiles are kept in memory at any one
+ * time.  When a tile is needed which isn't in memory, it is read from the file and the least recently used
+ * tile is discarded, after its pixels have been written back to the file if they were modified.
+ * </p>
+ *
+ * <p>
+ * Pixels are accessed by copying rectangular regions to and from {@link ImageGray} images using
+ * {@link #getRegion} and {@link #setRegion}, which can span multiple tiles.  These functions are thread safe.
+ * Each tile has its own lock, which is held while the tile is read from the file and while its pixels are
+ * copied, so threads which are working on different tiles don't block each other.
+ * See {@link boofcv.alg.tiled.TiledImageExecutor} for how to run existing algorithms across the entire image.
+ * </p>
+ *
+ * <p>
+ * Each tile is stored in the file as a continuous block of tileWidth*tileHeight pixels, in row major order
+ * of tiles and pixels, using the platform's byte order.  Tiles along the right and bottom edge have the same
+ * size in the file but only part of them is used.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class TiledImage<T extends ImageGray> implements Closeable {
+
+	// shape of the image
+	int width, height;
+	// shape of each tile
+	int tileWidth, tileHeight;
+	// number of tiles along each axis
+	int numTilesX, numTilesY;
+
+	// type of image in each tile
+	Class<T> imageType;
+	// number of bytes used to store a tile in the file
+	long tileBytes;
+
+	RandomAccessFile file;
+	FileChannel channel;
+
+	// tiles which are in memory, ordered from least to most recently used.  Also the lock for all the
+	// book keeping below
+	final LinkedHashMap<Integer,Tile<T>> cache = new LinkedHashMap<>(16, 0.75f, true);
+	// tiles which have been discarded but are still being written back to the file
+	final Map<Integer,Tile<T>> discarding = new HashMap<>();
+	// maximum number of tiles in memory
+	int maxCachedTiles;
+
+	// number of times a tile has been read from the file
+	long totalLoaded;
+
+	// storage for converting between a tile and the bytes in the file
+	ThreadLocal<ByteBuffer> work = new ThreadLocal<ByteBuffer>() {
+		@Override
+		protected ByteBuffer initialValue() {
+			return ByteBuffer.allocate((int)tileBytes).order(ByteOrder.nativeOrder());
+		}
+	};
+
+	/**
+	 * Opens or creates the file which stores the image.  If the file is too small it's extended, and the new
+	 * pixels will be zero.  If it already contains an image with the same shape, tile shape, and type then
+	 * the pixels are preserved.
+	 *
+	 * @param file File which stores the image.
+	 * @param width Image width.
+	 * @param height Image height.
+	 * @param tileWidth Width of each tile.
+	 * @param tileHeight Height of each tile.
+	 * @param imageType Type of image.
+	 * @param maxCachedTiles Maximum number of tiles which are kept in memory.  Must be at least 1.  If regions
+	 *                       overlap several tiles, e.g. tiles with a halo, it needs to be large enough to hold all
+	 *                       the tiles each thread is using or tiles will be read over and over again.
+	 */
+	public TiledImage(File file, int width, int height, int tileWidth, int tileHeight,
+					  Class<T> imageType, int maxCachedTiles ) {
+		if( width <= 0 || height <= 0 || tileWidth <= 0 || tileHeight <= 0 )
+			throw new IllegalArgumentException("Image and tile shapes must be positive");
+		if( maxCachedTiles < 1 )
+			throw new IllegalArgumentException("Must be able to cache at least one tile");
+
+		this.width = width;
+		this.height = height;
+		this.tileWidth = tileWidth;
+		this.tileHeight = tileHeight;
+		this.imageType = imageType;
+		this.maxCachedTiles = maxCachedTiles;
+
+		numTilesX = (width + tileWidth - 1)/tileWidth;
+		numTilesY = (height + tileHeight - 1)/tileHeight;
+
+		ImageDataType dataType = ImageDataType.classToType(imageType);
+		tileBytes = (long)tileWidth*tileHeight*(dataType.getNumBits()/8);
+		if( tileBytes > Integer.MAX_VALUE )
+			throw new IllegalArgumentException("Tile is too large to fit inside an array");
+
+		try {
+			this.file = new RandomAccessFile(file, "rw");
+			long length = tileBytes*numTilesX*numTilesY;
+			if( this.file.length() < length )
+				this.file.setLength(length);
+			channel = this.file.getChannel();
+		} catch( IOException e ) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Copies a rectangular region from the tiled image into the output image.  The region's top-left corner is
+	 * at (x0,y0) and it has the same shape as the output image.  The region must be inside the tiled image.
+	 *
+	 * @param x0 Region's left edge.
+	 * @param y0 Region's top edge.
+	 * @param output Storage for the region.  Modified.
+	 */
+	public void getRegion( int x0 , int y0 , T output ) {
+		copyRegion(x0, y0, output, true);
+	}
+
+	/**
+	 * Copies the input image into a rectangular region in the tiled image.  The region's top-left corner is
+	 * at (x0,y0) and it has the same shape as the input image.  The region must be inside the tiled image.
+	 *
+	 * @param x0 Region's left edge.
+	 * @param y0 Region's top edge.
+	 * @param input Pixels which are copied into the tiled image.  Not modified.
+	 */
+	public void setRegion( int x0 , int y0 , T input ) {
+		copyRegion(x0, y0, input, false);
+	}
+
+	private void copyRegion( int x0 , int y0 , T image , boolean toImage ) {
+		int x1 = x0 + image.width;
+		int y1 = y0 + image.height;
+		if( x0 < 0 || y0 < 0 || x1 > width || y1 > height )
+			throw new IllegalArgumentException("Region is outside the image");
+
+		int tx0 = x0/tileWidth, tx1 = (x1 - 1)/tileWidth;
+		int ty0 = y0/tileHeight, ty1 = (y1 - 1)/tileHeight;
+
+		Object imageData = image._getData();
+
+		for (int ty = ty0; ty <= ty1; ty++) {
+			// rows inside both this tile and the region
+			int rowA = Math.max(y0, ty*tileHeight);
+			int rowB = Math.min(y1, (ty + 1)*tileHeight);
+
+			for (int tx = tx0; tx <= tx1; tx++) {
+				int colA = Math.max(x0, tx*tileWidth);
+				int colB = Math.min(x1, (tx + 1)*tileWidth);
+				int length = colB - colA;
+
+				Tile<T> tile = acquireTile(tx, ty);
+				try {
+					synchronized( tile ) {
+						if( tile.image == null )
+							readTile(tile);
+
+						Object tileData = tile.image._getData();
+						for (int y = rowA; y < rowB; y++) {
+							int indexTile = (y - ty*tileHeight)*tileWidth + colA - tx*tileWidth;
+							int indexImage = image.startIndex + (y - y0)*image.stride + colA - x0;
+
+							if( toImage )
+								System.arraycopy(tileData, indexTile, imageData, indexImage, length);
+							else
+								System.arraycopy(imageData, indexImage, tileData, indexTile, length);
+						}
+
+						if( !toImage )
+							tile.modified = true;
+					}
+				} finally {
+					releaseTile(tile);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the tile and marks it as being in use, so that it won't be discarded.  If the tile isn't in memory
+	 * then an empty tile is added to the cache, which is read from the file by the caller.  Tiles which are
+	 * discarded to make room are written back to the file by this thread.
+	 */
+	private Tile<T> acquireTile( int tx , int ty ) {
+		int key = ty*numTilesX + tx;
+		Tile<T> tile;
+		List<Tile<T>> discarded = null;
+
+		synchronized( cache ) {
+			tile = cache.get(key);
+			if( tile == null ) {
+				// a tile which is still being written back has the latest pixels, so use it instead of the file
+				tile = discarding.remove(key);
+				if( tile == null ) {
+					tile = new Tile<>(key);
+					totalLoaded++;
+				}
+				cache.put(key, tile);
+			}
+			// mark it as used first so that it can't be discarded
+			tile.users++;
+			if( cache.size() > maxCachedTiles )
+				discarded = discardLeastRecentlyUsed();
+		}
+
+		if( discarded != null ) {
+			for (int i = 0; i < discarded.size(); i++) {
+				Tile<T> old = discarded.get(i);
+				synchronized( old ) {
+					writeBack(old);
+				}
+				synchronized( cache ) {
+					// it might have been used again and discarded by another thread, which is still writing it
+					if( --old.pendingWrites == 0 && discarding.get(old.key) == old )
+						discarding.remove(old.key);
+				}
+			}
+		}
+
+		return tile;
+	}
+
+	private void releaseTile( Tile<T> tile ) {
+		synchronized( cache ) {
+			tile.users--;
+		}
+	}
+
+	/**
+	 * Removes the least recently used tiles which are not in use until the cache is small enough.  If too
+	 * many tiles are in use it can temporarily grow larger than the maximum.  Must be called while holding the
+	 * cache's lock.
+	 */
+	private List<Tile<T>> discardLeastRecentlyUsed() {
+		List<Tile<T>> discarded = null;
+		Iterator<Map.Entry<Integer,Tile<T>>> iter = cache.entrySet().iterator();
+		while( cache.size() > maxCachedTiles && iter.hasNext() ) {
+			Tile<T> tile = iter.next().getValue();
+			if( tile.users > 0 )
+				continue;
+			iter.remove();
+			tile.pendingWrites++;
+			discarding.put(tile.key, tile);
+			if( discarded == null )
+				discarded = new ArrayList<>();
+			discarded.add(tile);
+		}
+		return discarded;
+	}
+
+	/**
+	 * Reads the tile's pixels from the file.  Must be called while holding the tile's lock.
+	 */
+	private void readTile( Tile<T> tile ) {
+		ByteBuffer buffer = work.get();
+		buffer.clear();
+		try {
+			long position = tile.key*tileBytes;
+			while( buffer.hasRemaining() ) {
+				if( channel.read(buffer, position + buffer.position()) < 0 )
+					throw new IOException("Unexpected end of file");
+			}
+		} catch( IOException e ) {
+			throw new RuntimeException(e);
+		}
+
+		T image = GeneralizedImageOps.createSingleBand(imageType, tileWidth, tileHeight);
+		copy(buffer, image, true);
+		tile.image = image;
+	}
+
+	/**
+	 * Writes the tile's pixels to the file if they have been modified.  Must be called while holding the tile's lock.
+	 */
+	private void writeBack( Tile<T> tile ) {
+		if( !tile.modified )
+			return;
+
+		ByteBuffer buffer = work.get();
+		copy(buffer, tile.image, false);
+		buffer.clear();
+		try {
+			long position = tile.key*tileBytes;
+			while( buffer.hasRemaining() ) {
+				channel.write(buffer, position + buffer.position());
+			}
+		} catch( IOException e ) {
+			throw new RuntimeException(e);
+		}
+		tile.modified = false;
+	}
+
+	/**
+	 * Copies pixels between the buffer and the image
+	 *
+	 * @param toImage If true the buffer is copied into the image, otherwise the image is copied into the buffer
+	 */
+	static void copy( ByteBuffer buffer , ImageGray image , boolean toImage ) {
+		buffer.position(0);
+		int N = image.width*image.height;
+		switch( image.getDataType() ) {
+			case U8:
+			case S8: {
+				byte[] data = ((GrayI8)image).data;
+				if( toImage ) buffer.get(data, 0, N); else buffer.put(data, 0, N);
+			} break;
+
+			case U16:
+			case S16: {
+				short[] data = ((GrayI16)image).data;
+				if( toImage ) buffer.asShortBuffer().get(data, 0, N); else buffer.asShortBuffer().put(data, 0, N);
+			} break;
+
+			case S32: {
+				int[] data = ((GrayS32)image).data;
+				if( toImage ) buffer.asIntBuffer().get(data, 0, N); else buffer.asIntBuffer().put(data, 0, N);
+			} break;
+
+			case S64: {
+				long[] data = ((GrayS64)image).data;
+				if( toImage ) buffer.asLongBuffer().get(data, 0, N); else buffer.asLongBuffer().put(data, 0, N);
+			} break;
+
+			case F32: {
+				float[] data = ((GrayF32)image).data;
+				if( toImage ) buffer.asFloatBuffer().get(data, 0, N); else buffer.asFloatBuffer().put(data, 0, N);
+			} break;
+
+			case F64: {
+				double[] data = ((GrayF64)image).data;
+				if( toImage ) buffer.asDoubleBuffer().get(data, 0, N); else buffer.asDoubleBuffer().put(data, 0, N);
+			} break;
+
+			default:
+				throw new IllegalArgumentException("Unsupported image type "+image.getDataType());
+		}
+	}
+
+	/**
+	 * Writes all modified tiles in memory back to the file
+	 */
+	public void flush() {
+		List<Tile<T>> tiles;
+		synchronized( cache ) {
+			tiles = new ArrayList<>(cache.values());
+		}
+		for (int i = 0; i < tiles.size(); i++) {
+			Tile<T> tile = tiles.get(i);
+			synchronized( tile ) {
+				writeBack(tile);
+			}
+		}
+		try {
+			channel.force(false);
+		} catch( IOException e ) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Writes all modified tiles back to the file, discards the tiles in memory, and closes the file.  Must not be
+	 * called while other threads are accessing the image.
+	 */
+	@Override
+	public void close() {
+		flush();
+		synchronized( cache ) {
+			cache.clear();
+		}
+		try {
+			channel.close();
+			file.close();
+		} catch( IOException e ) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Creates a new single band image which can be used to store a region of this image
+	 */
+	public T createImage( int width , int height ) {
+		return GeneralizedImageOps.createSingleBand(imageType, width, height);
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getTileWidth() {
+		return tileWidth;
+	}
+
+	public int getTileHeight() {
+		return tileHeight;
+	}
+
+	public int getNumTilesX() {
+		return numTilesX;
+	}
+
+	public int getNumTilesY() {
+		return numTilesY;
+	}
+
+	public Class<T> getImageType() {
+		return imageType;
+	}
+
+	public int getMaxCachedTiles() {
+		return maxCachedTiles;
+	}
+
+	/**
+	 * Number of times a tile has been read from the file.  Useful for checking if the cache is large enough.
+	 */
+	public long getTotalLoaded() {
+		synchronized( cache ) {
+			return totalLoaded;
+		}
+	}
+
+	/**
+	 * A tile which is in memory
+	 */
+	static class Tile<T extends ImageGray> {
+		// index of the tile, which specifies its location in the file
+		final int key;
+		// pixels in the tile.  null until it has been read from the file
+		T image;
+		// true if the pixels have been modified since they were read from the file
+		boolean modified;
+		// number of threads which are using the tile.  Guarded by the cache's lock
+		int users;
+		// number of times it has been discarded but not yet written back.  Guarded by the cache's lock
+		int pendingWrites;
+
+		Tile( int key ) {
+			this.key = key;
+		}
+	}
+}
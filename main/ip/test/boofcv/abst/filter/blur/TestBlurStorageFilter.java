@@ -22,6 +22,7 @@ import boofcv.alg.filter.blur.GBlurImageOps;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayF64;
 import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageGray;
 import boofcv.testing.BoofTesting;
@@ -60,6 +61,25 @@ public class TestBlurStorageFilter {
 		}
 	}
 
+	@Test
+	public void gaussianRecursive() {
+		for( Class c : new Class[]{GrayF32.class, GrayF64.class} ) {
+			ImageGray input = GeneralizedImageOps.createSingleBand(c,width,height);
+			ImageGray found = GeneralizedImageOps.createSingleBand(c,width,height);
+			ImageGray expected = GeneralizedImageOps.createSingleBand(c,width,height);
+
+			GImageMiscOps.fillUniform(input,rand,0,100);
+
+			BlurStorageFilter alg = new BlurStorageFilter<>("gaussianRecursive",c,3,-1);
+
+			GBlurImageOps.gaussianRecursive(input,found,3);
+
+			alg.process(input,expected);
+
+			BoofTesting.assertEquals(expected,found,1e-4);
+		}
+	}
+
 	@Test
 	public void mean() {
 		for( Class c : imageTypes ) {
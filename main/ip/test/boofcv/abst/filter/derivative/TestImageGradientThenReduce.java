@@ -20,6 +20,7 @@ package boofcv.abst.filter.derivative;
 
 import boofcv.core.image.border.BorderType;
 import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.ImagePool;
 import boofcv.struct.image.ImageType;
 import boofcv.struct.image.Planar;
 import org.junit.Test;
@@ -54,6 +55,31 @@ public class TestImageGradientThenReduce {
 
 	}
 
+	/**
+	 * Intermediate images should be borrowed from the pool and then given back
+	 */
+	@Test
+	public void withPool() {
+		ImagePool pool = new ImagePool();
+
+		Planar<GrayF32> input = new Planar<>(GrayF32.class,10,12,3);
+		GrayF32 outDerivX = new GrayF32(10,12);
+		GrayF32 outDerivY = new GrayF32(10,12);
+
+		ImageGradientThenReduce<Planar<GrayF32>,Planar<GrayF32>,GrayF32> alg =
+				new ImageGradientThenReduce<>(new HelperGradient(), new HelperReduce(), pool);
+
+		alg.process(input,outDerivX,outDerivY);
+		assertEquals(1,outDerivX.get(2,3),1e-4f);
+		assertEquals(2,outDerivY.get(2,3),1e-4f);
+		assertEquals(2,pool.getMisses());
+		assertEquals(2,pool.getTotalAvailable());
+
+		alg.process(input,outDerivX,outDerivY);
+		assertEquals(2,pool.getHits());
+		assertEquals(2,pool.getTotalAvailable());
+	}
+
 	public static class HelperGradient implements ImageGradient<Planar<GrayF32>,Planar<GrayF32>> {
 
 		public boolean setBorderCalled = false;
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.distort;
+
+import georegression.struct.affine.Affine2D_F32;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPixelTransformOffset_F32 {
+
+	@Test
+	public void compute() {
+		PixelTransformAffine_F32 orig = new PixelTransformAffine_F32();
+		orig.set(new Affine2D_F32(1f,0.1f,0.05f,2f,5f,6f));
+
+		PixelTransformOffset_F32 alg = new PixelTransformOffset_F32(orig);
+
+		// no offset should be identical to the original
+		alg.compute(3,4);
+		orig.compute(3,4);
+		assertEquals(orig.distX,alg.distX,1e-8);
+		assertEquals(orig.distY,alg.distY,1e-8);
+
+		alg.setOffset(10,-2);
+		alg.compute(3,4);
+		orig.compute(13,2);
+		assertEquals(orig.distX-10,alg.distX,1e-4);
+		assertEquals(orig.distY+2,alg.distY,1e-4);
+	}
+
+	/**
+	 * The copy should share the offset with the original
+	 */
+	@Test
+	public void copy_shareOffset() {
+		PixelTransformAffine_F32 orig = new PixelTransformAffine_F32();
+		orig.set(new Affine2D_F32(1f,0.1f,0.05f,2f,5f,6f));
+
+		PixelTransformOffset_F32 alg = new PixelTransformOffset_F32(orig);
+		PixelTransformOffset_F32 copy = new PixelTransformOffset_F32(alg,new PixelTransformAffine_F32(orig.getModel()));
+
+		alg.setOffset(7,8);
+		assertEquals(7,copy.getOffsetX());
+		assertEquals(8,copy.getOffsetY());
+
+		alg.compute(3,4);
+		copy.compute(3,4);
+		assertEquals(alg.distX,copy.distX,1e-8);
+		assertEquals(alg.distY,copy.distY,1e-8);
+	}
+}
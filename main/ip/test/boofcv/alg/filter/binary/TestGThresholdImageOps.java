@@ -18,8 +18,13 @@
 
 package boofcv.alg.filter.binary;
 
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageBufferU8;
+import boofcv.testing.BoofTesting;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
 import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
@@ -136,6 +141,48 @@ public class TestGThresholdImageOps {
 		assertEquals(best,found);
 	}
 
+	@Test
+	public void computeOtsu_buffer() {
+		GrayU8 image = new GrayU8(30,25);
+		ImageMiscOps.fillUniform(image, rand, 0, 256);
+
+		int expected = GThresholdImageOps.computeOtsu(image, 0, 255);
+		int found = GThresholdImageOps.computeOtsu(toBuffer(image));
+
+		assertEquals(expected, found);
+	}
+
+	@Test
+	public void threshold_buffer() {
+		GrayU8 image = new GrayU8(30,25);
+		ImageMiscOps.fillUniform(image, rand, 0, 256);
+		ImageBufferU8 buffer = toBuffer(image);
+
+		for( boolean down : new boolean[]{true,false}) {
+			GrayU8 expected = ThresholdImageOps.threshold(image, null, 120, down);
+			GrayU8 found = GThresholdImageOps.threshold(buffer, null, 120, down);
+
+			BoofTesting.assertEquals(expected, found, 0);
+		}
+	}
+
+	/**
+	 * Copies the image into a direct buffer which has padding at the start and end of each row
+	 */
+	private static ImageBufferU8 toBuffer( GrayU8 image ) {
+		int stride = image.width + 3;
+		ByteBuffer data = ByteBuffer.allocateDirect(5 + stride*image.height);
+		for (int y = 0; y < image.height; y++) {
+			for (int x = 0; x < image.width; x++) {
+				data.put(5 + y*stride + x, (byte)image.get(x, y));
+			}
+		}
+
+		ImageBufferU8 buffer = new ImageBufferU8();
+		buffer.setTo(data, 5, stride, image.width, image.height, 1);
+		return buffer;
+	}
+
 	/**
 	 * Implementation of computeEntropy() which is almost identical to the original equations
 	 */
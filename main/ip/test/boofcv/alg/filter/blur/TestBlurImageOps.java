@@ -19,6 +19,7 @@
 package boofcv.alg.filter.blur;
 
 import boofcv.alg.filter.blur.impl.ImplMedianSortNaive;
+import boofcv.alg.filter.blur.impl.ImplRecursiveGaussian;
 import boofcv.alg.filter.convolve.ConvolveNormalized;
 import boofcv.alg.filter.convolve.normalized.ConvolveNormalizedNaive;
 import boofcv.alg.filter.kernel.KernelMath;
@@ -31,7 +32,9 @@ import boofcv.struct.convolve.Kernel2D_F64;
 import boofcv.struct.convolve.Kernel2D_I32;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.GrayF64;
+import boofcv.struct.image.GrayU16;
 import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.Planar;
 import boofcv.testing.BoofTesting;
 import org.junit.Test;
 
@@ -138,6 +141,23 @@ public class TestBlurImageOps {
 		}
 	}
 
+	@Test
+	public void median_U16() {
+
+		GrayU16 input = new GrayU16(width,height);
+		GrayU16 found = new GrayU16(width,height);
+		GrayU16 expected = new GrayU16(width,height);
+
+		GImageMiscOps.fillUniform(input, rand, 0, 2000);
+
+		for( int radius = 1; radius <= 4; radius++ ) {
+			ImplMedianSortNaive.process(input,expected,radius,null);
+			BlurImageOps.median(input,found,radius);
+
+			BoofTesting.assertEquals(expected,found,0);
+		}
+	}
+
 	@Test
 	public void median_F32() {
 		GrayF32 input = new GrayF32(width,height);
@@ -221,4 +241,47 @@ public class TestBlurImageOps {
 			BoofTesting.assertEquals(expected,found,1e-8);
 		}
 	}
+
+	@Test
+	public void gaussianRecursive_F32() {
+		GrayF32 input = new GrayF32(width,height);
+		GImageMiscOps.fillUniform(input, rand, 0, 20);
+
+		GrayF32 expected = input.clone();
+		ImplRecursiveGaussian alg = new ImplRecursiveGaussian(2.5);
+		alg.horizontal(expected,expected);
+		alg.vertical(expected,expected);
+
+		GrayF32 found = BlurImageOps.gaussianRecursive(input,null,2.5);
+
+		BoofTesting.assertEquals(expected,found,0);
+	}
+
+	@Test
+	public void gaussianRecursive_F64() {
+		GrayF64 input = new GrayF64(width,height);
+		GImageMiscOps.fillUniform(input, rand, 0, 20);
+
+		GrayF64 expected = input.clone();
+		ImplRecursiveGaussian alg = new ImplRecursiveGaussian(2.5);
+		alg.horizontal(expected,expected);
+		alg.vertical(expected,expected);
+
+		GrayF64 found = BlurImageOps.gaussianRecursive(input,null,2.5);
+
+		BoofTesting.assertEquals(expected,found,0);
+	}
+
+	@Test
+	public void gaussianRecursive_Planar() {
+		Planar<GrayF32> input = new Planar<>(GrayF32.class,width,height,2);
+		GImageMiscOps.fillUniform(input, rand, 0, 20);
+
+		Planar<GrayF32> found = BlurImageOps.gaussianRecursive(input,null,2.5);
+
+		for (int band = 0; band < 2; band++) {
+			GrayF32 expected = BlurImageOps.gaussianRecursive(input.getBand(band),null,2.5);
+			BoofTesting.assertEquals(expected,found.getBand(band),0);
+		}
+	}
 }
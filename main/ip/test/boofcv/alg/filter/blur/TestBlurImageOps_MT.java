@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.filter.blur;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU16;
+import boofcv.struct.image.GrayU8;
+import boofcv.testing.BoofTesting;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBlurImageOps_MT {
+
+	Random rand = new Random(234);
+
+	int width = 40;
+	int height = 70;
+
+	int maxThreads;
+	int minBandRows;
+
+	@Before
+	public void before() {
+		maxThreads = BoofConcurrency.getMaxThreads();
+		minBandRows = BlurImageOps_MT.MIN_BAND_ROWS;
+		BoofConcurrency.setMaxThreads(3);
+		// force the image to be split into several bands
+		BlurImageOps_MT.MIN_BAND_ROWS = 5;
+	}
+
+	@After
+	public void after() {
+		BoofConcurrency.USE_CONCURRENT = false;
+		BoofConcurrency.setMaxThreads(maxThreads);
+		BlurImageOps_MT.MIN_BAND_ROWS = minBandRows;
+	}
+
+	@Test
+	public void median_U8() {
+		GrayU8 input = new GrayU8(width,height);
+		ImageMiscOps.fillUniform(input, rand, 0, 200);
+
+		for( int radius = 1; radius <= 6; radius += 5 ) {
+			GrayU8 expected = BlurImageOps.median(input, null, radius);
+			GrayU8 found = BlurImageOps_MT.median(input, null, radius);
+			BoofTesting.assertEquals(expected, found, 0);
+
+			BoofConcurrency.USE_CONCURRENT = true;
+			found = BlurImageOps.median(input, null, radius);
+			BoofConcurrency.USE_CONCURRENT = false;
+			BoofTesting.assertEquals(expected, found, 0);
+		}
+	}
+
+	@Test
+	public void median_U16() {
+		GrayU16 input = new GrayU16(width,height);
+		ImageMiscOps.fillUniform(input, rand, 0, 2000);
+
+		for( int radius = 1; radius <= 6; radius += 5 ) {
+			GrayU16 expected = BlurImageOps.median(input, null, radius);
+			GrayU16 found = BlurImageOps_MT.median(input, null, radius);
+			BoofTesting.assertEquals(expected, found, 0);
+		}
+	}
+
+	@Test
+	public void median_F32() {
+		GrayF32 input = new GrayF32(width,height);
+		ImageMiscOps.fillUniform(input, rand, 0, 200);
+
+		for( int radius = 1; radius <= 6; radius += 5 ) {
+			GrayF32 expected = BlurImageOps.median(input, null, radius);
+			GrayF32 found = BlurImageOps_MT.median(input, null, radius);
+			BoofTesting.assertEquals(expected, found, 0);
+		}
+	}
+}
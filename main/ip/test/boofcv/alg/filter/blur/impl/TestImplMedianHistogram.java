@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.filter.blur.impl;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.GrayU16;
+import boofcv.struct.image.GrayU8;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImplMedianHistogram {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void compareToSort_U8() {
+		GrayU8 image = new GrayU8(20,30);
+		ImageMiscOps.fillUniform(image, rand, 0, 255);
+
+		GrayU8 found = new GrayU8( image.width , image.height );
+		GrayU8 expected = new GrayU8( image.width , image.height );
+
+		BoofTesting.checkSubImage(this, "compareToSort_U8", true, image, found, expected);
+	}
+
+	public void compareToSort_U8(GrayU8 image, GrayU8 found, GrayU8 expected) {
+		// include a radius which is larger than the image
+		for( int radius = 1; radius <= 16; radius += 3 ) {
+			ImplMedianHistogram.process(image, found, radius, 0, image.height);
+			ImplMedianSortNaive.process(image, expected, radius, null);
+
+			BoofTesting.assertEquals(expected, found, 0);
+		}
+	}
+
+	@Test
+	public void compareToSort_U16() {
+		GrayU16 image = new GrayU16(20,30);
+		ImageMiscOps.fillUniform(image, rand, 0, 65535);
+		// make sure some pixels share the same coarse bin
+		ImageMiscOps.fillUniform(image.subimage(0,0,10,10), rand, 500, 520);
+
+		GrayU16 found = new GrayU16( image.width , image.height );
+		GrayU16 expected = new GrayU16( image.width , image.height );
+
+		BoofTesting.checkSubImage(this, "compareToSort_U16", true, image, found, expected);
+	}
+
+	public void compareToSort_U16(GrayU16 image, GrayU16 found, GrayU16 expected) {
+		for( int radius = 1; radius <= 16; radius += 3 ) {
+			ImplMedianHistogram.process(image, found, radius, 0, image.height);
+			ImplMedianSortNaive.process(image, expected, radius, null);
+
+			BoofTesting.assertEquals(expected, found, 0);
+		}
+	}
+
+	/**
+	 * Process the image in several bands of rows and see if it's the same as processing it all at once
+	 */
+	@Test
+	public void bands() {
+		GrayU8 image = new GrayU8(25,30);
+		ImageMiscOps.fillUniform(image, rand, 0, 100);
+		GrayU16 image16 = new GrayU16(25,30);
+		ImageMiscOps.fillUniform(image16, rand, 0, 1000);
+
+		int radius = 3;
+		GrayU8 expected = new GrayU8(image.width, image.height);
+		GrayU8 found = new GrayU8(image.width, image.height);
+		GrayU16 expected16 = new GrayU16(image.width, image.height);
+		GrayU16 found16 = new GrayU16(image.width, image.height);
+
+		ImplMedianHistogram.process(image, expected, radius, 0, image.height);
+		ImplMedianHistogram.process(image16, expected16, radius, 0, image.height);
+
+		int[] splits = new int[]{0, 1, 7, 20, 30};
+		for (int i = 0; i < splits.length - 1; i++) {
+			ImplMedianHistogram.process(image, found, radius, splits[i], splits[i+1]);
+			ImplMedianHistogram.process(image16, found16, radius, splits[i], splits[i+1]);
+		}
+
+		BoofTesting.assertEquals(expected, found, 0);
+		BoofTesting.assertEquals(expected16, found16, 0);
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.filter.blur.impl;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.GrayF32;
+import boofcv.testing.BoofTesting;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImplMedianSortColumns {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void compareToNaive() {
+		GrayF32 image = new GrayF32(20,30);
+		ImageMiscOps.fillUniform(image, rand, 0, 100);
+
+		GrayF32 found = new GrayF32( image.width , image.height );
+		GrayF32 expected = new GrayF32( image.width , image.height );
+
+		BoofTesting.checkSubImage(this, "compareToNaive", true, image, found, expected);
+	}
+
+	public void compareToNaive(GrayF32 image, GrayF32 found, GrayF32 expected) {
+		// include a radius which is larger than the image
+		for( int radius = 1; radius <= 16; radius += 3 ) {
+			ImplMedianSortColumns.process(image, found, radius, 0, image.height);
+			ImplMedianSortNaive.process(image, expected, radius, null);
+
+			BoofTesting.assertEquals(expected, found, 0);
+		}
+	}
+
+	/**
+	 * Many pixels have the same value
+	 */
+	@Test
+	public void duplicateValues() {
+		GrayF32 image = new GrayF32(20,30);
+		for (int i = 0; i < image.data.length; i++) {
+			image.data[i] = rand.nextInt(4);
+		}
+
+		GrayF32 found = new GrayF32( image.width , image.height );
+		GrayF32 expected = new GrayF32( image.width , image.height );
+
+		for( int radius = 1; radius <= 4; radius++ ) {
+			ImplMedianSortColumns.process(image, found, radius, 0, image.height);
+			ImplMedianSortNaive.process(image, expected, radius, null);
+
+			BoofTesting.assertEquals(expected, found, 0);
+		}
+	}
+
+	/**
+	 * -0 and 0 are ordered differently by Arrays.sort() and comparison operators.  This used to cause a crash
+	 */
+	@Test
+	public void signedZeros() {
+		GrayF32 image = new GrayF32(20,20);
+		GrayF32 found = new GrayF32( image.width , image.height );
+		GrayF32 expected = new GrayF32( image.width , image.height );
+
+		for (int trial = 0; trial < 20; trial++) {
+			fillSpecial(image, false);
+
+			for( int radius = 1; radius <= 3; radius++ ) {
+				ImplMedianSortColumns.process(image, found, radius, 0, image.height);
+				ImplMedianSortNaive.process(image, expected, radius, null);
+
+				BoofTesting.assertEquals(expected, found, 0);
+
+				// QuickSelect doesn't care which zero it returns, so check the sign against sorting
+				medianSorted(image, expected, radius);
+				assertEquals(expected, found);
+			}
+		}
+	}
+
+	/**
+	 * NaN is treated as the largest value, the same as Arrays.sort().  QuickSelect in the naive implementation has
+	 * no defined behavior for NaN, so the median is computed by sorting the region instead.
+	 */
+	@Test
+	public void nan() {
+		GrayF32 image = new GrayF32(20,20);
+		GrayF32 found = new GrayF32( image.width , image.height );
+		GrayF32 expected = new GrayF32( image.width , image.height );
+
+		for (int trial = 0; trial < 20; trial++) {
+			fillSpecial(image, true);
+
+			for( int radius = 1; radius <= 3; radius++ ) {
+				ImplMedianSortColumns.process(image, found, radius, 0, image.height);
+				medianSorted(image, expected, radius);
+
+				assertEquals(expected, found);
+			}
+		}
+	}
+
+	/**
+	 * Computes the median by sorting the region using Arrays.sort()
+	 */
+	private static void medianSorted( GrayF32 image , GrayF32 output , int radius ) {
+		float work[] = new float[ (2*radius+1)*(2*radius+1) ];
+		for (int y = 0; y < image.height; y++) {
+			for (int x = 0; x < image.width; x++) {
+				int N = 0;
+				for (int i = Math.max(0,y-radius); i < Math.min(image.height,y+radius+1); i++) {
+					for (int j = Math.max(0,x-radius); j < Math.min(image.width,x+radius+1); j++) {
+						work[N++] = image.get(j,i);
+					}
+				}
+				Arrays.sort(work, 0, N);
+				output.set(x, y, work[N/2]);
+			}
+		}
+	}
+
+	/**
+	 * Fills the image with a mix of -0, 0, a few other values, and optionally NaN
+	 */
+	private void fillSpecial( GrayF32 image , boolean includeNaN ) {
+		float values[] = includeNaN ? new float[]{0.0f,-0.0f,1.5f,-2f,Float.NaN} : new float[]{0.0f,-0.0f,1.5f,-2f};
+		for (int i = 0; i < image.data.length; i++) {
+			image.data[i] = values[rand.nextInt(values.length)];
+		}
+	}
+
+	/**
+	 * Checks to see if the images are identical, including the sign of zero and NaN
+	 */
+	private static void assertEquals( GrayF32 expected , GrayF32 found ) {
+		for (int y = 0; y < expected.height; y++) {
+			for (int x = 0; x < expected.width; x++) {
+				Assert.assertEquals(Float.floatToIntBits(expected.get(x,y)), Float.floatToIntBits(found.get(x,y)));
+			}
+		}
+	}
+
+	@Test
+	public void bands() {
+		GrayF32 image = new GrayF32(25,30);
+		ImageMiscOps.fillUniform(image, rand, 0, 100);
+
+		GrayF32 expected = new GrayF32(image.width, image.height);
+		GrayF32 found = new GrayF32(image.width, image.height);
+
+		ImplMedianSortNaive.process(image, expected, 2, null);
+		int[] splits = new int[]{0, 1, 7, 20, 30};
+		for (int i = 0; i < splits.length - 1; i++) {
+			ImplMedianSortColumns.process(image, found, 2, splits[i], splits[i+1]);
+		}
+
+		BoofTesting.assertEquals(expected, found, 0);
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.filter.blur.impl;
+
+import boofcv.alg.filter.blur.BlurImageOps;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.alg.misc.ImageStatistics;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayF64;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImplRecursiveGaussian {
+
+	Random rand = new Random(234);
+
+	int width = 60;
+	int height = 70;
+
+	/**
+	 * The response to an impulse should be a Gaussian
+	 */
+	@Test
+	public void impulse() {
+		for( double sigma : new double[]{2,5,10} ) {
+			int length = (int)(sigma*12) + 1;
+			GrayF64 input = new GrayF64(length,1);
+			GrayF64 output = new GrayF64(length,1);
+			input.data[length/2] = 1;
+
+			new ImplRecursiveGaussian(sigma).horizontal(input,output);
+
+			double peak = 1.0/(Math.sqrt(2*Math.PI)*sigma);
+			double sum = 0;
+			for (int i = 0; i < length; i++) {
+				double d = i - length/2;
+				double expected = peak*Math.exp(-d*d/(2*sigma*sigma));
+				assertEquals(expected, output.data[i], peak*0.06);
+				sum += output.data[i];
+			}
+			assertEquals(1, sum, 1e-3);
+		}
+	}
+
+	/**
+	 * Compare against convolution with a Gaussian kernel.  The border is skipped since convolution renormalizes
+	 * the kernel instead of extending the image.
+	 */
+	@Test
+	public void compareToConvolution() {
+		GrayF32 input = new GrayF32(width,height);
+		ImageMiscOps.fillUniform(input, rand, 0, 100);
+
+		double tolerances[] = new double[]{8, 2, 1};
+		double sigmas[] = new double[]{1, 3, 6};
+
+		for (int i = 0; i < sigmas.length; i++) {
+			double sigma = sigmas[i];
+			int radius = (int)Math.ceil(sigma*4);
+
+			GrayF32 expected = BlurImageOps.gaussian(input, null, sigma, radius, null);
+
+			ImplRecursiveGaussian alg = new ImplRecursiveGaussian(sigma);
+			GrayF32 found = new GrayF32(width,height);
+			alg.horizontal(input, found);
+			alg.vertical(found, found);
+
+			GrayF32 a = expected.subimage(radius, radius, width - radius, height - radius);
+			GrayF32 b = found.subimage(radius, radius, width - radius, height - radius);
+			BoofTesting.assertEquals(a, b, tolerances[i]);
+			assertTrue(ImageStatistics.meanDiffAbs(a, b) < tolerances[i]/5);
+		}
+	}
+
+	/**
+	 * A constant image should not be changed, including at the border
+	 */
+	@Test
+	public void constant() {
+		GrayF32 input = new GrayF32(width,height);
+		ImageMiscOps.fill(input, 12);
+
+		ImplRecursiveGaussian alg = new ImplRecursiveGaussian(4);
+		GrayF32 found = new GrayF32(width,height);
+		alg.horizontal(input, found);
+		alg.vertical(found, found);
+
+		BoofTesting.assertEquals(input, found, 1e-3);
+	}
+
+	/**
+	 * Vertical should produce the same results as horizontal on the transposed image
+	 */
+	@Test
+	public void verticalIsTransposedHorizontal() {
+		GrayF64 input = new GrayF64(width,height);
+		ImageMiscOps.fillUniform(input, rand, 0, 100);
+		GrayF64 transposed = new GrayF64(height,width);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				transposed.set(y, x, input.get(x, y));
+			}
+		}
+
+		ImplRecursiveGaussian alg = new ImplRecursiveGaussian(3);
+		GrayF64 foundV = new GrayF64(width,height);
+		GrayF64 foundH = new GrayF64(height,width);
+		alg.vertical(input, foundV);
+		alg.horizontal(transposed, foundH);
+
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				assertEquals(foundH.get(y, x), foundV.get(x, y), 1e-8);
+			}
+		}
+	}
+
+	@Test
+	public void subimage() {
+		GrayF32 input = new GrayF32(width,height);
+		ImageMiscOps.fillUniform(input, rand, 0, 100);
+
+		ImplRecursiveGaussian alg = new ImplRecursiveGaussian(2.5);
+		GrayF32 expected = new GrayF32(width,height);
+		alg.horizontal(input, expected);
+		alg.vertical(expected, expected);
+
+		GrayF32 subInput = BoofTesting.createSubImageOf(input);
+		GrayF32 found = BoofTesting.createSubImageOf(new GrayF32(width,height));
+		alg.horizontal(subInput, found);
+		alg.vertical(found, found);
+
+		BoofTesting.assertEquals(expected, found, 0);
+	}
+
+	@Test
+	public void sigmaTooSmall() {
+		try {
+			new ImplRecursiveGaussian(0.4);
+			fail("Exception should have been thrown");
+		} catch( IllegalArgumentException ignore ) {}
+	}
+}
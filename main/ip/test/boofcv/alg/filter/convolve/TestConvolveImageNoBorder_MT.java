@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.filter.convolve;
+
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.filter.kernel.FactoryKernel;
+import boofcv.struct.convolve.*;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.ImageGray;
+import boofcv.testing.BoofTesting;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestConvolveImageNoBorder_MT {
+
+	Random rand = new Random(234);
+
+	int width = 25;
+	int height = 71;
+
+	int originalMinRows;
+	int originalThreads;
+
+	@Before
+	public void before() {
+		originalMinRows = ConvolveImageNoBorder_MT.MIN_BAND_ROWS;
+		originalThreads = BoofConcurrency.getMaxThreads();
+
+		// force it to create several thin bands
+		ConvolveImageNoBorder_MT.MIN_BAND_ROWS = 2;
+		BoofConcurrency.setMaxThreads(5);
+	}
+
+	@After
+	public void after() {
+		ConvolveImageNoBorder_MT.MIN_BAND_ROWS = originalMinRows;
+		BoofConcurrency.setMaxThreads(originalThreads);
+	}
+
+	@Test
+	public void compareToSingleThread_symmetric() {
+		compareToSingleThread(5, 2);
+	}
+
+	@Test
+	public void compareToSingleThread_UNsymmetric() {
+		compareToSingleThread(5, 1);
+	}
+
+	@Test
+	public void compareToSingleThread_even() {
+		compareToSingleThread(4, 3);
+	}
+
+	/**
+	 * Sees if every function produces the exact same output as the single threaded version
+	 */
+	private void compareToSingleThread( int kernelWidth , int offset ) {
+		Method methods[] = ConvolveImageNoBorder_MT.class.getMethods();
+
+		int total = 0;
+		for( Method m : methods ) {
+			if( m.getDeclaringClass() != ConvolveImageNoBorder_MT.class )
+				continue;
+
+			Method expected;
+			try {
+				expected = ConvolveImageNoBorder.class.getMethod(m.getName(), m.getParameterTypes());
+			} catch (NoSuchMethodException e) {
+				throw new RuntimeException("No single threaded equivalent for "+m);
+			}
+
+			Class<?> params[] = m.getParameterTypes();
+			KernelBase kernel = createKernel(params[0], kernelWidth, offset);
+
+			ImageGray input = ConvolutionTestHelper.createImage(params[1], width, height);
+			ImageGray foundOut = ConvolutionTestHelper.createImage(params[2], width, height);
+			GImageMiscOps.fillUniform(input, rand, 0, 100);
+			GImageMiscOps.fillUniform(foundOut, rand, 0, 100);
+			ImageGray expectedOut = (ImageGray)foundOut.clone();
+
+			Object foundArgs[] = params.length == 4 ?
+					new Object[]{kernel,input,foundOut,11} : new Object[]{kernel,input,foundOut};
+			Object expectedArgs[] = params.length == 4 ?
+					new Object[]{kernel,input,expectedOut,11} : new Object[]{kernel,input,expectedOut};
+
+			try {
+				m.invoke(null, foundArgs);
+				expected.invoke(null, expectedArgs);
+			} catch (IllegalAccessException | InvocationTargetException e) {
+				throw new RuntimeException(e);
+			}
+
+			BoofTesting.assertEquals(expectedOut, foundOut, 0);
+			total++;
+		}
+
+		assertEquals(25, total);
+	}
+
+	/**
+	 * Turn on the global switch and see if the concurrent functions are used
+	 */
+	@Test
+	public void globalSwitch() {
+		Kernel1D_F32 kernel = FactoryKernel.random1D_F32(5, 2, -1, 1, rand);
+		GrayF32 input = new GrayF32(width, height);
+		GImageMiscOps.fillUniform(input, rand, 0, 100);
+		GrayF32 expected = input.createSameShape();
+		GrayF32 found = input.createSameShape();
+
+		ConvolveImageNoBorder.vertical(kernel, input, expected);
+		try {
+			BoofConcurrency.USE_CONCURRENT = true;
+			ConvolveImageNoBorder.vertical(kernel, input, found);
+		} finally {
+			BoofConcurrency.USE_CONCURRENT = false;
+		}
+
+		BoofTesting.assertEquals(expected, found, 0);
+	}
+
+	private KernelBase createKernel(Class<?> paramType, int kernelWidth, int offset) {
+		if (Kernel1D_F32.class == paramType) {
+			return FactoryKernel.random1D_F32(kernelWidth, offset, -1, 1, rand);
+		} else if (Kernel1D_F64.class == paramType) {
+			return FactoryKernel.random1D_F64(kernelWidth, offset, -1, 1, rand);
+		} else if (Kernel1D_I32.class == paramType) {
+			return FactoryKernel.random1D_I32(kernelWidth, offset, 0, 5, rand);
+		} else if (Kernel2D_I32.class == paramType) {
+			return FactoryKernel.random2D_I32(kernelWidth, offset, 0, 5, rand);
+		} else if (Kernel2D_F32.class == paramType) {
+			return FactoryKernel.random2D_F32(kernelWidth, offset, -1, 1, rand);
+		} else if (Kernel2D_F64.class == paramType) {
+			return FactoryKernel.random2D_F64(kernelWidth, offset, -1, 1, rand);
+		} else {
+			throw new RuntimeException("Unknown kernel type "+paramType.getSimpleName());
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.filter.derivative;
+
+import boofcv.alg.filter.blur.BlurImageOps;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.alg.misc.ImageStatistics;
+import boofcv.core.image.ConvertImage;
+import boofcv.core.image.border.FactoryImageBorderAlgs;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayF64;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestGradientGaussianRecursive {
+
+	Random rand = new Random(234);
+
+	int width = 50;
+	int height = 60;
+
+	/**
+	 * Compare against the derivative of an image blurred using convolution.  The border is skipped.
+	 */
+	@Test
+	public void compareToConvolution() {
+		GrayF32 input = new GrayF32(width,height);
+		ImageMiscOps.fillUniform(input, rand, 0, 100);
+
+		double sigma = 3;
+		int radius = 12;
+
+		GrayF32 blurred = BlurImageOps.gaussian(input, null, sigma, radius, null);
+		GrayF32 expectedX = new GrayF32(width,height);
+		GrayF32 expectedY = new GrayF32(width,height);
+		GradientThree.process(blurred, expectedX, expectedY, FactoryImageBorderAlgs.extend(blurred));
+
+		GrayF32 foundX = new GrayF32(width,height);
+		GrayF32 foundY = new GrayF32(width,height);
+		GradientGaussianRecursive.process(input, foundX, foundY, sigma, null);
+
+		GrayF32 subExpectedX = expectedX.subimage(radius, radius, width - radius, height - radius);
+		GrayF32 subExpectedY = expectedY.subimage(radius, radius, width - radius, height - radius);
+		GrayF32 subFoundX = foundX.subimage(radius, radius, width - radius, height - radius);
+		GrayF32 subFoundY = foundY.subimage(radius, radius, width - radius, height - radius);
+
+		// the derivative's magnitude is about 2 at most
+		BoofTesting.assertEquals(subExpectedX, subFoundX, 0.4);
+		BoofTesting.assertEquals(subExpectedY, subFoundY, 0.4);
+		assertTrue(ImageStatistics.meanDiffAbs(subExpectedX, subFoundX) < 0.1);
+		assertTrue(ImageStatistics.meanDiffAbs(subExpectedY, subFoundY) < 0.1);
+	}
+
+	/**
+	 * The derivative of a constant image is zero everywhere, including the border
+	 */
+	@Test
+	public void constant() {
+		GrayF32 input = new GrayF32(width,height);
+		ImageMiscOps.fill(input, 50);
+
+		GrayF32 derivX = new GrayF32(width,height);
+		GrayF32 derivY = new GrayF32(width,height);
+		GradientGaussianRecursive.process(input, derivX, derivY, 4, new GrayF32(1,1));
+
+		BoofTesting.assertEquals(new GrayF32(width,height), derivX, 1e-3);
+		BoofTesting.assertEquals(new GrayF32(width,height), derivY, 1e-3);
+	}
+
+	/**
+	 * The F64 version should produce the same results as the F32 version, including the border
+	 */
+	@Test
+	public void compare_F64() {
+		GrayF32 input = new GrayF32(width,height);
+		ImageMiscOps.fillUniform(input, rand, 0, 100);
+
+		GrayF32 expectedX = new GrayF32(width,height);
+		GrayF32 expectedY = new GrayF32(width,height);
+		GradientGaussianRecursive.process(input, expectedX, expectedY, 3, null);
+
+		GrayF64 input64 = ConvertImage.convert(input, (GrayF64)null);
+		GrayF64 foundX = new GrayF64(width,height);
+		GrayF64 foundY = new GrayF64(width,height);
+		GradientGaussianRecursive.process(input64, foundX, foundY, 3, new GrayF64(1,1));
+
+		BoofTesting.assertEquals(expectedX, foundX, 1e-3);
+		BoofTesting.assertEquals(expectedY, foundY, 1e-3);
+	}
+}
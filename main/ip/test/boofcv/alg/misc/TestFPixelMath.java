@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.misc;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.core.image.ConvertImage;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayS16;
+import boofcv.struct.image.GrayU8;
+import boofcv.testing.BoofTesting;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFPixelMath {
+
+	Random rand = new Random(234);
+
+	int width = 30;
+	int height = 40;
+
+	@After
+	public void after() {
+		BoofConcurrency.USE_CONCURRENT = false;
+	}
+
+	@Test
+	public void singleOperations() {
+		GrayF32 input = new GrayF32(width,height);
+		GrayF32 other = new GrayF32(width,height);
+		ImageMiscOps.fillUniform(input, rand, 0, 100);
+		ImageMiscOps.fillUniform(other, rand, 1, 100);
+
+		GrayF32 expected = new GrayF32(width,height);
+
+		PixelMath.abs(input, expected);
+		compare(expected, new FPixelMath(input).abs());
+		PixelMath.invert(input, expected);
+		compare(expected, new FPixelMath(input).invert());
+		PixelMath.multiply(input, 2.5f, expected);
+		compare(expected, new FPixelMath(input).multiply(2.5f));
+		PixelMath.multiply(input, 2.5f, 10, 50, expected);
+		compare(expected, new FPixelMath(input).multiply(2.5f, 10, 50));
+		PixelMath.divide(input, 2.5f, expected);
+		compare(expected, new FPixelMath(input).divide(2.5f));
+		PixelMath.divide(input, 2.5f, 10, 30, expected);
+		compare(expected, new FPixelMath(input).divide(2.5f, 10, 30));
+		PixelMath.plus(input, 2.5f, expected);
+		compare(expected, new FPixelMath(input).plus(2.5f));
+		PixelMath.plus(input, 2.5f, 10, 50, expected);
+		compare(expected, new FPixelMath(input).plus(2.5f, 10, 50));
+		PixelMath.minus(input, 2.5f, expected);
+		compare(expected, new FPixelMath(input).minus(2.5f));
+		PixelMath.minus(2.5f, input, expected);
+		compare(expected, new FPixelMath(input).minusFrom(2.5f));
+		expected.setTo(input);
+		PixelMath.boundImage(expected, 20, 60);
+		compare(expected, new FPixelMath(input).boundImage(20, 60));
+		PixelMath.log(input, expected);
+		compare(expected, new FPixelMath(input).log());
+		PixelMath.pow2(input, expected);
+		compare(expected, new FPixelMath(input).pow2());
+		PixelMath.sqrt(input, expected);
+		compare(expected, new FPixelMath(input).sqrt());
+
+		PixelMath.add(input, other, expected);
+		compare(expected, new FPixelMath(input).add(other));
+		PixelMath.subtract(input, other, expected);
+		compare(expected, new FPixelMath(input).subtract(other));
+		PixelMath.multiply(input, other, expected);
+		compare(expected, new FPixelMath(input).multiply(other));
+		PixelMath.divide(input, other, expected);
+		compare(expected, new FPixelMath(input).divide(other));
+		PixelMath.diffAbs(input, other, expected);
+		compare(expected, new FPixelMath(input).diffAbs(other));
+	}
+
+	private void compare( GrayF32 expected , FPixelMath alg ) {
+		BoofTesting.assertEquals(expected, alg.apply(), 0);
+	}
+
+	/**
+	 * Compare a chain of operations on integer images against converting the images and calling each operation
+	 * individually
+	 */
+	@Test
+	public void chain_integer() {
+		GrayU8 input = new GrayU8(width,height);
+		GrayS16 other = new GrayS16(width,height);
+		ImageMiscOps.fillUniform(input, rand, 0, 255);
+		ImageMiscOps.fillUniform(other, rand, -200, 200);
+
+		// compute the solution one step at a time
+		GrayF32 a = ConvertImage.convert(input, (GrayF32)null);
+		GrayF32 b = ConvertImage.convert(other, (GrayF32)null);
+		GrayF32 tmp = new GrayF32(width,height);
+		PixelMath.multiply(a, 1.7f, tmp);
+		PixelMath.diffAbs(tmp, b, a);
+		PixelMath.minus(a, 20, tmp);
+		PixelMath.boundImage(tmp, 0, 255);
+		GrayU8 expected = ConvertImage.convert(tmp, (GrayU8)null);
+
+		GrayU8 found = new FPixelMath(input).multiply(1.7f).diffAbs(other).minus(20).boundImage(0,255).
+				apply(new GrayU8(width,height));
+
+		BoofTesting.assertEquals(expected, found, 0);
+
+		// the output can be the input
+		new FPixelMath(input).multiply(1.7f).diffAbs(other).minus(20).boundImage(0,255).apply(input);
+		BoofTesting.assertEquals(expected, input, 0);
+	}
+
+	@Test
+	public void subimage() {
+		GrayU8 input = new GrayU8(width,height);
+		GrayF32 other = new GrayF32(width,height);
+		ImageMiscOps.fillUniform(input, rand, 0, 255);
+		ImageMiscOps.fillUniform(other, rand, -200, 200);
+
+		GrayF32 expected = new FPixelMath(input).add(other).sqrt().apply();
+
+		GrayU8 subInput = BoofTesting.createSubImageOf(input);
+		GrayF32 subOther = BoofTesting.createSubImageOf(other);
+		GrayF32 subOutput = BoofTesting.createSubImageOf(new GrayF32(width,height));
+
+		new FPixelMath(subInput).add(subOther).sqrt().apply(subOutput);
+
+		BoofTesting.assertEquals(expected, subOutput, 0);
+	}
+
+	@Test
+	public void concurrent() {
+		GrayU8 input = new GrayU8(width,height);
+		GrayF32 other = new GrayF32(width,height);
+		ImageMiscOps.fillUniform(input, rand, 0, 255);
+		ImageMiscOps.fillUniform(other, rand, -200, 200);
+
+		FPixelMath alg = new FPixelMath(input).multiply(other).plus(5).abs().log();
+		GrayF32 expected = alg.apply();
+
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+			BoofConcurrency.USE_CONCURRENT = true;
+			GrayF32 found = alg.apply();
+			BoofTesting.assertEquals(expected, found, 0);
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	@Test
+	public void checkShape() {
+		GrayU8 input = new GrayU8(width,height);
+		try {
+			new FPixelMath(input).plus(2).apply(new GrayU8(width,height+1));
+			fail("Exception should have been thrown");
+		} catch( IllegalArgumentException ignore ) {}
+
+		try {
+			new FPixelMath(input).add(new GrayU8(width+1,height)).apply(new GrayU8(width,height));
+			fail("Exception should have been thrown");
+		} catch( IllegalArgumentException ignore ) {}
+
+		// sanity check
+		assertTrue(new FPixelMath(input).plus(2).apply().get(0,0) == 2);
+	}
+}
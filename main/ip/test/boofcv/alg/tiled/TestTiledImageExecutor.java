@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.tiled;
+
+import boofcv.abst.filter.FilterImageInterface;
+import boofcv.abst.filter.binary.InputToBinary;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.filter.binary.FactoryThresholdBinary;
+import boofcv.factory.filter.blur.FactoryBlurFilter;
+import boofcv.struct.ImageRectangle;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.TiledImage;
+import boofcv.testing.BoofTesting;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestTiledImageExecutor {
+
+	Random rand = new Random(234);
+
+	int width = 71, height = 53;
+
+	File fileInput, fileOutput;
+	int maxThreads;
+
+	@Before
+	public void before() throws IOException {
+		fileInput = File.createTempFile("tiled", ".raw");
+		fileOutput = File.createTempFile("tiled", ".raw");
+		maxThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(3);
+	}
+
+	@After
+	public void after() {
+		fileInput.delete();
+		fileOutput.delete();
+		BoofConcurrency.USE_CONCURRENT = false;
+		BoofConcurrency.setMaxThreads(maxThreads);
+	}
+
+	/**
+	 * Blurring the tiled image should produce the same results as blurring the whole image
+	 */
+	@Test
+	public void process_blur() {
+		GrayF32 input = new GrayF32(width, height);
+		ImageMiscOps.fillUniform(input, rand, 0, 100);
+
+		GrayF32 expected = new GrayF32(width, height);
+		FactoryBlurFilter.gaussian(GrayF32.class, -1, 4).process(input, expected);
+
+		for( boolean concurrent : new boolean[]{false,true}) {
+			BoofConcurrency.USE_CONCURRENT = concurrent;
+
+			List<TileOperation<GrayF32,GrayF32>> workers = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				FilterImageInterface<GrayF32,GrayF32> blur = FactoryBlurFilter.gaussian(GrayF32.class, -1, 4);
+				workers.add(TiledImageExecutor.wrap(blur));
+			}
+
+			GrayF32 found = new GrayF32(width, height);
+			runProcess(input, found, 4, workers);
+			BoofTesting.assertEquals(expected, found, 1e-4);
+		}
+	}
+
+	/**
+	 * Local thresholding the tiled image should produce the same results as thresholding the whole image
+	 */
+	@Test
+	public void process_threshold() {
+		GrayF32 input = new GrayF32(width, height);
+		ImageMiscOps.fillUniform(input, rand, 0, 100);
+
+		GrayU8 expected = new GrayU8(width, height);
+		FactoryThresholdBinary.localSquare(5, 0.95, true, GrayF32.class).process(input, expected);
+
+		for( boolean concurrent : new boolean[]{false,true}) {
+			BoofConcurrency.USE_CONCURRENT = concurrent;
+
+			List<TileOperation<GrayF32,GrayU8>> workers = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				InputToBinary<GrayF32> threshold = FactoryThresholdBinary.localSquare(5, 0.95, true, GrayF32.class);
+				workers.add(TiledImageExecutor.wrap(threshold));
+			}
+
+			GrayU8 found = new GrayU8(width, height);
+			runProcess(input, found, 5, workers);
+			BoofTesting.assertEquals(expected, found, 0);
+		}
+	}
+
+	/**
+	 * The location of the region should be passed in so that operations which depend on the location work
+	 */
+	@Test
+	public void process_location() {
+		GrayU8 input = new GrayU8(width, height);
+
+		TileOperation<GrayU8,GrayF32> op = new TileOperation<GrayU8, GrayF32>() {
+			@Override
+			public void process(GrayU8 input, GrayF32 output, int x0, int y0) {
+				for (int y = 0; y < output.height; y++) {
+					for (int x = 0; x < output.width; x++) {
+						output.set(x, y, (x + x0)*1000 + y + y0);
+					}
+				}
+			}
+		};
+		List<TileOperation<GrayU8,GrayF32>> workers = new ArrayList<>();
+		workers.add(op);
+
+		GrayF32 found = new GrayF32(width, height);
+		runProcess(input, found, 2, workers);
+
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				assertEquals(x*1000 + y, found.get(x, y), 0);
+			}
+		}
+	}
+
+	/**
+	 * Processing an image into itself isn't allowed
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void process_sameImage() {
+		TiledImage<GrayF32> tiled = new TiledImage<>(fileInput, width, height, 16, 12, GrayF32.class, 4);
+		try {
+			FilterImageInterface<GrayF32,GrayF32> blur = FactoryBlurFilter.gaussian(GrayF32.class, -1, 4);
+			new TiledImageExecutor(4).process(tiled, tiled, TiledImageExecutor.wrap(blur));
+		} finally {
+			tiled.close();
+		}
+	}
+
+	private <In extends ImageGray, Out extends ImageGray>
+	void runProcess(In input, Out output, int halo, List<TileOperation<In,Out>> workers) {
+		TiledImage<In> tiledInput = new TiledImage<>(fileInput, width, height, 16, 12,
+				(Class<In>)input.getClass(), 4);
+		TiledImage<Out> tiledOutput = new TiledImage<>(fileOutput, width, height, 20, 10,
+				(Class<Out>)output.getClass(), 4);
+		tiledInput.setRegion(0, 0, input);
+
+		new TiledImageExecutor(halo).process(tiledInput, tiledOutput, workers);
+
+		tiledOutput.getRegion(0, 0, output);
+		tiledInput.close();
+		tiledOutput.close();
+	}
+
+	/**
+	 * Every pixel should be inside exactly one tile and the region should contain the tile plus the halo
+	 */
+	@Test
+	public void visit() {
+		for( boolean concurrent : new boolean[]{false,true}) {
+			BoofConcurrency.USE_CONCURRENT = concurrent;
+
+			final GrayU8 input = new GrayU8(width, height);
+			ImageMiscOps.fillUniform(input, rand, 0, 100);
+			final GrayU8 count = new GrayU8(width, height);
+			final int halo = 3;
+
+			List<TileVisitor<GrayU8>> workers = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				workers.add(new TileVisitor<GrayU8>() {
+					@Override
+					public void visit(GrayU8 region, int x0, int y0, ImageRectangle tile) {
+						assertEquals(Math.max(0, tile.x0 - halo), x0);
+						assertEquals(Math.max(0, tile.y0 - halo), y0);
+						assertEquals(Math.min(width, tile.x1 + halo), x0 + region.width);
+						assertEquals(Math.min(height, tile.y1 + halo), y0 + region.height);
+
+						for (int y = tile.y0; y < tile.y1; y++) {
+							for (int x = tile.x0; x < tile.x1; x++) {
+								assertEquals(input.get(x, y), region.get(x - x0, y - y0));
+								synchronized (count) {
+									count.set(x, y, count.get(x, y) + 1);
+								}
+							}
+						}
+					}
+				});
+			}
+
+			TiledImage<GrayU8> tiled = new TiledImage<>(fileInput, width, height, 16, 12, GrayU8.class, 2);
+			tiled.setRegion(0, 0, input);
+			new TiledImageExecutor(halo).visit(tiled, workers);
+			tiled.close();
+
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					assertEquals(1, count.get(x, y));
+				}
+			}
+		}
+	}
+}
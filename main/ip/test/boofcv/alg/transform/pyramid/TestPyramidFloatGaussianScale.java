@@ -20,7 +20,9 @@ package boofcv.alg.transform.pyramid;
 
 import boofcv.abst.distort.FDistort;
 import boofcv.abst.filter.blur.BlurFilter;
+import boofcv.alg.filter.blur.BlurImageOps;
 import boofcv.alg.interpolate.InterpolatePixelS;
+import boofcv.alg.misc.GImageMiscOps;
 import boofcv.core.image.border.BorderType;
 import boofcv.factory.filter.blur.FactoryBlurFilter;
 import boofcv.factory.interpolate.FactoryInterpolation;
@@ -85,6 +87,35 @@ public class TestPyramidFloatGaussianScale extends GenericPyramidTests<GrayF32>
 		BoofTesting.assertEquals(expected,found, 1e-4);
 	}
 
+	/**
+	 * Layers with a large enough sigma should be blurred using the recursive Gaussian
+	 */
+	@Test
+	public void minSigmaRecursive() {
+		GrayF32 img = new GrayF32(width,height);
+		GImageMiscOps.fillUniform(img, rand, 0, 100);
+
+		InterpolatePixelS<GrayF32> interp = FactoryInterpolation.bilinearPixelS(img, BorderType.EXTENDED);
+
+		PyramidFloatGaussianScale<GrayF32> alg = new PyramidFloatGaussianScale<>(interp,scales,sigmas,imageType);
+		alg.setMinSigmaRecursive(2);
+		alg.process(img);
+
+		// the first layer has a sigma of 1 and uses convolution
+		BlurFilter<GrayF32> blur = FactoryBlurFilter.gaussian(GrayF32.class,sigmas[0],-1);
+		GrayF32 blurrImg = new GrayF32(width, height);
+		blur.process(img, blurrImg);
+		GrayF32 expected = new GrayF32((int)Math.ceil(width/3.0),(int)Math.ceil(height/3.0));
+		new FDistort(blurrImg,expected).scaleExt().apply();
+		BoofTesting.assertEquals(expected,alg.getLayer(0),1e-4);
+
+		// the second layer has a sigma of 2 and uses the recursive Gaussian
+		blurrImg = BlurImageOps.gaussianRecursive(expected, null, sigmas[1]);
+		expected = new GrayF32((int)Math.ceil(width/5.0),(int)Math.ceil(height/5.0));
+		new FDistort(blurrImg,expected).scaleExt().apply();
+		BoofTesting.assertEquals(expected,alg.getLayer(1),1e-4);
+	}
+
 	@Override
 	protected ImagePyramid<GrayF32> createPyramid(int... scales) {
 		double a[] = BoofMiscOps.convertTo_F64(scales);
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.concurrency;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBoofConcurrency {
+
+	int originalThreads;
+
+	@Before
+	public void before() {
+		originalThreads = BoofConcurrency.getMaxThreads();
+	}
+
+	@After
+	public void after() {
+		BoofConcurrency.setMaxThreads(originalThreads);
+	}
+
+	/**
+	 * Every value in the range should be processed exactly once
+	 */
+	@Test
+	public void loopBlocks_coverage() {
+		BoofConcurrency.setMaxThreads(4);
+
+		for( int length : new int[]{1,3,4,10,101}) {
+			final int counts[] = new int[length+5];
+			BoofConcurrency.loopBlocks(5, 5+length, 1, new IntRangeTask() {
+				@Override
+				public void process(int minInclusive, int maxExclusive) {
+					for (int i = minInclusive; i < maxExclusive; i++) {
+						counts[i]++;
+					}
+				}
+			});
+
+			for (int i = 0; i < counts.length; i++) {
+				assertEquals(i < 5 ? 0 : 1, counts[i]);
+			}
+		}
+	}
+
+	/**
+	 * The number of blocks should be limited by the minimum block size and the number of threads
+	 */
+	@Test
+	public void loopBlocks_numberOfBlocks() {
+		BoofConcurrency.setMaxThreads(4);
+
+		assertEquals(1, countBlocks(0, 20, 20));
+		assertEquals(2, countBlocks(0, 20, 10));
+		assertEquals(4, countBlocks(0, 100, 1));
+		assertEquals(0, countBlocks(5, 5, 1));
+	}
+
+	/**
+	 * Calling loopBlocks from inside a block should work and not dead lock
+	 */
+	@Test
+	public void loopBlocks_nested() {
+		BoofConcurrency.setMaxThreads(2);
+
+		final AtomicInteger total = new AtomicInteger();
+		BoofConcurrency.loopBlocks(0, 10, 1, new IntRangeTask() {
+			@Override
+			public void process(int minInclusive, int maxExclusive) {
+				for (int i = minInclusive; i < maxExclusive; i++) {
+					BoofConcurrency.loopBlocks(0, 10, 1, new IntRangeTask() {
+						@Override
+						public void process(int minInclusive, int maxExclusive) {
+							total.addAndGet(maxExclusive-minInclusive);
+						}
+					});
+				}
+			}
+		});
+
+		assertEquals(100, total.get());
+	}
+
+	/**
+	 * Exceptions thrown inside a block should be passed on to the caller
+	 */
+	@Test
+	public void loopBlocks_exception() {
+		BoofConcurrency.setMaxThreads(3);
+
+		try {
+			BoofConcurrency.loopBlocks(0, 10, 1, new IntRangeTask() {
+				@Override
+				public void process(int minInclusive, int maxExclusive) {
+					throw new IllegalArgumentException("Foo");
+				}
+			});
+			assertTrue(false);
+		} catch( IllegalArgumentException ignore ) {}
+	}
+
+	private int countBlocks( int start , int end , int minBlock ) {
+		final AtomicInteger count = new AtomicInteger();
+		BoofConcurrency.loopBlocks(start, end, minBlock, new IntRangeTask() {
+			@Override
+			public void process(int minInclusive, int maxExclusive) {
+				count.incrementAndGet();
+			}
+		});
+		return count.get();
+	}
+}
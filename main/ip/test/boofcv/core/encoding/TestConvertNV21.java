@@ -21,8 +21,10 @@ package boofcv.core.encoding;
 import boofcv.alg.color.ColorYuv;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.struct.image.*;
+import boofcv.testing.BoofTesting;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
 import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
@@ -86,6 +88,37 @@ public class TestConvertNV21 {
 		}
 	}
 
+	/**
+	 * Reading from a direct ByteBuffer should produce the same results as reading from a byte array
+	 */
+	@Test
+	public void testByteBuffer() {
+		ImageType types[] = new ImageType[]{ImageType.single(GrayU8.class),ImageType.single(GrayF32.class),
+				ImageType.pl(3, ImageDataType.U8),ImageType.pl(3,ImageDataType.F32),
+				ImageType.il(3, ImageDataType.U8),ImageType.il(3, ImageDataType.F32)};
+
+		byte[] data = random(width,height);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+		buffer.put(data);
+
+		for( ImageType type : types ) {
+			ImageBase expected = type.createImage(width,height);
+			ImageBase found = type.createImage(width,height);
+
+			ConvertNV21.nv21ToBoof(data, width, height, expected);
+			ConvertNV21.nv21ToBoof(buffer, width, height, found);
+
+			BoofTesting.assertEquals(expected, found, 1e-8);
+		}
+
+		for( Class type : new Class[]{GrayU8.class, GrayF32.class}) {
+			Planar expected = ConvertNV21.nv21ToMsYuv(data, width, height, null, type);
+			Planar found = ConvertNV21.nv21ToMsYuv(buffer, width, height, null, type);
+
+			BoofTesting.assertEquals(expected, found, 1e-8);
+		}
+	}
+
 	private byte[] random( int width , int height ) {
 		int length = width*height + (width*height/4)*2;
 		byte[] data = new byte[length];
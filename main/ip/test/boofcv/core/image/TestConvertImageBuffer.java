@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.core.image;
+
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.struct.image.*;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestConvertImageBuffer {
+
+	Random rand = new Random(234);
+	int width = 20, height = 15;
+
+	@Test
+	public void convert_gray() {
+		InterleavedU8 expected = new InterleavedU8(width,height,1);
+		GImageMiscOps.fillUniform(expected, rand, 0, 256);
+		ImageBufferU8 buffer = toBuffer(expected);
+
+		BoofTesting.assertEquals(ConvertImage.average(expected, (GrayU8)null),
+				ConvertImageBuffer.convert(buffer, (GrayU8)null), 0);
+		BoofTesting.assertEquals(ConvertImage.convert(ConvertImage.average(expected, (GrayU8)null), (GrayF32)null),
+				ConvertImageBuffer.convert(buffer, (GrayF32)null), 0);
+
+		// sub-image output
+		GrayU8 sub = BoofTesting.createSubImageOf(new GrayU8(width,height));
+		ConvertImageBuffer.convert(buffer, sub);
+		BoofTesting.assertEquals(ConvertImage.average(expected, (GrayU8)null), sub, 0);
+	}
+
+	@Test
+	public void convert_interleaved() {
+		InterleavedU8 expected = new InterleavedU8(width,height,3);
+		GImageMiscOps.fillUniform(expected, rand, 0, 256);
+		ImageBufferU8 buffer = toBuffer(expected);
+
+		BoofTesting.assertEquals(expected, ConvertImageBuffer.convert(buffer, (InterleavedU8)null), 0);
+		BoofTesting.assertEquals(ConvertImage.convert(expected, (InterleavedF32)null),
+				ConvertImageBuffer.convert(buffer, (InterleavedF32)null), 0);
+
+		InterleavedU8 sub = BoofTesting.createSubImageOf(new InterleavedU8(width,height,3));
+		ConvertImageBuffer.convert(buffer, sub);
+		BoofTesting.assertEquals(expected, sub, 0);
+	}
+
+	@Test
+	public void convert_planar() {
+		InterleavedU8 expected = new InterleavedU8(width,height,3);
+		GImageMiscOps.fillUniform(expected, rand, 0, 256);
+		ImageBufferU8 buffer = toBuffer(expected);
+
+		BoofTesting.assertEquals(ConvertImage.convert(expected, (Planar<GrayU8>)null),
+				ConvertImageBuffer.convert(buffer, (Planar<GrayU8>)null), 0);
+	}
+
+	@Test
+	public void average() {
+		InterleavedU8 expected = new InterleavedU8(width,height,3);
+		GImageMiscOps.fillUniform(expected, rand, 0, 256);
+		ImageBufferU8 buffer = toBuffer(expected);
+
+		BoofTesting.assertEquals(ConvertImage.average(expected, (GrayU8)null),
+				ConvertImageBuffer.average(buffer, (GrayU8)null), 0);
+
+		GrayF32 found = ConvertImageBuffer.average(buffer, (GrayF32)null);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				float sum = 0;
+				for (int band = 0; band < 3; band++) {
+					sum += expected.getBand(x, y, band);
+				}
+				assertEquals(sum/3, found.get(x, y), 1e-4f);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void convert_gray_wrongBands() {
+		ImageBufferU8 buffer = toBuffer(new InterleavedU8(width,height,3));
+		ConvertImageBuffer.convert(buffer, (GrayU8)null);
+	}
+
+	/**
+	 * Copies the image into a direct buffer which is a sub-image of a larger image
+	 */
+	private ImageBufferU8 toBuffer( InterleavedU8 image ) {
+		ImageBufferU8 larger = new ImageBufferU8(ByteBuffer.allocateDirect((width+4)*(height+3)*image.numBands),
+				width+4, height+3, image.numBands);
+		ImageBufferU8 buffer = larger.subimage(2, 1, width+2, height+1, null);
+
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				for (int band = 0; band < image.numBands; band++) {
+					buffer.data.put(buffer.getIndex(x, y)+band, (byte)image.getBand(x, y, band));
+				}
+			}
+		}
+		return buffer;
+	}
+}
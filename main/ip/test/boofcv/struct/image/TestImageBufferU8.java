@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.struct.image;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImageBufferU8 {
+
+	@Test
+	public void getBand() {
+		ByteBuffer data = ByteBuffer.allocateDirect(4*3*2);
+		for (int i = 0; i < data.capacity(); i++) {
+			data.put(i, (byte)(i + 200));
+		}
+
+		ImageBufferU8 image = new ImageBufferU8(data, 4, 3, 2);
+		assertEquals(8, image.stride);
+
+		for (int y = 0; y < 3; y++) {
+			for (int x = 0; x < 4; x++) {
+				for (int band = 0; band < 2; band++) {
+					assertEquals((y*8 + x*2 + band + 200) & 0xFF, image.getBand(x, y, band));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void subimage() {
+		ByteBuffer data = ByteBuffer.allocateDirect(6*5);
+		for (int i = 0; i < data.capacity(); i++) {
+			data.put(i, (byte)i);
+		}
+
+		ImageBufferU8 image = new ImageBufferU8(data, 6, 5, 1);
+		ImageBufferU8 sub = image.subimage(2, 1, 5, 4, null);
+
+		assertEquals(3, sub.width);
+		assertEquals(3, sub.height);
+		for (int y = 0; y < 3; y++) {
+			for (int x = 0; x < 3; x++) {
+				assertEquals(image.get(x + 2, y + 1), sub.get(x, y));
+			}
+		}
+
+		try {
+			sub.get(3, 0);
+			fail("Should be out of bounds");
+		} catch( ImageAccessException ignore ) {}
+	}
+
+	@Test
+	public void setTo_bufferTooSmall() {
+		ImageBufferU8 image = new ImageBufferU8();
+		image.setTo(ByteBuffer.allocateDirect(20), 2, 6, 5, 3, 1);
+
+		try {
+			image.setTo(ByteBuffer.allocateDirect(20), 4, 6, 5, 3, 1);
+			fail("Buffer is too small");
+		} catch( IllegalArgumentException ignore ) {}
+
+		try {
+			image.setTo(ByteBuffer.allocateDirect(100), 0, 4, 5, 3, 1);
+			fail("Stride is too small");
+		} catch( IllegalArgumentException ignore ) {}
+	}
+}
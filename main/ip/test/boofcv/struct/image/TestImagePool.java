@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.struct.image;
+
+import boofcv.alg.filter.blur.GBlurImageOps;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.factory.transform.pyramid.FactoryPyramid;
+import boofcv.struct.pyramid.PyramidDiscrete;
+import boofcv.struct.pyramid.PyramidFloat;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImagePool {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void borrow_giveBack() {
+		ImagePool pool = new ImagePool();
+
+		GrayU8 a = pool.borrow(ImageType.single(GrayU8.class), 20, 30);
+		assertEquals(20, a.width);
+		assertEquals(30, a.height);
+		assertEquals(0, pool.getHits());
+		assertEquals(1, pool.getMisses());
+
+		pool.giveBack(a);
+		assertEquals(1, pool.getTotalAvailable());
+
+		GrayU8 b = pool.borrow(ImageType.single(GrayU8.class), 20, 30);
+		assertTrue(a == b);
+		assertEquals(1, pool.getHits());
+		assertEquals(1, pool.getMisses());
+		assertEquals(0, pool.getTotalAvailable());
+
+		// null should be silently ignored
+		pool.giveBack(null);
+		assertEquals(0, pool.getTotalAvailable());
+	}
+
+	/**
+	 * Images with a different type or shape should not be returned
+	 */
+	@Test
+	public void borrow_differentTypeAndShape() {
+		ImagePool pool = new ImagePool();
+
+		pool.giveBack(new GrayU8(20, 30));
+		pool.giveBack(new Planar<>(GrayU8.class, 20, 30, 3));
+
+		assertTrue(pool.borrow(ImageType.single(GrayU8.class), 30, 20) != null);
+		assertTrue(pool.borrow(ImageType.single(GrayF32.class), 20, 30) != null);
+		assertTrue(pool.borrow(ImageType.pl(2, GrayU8.class), 20, 30) != null);
+		assertTrue(pool.borrow(ImageType.il(3, InterleavedU8.class), 20, 30) != null);
+		assertEquals(0, pool.getHits());
+		assertEquals(4, pool.getMisses());
+
+		Planar<GrayU8> found = pool.borrow(ImageType.pl(3, GrayU8.class), 20, 30);
+		assertEquals(3, found.getNumBands());
+		assertEquals(1, pool.getHits());
+		assertTrue(pool.borrowSameShape(new GrayU8(20, 30)) != null);
+		assertEquals(2, pool.getHits());
+	}
+
+	@Test
+	public void giveBack_maxPerShape() {
+		ImagePool pool = new ImagePool(2);
+
+		for (int i = 0; i < 4; i++) {
+			pool.giveBack(new GrayF32(10, 15));
+		}
+		assertEquals(2, pool.getTotalAvailable());
+
+		pool.giveBack(new GrayF32(15, 10));
+		assertEquals(3, pool.getTotalAvailable());
+
+		pool.clear();
+		assertEquals(0, pool.getTotalAvailable());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void giveBack_subimage() {
+		ImagePool pool = new ImagePool();
+		GrayU8 image = new GrayU8(20, 30);
+		pool.giveBack(image.subimage(0, 0, 10, 10, null));
+	}
+
+	@Test
+	public void resetStatistics() {
+		ImagePool pool = new ImagePool();
+		pool.giveBack(pool.borrow(ImageType.single(GrayU8.class), 5, 5));
+		pool.borrow(ImageType.single(GrayU8.class), 5, 5);
+
+		pool.resetStatistics();
+		assertEquals(0, pool.getHits());
+		assertEquals(0, pool.getMisses());
+	}
+
+	/**
+	 * Blurring with storage from the pool should produce the same results and return all the images
+	 */
+	@Test
+	public void blurWithPool() {
+		ImagePool pool = new ImagePool();
+
+		GrayF32 input = new GrayF32(40, 35);
+		GImageMiscOps.fillUniform(input, rand, 0, 100);
+		GrayF32 expected = GBlurImageOps.gaussian(input, null, -1, 2, null);
+		GrayF32 found = GBlurImageOps.gaussianPooled(input, null, -1, 2, pool);
+		BoofTesting.assertEquals(expected, found, 1e-4);
+		assertEquals(1, pool.getTotalAvailable());
+
+		Planar<GrayU8> color = new Planar<>(GrayU8.class, 40, 35, 3);
+		GImageMiscOps.fillUniform(color, rand, 0, 100);
+		Planar<GrayU8> expectedColor = GBlurImageOps.mean(color, null, 2, null);
+		Planar<GrayU8> foundColor = GBlurImageOps.meanPooled(color, null, 2, pool);
+		BoofTesting.assertEquals(expectedColor, foundColor, 1e-4);
+		assertEquals(2, pool.getTotalAvailable());
+	}
+
+	/**
+	 * Pyramids which borrow their workspace should produce identical results
+	 */
+	@Test
+	public void pyramidWithPool() {
+		ImagePool pool = new ImagePool();
+
+		GrayF32 input = new GrayF32(60, 50);
+		GImageMiscOps.fillUniform(input, rand, 0, 100);
+
+		PyramidDiscrete<GrayF32> expectedD = FactoryPyramid.discreteGaussian(new int[]{1, 2, 4}, -1, 2, false, GrayF32.class);
+		PyramidDiscrete<GrayF32> foundD = FactoryPyramid.discreteGaussian(new int[]{1, 2, 4}, -1, 2, false, GrayF32.class, pool);
+		expectedD.process(input);
+		foundD.process(input);
+		for (int i = 0; i < expectedD.getNumLayers(); i++) {
+			BoofTesting.assertEquals(expectedD.getLayer(i), foundD.getLayer(i), 1e-4);
+		}
+
+		double scales[] = new double[]{1, 1.5, 2};
+		double sigmas[] = new double[]{1, 2, 3};
+		PyramidFloat<GrayF32> expectedF = FactoryPyramid.floatGaussian(scales, sigmas, GrayF32.class);
+		PyramidFloat<GrayF32> foundF = FactoryPyramid.floatGaussian(scales, sigmas, GrayF32.class, pool);
+		expectedF.process(input);
+		foundF.process(input);
+		for (int i = 0; i < expectedF.getNumLayers(); i++) {
+			BoofTesting.assertEquals(expectedF.getLayer(i), foundF.getLayer(i), 1e-4);
+		}
+
+		// images should have been reused after the first
+		assertTrue(pool.getHits() > 0);
+	}
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.struct.image;
+
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.core.image.GeneralizedImageOps;
+import boofcv.testing.BoofTesting;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestTiledImage {
+
+	Random rand = new Random(234);
+
+	File file;
+
+	Class types[] = {GrayU8.class, GrayS16.class, GrayS32.class, GrayS64.class, GrayF32.class, GrayF64.class};
+
+	@Before
+	public void before() throws IOException {
+		file = File.createTempFile("tiled", ".raw");
+	}
+
+	@After
+	public void after() {
+		file.delete();
+	}
+
+	/**
+	 * Write an image which spans multiple tiles then read it back with a cache which is too small to hold it
+	 */
+	@Test
+	public void setRegion_getRegion() {
+		for( Class type : types ) {
+			TiledImage tiled = new TiledImage(file, 47, 35, 10, 8, type, 2);
+			assertEquals(5, tiled.getNumTilesX());
+			assertEquals(5, tiled.getNumTilesY());
+
+			ImageGray expected = GeneralizedImageOps.createSingleBand(type, 47, 35);
+			GImageMiscOps.fillUniform(expected, rand, 0, 100);
+			tiled.setRegion(0, 0, expected);
+
+			ImageGray found = GeneralizedImageOps.createSingleBand(type, 47, 35);
+			tiled.getRegion(0, 0, found);
+			BoofTesting.assertEquals(expected, found, 0);
+
+			// region which is not aligned with the tiles, read into a sub-image
+			ImageGray region = GeneralizedImageOps.createSingleBand(type, 13, 17);
+			ImageGray sub = BoofTesting.createSubImageOf(region);
+			tiled.getRegion(6, 5, sub);
+			BoofTesting.assertEquals(expected.subimage(6, 5, 19, 22, null), sub, 0);
+
+			// write a region from a sub-image
+			GImageMiscOps.fillUniform(sub, rand, 0, 100);
+			tiled.setRegion(6, 5, sub);
+			expected.subimage(6, 5, 19, 22, null).setTo(sub);
+			tiled.getRegion(0, 0, found);
+			BoofTesting.assertEquals(expected, found, 0);
+
+			tiled.close();
+			file.delete();
+		}
+	}
+
+	/**
+	 * Modified tiles should be saved to the file and be visible after it's reopened
+	 */
+	@Test
+	public void close_reopen() {
+		GrayF32 expected = new GrayF32(30, 25);
+		GImageMiscOps.fillUniform(expected, rand, -10, 10);
+
+		TiledImage<GrayF32> tiled = new TiledImage<>(file, 30, 25, 8, 8, GrayF32.class, 3);
+		tiled.setRegion(0, 0, expected);
+		tiled.close();
+
+		tiled = new TiledImage<>(file, 30, 25, 8, 8, GrayF32.class, 3);
+		GrayF32 found = new GrayF32(30, 25);
+		tiled.getRegion(0, 0, found);
+		tiled.close();
+
+		BoofTesting.assertEquals(expected, found, 0);
+	}
+
+	/**
+	 * The least recently used tile should be discarded first
+	 */
+	@Test
+	public void leastRecentlyUsed() {
+		TiledImage<GrayU8> tiled = new TiledImage<>(file, 30, 10, 10, 10, GrayU8.class, 2);
+		GrayU8 pixel = new GrayU8(1, 1);
+
+		tiled.getRegion(0, 0, pixel);
+		tiled.getRegion(10, 0, pixel);
+		assertEquals(2, tiled.getTotalLoaded());
+
+		// tile 0 is now the most recently used
+		tiled.getRegion(0, 0, pixel);
+		assertEquals(2, tiled.getTotalLoaded());
+
+		// tile 1 should be discarded
+		tiled.getRegion(20, 0, pixel);
+		assertEquals(3, tiled.getTotalLoaded());
+		tiled.getRegion(0, 0, pixel);
+		assertEquals(3, tiled.getTotalLoaded());
+		tiled.getRegion(10, 0, pixel);
+		assertEquals(4, tiled.getTotalLoaded());
+
+		tiled.close();
+	}
+
+	/**
+	 * Several threads write and read regions which share tiles while the cache is too small to hold them, forcing
+	 * tiles to be discarded and read again while other threads are using them
+	 */
+	@Test
+	public void concurrent() {
+		final int width = 60, height = 48;
+		final GrayS32 expected = new GrayS32(width, height);
+		GImageMiscOps.fillUniform(expected, rand, 0, 1000);
+
+		final TiledImage<GrayS32> tiled = new TiledImage<>(file, width, height, 7, 5, GrayS32.class, 3);
+
+		// each thread owns a band of rows which aren't aligned with the tiles
+		final int numBands = 4;
+		final boolean failed[] = new boolean[1];
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(numBands);
+		try {
+			BoofConcurrency.loopBlocks(0, numBands, 1, new IntRangeTask() {
+				@Override
+				public void process(int minInclusive, int maxExclusive) {
+					for (int band = minInclusive; band < maxExclusive; band++) {
+						int y0 = band*height/numBands, y1 = (band + 1)*height/numBands;
+						GrayS32 found = new GrayS32(1, 1);
+						for (int trial = 0; trial < 20; trial++) {
+							for (int x0 = 0; x0 < width; x0 += 9) {
+								int x1 = Math.min(width, x0 + 9);
+								GrayS32 region = expected.subimage(x0, y0, x1, y1, null);
+								tiled.setRegion(x0, y0, region);
+								found.reshape(x1 - x0, y1 - y0);
+								tiled.getRegion(x0, y0, found);
+								for (int i = 0; i < found.height && !failed[0]; i++) {
+									for (int j = 0; j < found.width; j++) {
+										if( found.get(j, i) != region.get(j, i) )
+											failed[0] = true;
+									}
+								}
+							}
+						}
+					}
+				}
+			});
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+		assertFalse(failed[0]);
+
+		GrayS32 found = new GrayS32(width, height);
+		tiled.getRegion(0, 0, found);
+		BoofTesting.assertEquals(expected, found, 0);
+		tiled.close();
+
+		// everything should have been written to the file
+		TiledImage<GrayS32> reopened = new TiledImage<>(file, width, height, 7, 5, GrayS32.class, 3);
+		reopened.getRegion(0, 0, found);
+		reopened.close();
+		BoofTesting.assertEquals(expected, found, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void getRegion_outside() {
+		TiledImage<GrayU8> tiled = new TiledImage<>(file, 30, 10, 10, 10, GrayU8.class, 2);
+		try {
+			tiled.getRegion(25, 0, new GrayU8(10, 5));
+		} finally {
+			tiled.close();
+		}
+	}
+}
@@ -18,6 +18,7 @@
 
 package boofcv.alg.bow;
 
+import boofcv.alg.scene.VocabularyTree;
 import boofcv.struct.feature.TupleDesc_F64;
 import org.ddogleg.clustering.AssignCluster;
 import org.ddogleg.clustering.ComputeClusters;
@@ -28,7 +29,8 @@ import java.util.List;
 /**
  * Finds clusters of {@link TupleDesc_F64} which can be used to identify frequent features, a.k.a words.
  * Internally it uses {@link org.ddogleg.clustering.ComputeClusters} and simply extracts the inner array
- * from the tuple.
+ * from the tuple.  The words can either be found using a single flat clustering, see {@link #process(int)}, or
+ * organized into a {@link VocabularyTree} by recursively clustering, see {@link #processTree(int, int)}.
  *
  * @author Peter Abeles
  */
@@ -71,6 +73,59 @@ public class ClusterVisualWords {
 		computeClusters.process(tuples,numberOfWords);
 	}
 
+	/**
+	 * Learns a vocabulary tree by hierarchical clustering.  The features are split into branchFactor clusters,
+	 * then each cluster is split again using only the features inside of it, until the maximum depth is reached.
+	 * A node with no more than branchFactor features is not split and becomes a word.  With a full tree there
+	 * will be branchFactor<sup>maxDepth</sup> words.
+	 *
+	 * @param branchFactor Number of children each node is split into.  Must be &ge; 2
+	 * @param maxDepth Maximum depth of the tree.  Must be &ge; 1
+	 * @return The vocabulary tree
+	 */
+	public VocabularyTree processTree( int branchFactor , int maxDepth ) {
+		if( branchFactor < 2 )
+			throw new IllegalArgumentException("Branch factor must be at least 2");
+		if( maxDepth < 1 )
+			throw new IllegalArgumentException("Max depth must be at least 1");
+
+		VocabularyTree.Builder builder = new VocabularyTree.Builder();
+		// points inside each node, in the same order as nodes are added to the builder
+		List<List<double[]>> nodePoints = new ArrayList<>();
+
+		builder.addRoot();
+		nodePoints.add(tuples);
+
+		for (int node = 0; builder.hasNext(); node++) {
+			List<double[]> points = nodePoints.get(node);
+			// release the memory since it won't be used again
+			nodePoints.set(node,null);
+
+			if( builder.getNextDepth() >= maxDepth || points.size() <= branchFactor ) {
+				builder.leaf();
+				continue;
+			}
+
+			computeClusters.process(points, branchFactor);
+			// the returned assignment can reference internal data which is modified by the next call
+			AssignCluster<double[]> assignment = computeClusters.getAssignment().copy();
+
+			List<List<double[]>> children = new ArrayList<>();
+			for (int i = 0; i < assignment.getNumberOfClusters(); i++) {
+				children.add( new ArrayList<double[]>() );
+			}
+			for (int i = 0; i < points.size(); i++) {
+				double[] p = points.get(i);
+				children.get(assignment.assign(p)).add(p);
+			}
+
+			builder.split(assignment);
+			nodePoints.addAll(children);
+		}
+
+		return builder.build();
+	}
+
 	/**
 	 * Returns a transform from point to cluster.
 	 */
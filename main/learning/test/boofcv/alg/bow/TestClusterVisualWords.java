@@ -18,12 +18,15 @@
 
 package boofcv.alg.bow;
 
+import boofcv.alg.scene.VocabularyTree;
 import boofcv.struct.feature.TupleDesc_F64;
 import org.ddogleg.clustering.AssignCluster;
 import org.ddogleg.clustering.ComputeClusters;
+import org.ddogleg.clustering.FactoryClustering;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -54,6 +57,44 @@ public class TestClusterVisualWords {
 		assertEquals(DISTANCE,clusters.getDistanceMeasure(),1e-8);
 	}
 
+	/**
+	 * Points are in well separated groups of groups.  Each group should be a word.
+	 */
+	@Test
+	public void processTree() {
+		Random rand = new Random(234);
+		ComputeClusters<double[]> kmeans = FactoryClustering.kMeans_F64(null, 100, 20, 1e-8);
+		ClusterVisualWords alg = new ClusterVisualWords(kmeans,DOF,SEED);
+
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 3; j++) {
+				for (int k = 0; k < 20; k++) {
+					TupleDesc_F64 desc = new TupleDesc_F64(DOF);
+					desc.value[0] = i*1000 + j*10 + rand.nextGaussian()*0.1;
+					desc.value[1] = rand.nextGaussian()*0.1;
+					alg.addReference(desc);
+				}
+			}
+		}
+
+		VocabularyTree tree = alg.processTree(3, 2);
+
+		assertEquals(9, tree.getNumberOfClusters());
+		assertEquals(2, tree.getDepth());
+		assertEquals(13, tree.getNumNodes());
+
+		// every point in the same group should be assigned to the same word, and each group to a different word
+		boolean used[] = new boolean[9];
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 3; j++) {
+				int word = tree.assign(new double[]{i*1000 + j*10, 0});
+				assertEquals(word, tree.assign(new double[]{i*1000 + j*10 + 0.2, 0.1}));
+				assertTrue(!used[word]);
+				used[word] = true;
+			}
+		}
+	}
+
 	protected class DummyClusters implements ComputeClusters<double[]> {
 
 		int numInit = 0;
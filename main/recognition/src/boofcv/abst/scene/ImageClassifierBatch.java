@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.abst.scene;
+
+import boofcv.struct.image.ImageBase;
+
+import java.util.List;
+
+/**
+ * {@link ImageClassifier} which can classify several images at once.  After {@link #classify(List)} has been
+ * called, {@link #getBestResult()} and {@link #getAllResults()} refer to the first image in the list.
+ *
+ * @author Peter Abeles
+ */
+public interface ImageClassifierBatch<T extends ImageBase<T>> extends ImageClassifier<T> {
+
+	/**
+	 * Process several images and determine which category each one belongs to.  Implementations can process
+	 * the images in batches and concurrently, which is typically faster than classifying one image at a time.
+	 * Will throw an exception if the model has not been loaded yet.
+	 *
+	 * @param images Images being processed.  Same requirements as {@link #classify(ImageBase)}.
+	 */
+	void classify( List<T> images );
+
+	/**
+	 * Returns the category which was the best fit for an image from the most recent call to classify
+	 * @param index Index of the image in the list
+	 * @return best fit category
+	 */
+	int getBestResult( int index );
+
+	/**
+	 * Returns a list of all the likely categories for an image from the most recent call to classify.
+	 * See {@link #getAllResults()}.
+	 * @param index Index of the image in the list
+	 * @return List of categories and scores
+	 */
+	List<Score> getAllResults( int index );
+}
@@ -24,6 +24,8 @@ import boofcv.alg.distort.*;
 import boofcv.alg.geo.h.HomographyLinear4;
 import boofcv.alg.interpolate.InterpolatePixelS;
 import boofcv.alg.shapes.polygon.BinaryPolygonDetector;
+import boofcv.alg.shapes.polygon.BinaryPolygonDetector_MT;
+import boofcv.core.image.GeneralizedImageOps;
 import boofcv.core.image.border.BorderType;
 import boofcv.core.image.border.FactoryImageBorder;
 import boofcv.factory.distort.FactoryDistort;
@@ -40,6 +42,7 @@ import georegression.struct.homography.UtilHomography;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.shapes.Polygon2D_F64;
 import georegression.struct.shapes.Quadrilateral_F64;
+import georegression.struct.shapes.Rectangle2D_I32;
 import org.ddogleg.struct.FastQueue;
 import org.ejml.data.DenseMatrix64F;
 
@@ -60,6 +63,13 @@ import java.util.List;
  * </p>
  *
  * <p>
+ * When processing a video sequence the detector can optionally be put into a region of interest tracking mode,
+ * see {@link #setTracking}.  In this mode the whole image is only searched periodically.  In between only regions
+ * around the fiducials found in the previous frame are thresholded and searched for squares, which is much faster
+ * when the fiducials occupy a small part of the image.  New fiducials are only found when the whole image is searched.
+ * </p>
+ *
+ * <p>
  * Target orientation. Corner 0 = (-r,r), 1 = (r,r) , 2 = (r,-r) , 3 = (-r,-r).
  * </p>
  *
@@ -107,6 +117,30 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray> {
 	// verbose debugging output
 	protected boolean verbose = false;
 
+	// Squares found in the input image and information about them.  Undistorted pixels
+	private FastQueue<Polygon2D_F64> candidates = new FastQueue<>(Polygon2D_F64.class,true);
+	private FastQueue<BinaryPolygonDetector.Info> candidatesInfo =
+			new FastQueue<>(BinaryPolygonDetector.Info.class,true);
+
+	//------------ Region of interest tracking
+	// If > 1 then the whole image is searched every this many frames, otherwise the whole image is always searched
+	private int trackingPeriod = 0;
+	// How much a fiducial's bounding box is expanded by, relative to its size, when creating its region
+	private double trackingMargin;
+	// Number of frames processed since the whole image was searched
+	private int framesSinceFullSearch = Integer.MAX_VALUE;
+	// true if the whole image was searched in the most recent frame
+	private boolean fullSearch;
+	// Regions which will be searched in the next frame.  Distorted pixels
+	private FastQueue<Rectangle2D_I32> regions = new FastQueue<>(Rectangle2D_I32.class,true);
+	// copy of the input image and binary image inside a region
+	private T regionGray;
+	private GrayU8 regionBinary = new GrayU8(1,1);
+	// lens distortion given to the square detector.  The offset is zero when the whole image is searched and the
+	// region's location when searching a region.  Null if there's no lens distortion
+	private PixelTransformOffset_F32 regionDistToUndist;
+	private PixelTransformOffset_F32 regionUndistToDist;
+
 	/**
 	 * Configures the detector.
 	 *
@@ -140,6 +174,7 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray> {
 		this.squareDetector = squareDetector;
 		this.inputType = inputType;
 		this.square = new GrayF32(squarePixels,squarePixels);
+		this.regionGray = GeneralizedImageOps.createSingleBand(inputType,1,1);
 
 		for (int i = 0; i < 4; i++) {
 			pairsRemovePerspective.add(new AssociatedPair());
@@ -176,7 +211,26 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray> {
 			undistToDist = new PixelTransformCached_F32(width, height, undistToDist);
 		}
 
-		squareDetector.setLensDistortion(width, height,distToUndist,undistToDist);
+		// the transforms are only set once, searching a region just changes the offset
+		regionDistToUndist = new PixelTransformOffset_F32(distToUndist);
+		regionUndistToDist = new PixelTransformOffset_F32(undistToDist);
+
+		if( !cache && squareDetector instanceof BinaryPolygonDetector_MT ) {
+			// transforms which aren't cached can't be shared, so create new ones for each worker
+			BinaryPolygonDetector_MT<T> detectorMT = (BinaryPolygonDetector_MT<T>)squareDetector;
+			List<PixelTransform2_F32> workerDistToUndist = new ArrayList<>();
+			List<PixelTransform2_F32> workerUndistToDist = new ArrayList<>();
+			for (int i = 0; i < detectorMT.getWorkers().size(); i++) {
+				workerDistToUndist.add(new PixelTransformOffset_F32(regionDistToUndist,
+						new PointToPixelTransform_F32(distortion.undistort_F32(true,true))));
+				workerUndistToDist.add(new PixelTransformOffset_F32(regionUndistToDist,
+						new PointToPixelTransform_F32(distortion.distort_F32(true,true))));
+			}
+			detectorMT.setLensDistortion(width, height, regionDistToUndist, regionUndistToDist,
+					workerDistToUndist, workerUndistToDist);
+		} else {
+			squareDetector.setLensDistortion(width, height,regionDistToUndist,regionUndistToDist);
+		}
 
 		pointSquareToInput = new SequencePoint2Transform2_F32(transformHomography,pointUndistToDist);
 
@@ -195,16 +249,20 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray> {
 	 * @param gray Undistorted input image
 	 */
 	public void process( T gray ) {
-		binary.reshape(gray.width,gray.height);
-
-		inputToBinary.process(gray,binary);
-		squareDetector.process(gray,binary);
-		// These are in undistorted pixels
-		FastQueue<Polygon2D_F64> candidates = squareDetector.getFoundPolygons();
-
 		found.reset();
+		candidates.reset();
+		candidatesInfo.reset();
+
+		fullSearch = trackingPeriod <= 1 || framesSinceFullSearch >= trackingPeriod || regions.size == 0;
+		if( fullSearch ) {
+			detectSquares(gray);
+			framesSinceFullSearch = 1;
+		} else {
+			detectSquaresInRegions(gray);
+			framesSinceFullSearch++;
+		}
 
-		if( verbose ) System.out.println("---------- Got Polygons! "+candidates.size);
+		if( verbose ) System.out.println("---------- Got Polygons! "+candidates.size+" full search = "+fullSearch);
 
 		for (int i = 0; i < candidates.size; i++) {
 			// compute the homography from the input image to an undistorted square image
@@ -256,7 +314,7 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray> {
 			// remove the perspective distortion and process it
 			removePerspective.apply(gray, square);
 
-			BinaryPolygonDetector.Info info = squareDetector.getPolygonInfo().get(i);
+			BinaryPolygonDetector.Info info = candidatesInfo.get(i);
 
 			// see if the black border is actually black
 			if( minimumBorderBlackFraction > 0 ) {
@@ -275,6 +333,129 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray> {
 				if( verbose ) System.out.println("rejected process square");
 			}
 		}
+
+		if( trackingPeriod > 1 )
+			updateRegions(gray.width, gray.height);
+	}
+
+	/**
+	 * Searches the whole image for squares
+	 */
+	private void detectSquares( T gray ) {
+		binary.reshape(gray.width,gray.height);
+
+		inputToBinary.process(gray,binary);
+		squareDetector.process(gray,binary);
+
+		addCandidates(0,0);
+	}
+
+	/**
+	 * Only searches for squares inside the regions around previously found fiducials.  Each region is copied into
+	 * its own image, which is then thresholded and processed just like the whole image would have been.  Lens
+	 * distortion and the found squares are adjusted for the region's offset.
+	 */
+	private void detectSquaresInRegions( T gray ) {
+		// the minimum contour size is relative to the image width, make sure it's the same inside a region
+		double minContourFraction = squareDetector.getMinContourFraction();
+
+		for (int i = 0; i < regions.size; i++) {
+			Rectangle2D_I32 r = regions.get(i);
+
+			regionGray.setTo((T)gray.subimage(r.x0, r.y0, r.x1, r.y1, null));
+			regionBinary.reshape(regionGray.width, regionGray.height);
+
+			inputToBinary.process(regionGray, regionBinary);
+
+			squareDetector.setMinContourFraction(minContourFraction*gray.width/regionGray.width);
+			setRegionOffset(r.x0, r.y0);
+			squareDetector.process(regionGray, regionBinary);
+
+			addCandidates(r.x0, r.y0);
+		}
+
+		squareDetector.setMinContourFraction(minContourFraction);
+		setRegionOffset(0, 0);
+	}
+
+	/**
+	 * Changes the offset of the lens distortion transforms used by the square detector
+	 */
+	private void setRegionOffset( int x0 , int y0 ) {
+		if( regionDistToUndist != null ) {
+			regionDistToUndist.setOffset(x0, y0);
+			regionUndistToDist.setOffset(x0, y0);
+		}
+	}
+
+	/**
+	 * Adds squares found by the square detector to the list of candidates
+	 *
+	 * @param offsetX Offset to convert the square detector's coordinates into input image coordinates
+	 * @param offsetY Offset to convert the square detector's coordinates into input image coordinates
+	 */
+	private void addCandidates( int offsetX , int offsetY ) {
+		FastQueue<Polygon2D_F64> polygons = squareDetector.getFoundPolygons();
+		FastQueue<BinaryPolygonDetector.Info> infos = squareDetector.getPolygonInfo();
+
+		for (int i = 0; i < polygons.size; i++) {
+			Polygon2D_F64 p = candidates.grow();
+			p.set(polygons.get(i));
+			for (int j = 0; j < p.size(); j++) {
+				p.get(j).x += offsetX;
+				p.get(j).y += offsetY;
+			}
+			candidatesInfo.grow().set(infos.get(i));
+		}
+	}
+
+	/**
+	 * Computes the regions which will be searched in the next frame from the fiducials found in this frame.  The
+	 * fiducial is assumed to not move much and its region is its bounding box expanded by the margin.  Regions
+	 * which overlap are merged so that the same fiducial isn't found twice.
+	 */
+	private void updateRegions( int width , int height ) {
+		regions.reset();
+
+		for (int i = 0; i < found.size; i++) {
+			Quadrilateral_F64 q = found.get(i).distortedPixels;
+
+			double x0 = Math.min(Math.min(q.a.x, q.b.x), Math.min(q.c.x, q.d.x));
+			double y0 = Math.min(Math.min(q.a.y, q.b.y), Math.min(q.c.y, q.d.y));
+			double x1 = Math.max(Math.max(q.a.x, q.b.x), Math.max(q.c.x, q.d.x));
+			double y1 = Math.max(Math.max(q.a.y, q.b.y), Math.max(q.c.y, q.d.y));
+
+			double margin = trackingMargin*Math.max(x1 - x0, y1 - y0);
+
+			Rectangle2D_I32 r = regions.grow();
+			r.x0 = Math.max(0, (int)(x0 - margin));
+			r.y0 = Math.max(0, (int)(y0 - margin));
+			r.x1 = Math.min(width, (int)(x1 + margin) + 1);
+			r.y1 = Math.min(height, (int)(y1 + margin) + 1);
+
+			if( r.x1 <= r.x0 || r.y1 <= r.y0 )
+				regions.removeTail();
+		}
+
+		boolean merged = true;
+		while( merged ) {
+			merged = false;
+			for (int i = 0; i < regions.size && !merged; i++) {
+				Rectangle2D_I32 a = regions.get(i);
+				for (int j = i+1; j < regions.size; j++) {
+					Rectangle2D_I32 b = regions.get(j);
+					if( a.x0 < b.x1 && b.x0 < a.x1 && a.y0 < b.y1 && b.y0 < a.y1 ) {
+						a.x0 = Math.min(a.x0, b.x0);
+						a.y0 = Math.min(a.y0, b.y0);
+						a.x1 = Math.max(a.x1, b.x1);
+						a.y1 = Math.max(a.y1, b.y1);
+						regions.remove(j);
+						merged = true;
+						break;
+					}
+				}
+			}
+		}
 	}
 
 	/**
@@ -382,6 +563,54 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray> {
 		this.verbose = verbose;
 	}
 
+	/**
+	 * Turns on region of interest tracking.  The whole image is searched once every period frames.  In the other
+	 * frames only the regions around fiducials found in the previous frame are searched.  If no fiducials were
+	 * found in the previous frame then the whole image is searched.
+	 *
+	 * @param period How often the whole image is searched.  If &le; 1 then tracking is turned off.
+	 * @param margin How much a fiducial's bounding box is expanded, relative to its size, to create its region.
+	 *               Should be large enough to include how far it can move between frames.  Try 0.5
+	 */
+	public void setTracking( int period , double margin ) {
+		if( margin < 0 )
+			throw new IllegalArgumentException("margin must be >= 0");
+		this.trackingPeriod = period;
+		this.trackingMargin = margin;
+		resetTracking();
+	}
+
+	/**
+	 * Forces the whole image to be searched in the next frame.  Call when processing a new image sequence.
+	 */
+	public void resetTracking() {
+		framesSinceFullSearch = Integer.MAX_VALUE;
+		regions.reset();
+	}
+
+	public int getTrackingPeriod() {
+		return trackingPeriod;
+	}
+
+	public double getTrackingMargin() {
+		return trackingMargin;
+	}
+
+	/**
+	 * True if the whole image was searched in the most recently processed image.  If false then only the regions
+	 * were searched and {@link #getBinary()} was not updated.
+	 */
+	public boolean isFullSearch() {
+		return fullSearch;
+	}
+
+	/**
+	 * Regions which will be searched in the next frame when tracking
+	 */
+	public FastQueue<Rectangle2D_I32> getRegions() {
+		return regions;
+	}
+
 	public BinaryPolygonDetector getSquareDetector() {
 		return squareDetector;
 	}
@@ -24,6 +24,8 @@ import boofcv.struct.image.ImageBase;
 import org.ddogleg.nn.NearestNeighbor;
 import org.ddogleg.nn.NnData;
 import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -43,6 +45,12 @@ import java.util.List;
  * (the mode) of the k-neighbors is the selected scene type of the image being considered.
  * </p>
  *
+ * <p>
+ * Alternatively the classification data can be provided as an {@link InvertedIndexScene}, which is typically
+ * memory mapped from disk.  Then the neighbors are the images with the highest TF-IDF cosine similarity and
+ * each neighbor votes using its similarity.
+ * </p>
+ *
  * @author Peter Abeles
  */
 // todo add option to do weighted histogram from NN data
@@ -65,6 +73,12 @@ public class ClassifierKNearestNeighborsBow<T extends ImageBase,Desc extends Tup
 	// used what the most frequent neighbor is
 	private double scenes[];
 
+	// If not null then the inverted index is searched instead of the nearest-neighbor data structure
+	private InvertedIndexScene index;
+	// storage for inverted index results
+	private GrowQueue_I32 resultsImages = new GrowQueue_I32();
+	private GrowQueue_F64 resultsScores = new GrowQueue_F64();
+
 	/**
 	 * Configures internal algorithms.
 	 *
@@ -103,6 +117,21 @@ public class ClassifierKNearestNeighborsBow<T extends ImageBase,Desc extends Tup
 		nn.init(numWords);
 		nn.setPoints(points, memory);
 
+		index = null;
+		scenes = new double[ numScenes ];
+	}
+
+	/**
+	 * Provides the labeled word histograms in the form of an inverted index.  Replaces any previously
+	 * provided classification data.
+	 *
+	 * @param index Inverted index of labeled histograms.  See {@link boofcv.alg.scene.codec.CodecListHistogramScene}
+	 * @param numScenes Number of scene types
+	 */
+	public void setClassificationData( InvertedIndexScene index , int numScenes ) {
+		if( index.getNumWords() != featureToHistogram.getTotalWords() )
+			throw new IllegalArgumentException("Index and histogram have a different number of words");
+		this.index = index;
 		scenes = new double[ numScenes ];
 	}
 
@@ -128,6 +157,10 @@ public class ClassifierKNearestNeighborsBow<T extends ImageBase,Desc extends Tup
 		featureToHistogram.process();
 		double[] hist = featureToHistogram.getHistogram();
 
+		if( index != null ) {
+			return classifyIndex(hist);
+		}
+
 		// Find the N most similar image histograms
 		resultsNN.reset();
 		nn.findNearest(hist,-1,numNeighbors,resultsNN);
@@ -143,6 +176,27 @@ public class ClassifierKNearestNeighborsBow<T extends ImageBase,Desc extends Tup
 //			scenes[n.type] += 1.0/(Math.sqrt(data.distance)+0.005); // todo
 		}
 
+		return selectBestScene();
+	}
+
+	/**
+	 * Votes for a scene using the most similar images in the inverted index
+	 */
+	private int classifyIndex( double[] hist ) {
+		index.search(hist, numNeighbors, resultsImages, resultsScores);
+
+		Arrays.fill(scenes,0);
+		for (int i = 0; i < resultsImages.size; i++) {
+			scenes[index.getSceneType(resultsImages.data[i])] += resultsScores.data[i];
+		}
+
+		return selectBestScene();
+	}
+
+	/**
+	 * Picks the scene with the most votes
+	 */
+	private int selectBestScene() {
 		// pick the scene with the highest frequency
 		int bestIndex = 0;
 		double bestCount = 0;
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.scene;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.struct.feature.TupleDesc_F64;
+import org.ddogleg.clustering.AssignCluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Concurrent version of {@link FeatureToWordHistogram_F64} which uses hard assignment.  Features are copied when
+ * added and then all of them are assigned to words in {@link #process()}, where blocks of features are processed
+ * by different threads.  Each thread uses its own copy of the {@link AssignCluster}.  The computed histogram is
+ * identical to the single threaded version.
+ * </p>
+ *
+ * <p>
+ * Works with any {@link AssignCluster}, but is intended to be used with a {@link VocabularyTree} when there are
+ * a large number of words.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class FeatureToWordHistogram_F64_MT
+		implements FeatureToWordHistogram<TupleDesc_F64>
+{
+	/**
+	 * Minimum number of features assigned by a thread
+	 */
+	public static int MIN_BLOCK = 50;
+
+	// Assigns a feature to a word.  A copy is made for each thread
+	private AssignCluster<double[]> assignment;
+	private final List<AssignCluster<double[]>> available = new ArrayList<>();
+
+	// Copy of all the features added
+	private List<double[]> features = new ArrayList<>();
+	private int numFeatures;
+
+	// word each feature was assigned to
+	private int words[] = new int[0];
+
+	private double histogram[];
+
+	// used to catch a common bug
+	private boolean processed;
+
+	/**
+	 * Assigns and configures internal algorithms.
+	 *
+	 * @param assignment Specifies the assignment algorithm
+	 */
+	public FeatureToWordHistogram_F64_MT(AssignCluster<double[]> assignment ) {
+		this.assignment = assignment;
+
+		histogram = new double[ assignment.getNumberOfClusters() ];
+	}
+
+	@Override
+	public void reset() {
+		numFeatures = 0;
+		processed = false;
+		Arrays.fill(histogram,0);
+	}
+
+	@Override
+	public void addFeature( TupleDesc_F64 feature ) {
+		double[] dst;
+		if( numFeatures < features.size() ) {
+			dst = features.get(numFeatures);
+			if( dst.length != feature.value.length ) {
+				dst = new double[ feature.value.length ];
+				features.set(numFeatures, dst);
+			}
+		} else {
+			dst = new double[ feature.value.length ];
+			features.add(dst);
+		}
+		System.arraycopy(feature.value,0,dst,0,dst.length);
+		numFeatures++;
+	}
+
+	/**
+	 * Assigns all the features to words and computes the normalized histogram.
+	 */
+	@Override
+	public void process() {
+		processed = true;
+
+		if( words.length < numFeatures )
+			words = new int[ numFeatures ];
+
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			BoofConcurrency.loopBlocks(0, numFeatures, MIN_BLOCK, new IntRangeTask() {
+				@Override
+				public void process(int min, int max) {
+					AssignCluster<double[]> a = borrowAssignment();
+					try {
+						assignBlock(a, min, max);
+					} finally {
+						returnAssignment(a);
+					}
+				}
+			});
+		} else {
+			assignBlock(assignment, 0, numFeatures);
+		}
+
+		for (int i = 0; i < numFeatures; i++) {
+			histogram[words[i]] += 1;
+		}
+		for (int i = 0; i < histogram.length; i++) {
+			histogram[i] /= numFeatures;
+		}
+	}
+
+	private void assignBlock( AssignCluster<double[]> a , int min , int max ) {
+		for (int i = min; i < max; i++) {
+			words[i] = a.assign(features.get(i));
+		}
+	}
+
+	private AssignCluster<double[]> borrowAssignment() {
+		synchronized (available) {
+			if( available.isEmpty() )
+				return assignment.copy();
+			return available.remove(available.size()-1);
+		}
+	}
+
+	private void returnAssignment( AssignCluster<double[]> a ) {
+		synchronized (available) {
+			available.add(a);
+		}
+	}
+
+	/**
+	 * Histogram of word frequencies.  Normalized such that the sum is equal to 1.
+	 * @return histogram
+	 */
+	@Override
+	public double[] getHistogram() {
+		if( !processed )
+			throw new RuntimeException("Must call process first before histogram is valid");
+		return histogram;
+	}
+
+	/**
+	 * The total number of words used to create this histogram
+	 */
+	@Override
+	public int getTotalWords() {
+		return histogram.length;
+	}
+}
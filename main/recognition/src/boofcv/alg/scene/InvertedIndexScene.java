@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.scene;
+
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.List;
+
+/**
+ * <p>
+ * Inverted file index for finding the images in a database whose word histograms are the most similar to a
+ * query histogram.  For each word there is a list of the images which contain it, along with the word's weight in
+ * that image.  Only images which share at least one word with the query are considered, so when histograms are
+ * sparse (e.g. hard assignment with a large vocabulary) only a small fraction of the database is examined.
+ * </p>
+ *
+ * <p>
+ * Words are weighted using TF-IDF.  The term frequency (TF) is the value in the word histogram.  The inverse
+ * document frequency (IDF) is log(N/n<sub>w</sub>), where N is the number of images and n<sub>w</sub> the number
+ * of images which contain word w.  Weighted histograms are normalized to have a Euclidean norm of one, and
+ * the similarity between two images is the dot product of their weighted histograms (cosine similarity).  The
+ * similarity ranges from 0 (no words in common) to 1.
+ * </p>
+ *
+ * <p>
+ * The data is stored in buffers so that it can be memory mapped from a file.  See
+ * {@link boofcv.alg.scene.codec.CodecListHistogramScene}.  The postings can be split across several buffers,
+ * since a single buffer can't reference more than 2 GB of a mapped file.  Not thread safe since each search uses
+ * internal storage.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class InvertedIndexScene {
+	// number of images in the database
+	int numImages;
+	// number of words in the vocabulary
+	int numWords;
+
+	// scene type of each image
+	IntBuffer sceneTypes;
+	// inverse document frequency of each word
+	FloatBuffer idf;
+	// Postings for word w are from postingStart[w] to postingStart[w+1]-1
+	IntBuffer postingStart;
+	// Image and weight of each posting.  Posting k is element (k & segmentMask) in segment (k >> segmentBits)
+	IntBuffer postingImage[];
+	FloatBuffer postingWeight[];
+	int segmentBits;
+	int segmentMask;
+
+	// similarity of each image to the query
+	float similarity[] = new float[0];
+	// images which have a non-zero similarity
+	GrowQueue_I32 touched = new GrowQueue_I32();
+	// weighted query
+	double query[] = new double[0];
+
+	/**
+	 * Creates an index from the provided buffers.  The buffers are not copied.
+	 *
+	 * @see boofcv.alg.scene.codec.CodecListHistogramScene
+	 */
+	public InvertedIndexScene(int numImages, int numWords,
+							  IntBuffer sceneTypes, FloatBuffer idf,
+							  IntBuffer postingStart, IntBuffer postingImage, FloatBuffer postingWeight) {
+		this(numImages, numWords, sceneTypes, idf, postingStart,
+				new IntBuffer[]{postingImage}, new FloatBuffer[]{postingWeight}, 31);
+	}
+
+	/**
+	 * Creates an index where the postings are split into segments.  Every segment, except for the last one,
+	 * contains 2<sup>segmentBits</sup> postings.  The buffers are not copied.
+	 *
+	 * @param postingImage Image of each posting, for each segment
+	 * @param postingWeight Weight of each posting, for each segment
+	 * @param segmentBits Number of postings in a segment is 2<sup>segmentBits</sup>.  0 to 31.
+	 * @see boofcv.alg.scene.codec.CodecListHistogramScene
+	 */
+	public InvertedIndexScene(int numImages, int numWords,
+							  IntBuffer sceneTypes, FloatBuffer idf,
+							  IntBuffer postingStart, IntBuffer postingImage[], FloatBuffer postingWeight[],
+							  int segmentBits ) {
+		if( segmentBits < 0 || segmentBits > 31 )
+			throw new IllegalArgumentException("segmentBits must be from 0 to 31");
+		if( postingImage.length != postingWeight.length )
+			throw new IllegalArgumentException("Number of image and weight segments must be the same");
+		this.numImages = numImages;
+		this.numWords = numWords;
+		this.sceneTypes = sceneTypes;
+		this.idf = idf;
+		this.postingStart = postingStart;
+		this.postingImage = postingImage;
+		this.postingWeight = postingWeight;
+		this.segmentBits = segmentBits;
+		this.segmentMask = (int)((1L << segmentBits) - 1);
+	}
+
+	/**
+	 * Creates an index in memory from a set of labeled word histograms.
+	 *
+	 * @param memory Labeled word histograms
+	 * @param numWords Number of words in each histogram
+	 * @return The index
+	 */
+	public static InvertedIndexScene create( List<HistogramScene> memory , int numWords ) {
+		int numImages = memory.size();
+
+		// count how many images each word appears in
+		int counts[] = new int[numWords];
+		int numPostings = 0;
+		for (int i = 0; i < numImages; i++) {
+			double hist[] = memory.get(i).histogram;
+			if( hist.length != numWords )
+				throw new IllegalArgumentException("Histogram has an unexpected number of words");
+			for (int w = 0; w < numWords; w++) {
+				if( hist[w] != 0 ) {
+					counts[w]++;
+					numPostings++;
+				}
+			}
+		}
+
+		FloatBuffer idf = FloatBuffer.allocate(numWords);
+		IntBuffer start = IntBuffer.allocate(numWords+1);
+		int total = 0;
+		for (int w = 0; w < numWords; w++) {
+			idf.put(w, counts[w] == 0 ? 0 : (float)Math.log(numImages/(double)counts[w]));
+			start.put(w, total);
+			total += counts[w];
+		}
+		start.put(numWords, total);
+
+		IntBuffer sceneTypes = IntBuffer.allocate(numImages);
+		IntBuffer postingImage = IntBuffer.allocate(numPostings);
+		FloatBuffer postingWeight = FloatBuffer.allocate(numPostings);
+
+		// use counts as the location of the next posting for each word
+		for (int w = 0; w < numWords; w++) {
+			counts[w] = start.get(w);
+		}
+
+		double weighted[] = new double[numWords];
+		for (int i = 0; i < numImages; i++) {
+			HistogramScene h = memory.get(i);
+			sceneTypes.put(i, h.type);
+
+			double norm = weight(h.histogram, idf, weighted);
+			for (int w = 0; w < numWords; w++) {
+				if( h.histogram[w] == 0 )
+					continue;
+				int index = counts[w]++;
+				postingImage.put(index, i);
+				postingWeight.put(index, norm == 0 ? 0 : (float)(weighted[w]/norm));
+			}
+		}
+
+		return new InvertedIndexScene(numImages, numWords, sceneTypes, idf, start, postingImage, postingWeight);
+	}
+
+	/**
+	 * Applies the TF-IDF weights to the histogram and returns the Euclidean norm of the weighted histogram
+	 */
+	static double weight( double histogram[] , FloatBuffer idf , double weighted[] ) {
+		double norm = 0;
+		for (int w = 0; w < histogram.length; w++) {
+			double v = histogram[w]*idf.get(w);
+			weighted[w] = v;
+			norm += v*v;
+		}
+		return Math.sqrt(norm);
+	}
+
+	/**
+	 * Finds the images with the highest similarity to the query histogram.  Images which have no words in common
+	 * with the query are never returned.
+	 *
+	 * @param histogram Word histogram of the query image
+	 * @param numNeighbors Maximum number of images it will return.  Must be &ge; 1
+	 * @param images (Output) Index of the most similar images, from best to worst.
+	 * @param scores (Output) Similarity of each image.  1 = identical and 0 = nothing in common.
+	 */
+	public void search( double histogram[] , int numNeighbors , GrowQueue_I32 images , GrowQueue_F64 scores ) {
+		if( histogram.length != numWords )
+			throw new IllegalArgumentException("Histogram has an unexpected number of words");
+		if( numNeighbors <= 0 )
+			throw new IllegalArgumentException("Number of neighbors must be at least one");
+
+		images.reset();
+		scores.reset();
+
+		if( similarity.length < numImages ) {
+			similarity = new float[numImages];
+		}
+		if( query.length < numWords ) {
+			query = new double[numWords];
+		}
+
+		double norm = weight(histogram, idf, query);
+		if( norm == 0 )
+			return;
+
+		// accumulate the similarity using the postings of words in the query
+		touched.reset();
+		for (int w = 0; w < numWords; w++) {
+			if( query[w] == 0 )
+				continue;
+			float q = (float)(query[w]/norm);
+			int end = postingStart.get(w+1);
+			for (int k = postingStart.get(w); k < end; k++) {
+				// weights are never negative, so once an image has been touched its similarity is more than zero
+				int segment = k >> segmentBits;
+				int element = k & segmentMask;
+				float v = q*postingWeight[segment].get(element);
+				if( v == 0 )
+					continue;
+				int image = postingImage[segment].get(element);
+				if( similarity[image] == 0 )
+					touched.add(image);
+				similarity[image] += v;
+			}
+		}
+
+		// select the best images.  Ties are broken by the image index so that results are repeatable
+		for (int i = 0; i < touched.size; i++) {
+			int image = touched.data[i];
+			double s = similarity[image];
+			similarity[image] = 0;
+
+			if( images.size == numNeighbors ) {
+				int last = images.size-1;
+				if( s < scores.data[last] || (s == scores.data[last] && image > images.data[last]))
+					continue;
+				images.size--;
+				scores.size--;
+			}
+
+			int location = images.size;
+			while( location > 0 && (scores.data[location-1] < s ||
+					(scores.data[location-1] == s && images.data[location-1] > image))) {
+				location--;
+			}
+			images.insert(location, image);
+			scores.insert(location, s);
+		}
+	}
+
+	/**
+	 * Returns the scene type of the image
+	 */
+	public int getSceneType( int image ) {
+		return sceneTypes.get(image);
+	}
+
+	public int getNumImages() {
+		return numImages;
+	}
+
+	public int getNumWords() {
+		return numWords;
+	}
+
+	public int getNumPostings() {
+		return postingStart.get(numWords);
+	}
+
+	public IntBuffer getSceneTypes() {
+		return sceneTypes;
+	}
+
+	public FloatBuffer getIdf() {
+		return idf;
+	}
+
+	public IntBuffer getPostingStart() {
+		return postingStart;
+	}
+
+	/**
+	 * Returns the image of the posting
+	 */
+	public int getPostingImage( int posting ) {
+		return postingImage[posting >> segmentBits].get(posting & segmentMask);
+	}
+
+	/**
+	 * Returns the weight of the posting
+	 */
+	public float getPostingWeight( int posting ) {
+		return postingWeight[posting >> segmentBits].get(posting & segmentMask);
+	}
+
+	public int getSegmentBits() {
+		return segmentBits;
+	}
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.scene;
+
+import org.ddogleg.clustering.AssignCluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Vocabulary tree, a.k.a. hierarchical k-means, for assigning features to words.  Each internal node in the tree
+ * has a set of children and an {@link AssignCluster} which selects the child which a feature belongs to.  The leaves
+ * of the tree are the words.  A feature is assigned to a word by walking down the tree, which requires O(B*log(K))
+ * comparisons instead of the O(K) of a flat set of words, where B is the branch factor and K the number of words.
+ * </p>
+ *
+ * <p>
+ * Soft assignment walks down the tree until it reaches a node whose selected child is a leaf.  The soft assignment
+ * of that node is then distributed across its children which are leaves and normalized so that it sums to one.
+ * Words in other parts of the tree are assigned a value of zero.
+ * </p>
+ *
+ * <p>
+ * Nodes are stored in breadth first order and the children of a node are stored contiguously.  The root is node 0.
+ * Can be created using {@link Builder}, but typically ClusterVisualWords is used to learn the tree.
+ * </p>
+ *
+ * <p>
+ * NOTE: Not thread safe.  Use {@link #copy()} to create an instance for each thread.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class VocabularyTree implements AssignCluster<double[]> {
+
+	private static final long serialVersionUID = 1L;
+
+	// selects the child of each node.  null for leaves
+	AssignCluster<double[]> nodeAssign[];
+	// index of the first child of each node.  -1 for leaves
+	int childStart[];
+	// word of each leaf.  -1 for internal nodes
+	int nodeWord[];
+
+	// total number of words
+	int numWords;
+	// maximum depth of a leaf
+	int depth;
+
+	// workspace for soft assignment
+	double fit[] = new double[0];
+
+	private VocabularyTree() {
+	}
+
+	/**
+	 * Finds the word which the point belongs to by walking down the tree
+	 */
+	@Override
+	public int assign(double[] point) {
+		return nodeWord[findLeaf(point)];
+	}
+
+	@Override
+	public void assign(double[] point, double[] fit) {
+		Arrays.fill(fit,0);
+
+		if( nodeWord[0] >= 0 ) {
+			fit[nodeWord[0]] = 1;
+			return;
+		}
+
+		// find the parent of the leaf the point belongs to
+		int node = 0;
+		while( true ) {
+			int child = childStart[node] + nodeAssign[node].assign(point);
+			if( nodeWord[child] >= 0 )
+				break;
+			node = child;
+		}
+
+		AssignCluster<double[]> a = nodeAssign[node];
+		int numChildren = a.getNumberOfClusters();
+		if( this.fit.length < numChildren )
+			this.fit = new double[numChildren];
+		a.assign(point, this.fit);
+
+		// only leaves are words. renormalize so that the total is one
+		int start = childStart[node];
+		double total = 0;
+		for (int i = 0; i < numChildren; i++) {
+			if( nodeWord[start+i] >= 0 )
+				total += this.fit[i];
+		}
+		for (int i = 0; i < numChildren; i++) {
+			int word = nodeWord[start+i];
+			if( word >= 0 )
+				fit[word] = total == 0 ? 0 : this.fit[i]/total;
+		}
+		// if the total is zero fall back on hard assignment
+		if( total == 0 )
+			fit[assign(point)] = 1;
+	}
+
+	/**
+	 * Returns the index of the leaf node which the point belongs to
+	 */
+	public int findLeaf( double[] point ) {
+		int node = 0;
+		while( nodeWord[node] < 0 ) {
+			node = childStart[node] + nodeAssign[node].assign(point);
+		}
+		return node;
+	}
+
+	@Override
+	public int getNumberOfClusters() {
+		return numWords;
+	}
+
+	/**
+	 * Creates a copy of the tree.  The {@link AssignCluster} of each node is copied too.
+	 */
+	@Override
+	public VocabularyTree copy() {
+		VocabularyTree ret = new VocabularyTree();
+		ret.nodeAssign = nodeAssign.clone();
+		for (int i = 0; i < nodeAssign.length; i++) {
+			if( nodeAssign[i] != null )
+				ret.nodeAssign[i] = nodeAssign[i].copy();
+		}
+		ret.childStart = childStart;
+		ret.nodeWord = nodeWord;
+		ret.numWords = numWords;
+		ret.depth = depth;
+		return ret;
+	}
+
+	/**
+	 * Total number of nodes in the tree, including leaves
+	 */
+	public int getNumNodes() {
+		return nodeWord.length;
+	}
+
+	/**
+	 * The maximum depth of a leaf.  A tree with just a root has a depth of 0.
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Returns the word of a leaf node or -1 if it's an internal node
+	 */
+	public int getNodeWord( int node ) {
+		return nodeWord[node];
+	}
+
+	/**
+	 * Returns the index of the first child of the node or -1 if it's a leaf
+	 */
+	public int getChildStart( int node ) {
+		return childStart[node];
+	}
+
+	/**
+	 * Returns the assignment used to select the child of the node or null if it's a leaf
+	 */
+	public AssignCluster<double[]> getNodeAssign( int node ) {
+		return nodeAssign[node];
+	}
+
+	/**
+	 * Used to construct a tree in breadth first order.  Start by calling {@link #addRoot}.  Then each node
+	 * which has been added is either split into children or turned into a leaf, in the same order as they
+	 * were added.
+	 */
+	public static class Builder {
+		List<AssignCluster<double[]>> assign = new ArrayList<>();
+		List<Integer> depths = new ArrayList<>();
+		int childStart[] = new int[0];
+		int nodeWord[] = new int[0];
+
+		// index of the next node which is to be split or turned into a leaf
+		int next = 0;
+		int numWords = 0;
+
+		/**
+		 * Adds the root node
+		 */
+		public void addRoot() {
+			if( !depths.isEmpty() )
+				throw new IllegalArgumentException("Root has already been added");
+			addNode(0);
+		}
+
+		/**
+		 * Splits the next node into children.  The number of children is specified by the assignment.
+		 *
+		 * @param assignment Selects the child a point belongs to.  Reference is saved.
+		 * @return index of the node
+		 */
+		public int split( AssignCluster<double[]> assignment ) {
+			int node = next++;
+			int depth = depths.get(node);
+			assign.set(node, assignment);
+			childStart[node] = depths.size();
+			for (int i = 0; i < assignment.getNumberOfClusters(); i++) {
+				addNode(depth+1);
+			}
+			return node;
+		}
+
+		/**
+		 * Turns the next node into a leaf
+		 *
+		 * @return index of the node
+		 */
+		public int leaf() {
+			int node = next++;
+			nodeWord[node] = numWords++;
+			return node;
+		}
+
+		/**
+		 * Returns the depth of the next node which is to be processed
+		 */
+		public int getNextDepth() {
+			return depths.get(next);
+		}
+
+		/**
+		 * Returns true if there are nodes which still need to be split or turned into leaves
+		 */
+		public boolean hasNext() {
+			return next < depths.size();
+		}
+
+		/**
+		 * Creates the tree.  All nodes must have been processed.
+		 */
+		public VocabularyTree build() {
+			if( depths.isEmpty() || hasNext() )
+				throw new IllegalArgumentException("Not all nodes have been processed");
+
+			int N = depths.size();
+			VocabularyTree tree = new VocabularyTree();
+			tree.nodeAssign = new AssignCluster[N];
+			tree.childStart = Arrays.copyOf(childStart, N);
+			tree.nodeWord = Arrays.copyOf(nodeWord, N);
+			tree.numWords = numWords;
+			for (int i = 0; i < N; i++) {
+				tree.nodeAssign[i] = assign.get(i);
+				if( tree.nodeWord[i] >= 0 )
+					tree.depth = Math.max(tree.depth, depths.get(i));
+			}
+			return tree;
+		}
+
+		private void addNode( int depth ) {
+			int index = depths.size();
+			depths.add(depth);
+			assign.add(null);
+			if( childStart.length <= index ) {
+				childStart = Arrays.copyOf(childStart, Math.max(16, index*2));
+				nodeWord = Arrays.copyOf(nodeWord, childStart.length);
+			}
+			childStart[index] = -1;
+			nodeWord[index] = -1;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011-2015, Peter Abeles. All Rights Reserved.
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
  *
  * This file is part of BoofCV (http://boofcv.org).
  *
@@ -16,10 +16,178 @@
  * limitations under the License.
  */
 
+
 package boofcv.alg.scene.codec;
 
+import boofcv.alg.scene.HistogramScene;
+import boofcv.alg.scene.InvertedIndexScene;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
 /**
+ * <p>
+ * Saves and loads a set of labeled word histograms in a binary format which can be memory mapped.  The histograms
+ * are stored as an {@link InvertedIndexScene}, which is what's searched when classifying an image.  Loading is fast
+ * since nothing is parsed or copied.  The file is mapped into memory and pages are read by the operating
+ * system as they are needed.
+ * </p>
+ *
+ * File format.  All values are 32-bit and big endian.
+ * <pre>
+ * int magic ('BOII'), int version, int numImages, int numWords, int numPostings
+ * int[numImages]    scene type of each image
+ * float[numWords]   inverse document frequency of each word
+ * int[numWords+1]   index of the first posting for each word
+ * int[numPostings]  image of each posting
+ * float[numPostings] TF-IDF weight of each posting
+ * </pre>
+ *
+ * <p>
+ * A memory mapped buffer can't be larger than 2 GB, so the postings are mapped in several segments which each
+ * contain 2<sup>28</sup> postings (1 GB).  Everything before the postings is mapped as a single segment.
+ * </p>
+ *
  * @author Peter Abeles
  */
 public class CodecListHistogramScene {
+
+	public static final int MAGIC = 0x424F4949;
+	public static final int VERSION = 1;
+
+	// number of ints in the header
+	private static final int HEADER_LENGTH = 5;
+
+	// each mapped segment of the postings contains 2^SEGMENT_BITS postings
+	static int SEGMENT_BITS = 28;
+
+	/**
+	 * Creates an inverted index from the histograms and saves it
+	 *
+	 * @param memory Labeled word histograms
+	 * @param numWords Number of words in each histogram
+	 * @param file Where it's saved
+	 */
+	public static void save( List<HistogramScene> memory , int numWords , File file ) throws IOException {
+		save(InvertedIndexScene.create(memory, numWords), file);
+	}
+
+	/**
+	 * Saves the inverted index
+	 *
+	 * @param index The index being saved
+	 * @param file Where it's saved
+	 */
+	public static void save( InvertedIndexScene index , File file ) throws IOException {
+		int numImages = index.getNumImages();
+		int numWords = index.getNumWords();
+		int numPostings = index.getNumPostings();
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1024*1024));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(numImages);
+			out.writeInt(numWords);
+			out.writeInt(numPostings);
+
+			for (int i = 0; i < numImages; i++) {
+				out.writeInt(index.getSceneType(i));
+			}
+			FloatBuffer idf = index.getIdf();
+			for (int i = 0; i < numWords; i++) {
+				out.writeFloat(idf.get(i));
+			}
+			IntBuffer start = index.getPostingStart();
+			for (int i = 0; i <= numWords; i++) {
+				out.writeInt(start.get(i));
+			}
+			for (int i = 0; i < numPostings; i++) {
+				out.writeInt(index.getPostingImage(i));
+			}
+			for (int i = 0; i < numPostings; i++) {
+				out.writeFloat(index.getPostingWeight(i));
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Memory maps a file which was saved using {@link #save(InvertedIndexScene, File)}.  The file can be closed
+	 * once this function returns, but must not be modified while the index is in use.
+	 *
+	 * @param file The file being loaded
+	 * @return The index, which reads directly from the memory mapped file
+	 */
+	public static InvertedIndexScene load( File file ) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			if( channel.size() < 4*HEADER_LENGTH )
+				throw new IOException("Not an inverted index file");
+
+			IntBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, 4*HEADER_LENGTH).asIntBuffer();
+			if( header.get(0) != MAGIC )
+				throw new IOException("Not an inverted index file");
+			if( header.get(1) != VERSION )
+				throw new IOException("Unsupported version "+header.get(1));
+
+			int numImages = header.get(2);
+			int numWords = header.get(3);
+			int numPostings = header.get(4);
+			if( numImages < 0 || numWords < 0 || numPostings < 0 )
+				throw new IOException("Corrupted header");
+
+			long postingsOffset = 4L*(HEADER_LENGTH + numImages + numWords + numWords + 1L);
+			if( channel.size() != postingsOffset + 8L*numPostings )
+				throw new IOException("Unexpected file size.  Truncated?");
+			if( postingsOffset > Integer.MAX_VALUE )
+				throw new IOException("Too many images and words to be memory mapped");
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, postingsOffset);
+
+			int offset = 4*HEADER_LENGTH;
+			IntBuffer sceneTypes = slice(buffer, offset, numImages).asIntBuffer();
+			offset += 4*numImages;
+			FloatBuffer idf = slice(buffer, offset, numWords).asFloatBuffer();
+			offset += 4*numWords;
+			IntBuffer start = slice(buffer, offset, numWords+1).asIntBuffer();
+
+			// map the postings one segment at a time
+			int segmentBits = SEGMENT_BITS;
+			long segmentLength = 1L << segmentBits;
+			int numSegments = (int)((numPostings + segmentLength - 1) >> segmentBits);
+			IntBuffer images[] = new IntBuffer[numSegments];
+			FloatBuffer weights[] = new FloatBuffer[numSegments];
+			for (int i = 0; i < numSegments; i++) {
+				long first = i*segmentLength;
+				long length = Math.min(segmentLength, numPostings - first);
+				images[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+						postingsOffset + 4L*first, 4L*length).asIntBuffer();
+				weights[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+						postingsOffset + 4L*(numPostings + first), 4L*length).asFloatBuffer();
+			}
+
+			return new InvertedIndexScene(numImages, numWords, sceneTypes, idf, start, images, weights, segmentBits);
+		} finally {
+			// the mapping remains valid after the channel has been closed
+			raf.close();
+		}
+	}
+
+	/**
+	 * Returns a view of the buffer which contains the specified number of 32-bit elements
+	 */
+	private static ByteBuffer slice( ByteBuffer buffer , int offset , int length ) {
+		ByteBuffer dup = buffer.duplicate();
+		dup.position(offset);
+		dup.limit(offset + 4*length);
+		return dup.slice();
+	}
 }
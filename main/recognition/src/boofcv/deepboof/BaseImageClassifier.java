@@ -18,7 +18,9 @@
 
 package boofcv.deepboof;
 
-import boofcv.abst.scene.ImageClassifier;
+import boofcv.abst.scene.ImageClassifierBatch;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.ImageType;
 import boofcv.struct.image.Planar;
@@ -31,13 +33,31 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+
+import static deepboof.misc.TensorOps.WI;
 
 /**
+ * <p>
  * Base class for ImageClassifiers which implements common elements
+ * </p>
+ *
+ * <p>
+ * Several images can be classified at once using {@link #classify(List)}.  The images are processed in batches of
+ * up to {@link #setBatchSize(int) batch size} images and each batch is sent through the network as a single
+ * tensor.  If {@link BoofConcurrency#USE_CONCURRENT} is true then the images in a batch are converted into the
+ * network's input format concurrently and the next batch is prepared while the network processes the current one.
+ * Each thread has its own {@link Preprocess}.
+ * </p>
+ *
+ * <p>
+ * Subclasses customize how images are converted into the network's format by overriding {@link #createPreprocess()}.
+ * The same conversion is used whether or not the images are processed concurrently.
+ * </p>
  *
  * @author Peter Abeles
  */
-public abstract class BaseImageClassifier implements ImageClassifier<Planar<GrayF32>> {
+public abstract class BaseImageClassifier implements ImageClassifierBatch<Planar<GrayF32>> {
 
 	protected FunctionSequence<Tensor_F32,Function<Tensor_F32>> network;
 
@@ -46,22 +66,28 @@ public abstract class BaseImageClassifier implements ImageClassifier<Planar<Gray
 
 	protected ImageType<Planar<GrayF32>> imageType = ImageType.pl(3,GrayF32.class);
 
-	// Resizes input image for the network
-	protected ClipAndReduce<Planar<GrayF32>> massage = new ClipAndReduce<>(true,imageType);
-
 	// size of square image
 	protected int imageSize;
 
-	//  Input image adjusted to network input size
-	protected Planar<GrayF32> imageRgb;
+	// maximum number of images in a tensor sent to the network
+	protected int batchSize = 16;
+
+	// Converts input images into the network's format.  One is used by the calling thread and the others
+	// are available for worker threads
+	protected Preprocess preprocess;
+	private final List<Preprocess> available = new ArrayList<>();
 
-	// Storage for the tensor into the image
+	// Storage for the tensor into the image.  Two input tensors so that the next batch can be prepared while
+	// the current one is being processed
 	protected Tensor_F32 tensorInput;
+	protected Tensor_F32 tensorInputNext;
 	protected Tensor_F32 tensorOutput;
 
-	// storage for the final output
-	protected FastQueue<Score> categoryScores = new FastQueue<>(Score.class,true);
-	protected int categoryBest;
+	// storage for the final output of each image
+	protected List<FastQueue<Score>> categoryScores = new ArrayList<>();
+	protected int categoryBest[] = new int[0];
+	// number of images in the most recent call to classify
+	protected int numResults;
 
 	Comparator<Score> comparator = new Comparator<Score>() {
 		@Override
@@ -77,8 +103,8 @@ public abstract class BaseImageClassifier implements ImageClassifier<Planar<Gray
 
 	public BaseImageClassifier( int imageSize ) {
 		this.imageSize = imageSize;
-		imageRgb = new Planar<>(GrayF32.class,imageSize,imageSize,3);
 		tensorInput = new Tensor_F32(1,3,imageSize,imageSize);
+		tensorInputNext = new Tensor_F32(1,3,imageSize,imageSize);
 	}
 
 	@Override
@@ -94,55 +120,221 @@ public abstract class BaseImageClassifier implements ImageClassifier<Planar<Gray
 	 */
 	@Override
 	public void classify(Planar<GrayF32> image) {
-		DataManipulationOps.imageToTensor(preprocess(image),tensorInput,0);
-		innerProcess(tensorInput);
+		classify(Collections.singletonList(image));
+	}
+
+	/**
+	 * Classifies all the images in the list.  Results are accessed by index using {@link #getBestResult(int)} and
+	 * {@link #getAllResults(int)}.
+	 *
+	 * @param images Images being processed.  Must be RGB images.  Pixel values must have values from 0 to 255.
+	 */
+	@Override
+	public void classify( final List<Planar<GrayF32>> images ) {
+		final int N = images.size();
+		numResults = 0;
+		if( categoryBest.length < N )
+			categoryBest = new int[N];
+		if( N == 0 )
+			return;
+
+		boolean concurrent = BoofConcurrency.USE_CONCURRENT && N > 1;
+
+		// prepare the first batch
+		int batchStart = 0;
+		int batchEnd = Math.min(N,batchSize);
+		ForkJoinTask<?> pending = null;
+		if( concurrent ) {
+			pending = BoofConcurrency.getPool().submit(createBatchTask(images,batchStart,batchEnd,tensorInput));
+		} else {
+			preprocessBatch(images,batchStart,batchEnd,tensorInput,false);
+		}
+
+		while( batchStart < N ) {
+			if( pending != null ) {
+				pending.join();
+				pending = null;
+			}
+
+			Tensor_F32 current = tensorInput;
+			int nextEnd = Math.min(N,batchEnd+batchSize);
+
+			// start preparing the next batch while the network is processing this one
+			if( concurrent && batchEnd < N ) {
+				pending = BoofConcurrency.getPool().submit(
+						createBatchTask(images, batchEnd, nextEnd, tensorInputNext));
+			}
+
+			innerProcess(current, batchStart);
+
+			// swap the tensors so that the next batch is the input
+			tensorInput = tensorInputNext;
+			tensorInputNext = current;
+
+			if( !concurrent && batchEnd < N ) {
+				preprocessBatch(images,batchEnd,nextEnd,tensorInput,false);
+			}
+
+			batchStart = batchEnd;
+			batchEnd = nextEnd;
+		}
+	}
+
+	private Runnable createBatchTask( final List<Planar<GrayF32>> images ,
+									  final int start , final int end , final Tensor_F32 tensor ) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				preprocessBatch(images, start, end, tensor, true);
+			}
+		};
+	}
+
+	/**
+	 * Converts the images into the network's format and writes them into the tensor
+	 */
+	private void preprocessBatch( final List<Planar<GrayF32>> images ,
+								  final int start , final int end , final Tensor_F32 tensor ,
+								  boolean concurrent ) {
+		tensor.reshape(end-start,3,imageSize,imageSize);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(start, end, 1, new IntRangeTask() {
+				@Override
+				public void process(int min, int max) {
+					Preprocess p = borrowPreprocess();
+					try {
+						for (int i = min; i < max; i++) {
+							DataManipulationOps.imageToTensor(p.process(images.get(i)), tensor, i-start);
+						}
+					} finally {
+						returnPreprocess(p);
+					}
+				}
+			});
+		} else {
+			Preprocess p = getPreprocess();
+			for (int i = start; i < end; i++) {
+				DataManipulationOps.imageToTensor(p.process(images.get(i)), tensor, i-start);
+			}
+		}
 	}
 
 	/**
 	 * Massage the input image into a format recognized by the network
+	 *
+	 * @deprecated No longer called when classifying images, since it can't be used by worker threads.  Override
+	 * {@link #createPreprocess()} instead.
 	 */
+	@Deprecated
 	protected Planar<GrayF32> preprocess(Planar<GrayF32> image) {
-		// Shrink the image to input size
-		if( image.width == imageSize && image.height == imageSize ) {
-			this.imageRgb.setTo(image);
-		} else if( image.width < imageSize || image.height < imageSize ) {
-			throw new IllegalArgumentException("Image width or height is too small");
-		} else {
-			massage.massage(image,imageRgb);
+		return getPreprocess().process(image);
+	}
+
+	/**
+	 * Creates the class which converts an input image into the network's format.  Called after the model
+	 * has been loaded.  This is the only way to change how images are preprocessed and a new instance is
+	 * created for each thread.
+	 */
+	protected Preprocess createPreprocess() {
+		return new Preprocess();
+	}
+
+	/**
+	 * Discards all the {@link Preprocess} so that new ones will be created.  Must be called if the model changes
+	 * how images are preprocessed.
+	 */
+	protected void discardPreprocess() {
+		synchronized (available) {
+			preprocess = null;
+			available.clear();
+		}
+	}
+
+	private Preprocess getPreprocess() {
+		if( preprocess == null )
+			preprocess = createPreprocess();
+		return preprocess;
+	}
+
+	private Preprocess borrowPreprocess() {
+		synchronized (available) {
+			if( available.isEmpty() )
+				return createPreprocess();
+			return available.remove(available.size()-1);
+		}
+	}
+
+	private void returnPreprocess( Preprocess p ) {
+		synchronized (available) {
+			available.add(p);
 		}
-		return imageRgb;
 	}
 
+	/**
+	 * Processes a batch of images and saves the results
+	 *
+	 * @param tensorInput Input tensor.  The first dimension is the number of images
+	 * @param offset Index of the first image in the batch
+	 */
+	protected void innerProcess( Tensor_F32 tensorInput , int offset ) {
+		int numImages = tensorInput.length(0);
+		tensorOutput.reshape(WI(numImages,network.getOutputShape()));
 
-	protected void innerProcess( Tensor_F32 tensorInput ) {
 		// process the tensor
 		network.process(tensorInput,tensorOutput);
 
-		// now find the best score and sort them
-		categoryScores.reset();
-		double scoreBest = -Double.MAX_VALUE;
-		categoryBest = -1;
-		for (int category = 0; category < tensorOutput.length(1); category++) {
-			double score = tensorOutput.get(0,category);
-			categoryScores.grow().set(score,category);
-			if( score > scoreBest ) {
-				scoreBest = score;
-				categoryBest = category;
+		for (int image = 0; image < numImages; image++) {
+			// now find the best score and sort them
+			if( categoryScores.size() <= numResults )
+				categoryScores.add(new FastQueue<>(Score.class,true));
+			FastQueue<Score> scores = categoryScores.get(numResults++);
+			scores.reset();
+			double scoreBest = -Double.MAX_VALUE;
+			int best = -1;
+			for (int category = 0; category < tensorOutput.length(1); category++) {
+				double score = tensorOutput.get(image,category);
+				scores.grow().set(score,category);
+				if( score > scoreBest ) {
+					scoreBest = score;
+					best = category;
+				}
 			}
-		}
+			categoryBest[offset+image] = best;
 
-		// order the categories by most to least likely
-		Collections.sort(categoryScores.toList(),comparator);
+			// order the categories by most to least likely
+			Collections.sort(scores.toList(),comparator);
+		}
 	}
 
+	/**
+	 * Best result of the first image
+	 */
 	@Override
 	public int getBestResult() {
-		return categoryBest;
+		return getBestResult(0);
 	}
 
+	@Override
+	public int getBestResult( int index ) {
+		if( index >= numResults )
+			throw new IllegalArgumentException("Index out of range");
+		return categoryBest[index];
+	}
+
+	/**
+	 * All results for the first image
+	 */
 	@Override
 	public List<Score> getAllResults() {
-		return categoryScores.toList();
+		return getAllResults(0);
+	}
+
+	@Override
+	public List<Score> getAllResults( int index ) {
+		if( index >= numResults )
+			throw new IllegalArgumentException("Index out of range");
+		return categoryScores.get(index).toList();
 	}
 
 	@Override
@@ -150,7 +342,50 @@ public abstract class BaseImageClassifier implements ImageClassifier<Planar<Gray
 		return categories;
 	}
 
+	/**
+	 * Specifies the maximum number of images which are processed by the network at once
+	 */
+	public void setBatchSize( int batchSize ) {
+		if( batchSize < 1 )
+			throw new IllegalArgumentException("Batch size must be at least one");
+		this.batchSize = batchSize;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Input image adjusted to network input size, from the most recent image processed by the calling thread
+	 */
 	public Planar<GrayF32> getImageRgb() {
-		return imageRgb;
+		return getPreprocess().imageRgb;
+	}
+
+	/**
+	 * Converts an input image into the format required by the network.  Contains all the workspace that's
+	 * needed, so that each thread can have its own instance.  Subclasses extend it to add normalization.
+	 */
+	protected class Preprocess {
+		// Resizes input image for the network
+		protected ClipAndReduce<Planar<GrayF32>> massage = new ClipAndReduce<>(true,imageType);
+
+		//  Input image adjusted to network input size
+		protected Planar<GrayF32> imageRgb = new Planar<>(GrayF32.class,imageSize,imageSize,3);
+
+		/**
+		 * Converts the image.  The returned image is owned by this class and is modified by the next call.
+		 */
+		public Planar<GrayF32> process( Planar<GrayF32> image ) {
+			// Shrink the image to input size
+			if( image.width == imageSize && image.height == imageSize ) {
+				this.imageRgb.setTo(image);
+			} else if( image.width < imageSize || image.height < imageSize ) {
+				throw new IllegalArgumentException("Image width or height is too small");
+			} else {
+				massage.massage(image,imageRgb);
+			}
+			return imageRgb;
+		}
 	}
 }
@@ -54,9 +54,6 @@ public class ImageClassifierNiNImageNet extends BaseImageClassifier {
 //	int imageSize = 256;
 	static final int imageCrop = 224;
 
-	// Input image with the bands in the correct order
-	Planar<GrayF32> imageBgr = new Planar<>(GrayF32.class,imageCrop,imageCrop,3);
-
 	public ImageClassifierNiNImageNet() {
 		super(imageCrop);
 	}
@@ -76,6 +73,7 @@ public class ImageClassifierNiNImageNet extends BaseImageClassifier {
 				ConvertTorchToBoofForward.convert(torchSequence);
 
 		network = seqparam.createForward(3,imageCrop,imageCrop);
+		discardPreprocess();
 		tensorOutput = new Tensor_F32(WI(1,network.getOutputShape()));
 
 		TorchList torchCategories = (TorchList)new ParseAsciiTorch7().parse(new File(directory,"synset.t7")).get(0);
@@ -97,25 +95,36 @@ public class ImageClassifierNiNImageNet extends BaseImageClassifier {
 	}
 
 
+	@Override
+	protected Preprocess createPreprocess() {
+		return new PreprocessBgr();
+	}
+
 	/**
 	 * Massage the input image into a format recognized by the network
 	 */
-	protected Planar<GrayF32> preprocess(Planar<GrayF32> image) {
-		super.preprocess(image);
+	protected class PreprocessBgr extends Preprocess {
+		// Input image with the bands in the correct order
+		Planar<GrayF32> imageBgr = new Planar<>(GrayF32.class,imageCrop,imageCrop,3);
 
-		// image net is BGR color order
-		imageBgr.bands[0] = imageRgb.bands[2];
-		imageBgr.bands[1] = imageRgb.bands[1];
-		imageBgr.bands[2] = imageRgb.bands[0];
+		@Override
+		public Planar<GrayF32> process(Planar<GrayF32> image) {
+			super.process(image);
 
-		// image needs to be between 0 and 1
-		GPixelMath.divide(imageBgr,255,imageBgr);
+			// image net is BGR color order
+			imageBgr.bands[0] = imageRgb.bands[2];
+			imageBgr.bands[1] = imageRgb.bands[1];
+			imageBgr.bands[2] = imageRgb.bands[0];
 
-		// Normalize the image's statistics
-		for (int band = 0; band < 3; band++) {
-			DataManipulationOps.normalize(imageBgr.getBand(band),mean[band],stdev[band]);
-		}
+			// image needs to be between 0 and 1
+			GPixelMath.divide(imageBgr,255,imageBgr);
+
+			// Normalize the image's statistics
+			for (int band = 0; band < 3; band++) {
+				DataManipulationOps.normalize(imageBgr.getBand(band),mean[band],stdev[band]);
+			}
 
-		return imageBgr;
+			return imageBgr;
+		}
 	}
 }
@@ -46,8 +46,7 @@ public class ImageClassifierVggCifar10 extends BaseImageClassifier {
 
 	static final int inputSize = 32;
 
-	Planar<GrayF32> imageYuv = new Planar<>(GrayF32.class,inputSize,inputSize,3);
-
+	// Specifies how normalization is done.  Each thread has its own copy
 	ImageLocalNormalization<GrayF32> localNorm;
 	YuvStatistics stats;
 	Kernel1D_F32 kernel;
@@ -79,19 +78,35 @@ public class ImageClassifierVggCifar10 extends BaseImageClassifier {
 		BorderType type = BorderType.valueOf(stats.border);
 		localNorm = new ImageLocalNormalization<>(GrayF32.class, type);
 		kernel = DataManipulationOps.create1D_F32(stats.kernel);
+		discardPreprocess();
 	}
 
 	@Override
-	protected Planar<GrayF32> preprocess(Planar<GrayF32> image) {
-		super.preprocess(image);
+	protected Preprocess createPreprocess() {
+		return new PreprocessYuv();
+	}
+
+	/**
+	 * Converts the image into YUV and normalizes it
+	 */
+	protected class PreprocessYuv extends Preprocess {
+		Planar<GrayF32> imageYuv = new Planar<>(GrayF32.class,inputSize,inputSize,3);
+
+		ImageLocalNormalization<GrayF32> norm =
+				new ImageLocalNormalization<>(GrayF32.class, localNorm.getBorderType());
+
+		@Override
+		public Planar<GrayF32> process(Planar<GrayF32> image) {
+			super.process(image);
 
-		ColorYuv.rgbToYuv_F32(imageRgb, imageYuv);
+			ColorYuv.rgbToYuv_F32(imageRgb, imageYuv);
 
-		// Normalize the image
-		localNorm.zeroMeanStdOne(kernel, imageYuv.getBand(0),255.0,1e-4, imageYuv.getBand(0));
-		DataManipulationOps.normalize(imageYuv.getBand(1), (float)stats.meanU, (float)stats.stdevU);
-		DataManipulationOps.normalize(imageYuv.getBand(2), (float)stats.meanV, (float)stats.stdevV);
+			// Normalize the image
+			norm.zeroMeanStdOne(kernel, imageYuv.getBand(0),255.0,1e-4, imageYuv.getBand(0));
+			DataManipulationOps.normalize(imageYuv.getBand(1), (float)stats.meanU, (float)stats.stdevU);
+			DataManipulationOps.normalize(imageYuv.getBand(2), (float)stats.meanV, (float)stats.stdevV);
 
-		return imageYuv;
+			return imageYuv;
+		}
 	}
 }
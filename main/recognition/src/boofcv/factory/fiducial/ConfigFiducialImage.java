@@ -50,6 +50,19 @@ public class ConfigFiducialImage implements Configuration {
 	 */
 	public double minimumBlackBorderFraction = 0.65;
 
+	/**
+	 * If &gt; 1 then region of interest tracking is turned on and the whole image is only searched once every
+	 * this many frames.  In between only regions around the previously found fiducials are searched.
+	 * See {@link boofcv.alg.fiducial.square.BaseDetectFiducialSquare#setTracking}.
+	 */
+	public int trackingPeriod = 0;
+
+	/**
+	 * When tracking, how much a fiducial's bounding box is expanded by, relative to its size, to create
+	 * the region which is searched in the next frame.
+	 */
+	public double trackingMargin = 0.5;
+
 	/**
 	 * Configuration for square detector
 	 */
@@ -72,6 +85,8 @@ public class ConfigFiducialImage implements Configuration {
 	public void checkValidity() {
 		if( borderWidthFraction <= 0 || borderWidthFraction >= 0.5 )
 			throw new IllegalArgumentException("Border width fraction must be 0 < fraction < 0.5");
+		if( trackingMargin < 0 )
+			throw new IllegalArgumentException("trackingMargin must be >= 0");
 	}
 
 	public double getMaxErrorFraction() {
@@ -95,6 +110,8 @@ public class ConfigFiducialImage implements Configuration {
 		return getClass().getSimpleName()+
 				"{ maxErrorFraction="+maxErrorFraction+
 				" borderWidthFraction="+borderWidthFraction+
+				" trackingPeriod="+trackingPeriod+
+				" trackingMargin="+trackingMargin+
 				" squareDetector="+squareDetector+" }";
 	}
 }
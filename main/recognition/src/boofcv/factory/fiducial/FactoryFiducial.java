@@ -75,6 +75,7 @@ public class FactoryFiducial {
 						configFiducial.borderWidthFraction, configFiducial.minimumBlackBorderFraction,
 						binary, squareDetector, imageType);
 		alg.setAmbiguityThreshold(configFiducial.ambiguousThreshold);
+		alg.setTracking(configFiducial.trackingPeriod, configFiducial.trackingMargin);
 		return new SquareBinary_to_FiducialDetector<>(alg, configFiducial.targetWidth);
 	}
 
@@ -108,6 +109,7 @@ public class FactoryFiducial {
 		DetectFiducialSquareImage<T> alg = new DetectFiducialSquareImage<>(binary,
 				squareDetector, configFiducial.borderWidthFraction, configFiducial.minimumBlackBorderFraction,
 				configFiducial.maxErrorFraction, imageType);
+		alg.setTracking(configFiducial.trackingPeriod, configFiducial.trackingMargin);
 
 		return new SquareImage_to_FiducialDetector<>(alg);
 	}
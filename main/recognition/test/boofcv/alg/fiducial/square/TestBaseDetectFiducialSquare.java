@@ -26,6 +26,9 @@ import boofcv.alg.interpolate.InterpolationType;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.alg.misc.ImageMiscOps;
 import boofcv.alg.misc.ImageStatistics;
+import boofcv.alg.shapes.polygon.BinaryPolygonDetector;
+import boofcv.alg.shapes.polygon.BinaryPolygonDetector_MT;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.border.BorderType;
 import boofcv.factory.distort.FactoryDistort;
 import boofcv.factory.filter.binary.FactoryThresholdBinary;
@@ -296,6 +299,142 @@ public class TestBaseDetectFiducialSquare {
 		assertTrue( totalInner > 245 );
 	}
 
+	/**
+	 * When tracking only regions around previous detections should be searched.  The results should be the same
+	 * as when the whole image is searched, but new fiducials are only found during a full search.
+	 */
+	@Test
+	public void tracking() {
+		CameraPinholeRadial intrinsic = new CameraPinholeRadial(500,500,0,320,240,width,height).fsetRadial(-0.1,-0.05);
+		GrayU8 pattern = createPattern(6*20, false);
+
+		Dummy tracker = new Dummy();
+		tracker.configure(new LensDistortionRadialTangential(intrinsic),width,height,false);
+		tracker.setTracking(4, 0.5);
+
+		Dummy full = new Dummy();
+		full.configure(new LensDistortionRadialTangential(intrinsic),width,height,false);
+
+		for (int frame = 0; frame < 6; frame++) {
+			// the fiducials move a little bit each frame
+			int offset = frame*3;
+			GrayU8 image = new GrayU8(width,height);
+			ImageMiscOps.fill(image, 255);
+			render(pattern, new Quadrilateral_F64(50+offset,50,  130+offset,60,  140+offset,150,  40+offset,140), image);
+			render(pattern, new Quadrilateral_F64(400,300+offset,  480,300+offset,  480,380+offset,  400,380+offset), image);
+			// this one shows up after tracking has started
+			if( frame >= 2 )
+				render(pattern, new Quadrilateral_F64(400,50,  480,50,  480,130,  400,130), image);
+
+			tracker.process(image);
+			full.process(image);
+
+			boolean expectedFull = frame == 0 || frame == 4;
+			assertEquals(expectedFull, tracker.isFullSearch());
+
+			int expectedFound = frame < 2 ? 2 : (frame < 4 ? 2 : 3);
+			assertEquals(expectedFound, tracker.getFound().size);
+			assertEquals(frame < 2 ? 2 : 3, full.getFound().size);
+
+			// every fiducial found while tracking should be identical to one found in the whole image
+			for (int i = 0; i < tracker.getFound().size; i++) {
+				Quadrilateral_F64 a = tracker.getFound().get(i).distortedPixels;
+				boolean matched = false;
+				for (int j = 0; j < full.getFound().size; j++) {
+					Quadrilateral_F64 b = full.getFound().get(j).distortedPixels;
+					if( a.a.distance(b.a) < 1e-3 && a.b.distance(b.b) < 1e-3 &&
+							a.c.distance(b.c) < 1e-3 && a.d.distance(b.d) < 1e-3 )
+						matched = true;
+				}
+				assertTrue(matched);
+			}
+		}
+
+		// after a reset the whole image should be searched
+		tracker.resetTracking();
+		GrayU8 image = new GrayU8(width,height);
+		ImageMiscOps.fill(image, 255);
+		tracker.process(image);
+		assertTrue(tracker.isFullSearch());
+		assertEquals(0, tracker.getFound().size);
+	}
+
+	/**
+	 * The concurrent square detector should produce identical results when tracking with lens distortion
+	 */
+	@Test
+	public void tracking_concurrent() {
+		CameraPinholeRadial intrinsic = new CameraPinholeRadial(500,500,0,320,240,width,height).fsetRadial(-0.1,-0.05);
+		GrayU8 pattern = createPattern(6*20, false);
+
+		Dummy single = new Dummy();
+		BoofConcurrency.USE_CONCURRENT = true;
+		Dummy multi;
+		try {
+			multi = new Dummy();
+		} finally {
+			BoofConcurrency.USE_CONCURRENT = false;
+		}
+
+		for( Dummy alg : new Dummy[]{single,multi}) {
+			alg.configure(new LensDistortionRadialTangential(intrinsic),width,height,false);
+			alg.setTracking(3, 0.5);
+		}
+		// the transforms aren't cached, so each worker should have been given its own
+		BinaryPolygonDetector_MT detectorMT = (BinaryPolygonDetector_MT)multi.getSquareDetector();
+		List<BinaryPolygonDetector> workers = detectorMT.getWorkers();
+		for (int i = 0; i < workers.size(); i++) {
+			assertTrue(workers.get(i).getDistToUndist() != null);
+			assertTrue(workers.get(i).getDistToUndist() != detectorMT.getDistToUndist());
+		}
+
+		for (int frame = 0; frame < 5; frame++) {
+			int offset = frame*3;
+			GrayU8 image = new GrayU8(width,height);
+			ImageMiscOps.fill(image, 255);
+			render(pattern, new Quadrilateral_F64(50+offset,50,  130+offset,60,  140+offset,150,  40+offset,140), image);
+			render(pattern, new Quadrilateral_F64(400,300+offset,  480,300+offset,  480,380+offset,  400,380+offset), image);
+
+			single.process(image);
+			multi.process(image);
+
+			assertEquals(single.isFullSearch(), multi.isFullSearch());
+			assertEquals(2, single.getFound().size);
+			assertEquals(single.getFound().size, multi.getFound().size);
+			for (int i = 0; i < single.getFound().size; i++) {
+				Quadrilateral_F64 a = single.getFound().get(i).distortedPixels;
+				Quadrilateral_F64 b = multi.getFound().get(i).distortedPixels;
+				assertEquals(0, a.a.distance(b.a), 1e-8);
+				assertEquals(0, a.b.distance(b.b), 1e-8);
+				assertEquals(0, a.c.distance(b.c), 1e-8);
+				assertEquals(0, a.d.distance(b.d), 1e-8);
+			}
+		}
+	}
+
+	/**
+	 * Regions for fiducials which are close to each other should be merged together
+	 */
+	@Test
+	public void tracking_mergeRegions() {
+		GrayU8 pattern = createPattern(6*20, false);
+		GrayU8 image = new GrayU8(width,height);
+		ImageMiscOps.fill(image, 255);
+		render(pattern, new Quadrilateral_F64(50,50,  130,50,  130,130,  50,130), image);
+		render(pattern, new Quadrilateral_F64(160,50,  240,50,  240,130,  160,130), image);
+		render(pattern, new Quadrilateral_F64(400,300,  480,300,  480,380,  400,380), image);
+
+		Dummy alg = new Dummy();
+		alg.setTracking(10, 0.3);
+		alg.process(image);
+		assertEquals(3, alg.getFound().size);
+		assertEquals(2, alg.getRegions().size);
+
+		alg.process(image);
+		assertFalse(alg.isFullSearch());
+		assertEquals(3, alg.getFound().size);
+	}
+
 	/**
 	 * Draws a distorted pattern onto the output
 	 */
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.scene;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.feature.TupleDesc_F64;
+import org.ddogleg.clustering.kmeans.AssignKMeans_F64;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFeatureToWordHistogram_F64_MT {
+
+	Random rand = new Random(234);
+
+	int maxThreads;
+
+	@Before
+	public void before() {
+		maxThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(3);
+	}
+
+	@After
+	public void after() {
+		BoofConcurrency.USE_CONCURRENT = false;
+		BoofConcurrency.setMaxThreads(maxThreads);
+	}
+
+	/**
+	 * Compare against the single threaded implementation
+	 */
+	@Test
+	public void compareToSingleThread() {
+		List<double[]> clusters = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			clusters.add(randomPoint());
+		}
+		AssignKMeans_F64 assign = new AssignKMeans_F64(clusters);
+
+		FeatureToWordHistogram_F64 expected = new FeatureToWordHistogram_F64(assign, true);
+		FeatureToWordHistogram_F64_MT alg = new FeatureToWordHistogram_F64_MT(assign);
+		assertEquals(20, alg.getTotalWords());
+
+		for (boolean concurrent : new boolean[]{false,true}) {
+			BoofConcurrency.USE_CONCURRENT = concurrent;
+
+			// process twice to make sure reset works
+			for (int trial = 0; trial < 2; trial++) {
+				expected.reset();
+				alg.reset();
+
+				int N = 500 + trial*37;
+				for (int i = 0; i < N; i++) {
+					TupleDesc_F64 desc = new TupleDesc_F64(4);
+					desc.value = randomPoint();
+					expected.addFeature(desc);
+					alg.addFeature(desc);
+					// features should be copied
+					desc.value[0] = 1000;
+				}
+
+				expected.process();
+				alg.process();
+
+				double[] histA = expected.getHistogram();
+				double[] histB = alg.getHistogram();
+				for (int i = 0; i < histA.length; i++) {
+					assertEquals(histA[i], histB[i], 0);
+				}
+			}
+		}
+	}
+
+	private double[] randomPoint() {
+		double p[] = new double[4];
+		for (int i = 0; i < p.length; i++) {
+			p[i] = rand.nextGaussian();
+		}
+		return p;
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.scene;
+
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestInvertedIndexScene {
+
+	Random rand = new Random(234);
+
+	int numWords = 30;
+
+	/**
+	 * Compares the scores against a brute force computation of TF-IDF cosine similarity
+	 */
+	@Test
+	public void search_bruteForce() {
+		List<HistogramScene> memory = createMemory(50);
+		InvertedIndexScene alg = InvertedIndexScene.create(memory, numWords);
+
+		assertEquals(50, alg.getNumImages());
+		assertEquals(numWords, alg.getNumWords());
+
+		double query[] = randomHistogram();
+
+		GrowQueue_I32 images = new GrowQueue_I32();
+		GrowQueue_F64 scores = new GrowQueue_F64();
+		alg.search(query, 10, images, scores);
+
+		assertEquals(10, images.size);
+		assertEquals(10, scores.size);
+
+		// compute the expected similarity of every image
+		double idf[] = new double[numWords];
+		for (int w = 0; w < numWords; w++) {
+			int count = 0;
+			for (HistogramScene h : memory) {
+				if( h.histogram[w] != 0 )
+					count++;
+			}
+			idf[w] = count == 0 ? 0 : Math.log(memory.size()/(double)count);
+		}
+
+		double expected[] = new double[memory.size()];
+		for (int i = 0; i < memory.size(); i++) {
+			expected[i] = cosine(query, memory.get(i).histogram, idf);
+		}
+
+		for (int i = 0; i < images.size; i++) {
+			assertEquals(expected[images.get(i)], scores.get(i), 1e-5);
+			if( i > 0 )
+				assertTrue(scores.get(i-1) >= scores.get(i));
+		}
+
+		// nothing which was skipped should be better than the worst returned
+		double worst = scores.get(images.size-1);
+		for (int i = 0; i < memory.size(); i++) {
+			if( !contains(images, i) )
+				assertTrue(expected[i] <= worst + 1e-5);
+		}
+	}
+
+	/**
+	 * An image in memory should be the best match to itself
+	 */
+	@Test
+	public void search_identical() {
+		List<HistogramScene> memory = createMemory(20);
+		InvertedIndexScene alg = InvertedIndexScene.create(memory, numWords);
+
+		GrowQueue_I32 images = new GrowQueue_I32();
+		GrowQueue_F64 scores = new GrowQueue_F64();
+		for (int i = 0; i < memory.size(); i++) {
+			alg.search(memory.get(i).histogram, 3, images, scores);
+			assertEquals(i, images.get(0));
+			assertEquals(1.0, scores.get(0), 1e-5);
+			assertEquals(memory.get(i).type, alg.getSceneType(images.get(0)));
+		}
+	}
+
+	/**
+	 * Images with no words in common are not returned
+	 */
+	@Test
+	public void search_noOverlap() {
+		List<HistogramScene> memory = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			HistogramScene h = new HistogramScene(numWords);
+			h.histogram[i] = 1;
+			memory.add(h);
+		}
+		InvertedIndexScene alg = InvertedIndexScene.create(memory, numWords);
+
+		double query[] = new double[numWords];
+		query[2] = 1;
+		query[10] = 1;
+
+		GrowQueue_I32 images = new GrowQueue_I32();
+		GrowQueue_F64 scores = new GrowQueue_F64();
+		alg.search(query, 3, images, scores);
+
+		assertEquals(1, images.size);
+		assertEquals(2, images.get(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void search_zeroNeighbors() {
+		List<HistogramScene> memory = createMemory(5);
+		InvertedIndexScene alg = InvertedIndexScene.create(memory, numWords);
+
+		alg.search(memory.get(0).histogram, 0, new GrowQueue_I32(), new GrowQueue_F64());
+	}
+
+	private List<HistogramScene> createMemory( int N ) {
+		List<HistogramScene> memory = new ArrayList<>();
+		for (int i = 0; i < N; i++) {
+			HistogramScene h = new HistogramScene(numWords);
+			h.setHistogram(randomHistogram());
+			h.type = rand.nextInt(4);
+			memory.add(h);
+		}
+		return memory;
+	}
+
+	private double[] randomHistogram() {
+		double hist[] = new double[numWords];
+		double total = 0;
+		for (int w = 0; w < numWords; w++) {
+			// make it sparse
+			if( rand.nextDouble() < 0.3 ) {
+				hist[w] = rand.nextDouble();
+				total += hist[w];
+			}
+		}
+		for (int w = 0; w < numWords && total > 0; w++) {
+			hist[w] /= total;
+		}
+		return hist;
+	}
+
+	private static double cosine( double a[] , double b[] , double idf[] ) {
+		double dot = 0, normA = 0, normB = 0;
+		for (int w = 0; w < a.length; w++) {
+			double va = a[w]*idf[w];
+			double vb = b[w]*idf[w];
+			dot += va*vb;
+			normA += va*va;
+			normB += vb*vb;
+		}
+		if( normA == 0 || normB == 0 )
+			return 0;
+		return dot/Math.sqrt(normA*normB);
+	}
+
+	private static boolean contains( GrowQueue_I32 list , int value ) {
+		for (int i = 0; i < list.size; i++) {
+			if( list.get(i) == value )
+				return true;
+		}
+		return false;
+	}
+}
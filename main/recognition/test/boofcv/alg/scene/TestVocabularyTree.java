@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.scene;
+
+import org.ddogleg.clustering.AssignCluster;
+import org.ddogleg.clustering.kmeans.AssignKMeans_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestVocabularyTree {
+
+	/**
+	 * Constructs a tree with one leaf at depth 1 and two at depth 2
+	 */
+	private VocabularyTree createTree() {
+		VocabularyTree.Builder builder = new VocabularyTree.Builder();
+		builder.addRoot();
+		assertEquals(0, builder.getNextDepth());
+		assertEquals(0, builder.split(kmeans(0, 10)));
+		assertEquals(1, builder.getNextDepth());
+		assertEquals(1, builder.split(kmeans(-1, 1)));
+		assertEquals(2, builder.leaf());
+		assertEquals(3, builder.leaf());
+		assertEquals(4, builder.leaf());
+		assertFalse(builder.hasNext());
+
+		return builder.build();
+	}
+
+	@Test
+	public void structure() {
+		VocabularyTree alg = createTree();
+
+		assertEquals(5, alg.getNumNodes());
+		assertEquals(3, alg.getNumberOfClusters());
+		assertEquals(2, alg.getDepth());
+
+		assertEquals(1, alg.getChildStart(0));
+		assertEquals(3, alg.getChildStart(1));
+		assertEquals(-1, alg.getChildStart(2));
+		assertEquals(-1, alg.getNodeWord(0));
+		assertEquals(0, alg.getNodeWord(2));
+		assertEquals(1, alg.getNodeWord(3));
+		assertEquals(2, alg.getNodeWord(4));
+		assertNull(alg.getNodeAssign(3));
+	}
+
+	@Test
+	public void assign_hard() {
+		VocabularyTree alg = createTree();
+
+		assertEquals(0, alg.assign(new double[]{9}));
+		assertEquals(1, alg.assign(new double[]{-1.2}));
+		assertEquals(2, alg.assign(new double[]{0.8}));
+		assertEquals(4, alg.findLeaf(new double[]{0.8}));
+	}
+
+	@Test
+	public void assign_soft() {
+		VocabularyTree alg = createTree();
+		double fit[] = new double[3];
+
+		// leaves are at depth 2 so the weight is split between them
+		alg.assign(new double[]{0.8}, fit);
+		assertEquals(0, fit[0], 1e-8);
+		assertEquals(1.0, fit[1]+fit[2], 1e-8);
+		assertTrue(fit[2] > fit[1]);
+
+		// the other child of the root isn't a leaf, so all the weight is in one word
+		alg.assign(new double[]{9}, fit);
+		assertEquals(1, fit[0], 1e-8);
+		assertEquals(0, fit[1], 1e-8);
+		assertEquals(0, fit[2], 1e-8);
+	}
+
+	@Test
+	public void copy() {
+		VocabularyTree alg = createTree();
+		VocabularyTree found = alg.copy();
+
+		assertEquals(alg.getNumNodes(), found.getNumNodes());
+		assertEquals(alg.getNumberOfClusters(), found.getNumberOfClusters());
+		assertTrue(alg.getNodeAssign(0) != found.getNodeAssign(0));
+
+		for (int i = -20; i < 20; i++) {
+			double p[] = new double[]{i*0.7};
+			assertEquals(alg.assign(p), found.assign(p));
+		}
+	}
+
+	private static AssignCluster<double[]> kmeans( double ...centers ) {
+		List<double[]> clusters = new ArrayList<>();
+		for (double c : centers) {
+			clusters.add(new double[]{c});
+		}
+		return new AssignKMeans_F64(clusters);
+	}
+}
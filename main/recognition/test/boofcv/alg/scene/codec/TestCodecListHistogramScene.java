@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.scene.codec;
+
+import boofcv.alg.scene.HistogramScene;
+import boofcv.alg.scene.InvertedIndexScene;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCodecListHistogramScene {
+
+	Random rand = new Random(234);
+
+	int numWords = 20;
+
+	@Test
+	public void saveThenLoad() throws IOException {
+		saveThenLoad(30);
+	}
+
+	/**
+	 * Force the postings to be split across several segments, including a partially filled last segment
+	 */
+	@Test
+	public void saveThenLoad_segments() throws IOException {
+		int original = CodecListHistogramScene.SEGMENT_BITS;
+		try {
+			for( int bits : new int[]{0,3,5} ) {
+				CodecListHistogramScene.SEGMENT_BITS = bits;
+				saveThenLoad(30);
+			}
+		} finally {
+			CodecListHistogramScene.SEGMENT_BITS = original;
+		}
+	}
+
+	@Test
+	public void saveThenLoad_empty() throws IOException {
+		saveThenLoad(0);
+	}
+
+	private void saveThenLoad( int numImages ) throws IOException {
+		List<HistogramScene> memory = new ArrayList<>();
+		for (int i = 0; i < numImages; i++) {
+			HistogramScene h = new HistogramScene(numWords);
+			for (int w = 0; w < numWords; w++) {
+				if( rand.nextBoolean() )
+					h.histogram[w] = rand.nextDouble();
+			}
+			h.type = rand.nextInt(5);
+			memory.add(h);
+		}
+
+		InvertedIndexScene expected = InvertedIndexScene.create(memory, numWords);
+
+		File file = File.createTempFile("inverted", ".bin");
+		try {
+			CodecListHistogramScene.save(memory, numWords, file);
+			InvertedIndexScene found = CodecListHistogramScene.load(file);
+
+			assertEquals(expected.getNumImages(), found.getNumImages());
+			assertEquals(expected.getNumWords(), found.getNumWords());
+			assertEquals(expected.getNumPostings(), found.getNumPostings());
+			assertEquals(CodecListHistogramScene.SEGMENT_BITS, found.getSegmentBits());
+
+			for (int i = 0; i < expected.getNumImages(); i++) {
+				assertEquals(expected.getSceneType(i), found.getSceneType(i));
+			}
+			for (int i = 0; i < numWords; i++) {
+				assertEquals(expected.getIdf().get(i), found.getIdf().get(i), 0);
+			}
+			for (int i = 0; i <= numWords; i++) {
+				assertEquals(expected.getPostingStart().get(i), found.getPostingStart().get(i));
+			}
+			for (int i = 0; i < expected.getNumPostings(); i++) {
+				assertEquals(expected.getPostingImage(i), found.getPostingImage(i));
+				assertEquals(expected.getPostingWeight(i), found.getPostingWeight(i), 0);
+			}
+
+			// search results should be identical
+			for (int i = 0; i < numImages; i += 7) {
+				GrowQueue_I32 imagesA = new GrowQueue_I32(), imagesB = new GrowQueue_I32();
+				GrowQueue_F64 scoresA = new GrowQueue_F64(), scoresB = new GrowQueue_F64();
+				expected.search(memory.get(i).histogram, 5, imagesA, scoresA);
+				found.search(memory.get(i).histogram, 5, imagesB, scoresB);
+				assertEquals(imagesA.size, imagesB.size);
+				for (int j = 0; j < imagesA.size; j++) {
+					assertEquals(imagesA.get(j), imagesB.get(j));
+					assertEquals(scoresA.get(j), scoresB.get(j), 0);
+				}
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void load_notIndex() throws IOException {
+		File file = File.createTempFile("inverted", ".bin");
+		try {
+			java.io.FileOutputStream out = new java.io.FileOutputStream(file);
+			out.write(new byte[40]);
+			out.close();
+			CodecListHistogramScene.load(file);
+		} finally {
+			file.delete();
+		}
+	}
+}
@@ -18,7 +18,9 @@
 
 package boofcv.deepboof;
 
+import boofcv.abst.scene.ImageClassifier;
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.Planar;
 import deepboof.Function;
@@ -34,6 +36,7 @@ import java.util.List;
 import java.util.Random;
 
 import static deepboof.misc.TensorOps.WI;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -64,6 +67,65 @@ public abstract class CheckBaseImageClassifier {
 		assertTrue(best>=0 && best < numCategories);
 	}
 
+	/**
+	 * Classifying a list of images should produce the same results as classifying them one at a time
+	 */
+	@Test
+	public void classifyList() {
+		List<Planar<GrayF32>> images = new ArrayList<>();
+		for (int i = 0; i < 7; i++) {
+			Planar<GrayF32> input = createImage();
+			GImageMiscOps.fillUniform(input,rand,0,255);
+			images.add(input);
+		}
+
+		BaseImageClassifier classifier = createClassifier();
+		createDummyNetwork(classifier, images.get(0).width, images.get(0).height);
+
+		int expectedBest[] = new int[images.size()];
+		List<List<ImageClassifier.Score>> expectedAll = new ArrayList<>();
+		for (int i = 0; i < images.size(); i++) {
+			classifier.classify(images.get(i));
+			expectedBest[i] = classifier.getBestResult();
+			expectedAll.add(copy(classifier.getAllResults()));
+		}
+
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+			for (boolean concurrent : new boolean[]{false, true}) {
+				BoofConcurrency.USE_CONCURRENT = concurrent;
+				for (int batchSize : new int[]{1, 3, 10}) {
+					classifier.setBatchSize(batchSize);
+					classifier.classify(images);
+
+					for (int i = 0; i < images.size(); i++) {
+						assertEquals(expectedBest[i], classifier.getBestResult(i));
+						List<ImageClassifier.Score> found = classifier.getAllResults(i);
+						assertEquals(expectedAll.get(i).size(), found.size());
+						for (int j = 0; j < found.size(); j++) {
+							assertEquals(expectedAll.get(i).get(j).category, found.get(j).category);
+							assertEquals(expectedAll.get(i).get(j).score, found.get(j).score, 1e-4);
+						}
+					}
+				}
+			}
+		} finally {
+			BoofConcurrency.USE_CONCURRENT = false;
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	private static List<ImageClassifier.Score> copy( List<ImageClassifier.Score> scores ) {
+		List<ImageClassifier.Score> ret = new ArrayList<>();
+		for( ImageClassifier.Score s : scores ) {
+			ImageClassifier.Score c = new ImageClassifier.Score();
+			c.set(s.score, s.category);
+			ret.add(c);
+		}
+		return ret;
+	}
+
 	public abstract Planar<GrayF32> createImage();
 
 	public abstract BaseImageClassifier createClassifier();
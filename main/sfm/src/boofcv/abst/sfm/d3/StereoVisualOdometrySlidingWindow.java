@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.abst.sfm.d3;
+
+import boofcv.abst.sfm.AccessPointTracks3D;
+import boofcv.alg.distort.LensDistortionOps;
+import boofcv.alg.sfm.d3.VisOdomSlidingWindowBundle;
+import boofcv.struct.calib.StereoParameters;
+import boofcv.struct.distort.Point2Transform2_F64;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Wrapper around {@link StereoVisualOdometry} which reduces drift by refining the most recent key frames with
+ * {@link VisOdomSlidingWindowBundle}.  Every N frames a key frame is created from the inlier tracks of the
+ * wrapped algorithm, using the left camera's observations.  The pose of the current frame is found by
+ * applying the motion estimated by visual odometry since the last key frame to that key frame's refined pose.
+ * </p>
+ *
+ * <p>
+ * The wrapped algorithm must implement {@link AccessPointTracks3D} so that its tracks can be accessed.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class StereoVisualOdometrySlidingWindow<T extends ImageBase>
+		implements StereoVisualOdometry<T>, AccessPointTracks3D {
+
+	// a key frame needs to have at least this many observations to be added
+	public static final int MIN_OBSERVATIONS = 10;
+
+	StereoVisualOdometry<T> alg;
+	AccessPointTracks3D access;
+
+	VisOdomSlidingWindowBundle window;
+
+	// number of frames between key frames
+	int keyFramePeriod;
+	// number of frames since the last key frame
+	int framesSinceKey;
+
+	// converts pixels in the left camera into normalized image coordinates
+	Point2Transform2_F64 pixelToNorm;
+
+	// pose of the last key frame as estimated by visual odometry
+	Se3_F64 keyToWorldVO = new Se3_F64();
+	Se3_F64 worldToKeyVO = new Se3_F64();
+	// pose of the last key frame after refinement
+	Se3_F64 keyToWorld = new Se3_F64();
+	// pose of the current frame after refinement
+	Se3_F64 cameraToWorld = new Se3_F64();
+
+	Se3_F64 currToKey = new Se3_F64();
+	Point2D_F64 norm = new Point2D_F64();
+
+	/**
+	 * Configures the wrapper
+	 *
+	 * @param alg Visual odometry algorithm which is being wrapped.  Must implement {@link AccessPointTracks3D}
+	 * @param window Sliding window bundle adjustment
+	 * @param keyFramePeriod Number of frames between each key frame.  Try 5
+	 */
+	public StereoVisualOdometrySlidingWindow(StereoVisualOdometry<T> alg,
+											 VisOdomSlidingWindowBundle window,
+											 int keyFramePeriod ) {
+		if( !(alg instanceof AccessPointTracks3D) )
+			throw new IllegalArgumentException("The visual odometry algorithm must implement AccessPointTracks3D");
+		if( keyFramePeriod <= 0 )
+			throw new IllegalArgumentException("keyFramePeriod must be greater than zero");
+
+		this.alg = alg;
+		this.access = (AccessPointTracks3D)alg;
+		this.window = window;
+		this.keyFramePeriod = keyFramePeriod;
+	}
+
+	@Override
+	public void setCalibration(StereoParameters parameters) {
+		alg.setCalibration(parameters);
+		pixelToNorm = LensDistortionOps.transformPoint(parameters.left).undistort_F64(true,false);
+	}
+
+	@Override
+	public boolean process(T leftImage, T rightImage) {
+		boolean success = alg.process(leftImage, rightImage);
+
+		if( alg.isFault() ) {
+			resetWindow();
+		}
+
+		if( !success )
+			return false;
+
+		Se3_F64 currToWorldVO = alg.getCameraToWorld();
+		currToWorldVO.concat(worldToKeyVO, currToKey);
+		currToKey.concat(keyToWorld, cameraToWorld);
+
+		if( framesSinceKey++ % keyFramePeriod == 0 ) {
+			addKeyFrame(currToWorldVO);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Creates a new key frame from the inlier tracks and refines the window
+	 */
+	private void addKeyFrame( Se3_F64 currToWorldVO ) {
+		List<Point2D_F64> pixels = access.getAllTracks();
+
+		int total = 0;
+		for (int i = 0; i < pixels.size(); i++) {
+			if( access.isInlier(i) )
+				total++;
+		}
+		if( total < MIN_OBSERVATIONS ) {
+			// try again next frame
+			framesSinceKey = 0;
+			return;
+		}
+
+		VisOdomSlidingWindowBundle.KeyFrame kf = window.addKeyFrame(cameraToWorld);
+		for (int i = 0; i < pixels.size(); i++) {
+			if( !access.isInlier(i) )
+				continue;
+			Point2D_F64 p = pixels.get(i);
+			pixelToNorm.compute(p.x, p.y, norm);
+			kf.addObservation(access.getTrackId(i), norm.x, norm.y);
+		}
+
+		window.optimize();
+
+		keyToWorld.set(kf.cameraToWorld);
+		keyToWorldVO.set(currToWorldVO);
+		keyToWorldVO.invert(worldToKeyVO);
+		cameraToWorld.set(keyToWorld);
+		framesSinceKey = 1;
+	}
+
+	private void resetWindow() {
+		window.reset();
+		keyToWorld.reset();
+		keyToWorldVO.reset();
+		worldToKeyVO.reset();
+		cameraToWorld.reset();
+		framesSinceKey = 0;
+	}
+
+	@Override
+	public ImageType<T> getImageType() {
+		return alg.getImageType();
+	}
+
+	@Override
+	public void reset() {
+		alg.reset();
+		resetWindow();
+	}
+
+	@Override
+	public boolean isFault() {
+		return alg.isFault();
+	}
+
+	@Override
+	public Se3_F64 getCameraToWorld() {
+		return cameraToWorld;
+	}
+
+	@Override
+	public Point3D_F64 getTrackLocation(int index) {
+		return access.getTrackLocation(index);
+	}
+
+	@Override
+	public long getTrackId(int index) {
+		return access.getTrackId(index);
+	}
+
+	@Override
+	public List<Point2D_F64> getAllTracks() {
+		return access.getAllTracks();
+	}
+
+	@Override
+	public boolean isInlier(int index) {
+		return access.isInlier(index);
+	}
+
+	@Override
+	public boolean isNew(int index) {
+		return access.isNew(index);
+	}
+
+	public VisOdomSlidingWindowBundle getWindow() {
+		return window;
+	}
+}
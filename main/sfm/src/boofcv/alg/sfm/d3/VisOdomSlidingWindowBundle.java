@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.sfm.d3;
+
+import boofcv.abst.geo.BundleAdjustmentCalibrated;
+import boofcv.abst.geo.TriangulateTwoViewsCalibrated;
+import boofcv.alg.geo.bundle.CalibratedPoseAndPoint;
+import boofcv.alg.geo.bundle.ViewPointObservations;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ddogleg.struct.FastQueue;
+
+import java.util.*;
+
+/**
+ * <p>
+ * Reduces the drift in visual odometry by refining the poses of the most recent key frames and the location of the
+ * features they observe using bundle adjustment.  Only a sliding window of key frames is optimized, which keeps
+ * the cost of each update bounded no matter how long the sequence is.  When a new key frame is added and the
+ * window is full the oldest key frame is discarded along with any features which are no longer observed.
+ * </p>
+ *
+ * <p>
+ * Features are identified by their track ID and observed in normalized image coordinates.  A feature's location is
+ * triangulated the first time it has been observed in two key frames, using the oldest and newest key frame it was
+ * observed in.  To remove the scale ambiguity, the poses of the two oldest key frames are held constant.
+ * Features with a large reprojection error after optimization are assumed to be incorrectly tracked and
+ * are not used again.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class VisOdomSlidingWindowBundle {
+
+	// refines the pose and point locations
+	private BundleAdjustmentCalibrated bundle;
+	// estimates the initial location of a feature
+	private TriangulateTwoViewsCalibrated triangulate;
+
+	// maximum number of key frames in the window
+	private int windowSize;
+	// number of the oldest key frames in the window whose pose is not optimized
+	private int numFixed = 2;
+	// features with a reprojection error larger than this are discarded.  normalized image coordinates
+	private double maxReprojectionError;
+
+	// key frames in the window, ordered from oldest to newest
+	private List<KeyFrame> keyFrames = new ArrayList<>();
+	private Deque<KeyFrame> unusedFrames = new ArrayDeque<>();
+	// features observed by key frames in the window
+	private Map<Long,Feature> features = new HashMap<>();
+	private Deque<Feature> unusedFeatures = new ArrayDeque<>();
+
+	// storage for the optimization
+	private CalibratedPoseAndPoint model = new CalibratedPoseAndPoint();
+	private List<ViewPointObservations> observations = new ArrayList<>();
+	private List<Feature> active = new ArrayList<>();
+	private Se3_F64 aToB = new Se3_F64();
+	private Point3D_F64 pointA = new Point3D_F64();
+	private Point3D_F64 pointB = new Point3D_F64();
+
+	/**
+	 * Configures the algorithm
+	 *
+	 * @param bundle Bundle adjustment algorithm.  Should take advantage of sparsity, e.g.
+	 *               {@link boofcv.abst.geo.bundle.BundleAdjustmentCalibratedSchur}
+	 * @param triangulate Used to estimate the initial location of features
+	 * @param windowSize Maximum number of key frames in the window.  Try 10
+	 * @param maxReprojectionError Features with a larger reprojection error after optimization are discarded.
+	 *                             Normalized image coordinates.
+	 */
+	public VisOdomSlidingWindowBundle(BundleAdjustmentCalibrated bundle,
+									  TriangulateTwoViewsCalibrated triangulate,
+									  int windowSize, double maxReprojectionError ) {
+		if( windowSize < 3 )
+			throw new IllegalArgumentException("The window must contain at least 3 key frames");
+		this.bundle = bundle;
+		this.triangulate = triangulate;
+		this.windowSize = windowSize;
+		this.maxReprojectionError = maxReprojectionError;
+	}
+
+	/**
+	 * Discards all key frames and features
+	 */
+	public void reset() {
+		while( !keyFrames.isEmpty() ) {
+			removeOldestKeyFrame();
+		}
+	}
+
+	/**
+	 * Adds a new key frame to the window.  If the window is full the oldest key frame is removed.  After it's been
+	 * added its observations need to be specified and then {@link #optimize()} called.
+	 *
+	 * @param cameraToWorld Initial estimate of the key frame's pose
+	 * @return The new key frame
+	 */
+	public KeyFrame addKeyFrame( Se3_F64 cameraToWorld ) {
+		if( keyFrames.size() >= windowSize )
+			removeOldestKeyFrame();
+
+		KeyFrame kf = unusedFrames.isEmpty() ? new KeyFrame() : unusedFrames.pop();
+		kf.cameraToWorld.set(cameraToWorld);
+		kf.observations.reset();
+		kf.owner = this;
+		keyFrames.add(kf);
+
+		return kf;
+	}
+
+	private void removeOldestKeyFrame() {
+		KeyFrame kf = keyFrames.remove(0);
+
+		for (int i = 0; i < kf.observations.size; i++) {
+			Observation o = kf.observations.get(i);
+			Feature f = o.feature;
+
+			// the oldest key frame must be the first observation
+			f.observations.remove(0);
+			if( f.observations.isEmpty() ) {
+				features.remove(f.id);
+				unusedFeatures.push(f);
+			}
+		}
+		kf.owner = null;
+		unusedFrames.push(kf);
+	}
+
+	/**
+	 * Triangulates new features and then refines the pose of all the key frames which aren't fixed
+	 * and the location of all features which have been observed at least twice.
+	 */
+	public void optimize() {
+		if( keyFrames.size() < 2 )
+			return;
+
+		// find the features which can be optimized
+		active.clear();
+		for( Feature f : features.values() ) {
+			if( f.rejected || f.observations.size() < 2 )
+				continue;
+			if( !f.triangulated && !triangulate(f) ) {
+				continue;
+			}
+			active.add(f);
+		}
+		if( active.isEmpty() )
+			return;
+
+		// create the model
+		int numViews = keyFrames.size();
+		model.configure(numViews, active.size());
+		for (int i = 0; i < numViews; i++) {
+			KeyFrame kf = keyFrames.get(i);
+			kf.index = i;
+			kf.cameraToWorld.invert(model.getWorldToCamera(i));
+			model.setViewKnown(i, i < numFixed);
+		}
+
+		while( observations.size() < numViews )
+			observations.add(new ViewPointObservations());
+		for (int i = 0; i < numViews; i++) {
+			observations.get(i).getPoints().reset();
+		}
+		for (int i = 0; i < active.size(); i++) {
+			Feature f = active.get(i);
+			model.getPoint(i).set(f.location);
+			for (int j = 0; j < f.observations.size(); j++) {
+				Observation o = f.observations.get(j);
+				observations.get(o.frame.index).getPoints().grow().set(i, o.norm);
+			}
+		}
+
+		if( !bundle.process(model, observations.subList(0, numViews)) )
+			return;
+
+		// save the results
+		for (int i = numFixed; i < numViews; i++) {
+			model.getWorldToCamera(i).invert(keyFrames.get(i).cameraToWorld);
+		}
+		for (int i = 0; i < active.size(); i++) {
+			Feature f = active.get(i);
+			f.location.set(model.getPoint(i));
+			f.rejected = isReprojectionErrorLarge(f);
+		}
+	}
+
+	/**
+	 * Triangulates the feature from the oldest and newest key frame which observed it
+	 */
+	private boolean triangulate( Feature f ) {
+		Observation a = f.observations.get(0);
+		Observation b = f.observations.get(f.observations.size()-1);
+
+		a.frame.cameraToWorld.concat(b.frame.cameraToWorld.invert(null), aToB);
+
+		if( !triangulate.triangulate(a.norm, b.norm, aToB, pointA) )
+			return false;
+
+		// must be in front of both cameras
+		SePointOps_F64.transform(aToB, pointA, pointB);
+		if( pointA.z <= 0 || pointB.z <= 0 )
+			return false;
+
+		SePointOps_F64.transform(a.frame.cameraToWorld, pointA, f.location);
+		f.triangulated = true;
+		return true;
+	}
+
+	private boolean isReprojectionErrorLarge( Feature f ) {
+		for (int i = 0; i < f.observations.size(); i++) {
+			Observation o = f.observations.get(i);
+			SePointOps_F64.transform(model.getWorldToCamera(o.frame.index), f.location, pointA);
+			if( pointA.z <= 0 )
+				return true;
+			double dx = pointA.x/pointA.z - o.norm.x;
+			double dy = pointA.y/pointA.z - o.norm.y;
+			if( Math.sqrt(dx*dx + dy*dy) > maxReprojectionError )
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Key frames in the window, ordered from oldest to newest
+	 */
+	public List<KeyFrame> getKeyFrames() {
+		return keyFrames;
+	}
+
+	/**
+	 * Number of features which are being tracked in the window
+	 */
+	public int getTotalFeatures() {
+		return features.size();
+	}
+
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+	/**
+	 * A camera view which is optimized by bundle adjustment
+	 */
+	public static class KeyFrame {
+		/**
+		 * Pose of the key frame.  Updated when optimized.
+		 */
+		public Se3_F64 cameraToWorld = new Se3_F64();
+
+		FastQueue<Observation> observations = new FastQueue<>(Observation.class, true);
+
+		// index of the view in the model
+		int index;
+
+		VisOdomSlidingWindowBundle owner;
+
+		/**
+		 * Specifies where a feature was observed in this key frame
+		 *
+		 * @param id The feature's unique ID, e.g. its track ID
+		 * @param x Observation's x-coordinate in normalized image coordinates
+		 * @param y Observation's y-coordinate in normalized image coordinates
+		 */
+		public void addObservation( long id , double x , double y ) {
+			Feature f = owner.features.get(id);
+			if( f == null ) {
+				f = owner.unusedFeatures.isEmpty() ? new Feature() : owner.unusedFeatures.pop();
+				f.reset(id);
+				owner.features.put(id, f);
+			}
+
+			Observation o = observations.grow();
+			o.feature = f;
+			o.frame = this;
+			o.norm.set(x, y);
+			f.observations.add(o);
+		}
+
+		public int getTotalObservations() {
+			return observations.size;
+		}
+	}
+
+	public static class Feature {
+		long id;
+		// location in world coordinates
+		Point3D_F64 location = new Point3D_F64();
+		// if the location has been estimated
+		boolean triangulated;
+		// if true it was incorrectly tracked and should be ignored
+		boolean rejected;
+		// observations in each key frame, oldest first
+		List<Observation> observations = new ArrayList<>();
+
+		void reset( long id ) {
+			this.id = id;
+			triangulated = false;
+			rejected = false;
+			observations.clear();
+		}
+	}
+
+	public static class Observation {
+		Feature feature;
+		KeyFrame frame;
+		Point2D_F64 norm = new Point2D_F64();
+	}
+}
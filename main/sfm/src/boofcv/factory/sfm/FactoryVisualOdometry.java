@@ -27,10 +27,12 @@ import boofcv.abst.feature.detdesc.DetectDescribeMulti;
 import boofcv.abst.feature.disparity.StereoDisparitySparse;
 import boofcv.abst.feature.tracker.PointTracker;
 import boofcv.abst.feature.tracker.PointTrackerTwoPass;
+import boofcv.abst.geo.BundleAdjustmentCalibrated;
 import boofcv.abst.geo.Estimate1ofPnP;
 import boofcv.abst.geo.EstimateNofPnP;
 import boofcv.abst.geo.RefinePnP;
 import boofcv.abst.geo.TriangulateTwoViewsCalibrated;
+import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedSchur;
 import boofcv.abst.sfm.DepthSparse3D_to_PixelTo3D;
 import boofcv.abst.sfm.ImagePixelTo3D;
 import boofcv.abst.sfm.d2.ImageMotion2D;
@@ -404,6 +406,29 @@ public class FactoryVisualOdometry {
 		return new StereoVisualOdometryScaleInput<>(vo, scaleFactor);
 	}
 
+	/**
+	 * Wraps around a {@link StereoVisualOdometry} instance and reduces its drift by periodically refining the most
+	 * recent key frames using sparse bundle adjustment.  See {@link StereoVisualOdometrySlidingWindow}.
+	 *
+	 * @param vo Visual odometry algorithm which is being wrapped.  Must implement
+	 *           {@link boofcv.abst.sfm.AccessPointTracks3D}.
+	 * @param windowSize Number of key frames which are optimized.  Try 10
+	 * @param keyFramePeriod Number of frames between key frames.  Try 5
+	 * @param <T> Image type
+	 * @return StereoVisualOdometry
+	 */
+	public static <T extends ImageBase> StereoVisualOdometry<T> slidingWindowBundle( StereoVisualOdometry<T> vo ,
+																				   int windowSize ,
+																				   int keyFramePeriod )
+	{
+		BundleAdjustmentCalibrated bundle = new BundleAdjustmentCalibratedSchur(1e-8, 30);
+		TriangulateTwoViewsCalibrated triangulate = FactoryMultiView.triangulateTwoGeometric();
+
+		VisOdomSlidingWindowBundle window = new VisOdomSlidingWindowBundle(bundle, triangulate, windowSize, 0.02);
+
+		return new StereoVisualOdometrySlidingWindow<>(vo, window, keyFramePeriod);
+	}
+
 	/**
 	 * Wraps around a {@link MonocularPlaneVisualOdometry} instance and will rescale the input images and adjust the cameras
 	 * intrinsic parameters automatically.  Rescaling input images is often an easy way to improve runtime performance
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2011-2016, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.sfm.d3;
+
+import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedSchur;
+import boofcv.factory.geo.FactoryMultiView;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.struct.EulerType;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestVisOdomSlidingWindowBundle {
+
+	Random rand = new Random(234);
+
+	List<Point3D_F64> cloud = new ArrayList<>();
+
+	public TestVisOdomSlidingWindowBundle() {
+		for (int i = 0; i < 200; i++) {
+			double x = rand.nextGaussian()*1.5;
+			double y = rand.nextGaussian()*1.5;
+			double z = 4 + rand.nextDouble()*4;
+			cloud.add(new Point3D_F64(x,y,z));
+		}
+	}
+
+	/**
+	 * Drift is added to the initial pose of each key frame.  After optimization the error should be much smaller
+	 */
+	@Test
+	public void reduceDrift() {
+		VisOdomSlidingWindowBundle alg = createAlg(6);
+
+		double errorBefore = 0;
+		for (int i = 0; i < 6; i++) {
+			Se3_F64 truth = truthPose(i);
+			Se3_F64 initial = truth.copy();
+			if( i >= 2 ) {
+				initial.T.x += 0.01*i;
+				initial.T.z -= 0.015*i;
+			}
+			errorBefore = initial.T.distance(truth.T);
+
+			VisOdomSlidingWindowBundle.KeyFrame kf = alg.addKeyFrame(initial);
+			addObservations(kf, truth);
+			alg.optimize();
+		}
+
+		Se3_F64 found = alg.getKeyFrames().get(5).cameraToWorld;
+		double errorAfter = found.T.distance(truthPose(5).T);
+
+		assertTrue(errorBefore > 0.05);
+		assertTrue(errorAfter < errorBefore*0.01);
+	}
+
+	/**
+	 * When the window is full the oldest key frame should be removed along with features which are no longer seen
+	 */
+	@Test
+	public void slideWindow() {
+		VisOdomSlidingWindowBundle alg = createAlg(3);
+
+		// each key frame observes a different set of features
+		for (int i = 0; i < 5; i++) {
+			VisOdomSlidingWindowBundle.KeyFrame kf = alg.addKeyFrame(truthPose(i));
+			for (int j = 0; j < 10; j++) {
+				kf.addObservation(i*10+j, 0.1*j, 0.2);
+			}
+		}
+
+		assertEquals(3, alg.getKeyFrames().size());
+		assertEquals(30, alg.getTotalFeatures());
+
+		// first observed in the 3rd key frame, which should now be the oldest
+		for (int i = 0; i < 3; i++) {
+			assertEquals(truthPose(i+2).T.x, alg.getKeyFrames().get(i).cameraToWorld.T.x, 1e-8);
+		}
+
+		alg.reset();
+		assertEquals(0, alg.getKeyFrames().size());
+		assertEquals(0, alg.getTotalFeatures());
+	}
+
+	/**
+	 * Features which are incorrectly tracked should be discarded and not corrupt the solution
+	 */
+	@Test
+	public void rejectOutliers() {
+		VisOdomSlidingWindowBundle alg = createAlg(5);
+
+		for (int i = 0; i < 5; i++) {
+			Se3_F64 truth = truthPose(i);
+			VisOdomSlidingWindowBundle.KeyFrame kf = alg.addKeyFrame(truth);
+			addObservations(kf, truth);
+			// a feature which jumps around
+			kf.addObservation(1000, rand.nextGaussian()*0.3, rand.nextGaussian()*0.3);
+			alg.optimize();
+		}
+
+		Se3_F64 found = alg.getKeyFrames().get(4).cameraToWorld;
+		assertEquals(0, found.T.distance(truthPose(4).T), 0.01);
+	}
+
+	private VisOdomSlidingWindowBundle createAlg( int windowSize ) {
+		return new VisOdomSlidingWindowBundle(new BundleAdjustmentCalibratedSchur(1e-10, 50),
+				FactoryMultiView.triangulateTwoGeometric(), windowSize, 0.02);
+	}
+
+	private Se3_F64 truthPose( int i ) {
+		Se3_F64 cameraToWorld = new Se3_F64();
+		ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ, 0, 0.02*i, 0, cameraToWorld.R);
+		cameraToWorld.T.set(0.15*i, 0.01*i, 0.1*i);
+		return cameraToWorld;
+	}
+
+	private void addObservations( VisOdomSlidingWindowBundle.KeyFrame kf , Se3_F64 cameraToWorld ) {
+		Se3_F64 worldToCamera = cameraToWorld.invert(null);
+		Point3D_F64 p = new Point3D_F64();
+
+		for (int i = 0; i < cloud.size(); i++) {
+			SePointOps_F64.transform(worldToCamera, cloud.get(i), p);
+			if( p.z <= 0 )
+				continue;
+			kf.addObservation(i, p.x/p.z, p.y/p.z);
+		}
+	}
+}